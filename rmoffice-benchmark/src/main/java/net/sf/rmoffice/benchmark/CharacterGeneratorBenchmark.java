@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.benchmark;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.generator.BatchCharacterGenerator;
+import net.sf.rmoffice.generator.GeneratorSpec;
+import net.sf.rmoffice.meta.MetaData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generation of a character with all level ups, like the character generator of the UI.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class CharacterGeneratorBenchmark {
+	@Param({"1", "10", "20"})
+	public long level;
+
+	private BatchCharacterGenerator generator;
+	private GeneratorSpec spec;
+
+	@Setup
+	public void setup() throws IOException {
+		MetaData data = Fixtures.loadMetaData();
+		generator = new BatchCharacterGenerator(data);
+		spec = Fixtures.createSpec(data, level);
+	}
+
+	@Benchmark
+	public RMSheet generate() {
+		return generator.generate(spec, new SplittableRandom(Fixtures.SEED));
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.rmoffice.core.ExportImport;
+import net.sf.rmoffice.core.RMSheet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Export and import of a high level sheet in memory, by file format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class ExportImportBenchmark {
+	/** the file name, only the extension selects the format */
+	@Param({"sheet.rmo", "sheet.json", "sheet.rmob"})
+	public String fileName;
+
+	private RMSheet sheet;
+	private byte[] exported;
+
+	@Setup
+	public void setup() throws IOException {
+		sheet = Fixtures.createHighLevelSheet(Fixtures.loadMetaData());
+		exported = export();
+	}
+
+	private byte[] export() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+		ExportImport.exportFile(fileName, sheet, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] exportSheet() throws IOException {
+		return export();
+	}
+
+	@Benchmark
+	public RMSheet importSheet() throws IOException {
+		return ExportImport.importFile(fileName, new ByteArrayInputStream(exported));
+	}
+
+	@Benchmark
+	public RMSheet roundTrip() throws IOException {
+		return ExportImport.importFile(fileName, new ByteArrayInputStream(export()));
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.generator.BatchCharacterGenerator;
+import net.sf.rmoffice.generator.GeneratorSpec;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.MetaDataLoader;
+import net.sf.rmoffice.meta.Profession;
+import net.sf.rmoffice.meta.enums.SpellUserType;
+
+/**
+ * The shared fixtures of the benchmarks. All sheets are generated with a fixed seed,
+ * so the numbers of different runs are comparable.
+ */
+public final class Fixtures {
+	public static final long SEED = 42L;
+	/** the level of the high level sheet */
+	public static final long HIGH_LEVEL = 20;
+
+	private Fixtures() {
+	}
+
+	/**
+	 *
+	 * @return newly loaded meta data, not {@code null}
+	 * @throws IOException if the meta data could not be loaded
+	 */
+	public static MetaData loadMetaData() throws IOException {
+		return new MetaDataLoader().load();
+	}
+
+	/**
+	 * The first race with the first spell using profession, so the spell lists are part
+	 * of the sheet.
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @param level the level of the generated characters
+	 * @return the generator spec of one character, not {@code null}
+	 */
+	public static GeneratorSpec createSpec(MetaData data, long level) {
+		Profession profession = data.getProfessions().get(0);
+		for (Profession prof : data.getProfessions()) {
+			if (! SpellUserType.NONE.equals(prof.getSpellUserType())) {
+				profession = prof;
+				break;
+			}
+		}
+		return new GeneratorSpec(data.getRaces().get(0), null, profession, level, 1, SEED);
+	}
+
+	/**
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @return a generated sheet of level {@link #HIGH_LEVEL}, not {@code null}
+	 */
+	public static RMSheet createHighLevelSheet(MetaData data) {
+		return new BatchCharacterGenerator(data).generate(createSpec(data, HIGH_LEVEL), new SplittableRandom(SEED));
+	}
+
+	/**
+	 * An output stream that discards all bytes.
+	 */
+	public static class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.pdf.BatchPDFExporter;
+import net.sf.rmoffice.pdf.PDFVersion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering of the PDF of a high level sheet into a stream that discards the bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class PDFCreatorBenchmark {
+	@Param({"PDF_FULL_V1", "PDF_FULL_V2", "PDF_MINIMAL_V1"})
+	public PDFVersion version;
+
+	private BatchPDFExporter exporter;
+	private List<RMSheet> sheets;
+
+	@Setup
+	public void setup() throws IOException {
+		MetaData data = Fixtures.loadMetaData();
+		sheets = Collections.singletonList(Fixtures.createHighLevelSheet(data));
+		exporter = new BatchPDFExporter(data, version, 1);
+	}
+
+	@Benchmark
+	public void create() throws IOException {
+		exporter.exportCombined(sheets, new Fixtures.NullOutputStream(), null);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.meta.ISkill;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.SkillCategory;
+import net.sf.rmoffice.meta.enums.ResistanceEnum;
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The bonus getters of a high level sheet, like they are called by the skill tables
+ * and the PDF creators. The cached reads and the reads after a stat change, that
+ * invalidates the bonus of all skills, are measured separately.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class SheetBonusBenchmark {
+	private RMSheet sheet;
+	private List<ISkill> skills;
+	private List<SkillCategory> categories;
+	private int statTemp;
+	private boolean lowered;
+
+	@Setup
+	public void setup() throws IOException {
+		MetaData data = Fixtures.loadMetaData();
+		sheet = Fixtures.createHighLevelSheet(data);
+		skills = data.getSkills();
+		categories = data.getSkillCategories();
+		statTemp = sheet.getStatTemp(StatEnum.AGILITY);
+	}
+
+	@Benchmark
+	public void skillTotalBonus(Blackhole bh) {
+		for (ISkill skill : skills) {
+			bh.consume(sheet.getSkillTotalBonus(skill));
+		}
+	}
+
+	@Benchmark
+	public void skillcategoryTotalBonus(Blackhole bh) {
+		for (SkillCategory category : categories) {
+			bh.consume(sheet.getSkillcategoryTotalBonus(category));
+		}
+	}
+
+	@Benchmark
+	public void skillcost(Blackhole bh) {
+		for (ISkill skill : skills) {
+			bh.consume(sheet.getSkillcost(skill));
+		}
+	}
+
+	@Benchmark
+	public void sheetSummary(Blackhole bh) {
+		for (StatEnum stat : StatEnum.values()) {
+			bh.consume(sheet.getStatBonusTotal(stat));
+		}
+		for (ResistanceEnum res : ResistanceEnum.values()) {
+			bh.consume(sheet.getResistanceBonusTotal(res));
+		}
+		bh.consume(sheet.getHitPoints());
+		bh.consume(sheet.getDefensiveBonus());
+		bh.consume(sheet.getInitiativeBonus());
+	}
+
+	@Benchmark
+	public void skillTotalBonusAfterStatChange(Blackhole bh) {
+		/* toggles the stat, so the bonus changes every invocation */
+		lowered = ! lowered;
+		sheet.setStatTemp(StatEnum.AGILITY, lowered ? statTemp - 10 : statTemp, true);
+		skillTotalBonus(bh);
+	}
+}
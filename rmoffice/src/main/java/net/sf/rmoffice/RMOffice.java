@@ -39,6 +39,7 @@ import javax.swing.SwingUtilities;
 
 import net.sf.rmoffice.meta.MetaData;
 import net.sf.rmoffice.meta.MetaDataLoader;
+import net.sf.rmoffice.meta.MetaDataSnapshot;
 import net.sf.rmoffice.ui.RMFrame;
 
 import org.slf4j.Logger;
@@ -72,7 +73,7 @@ public class RMOffice {
 			frame = new RMFrame();
 			RMPreferences.init();
 			MetaDataLoader loader = new MetaDataLoader();
-			final MetaData data = loader.load();			
+			final MetaData data = new MetaDataSnapshot().load(loader);			
 			frame.init(data);
 			frame.pack();
 			frame.setVisible(true);
@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
  */
 public class RMPreferences {
 	public static final String RMO_EXTENSION = "rmo";
+	public static final String RMOB_EXTENSION = "rmob";
 	private final static Logger log = LoggerFactory.getLogger(RMPreferences.class);
 	private static RMPreferences instance = new RMPreferences();
 	private static final String SEP = System.getProperty("file.separator");
@@ -54,6 +55,7 @@ public class RMPreferences {
 	private final Set<Integer> exclude_skills = new HashSet<Integer>();
 	private final Set<Integer> exclude_profs = new HashSet<Integer>();
 	private final Set<Integer> exclude_race = new HashSet<Integer>();
+	private volatile int excludesVersion = 0;
 	private File lastDir;
 	private int spelllistDPincreasing = 5;
 	private boolean printOutlineImage = true;
@@ -126,6 +128,7 @@ public class RMPreferences {
 					log.info("Excluding source "+ex);
 					instance.excludes.add(ex);
 				}
+				instance.excludesVersion++;
 			}
 		} catch (Exception e) {
 			if (log.isWarnEnabled()) log.warn("Could not read excludes from user.properties: "+e.getMessage());
@@ -177,6 +180,14 @@ public class RMPreferences {
 		return excludes.contains(source);
 	}
 	
+	/**
+	 * 
+	 * @return a number that changes whenever the excluded sources are modified
+	 */
+	public int getExcludesVersion() {
+		return excludesVersion;
+	}
+	
 	/**
 	 * Returns false if the given skill id is {@code null}.
 	 * @param skill id, may be {@code null}
@@ -240,10 +251,11 @@ public class RMPreferences {
 		return snapBonus;
 	}
 	
-	public void addError(String message) {
+	/* the meta data loader adds the errors from multiple threads */
+	public synchronized void addError(String message) {
 		errors.add(message);
 	}
-	public List<String> getErrors() {
-		return errors;
+	public synchronized List<String> getErrors() {
+		return new ArrayList<String>(errors);
 	}
 }
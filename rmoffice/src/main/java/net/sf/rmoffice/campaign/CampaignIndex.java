@@ -0,0 +1,272 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.campaign;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.rmoffice.core.ExportImport;
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.meta.MetaData;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of all character files in a campaign directory tree. The summaries are stored in
+ * an index file in the campaign directory. A scan only loads the character files that are
+ * new or whose modification time or size has changed since the last scan. Files that could
+ * not be loaded are remembered the same way, so they are not loaded again until they are
+ * changed. The summaries contain the names of the current locale, the index of another
+ * locale is rebuilt. Symbolic links to directories are not followed.
+ */
+public class CampaignIndex {
+	private final static Logger log = LoggerFactory.getLogger(CampaignIndex.class);
+	public static final String INDEX_FILE = ".rmoffice-index";
+	/* "RMCI" */
+	private static final int MAGIC = 0x524D4349;
+	private static final short VERSION = 2;
+
+	private final File directory;
+	private final MetaData data;
+	private final File indexFile;
+	private List<SheetSummary> summaries = Collections.emptyList();
+	/* path, modification time and size of the files that could not be loaded */
+	private Map<String, long[]> failed = Collections.emptyMap();
+	private int lastParsedCount;
+
+	/**
+	 *
+	 * @param directory the campaign directory, not {@code null}
+	 * @param data the meta data, not {@code null}
+	 */
+	public CampaignIndex(File directory, MetaData data) {
+		this.directory = directory;
+		this.data = data;
+		this.indexFile = new File(directory, INDEX_FILE);
+	}
+
+	/**
+	 * Scans the campaign directory and updates the index file. Files that could not be
+	 * loaded have no summary, see {@link #getFailedPaths()}.
+	 *
+	 * @return unmodifiable list of summaries sorted by path, not {@code null}
+	 * @throws IOException if the directory could not be read or the index could not be written
+	 */
+	public synchronized List<SheetSummary> scan() throws IOException {
+		if (! directory.isDirectory()) {
+			throw new IOException("Not a directory: "+directory.getAbsolutePath());
+		}
+		Map<String, SheetSummary> known = new HashMap<String, SheetSummary>();
+		Map<String, long[]> knownFailed = new HashMap<String, long[]>();
+		readIndex(known, knownFailed);
+		List<File> files = collectFiles();
+		List<SheetSummary> result = new ArrayList<SheetSummary>();
+		Map<String, long[]> newFailed = new HashMap<String, long[]>();
+		Set<String> paths = new HashSet<String>();
+		int parsed = 0;
+		for (File file : files) {
+			String path = getRelativePath(file);
+			paths.add(path);
+			SheetSummary summary = known.get(path);
+			long[] failedFile = knownFailed.get(path);
+			if (summary != null && summary.getLastModified() == file.lastModified() && summary.getSize() == file.length()) {
+				result.add(summary);
+			} else if (summary == null && failedFile != null && failedFile[0] == file.lastModified() && failedFile[1] == file.length()) {
+				newFailed.put(path, failedFile);
+			} else {
+				summary = load(path, file);
+				parsed++;
+				if (summary == null) {
+					newFailed.put(path, new long[] {file.lastModified(), file.length()});
+				} else {
+					result.add(summary);
+				}
+			}
+		}
+		Set<String> knownPaths = new HashSet<String>(known.keySet());
+		knownPaths.addAll(knownFailed.keySet());
+		boolean changed = parsed > 0 || ! knownPaths.equals(paths);
+		Collections.sort(result, new Comparator<SheetSummary>() {
+			@Override
+			public int compare(SheetSummary o1, SheetSummary o2) {
+				return o1.getPath().compareTo(o2.getPath());
+			}});
+		if (changed) {
+			writeIndex(result, newFailed);
+		}
+		if (log.isDebugEnabled()) log.debug("scanned "+files.size()+" files in "+directory.getAbsolutePath()+", parsed "+parsed);
+		lastParsedCount = parsed;
+		summaries = Collections.unmodifiableList(result);
+		failed = newFailed;
+		return summaries;
+	}
+
+	/**
+	 *
+	 * @return the summaries of the last scan, not {@code null}
+	 */
+	public synchronized List<SheetSummary> getSummaries() {
+		return summaries;
+	}
+
+	/**
+	 *
+	 * @return the paths of the files the last scan could not load, sorted, not {@code null}
+	 */
+	public synchronized List<String> getFailedPaths() {
+		List<String> paths = new ArrayList<String>(failed.keySet());
+		Collections.sort(paths);
+		return paths;
+	}
+
+	/**
+	 *
+	 * @return the number of character files loaded by the last scan
+	 */
+	public synchronized int getLastParsedCount() {
+		return lastParsedCount;
+	}
+
+	/**
+	 *
+	 * @param summary the summary
+	 * @return the character file of the summary
+	 */
+	public File getFile(SheetSummary summary) {
+		return new File(directory, summary.getPath().replace('/', File.separatorChar));
+	}
+
+	private SheetSummary load(String path, File file) {
+		try {
+			RMSheet sheet = ExportImport.importFile(file);
+			sheet.fixBackwardCompatibilities();
+			sheet.setMetaData(data);
+			sheet.init();
+			return SheetSummary.create(path, file.lastModified(), file.length(), sheet);
+		} catch (Exception e) {
+			log.warn("Could not index "+file.getAbsolutePath()+": "+e.getMessage());
+			return null;
+		}
+	}
+
+	/* the links to directories are not followed, they may create cycles */
+	private List<File> collectFiles() throws IOException {
+		final List<File> files = new ArrayList<File>();
+		Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				boolean regular = attrs.isRegularFile() || attrs.isSymbolicLink() && Files.isRegularFile(file);
+				if (regular && ExportImport.supportedFileExtension(file.getFileName().toString())) {
+					files.add(file.toFile());
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				if (log.isDebugEnabled()) log.debug("skipping "+file+": "+e.getMessage());
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return files;
+	}
+
+	private String getRelativePath(File file) {
+		String root = directory.getAbsolutePath();
+		String path = file.getAbsolutePath().substring(root.length() + 1);
+		return path.replace(File.separatorChar, '/');
+	}
+
+	private void readIndex(Map<String, SheetSummary> known, Map<String, long[]> knownFailed) {
+		if (! indexFile.isFile()) {
+			return;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+			try {
+				if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+					log.info("ignoring index "+indexFile.getAbsolutePath()+" of another version");
+					return;
+				}
+				if (! Locale.getDefault().toString().equals(in.readUTF())) {
+					log.info("ignoring index "+indexFile.getAbsolutePath()+" of another locale");
+					return;
+				}
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					SheetSummary summary = SheetSummary.read(in);
+					known.put(summary.getPath(), summary);
+				}
+				count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					String path = in.readUTF();
+					knownFailed.put(path, new long[] {in.readLong(), in.readLong()});
+				}
+			} finally {
+				in.close();
+			}
+		} catch (Exception e) {
+			log.warn("Could not read index "+indexFile.getAbsolutePath()+", rebuilding it: "+e.getMessage());
+			known.clear();
+			knownFailed.clear();
+		}
+	}
+
+	private void writeIndex(List<SheetSummary> summaries, Map<String, long[]> failedFiles) throws IOException {
+		File tmpFile = new File(directory, INDEX_FILE + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeUTF(Locale.getDefault().toString());
+			out.writeInt(summaries.size());
+			for (SheetSummary summary : summaries) {
+				summary.write(out);
+			}
+			out.writeInt(failedFiles.size());
+			for (Map.Entry<String, long[]> entry : failedFiles.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeLong(entry.getValue()[0]);
+				out.writeLong(entry.getValue()[1]);
+			}
+		} finally {
+			out.close();
+		}
+		Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+}
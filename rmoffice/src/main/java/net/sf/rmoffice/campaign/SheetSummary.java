@@ -0,0 +1,220 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.campaign;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+/**
+ * The summary of one character file in the {@link CampaignIndex}.
+ */
+public class SheetSummary {
+	private final String path;
+	private final long lastModified;
+	private final long size;
+	private final String characterName;
+	private final String playerName;
+	private final String raceName;
+	private final String professionName;
+	private final long level;
+	private final long ep;
+	private final int hitPoints;
+	private final int powerPoints;
+	private final Map<StatEnum, Integer> statBonus;
+
+	/**
+	 *
+	 * @param path the path relative to the campaign directory, not {@code null}
+	 * @param lastModified the modification time of the file
+	 * @param size the size of the file
+	 */
+	SheetSummary(String path, long lastModified, long size, String characterName, String playerName, String raceName,
+			String professionName, long level, long ep, int hitPoints, int powerPoints, Map<StatEnum, Integer> statBonus) {
+		this.path = path;
+		this.lastModified = lastModified;
+		this.size = size;
+		this.characterName = characterName;
+		this.playerName = playerName;
+		this.raceName = raceName;
+		this.professionName = professionName;
+		this.level = level;
+		this.ep = ep;
+		this.hitPoints = hitPoints;
+		this.powerPoints = powerPoints;
+		this.statBonus = statBonus;
+	}
+
+	/**
+	 * Creates the summary of a loaded sheet. The sheet must be initialized with the meta data.
+	 */
+	static SheetSummary create(String path, long lastModified, long size, RMSheet sheet) {
+		Map<StatEnum, Integer> statBonus = new EnumMap<StatEnum, Integer>(StatEnum.class);
+		int hitPoints = 0;
+		int powerPoints = 0;
+		if (RMSheet.State.NORMAL.equals(sheet.getState())) {
+			for (StatEnum stat : StatEnum.values()) {
+				statBonus.put(stat, Integer.valueOf(sheet.getStatBonusTotal(stat)));
+			}
+			hitPoints = sheet.getHitPoints();
+			powerPoints = sheet.getPowerPoints();
+		}
+		return new SheetSummary(path, lastModified, size, sheet.getCharacterName(), sheet.getPlayerName(),
+				sheet.getRace() == null ? null : sheet.getRace().getName(),
+				sheet.getProfession() == null ? null : sheet.getProfession().getName(),
+				sheet.getLevel(), sheet.getEp().longValue(), hitPoints, powerPoints, statBonus);
+	}
+
+	/* package private */ void write(DataOutputStream out) throws IOException {
+		out.writeUTF(path);
+		out.writeLong(lastModified);
+		out.writeLong(size);
+		writeString(out, characterName);
+		writeString(out, playerName);
+		writeString(out, raceName);
+		writeString(out, professionName);
+		out.writeLong(level);
+		out.writeLong(ep);
+		out.writeInt(hitPoints);
+		out.writeInt(powerPoints);
+		out.writeByte(statBonus.size());
+		for (Map.Entry<StatEnum, Integer> entry : statBonus.entrySet()) {
+			out.writeUTF(entry.getKey().name());
+			out.writeInt(entry.getValue().intValue());
+		}
+	}
+
+	/* package private */ static SheetSummary read(DataInputStream in) throws IOException {
+		String path = in.readUTF();
+		long lastModified = in.readLong();
+		long size = in.readLong();
+		String characterName = readString(in);
+		String playerName = readString(in);
+		String raceName = readString(in);
+		String professionName = readString(in);
+		long level = in.readLong();
+		long ep = in.readLong();
+		int hitPoints = in.readInt();
+		int powerPoints = in.readInt();
+		Map<StatEnum, Integer> statBonus = new EnumMap<StatEnum, Integer>(StatEnum.class);
+		int stats = in.readByte();
+		for (int i = 0; i < stats; i++) {
+			StatEnum stat = StatEnum.valueOf(in.readUTF());
+			statBonus.put(stat, Integer.valueOf(in.readInt()));
+		}
+		return new SheetSummary(path, lastModified, size, characterName, playerName, raceName, professionName,
+				level, ep, hitPoints, powerPoints, statBonus);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		if (in.readBoolean()) {
+			return in.readUTF();
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * @return the path relative to the campaign directory with '/' as separator
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public String getCharacterName() {
+		return characterName;
+	}
+
+	public String getPlayerName() {
+		return playerName;
+	}
+
+	/**
+	 *
+	 * @return the race name or {@code null} if not selected
+	 */
+	public String getRaceName() {
+		return raceName;
+	}
+
+	/**
+	 *
+	 * @return the profession name or {@code null} if not selected
+	 */
+	public String getProfessionName() {
+		return professionName;
+	}
+
+	public long getLevel() {
+		return level;
+	}
+
+	public long getEp() {
+		return ep;
+	}
+
+	public int getHitPoints() {
+		return hitPoints;
+	}
+
+	public int getPowerPoints() {
+		return powerPoints;
+	}
+
+	/**
+	 *
+	 * @param stat the stat
+	 * @return the total stat bonus, 0 if the character is not finished
+	 */
+	public int getStatBonus(StatEnum stat) {
+		Integer bonus = statBonus.get(stat);
+		return bonus == null ? 0 : bonus.intValue();
+	}
+
+	/**
+	 *
+	 * @return unmodifiable map of the total stat bonus, empty if the character is not finished
+	 */
+	public Map<StatEnum, Integer> getStatBonus() {
+		return Collections.unmodifiableMap(statBonus);
+	}
+
+	@Override
+	public String toString() {
+		return "SheetSummary[" + path + ": " + characterName + "]";
+	}
+}
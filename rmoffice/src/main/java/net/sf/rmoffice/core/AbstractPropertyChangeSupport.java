@@ -15,9 +15,15 @@
  */
 package net.sf.rmoffice.core;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.SwingUtilities;
 
@@ -27,6 +33,10 @@ import javax.swing.SwingUtilities;
 public class AbstractPropertyChangeSupport {
     
 	protected transient PropertyChangeSupport propertyChangeSupport;
+	/* nesting depth of the running batch, 0 if there is none */
+	private transient int batchDepth;
+	/* the collected events of the running batch by property name */
+	private transient Map<String, PropertyChangeEvent> batchEvents;
 	
 	public void addPropertyChangeListener(PropertyChangeListener listener) {
 		initPropertyChangeSupport();
@@ -49,16 +59,83 @@ public class AbstractPropertyChangeSupport {
 				listener);
 	}
 
+	/**
+	 * Starts a batch of changes. The property change events are collected until the
+	 * matching {@link #commitBatch()}, then one event per property is fired with the
+	 * first old value and the last new value. Batches may be nested, the outermost
+	 * commit fires the events.
+	 * <pre>
+	 * sheet.beginBatch();
+	 * try {
+	 *     ...
+	 * } finally {
+	 *     sheet.commitBatch();
+	 * }
+	 * </pre>
+	 */
+	public synchronized void beginBatch() {
+		if (batchDepth == 0) {
+			batchEvents = new LinkedHashMap<String, PropertyChangeEvent>();
+		}
+		batchDepth++;
+	}
+
+	/**
+	 * Ends the batch started by {@link #beginBatch()}. The outermost commit fires the
+	 * collected events.
+	 *
+	 * @throws IllegalStateException if there is no running batch
+	 */
+	public void commitBatch() {
+		List<PropertyChangeEvent> events;
+		synchronized (this) {
+			if (batchDepth == 0) {
+				throw new IllegalStateException("No batch running");
+			}
+			batchDepth--;
+			if (batchDepth > 0) {
+				return;
+			}
+			events = new ArrayList<PropertyChangeEvent>(batchEvents.values());
+			batchEvents = null;
+		}
+		fireEvents(events);
+	}
+
 	protected void firePropertyChange(final String propertyName, final Object oldValue, final Object newValue) {
 		initPropertyChangeSupport();
+		if (!propertyChangeSupport.hasListeners(propertyName)) {
+			/* nobody is listening (e.g. headless generation), so we don't need the event dispatch thread */
+			return;
+		}
+		synchronized (this) {
+			if (batchDepth > 0) {
+				/* the last change of a property moves it to the end */
+				PropertyChangeEvent first = batchEvents.remove(propertyName);
+				Object batchOldValue = first == null ? oldValue : first.getOldValue();
+				batchEvents.put(propertyName, new PropertyChangeEvent(this, propertyName, batchOldValue, newValue));
+				return;
+			}
+		}
+		fireEvents(Collections.singletonList(new PropertyChangeEvent(this, propertyName, oldValue, newValue)));
+	}
+
+	private void fireEvents(final List<PropertyChangeEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
 		try {
 			if (SwingUtilities.isEventDispatchThread()) {
-				propertyChangeSupport.firePropertyChange(propertyName, oldValue, newValue);
+				for (PropertyChangeEvent event : events) {
+					propertyChangeSupport.firePropertyChange(event);
+				}
 			} else {
 				SwingUtilities.invokeAndWait(new Runnable() {
 					@Override
 					public void run() {
-						propertyChangeSupport.firePropertyChange(propertyName, oldValue, newValue);
+						for (PropertyChangeEvent event : events) {
+							propertyChangeSupport.firePropertyChange(event);
+						}
 					}
 				});
 			}
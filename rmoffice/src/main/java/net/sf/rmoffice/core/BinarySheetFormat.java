@@ -0,0 +1,311 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * The binary character format (*.rmob). The file starts with a magic number and the format
+ * version, followed by blocks. Each block has a tag and a length, so readers skip blocks
+ * they don't know.
+ * <ul>
+ * <li>{@link #TAG_SHEET}: the deflated sheet XML without the character image, the ranks
+ * and the stats. It uses the XStream mapping of the *.rmo format.</li>
+ * <li>{@link #TAG_IMAGE}: the raw bytes of the character image</li>
+ * <li>{@link #TAG_RANKS}: the skill ranks and the skill category ranks. Each has the
+ * number of ranks (-1 for none) followed by the ranks: id, scaled rank (int, the rank
+ * times {@value Rank#SCALE}), whether there is a special bonus, the special bonus (int) and
+ * whether it is a favorite.</li>
+ * <li>{@link #TAG_STATS}: the temporary, potential and misc bonus values of the stats.
+ * Each has the number of values (-1 for none) followed by the values: name of the stat
+ * and value (int).</li>
+ * <li>{@link #TAG_END}: end of file, no length</li>
+ * </ul>
+ * The layout of the rank and stat blocks is defined by the format version. Version 1
+ * files have the ranks and stats in the sheet XML.
+ */
+/* package private */ final class BinarySheetFormat {
+	/* "RMOB" */
+	static final int MAGIC = 0x524D4F42;
+	static final short FORMAT_VERSION = 2;
+	static final byte TAG_END = 0;
+	static final byte TAG_SHEET = 1;
+	static final byte TAG_IMAGE = 2;
+	static final byte TAG_RANKS = 3;
+	static final byte TAG_STATS = 4;
+	/* the longest block, e.g. a large character image */
+	private static final int MAX_BLOCK_LENGTH = 64 * 1024 * 1024;
+	/* id, scaled rank, special bonus flag, special bonus, favorite */
+	private static final int RANK_LENGTH = 14;
+	/* empty stat name, value */
+	private static final int MIN_STAT_LENGTH = 6;
+
+	private BinarySheetFormat() {
+	}
+
+	/**
+	 * Writes the sheet. The stream is not closed.
+	 *
+	 * @param sheet the sheet, not {@code null}
+	 * @param xStream the XStream that omits the character image, the ranks and the stats, not {@code null}
+	 * @param out the output stream, not {@code null}
+	 * @throws IOException if writing failed
+	 */
+	static void write(RMSheet sheet, XStream xStream, OutputStream out) throws IOException {
+		DataOutputStream dataOut = new DataOutputStream(out);
+		dataOut.writeInt(MAGIC);
+		dataOut.writeShort(FORMAT_VERSION);
+		/* sheet */
+		ByteArrayOutputStream sheetBytes = new ByteArrayOutputStream(16 * 1024);
+		Writer writer = new OutputStreamWriter(new DeflaterOutputStream(sheetBytes, new Deflater(Deflater.BEST_SPEED)), ExportImport.ENCODING);
+		xStream.toXML(sheet, writer);
+		writer.close();
+		writeBlock(dataOut, TAG_SHEET, sheetBytes.toByteArray());
+		/* ranks */
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024);
+		DataOutputStream blockOut = new DataOutputStream(bytes);
+		writeRanks(blockOut, sheet.getSkillRankStore());
+		writeRanks(blockOut, sheet.getSkillcategoryRankStore());
+		blockOut.close();
+		writeBlock(dataOut, TAG_RANKS, bytes.toByteArray());
+		/* stats */
+		bytes = new ByteArrayOutputStream(256);
+		blockOut = new DataOutputStream(bytes);
+		writeStats(blockOut, sheet.getTempAttr());
+		writeStats(blockOut, sheet.getPotAttr());
+		writeStats(blockOut, sheet.getMiscAttrBonus());
+		blockOut.close();
+		writeBlock(dataOut, TAG_STATS, bytes.toByteArray());
+		/* image */
+		if (sheet.getCharacteristics() != null && sheet.getCharacteristics().getCharImage() != null) {
+			writeBlock(dataOut, TAG_IMAGE, sheet.getCharacteristics().getCharImage());
+		}
+		dataOut.writeByte(TAG_END);
+		dataOut.flush();
+	}
+
+	/**
+	 * Reads the sheet. The stream is not closed.
+	 *
+	 * @param xStream the XStream for importing, not {@code null}
+	 * @param in the input stream, not {@code null}
+	 * @return the sheet, not {@code null}
+	 * @throws IOException if the stream is not a valid binary sheet
+	 */
+	static RMSheet read(XStream xStream, InputStream in) throws IOException {
+		DataInputStream dataIn = new DataInputStream(in);
+		if (dataIn.readInt() != MAGIC) {
+			throw new IOException("Not a binary RMOffice file");
+		}
+		short version = dataIn.readShort();
+		if (version > FORMAT_VERSION) {
+			throw new IOException("Unsupported binary file version "+version);
+		}
+		RMSheet sheet = null;
+		byte[] image = null;
+		byte[] ranks = null;
+		byte[] stats = null;
+		byte tag;
+		while ((tag = dataIn.readByte()) != TAG_END) {
+			int length = dataIn.readInt();
+			if (length < 0 || length > MAX_BLOCK_LENGTH) {
+				throw new IOException("Invalid block length "+length);
+			}
+			if (tag == TAG_SHEET) {
+				InputStreamReader reader = new InputStreamReader(new InflaterInputStream(new ByteArrayInputStream(readBlock(dataIn, length))), ExportImport.ENCODING);
+				sheet = (RMSheet) xStream.fromXML(reader);
+			} else if (tag == TAG_IMAGE) {
+				image = readBlock(dataIn, length);
+			} else if (tag == TAG_RANKS) {
+				ranks = readBlock(dataIn, length);
+			} else if (tag == TAG_STATS) {
+				stats = readBlock(dataIn, length);
+			} else {
+				/* unknown blocks from newer versions are skipped */
+				skipBlock(dataIn, length);
+			}
+		}
+		if (sheet == null) {
+			throw new IOException("The binary file contains no character");
+		}
+		if (ranks != null) {
+			DataInputStream blockIn = new DataInputStream(new ByteArrayInputStream(ranks));
+			RankStore skillRanks = readRanks(blockIn);
+			sheet.setRankStores(skillRanks, readRanks(blockIn));
+		}
+		if (stats != null) {
+			DataInputStream blockIn = new DataInputStream(new ByteArrayInputStream(stats));
+			Map<StatEnum, Integer> tempAttr = readStats(blockIn);
+			Map<StatEnum, Integer> potAttr = readStats(blockIn);
+			sheet.setStatValues(tempAttr, potAttr, readStats(blockIn));
+		}
+		if (image != null && sheet.getCharacteristics() != null) {
+			sheet.getCharacteristics().setCharImage(image);
+		}
+		return sheet;
+	}
+
+	/* reads the block in parts, so a truncated file ends before a large array is allocated */
+	private static byte[] readBlock(DataInputStream in, int length) throws IOException {
+		ByteArrayOutputStream block = new ByteArrayOutputStream(Math.min(length, 64 * 1024));
+		byte[] buffer = new byte[Math.min(length, 64 * 1024)];
+		int remaining = length;
+		while (remaining > 0) {
+			int read = in.read(buffer, 0, Math.min(remaining, buffer.length));
+			if (read < 0) {
+				throw new EOFException("The block ends after "+(length - remaining)+" of "+length+" bytes");
+			}
+			block.write(buffer, 0, read);
+			remaining -= read;
+		}
+		return block.toByteArray();
+	}
+
+	private static void skipBlock(DataInputStream in, int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = in.skipBytes(remaining);
+			if (skipped == 0) {
+				/* skipBytes does not tell the end of the stream */
+				if (in.read() < 0) {
+					throw new EOFException("The block ends after "+(length - remaining)+" of "+length+" bytes");
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+
+	private static void writeRanks(DataOutputStream out, RankStore store) throws IOException {
+		if (store == null) {
+			out.writeInt(-1);
+			return;
+		}
+		int[] ids = store.keys();
+		out.writeInt(ids.length);
+		for (int id : ids) {
+			out.writeInt(id);
+			writeRank(out, store.peek(id));
+		}
+	}
+
+	private static RankStore readRanks(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) {
+			return null;
+		}
+		if (count > in.available() / RANK_LENGTH) {
+			throw new IOException("Invalid number of ranks "+count);
+		}
+		RankStore store = new RankStore(count);
+		for (int i = 0; i < count; i++) {
+			int id = in.readInt();
+			store.put(id, readRank(in, id));
+		}
+		return store;
+	}
+
+	/**
+	 * Writes the values of the rank without the id.
+	 *
+	 * @param out the output, not {@code null}
+	 * @param rank the rank, not {@code null}
+	 * @throws IOException if writing failed
+	 */
+	static void writeRank(DataOutput out, Rank rank) throws IOException {
+		out.writeInt(rank.getScaledRank());
+		out.writeBoolean(rank.getSpecialBonus() != null);
+		out.writeInt(rank.getSpecialBonus() == null ? 0 : rank.getSpecialBonus().intValue());
+		out.writeBoolean(rank.getFavorite().booleanValue());
+	}
+
+	/**
+	 * Reads a rank written by {@link #writeRank(DataOutput, Rank)}.
+	 *
+	 * @param in the input, not {@code null}
+	 * @param id the skill or skill category id
+	 * @return the rank, not {@code null}
+	 * @throws IOException if reading failed
+	 */
+	static Rank readRank(DataInput in, int id) throws IOException {
+		Rank rank = new Rank(Integer.valueOf(id));
+		rank.setScaledRank(in.readInt());
+		boolean special = in.readBoolean();
+		int specialBonus = in.readInt();
+		rank.setSpecialBonus(special ? Integer.valueOf(specialBonus) : null);
+		rank.setFavorite(Boolean.valueOf(in.readBoolean()));
+		return rank;
+	}
+
+	private static void writeStats(DataOutputStream out, Map<StatEnum, Integer> values) throws IOException {
+		if (values == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(values.size());
+		for (Map.Entry<StatEnum, Integer> entry : values.entrySet()) {
+			out.writeUTF(entry.getKey().name());
+			out.writeInt(entry.getValue() == null ? 0 : entry.getValue().intValue());
+		}
+	}
+
+	private static Map<StatEnum, Integer> readStats(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) {
+			return null;
+		}
+		if (count > in.available() / MIN_STAT_LENGTH) {
+			throw new IOException("Invalid number of stats "+count);
+		}
+		Map<StatEnum, Integer> values = new HashMap<StatEnum, Integer>();
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			try {
+				values.put(StatEnum.valueOf(name), Integer.valueOf(in.readInt()));
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Unknown stat "+name, e);
+			}
+		}
+		return values;
+	}
+
+	private static void writeBlock(DataOutputStream out, byte tag, byte[] block) throws IOException {
+		out.writeByte(tag);
+		out.writeInt(block.length);
+		out.write(block);
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.sf.rmoffice.meta.IProgression;
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+/**
+ * Caches the calculated bonus values of one {@link RMSheet}. The values are keyed by
+ * skill id, skill category id and stat. The sheet invalidates the cached values
+ * whenever a value they depend on has changed.
+ * <p>
+ * The PDF creation reads the sheet in its own thread, so concurrent maps are used.
+ */
+/* package private */ final class BonusCache {
+	private final Map<Integer, Integer> skillTotalBonus = new ConcurrentHashMap<Integer, Integer>();
+	private final Map<Integer, Integer> skillSpecialBonus = new ConcurrentHashMap<Integer, Integer>();
+	private final Map<Integer, Integer> categoryTotalBonus = new ConcurrentHashMap<Integer, Integer>();
+	private final Map<StatEnum, Integer> statTotalBonus = new ConcurrentHashMap<StatEnum, Integer>();
+	/* the progressions including the talents and flaws */
+	private volatile IProgression progressionBody;
+	private volatile IProgression progressionPower;
+	private volatile TalentFlawEffects talentFlawEffects;
+
+	/**
+	 * Invalidates the cached values depending on the property change of the sheet.
+	 * Only the properties that are the origin of a bonus change are considered.
+	 * The events that notify about calculated bonus changes ({@link RMSheet#PROPERTY_SKILLS_CHANGED},
+	 * {@link RMSheet#PROPERTY_SKILLCATEGORY_CHANGED}) are ignored.
+	 *
+	 * @param propertyName the property name of the event, may be {@code null}
+	 */
+	void propertyChanged(String propertyName) {
+		if (propertyName == null) {
+			return;
+		}
+		if (propertyName.startsWith(RMSheet.PROPERTY_STAT_TEMP_PREFIX)) {
+			invalidateStat(propertyName.substring(RMSheet.PROPERTY_STAT_TEMP_PREFIX.length()));
+		} else if (propertyName.startsWith(RMSheet.PROPERTY_STAT_BONUS_PREFIX)) {
+			invalidateStat(propertyName.substring(RMSheet.PROPERTY_STAT_BONUS_PREFIX.length()));
+		} else if (propertyName.startsWith(RMSheet.PROPERTY_STAT_MISCBONUS_PREFIX)) {
+			invalidateStat(propertyName.substring(RMSheet.PROPERTY_STAT_MISCBONUS_PREFIX.length()));
+		} else if (propertyName.startsWith(RMSheet.PROPERTY_STAT_MISC2BONUS_PREFIX)) {
+			invalidateStat(propertyName.substring(RMSheet.PROPERTY_STAT_MISC2BONUS_PREFIX.length()));
+		} else if (RMSheet.TALENTSFLAWS_PROP.equals(propertyName)
+				|| RMSheet.PROPERTY_MAGICREALM_CHANGED.equals(propertyName)
+				|| RMSheet.PROPERTY_MAGICREALM_EDITABLE.equals(propertyName)
+				|| RMSheet.PROPERTY_RACE.equals(propertyName)
+				|| RMSheet.PROPERTY_PROFESSION.equals(propertyName)
+				|| RMSheet.PROPERTY_STATE.equals(propertyName)
+				|| RMSheet.PROPERTY_PROGRESSION_BODY.equals(propertyName)
+				|| RMSheet.PROPERTY_PROGRESSION_POWER.equals(propertyName)
+				|| RMSheet.PROPERTY_SKILL_STRUCTURE_CHANGED.equals(propertyName)
+				|| RMSheet.PROPERTY_SKILL_CATEGORIES.equals(propertyName)
+				|| RMSheet.DIVINESTATUS_PROP.equals(propertyName)) {
+			invalidateAll();
+		}
+	}
+
+	private void invalidateStat(String statName) {
+		try {
+			invalidateStat(StatEnum.valueOf(statName));
+		} catch (IllegalArgumentException e) {
+			/* unknown stat, be safe */
+			invalidateAll();
+		}
+	}
+
+	/**
+	 * A stat has changed, this may change all skill and skill category bonus.
+	 *
+	 * @param stat the stat, not {@code null}
+	 */
+	void invalidateStat(StatEnum stat) {
+		statTotalBonus.remove(stat);
+		categoryTotalBonus.clear();
+		skillTotalBonus.clear();
+	}
+
+	/**
+	 * The rank or the special bonus of a skill category has changed, this may change
+	 * the bonus of all skills in the category.
+	 *
+	 * @param categoryId the skill category id, not {@code null}
+	 */
+	void invalidateSkillcategory(Integer categoryId) {
+		categoryTotalBonus.remove(categoryId);
+		skillTotalBonus.clear();
+	}
+
+	/**
+	 * The rank or the special bonus of a skill has changed.
+	 *
+	 * @param skillId the skill id, not {@code null}
+	 */
+	void invalidateSkill(Integer skillId) {
+		skillTotalBonus.remove(skillId);
+	}
+
+	void invalidateAll() {
+		statTotalBonus.clear();
+		categoryTotalBonus.clear();
+		skillSpecialBonus.clear();
+		skillTotalBonus.clear();
+		invalidateProgressions();
+		talentFlawEffects = null;
+	}
+
+	/**
+	 * The body development or power point progression of the sheet has changed.
+	 */
+	void invalidateProgressions() {
+		progressionBody = null;
+		progressionPower = null;
+	}
+
+	IProgression getProgressionBody() {
+		return progressionBody;
+	}
+
+	void setProgressionBody(IProgression progression) {
+		progressionBody = progression;
+	}
+
+	IProgression getProgressionPower() {
+		return progressionPower;
+	}
+
+	void setProgressionPower(IProgression progression) {
+		progressionPower = progression;
+	}
+
+	TalentFlawEffects getTalentFlawEffects() {
+		return talentFlawEffects;
+	}
+
+	void setTalentFlawEffects(TalentFlawEffects effects) {
+		talentFlawEffects = effects;
+	}
+
+	Integer getSkillTotalBonus(Integer skillId) {
+		return skillTotalBonus.get(skillId);
+	}
+
+	void putSkillTotalBonus(Integer skillId, int bonus) {
+		skillTotalBonus.put(skillId, Integer.valueOf(bonus));
+	}
+
+	Integer getSkillSpecialBonus(Integer skillId) {
+		return skillSpecialBonus.get(skillId);
+	}
+
+	void putSkillSpecialBonus(Integer skillId, int bonus) {
+		skillSpecialBonus.put(skillId, Integer.valueOf(bonus));
+	}
+
+	Integer getSkillcategoryTotalBonus(Integer categoryId) {
+		return categoryTotalBonus.get(categoryId);
+	}
+
+	void putSkillcategoryTotalBonus(Integer categoryId, int bonus) {
+		categoryTotalBonus.put(categoryId, Integer.valueOf(bonus));
+	}
+
+	Integer getStatBonusTotal(StatEnum stat) {
+		return statTotalBonus.get(stat);
+	}
+
+	void putStatBonusTotal(StatEnum stat, int bonus) {
+		statTotalBonus.put(stat, Integer.valueOf(bonus));
+	}
+}
@@ -114,6 +114,48 @@ public class Characteristics extends AbstractPropertyChangeSupport {
 		}
 	}
 	
+	/**
+	 * Returns a copy without listeners, e.g. for {@link RMSheet#fork()}. The image is
+	 * shared, it is only replaced as a whole.
+	 * 
+	 * @return the copy, not {@code null}
+	 */
+	/* package private */ Characteristics copy() {
+		Characteristics copy = new Characteristics();
+		copy.appearance = appearance;
+		copy.demeanor = demeanor;
+		copy.apparentlyAge = apparentlyAge;
+		copy.age = age;
+		copy.isFemale = isFemale;
+		copy.taint = taint;
+		copy.heightCm = heightCm;
+		copy.weight = weight;
+		copy.weightInt = weightInt;
+		copy.hairColor = hairColor;
+		copy.eyeColor = eyeColor;
+		copy.personality = personality;
+		copy.motivation = motivation;
+		copy.attitude = attitude;
+		copy.nationality = nationality;
+		copy.homeTown = homeTown;
+		copy.god = god;
+		copy.lord = lord;
+		copy.parent = parent;
+		copy.spouse = spouse;
+		copy.siblings = siblings;
+		copy.children = children;
+		copy.misc = misc;
+		copy.misc1 = misc1;
+		copy.misc2 = misc2;
+		copy.misc3 = misc3;
+		copy.misc4 = misc4;
+		copy.clothSize = clothSize;
+		copy.hatSize = hatSize;
+		copy.shoeSize = shoeSize;
+		copy.charImage = charImage;
+		return copy;
+	}
+	
 	public int getAppearance() {
 		return appearance;
 	}
@@ -44,6 +44,25 @@ public class Coins extends AbstractPropertyChangeSupport {
 	private String tin;
 	private String iron;
 	
+	/**
+	 * Returns a copy without listeners, e.g. for {@link RMSheet#fork()}.
+	 * 
+	 * @return the copy, not {@code null}
+	 */
+	/* package private */ Coins copy() {
+		Coins copy = new Coins();
+		copy.juwelry = juwelry == null ? null : new ArrayList<String>(juwelry);
+		copy.mithril = mithril;
+		copy.platinum = platinum;
+		copy.gold = gold;
+		copy.silver = silver;
+		copy.bronze = bronze;
+		copy.copper = copper;
+		copy.tin = tin;
+		copy.iron = iron;
+		return copy;
+	}
+	
 	public List<String> getJuwelry() {
 		checkJewelry();
 		return juwelry;
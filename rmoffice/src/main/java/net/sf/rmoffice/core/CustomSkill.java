@@ -55,6 +55,24 @@ import net.sf.rmoffice.meta.enums.SkillType;
 		this.id = id;
 		name = newName;
 	}
+
+	private CustomSkill(Integer inheritSkillId, boolean isSpellList, Integer id, String name, SkillType type) {
+		this.inheritSkillId = inheritSkillId;
+		this.isSpellList = isSpellList;
+		this.id = id;
+		this.name = name;
+		this.type = type;
+	}
+	
+	/**
+	 * 
+	 * @return a copy with the same id, e.g. for {@link RMSheet#fork()}
+	 */
+	/* package private */ CustomSkill copy() {
+		CustomSkill copy = new CustomSkill(inheritSkillId, isSpellList, id, name, type);
+		copy.orderGroup = orderGroup;
+		return copy;
+	}
 	
 	@Override
 	public Integer getId() {
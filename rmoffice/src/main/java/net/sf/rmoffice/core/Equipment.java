@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.core;
 
+import org.apache.commons.lang.StringUtils;
 
 /**
  * 
@@ -101,4 +102,20 @@ public class Equipment {
 	public void setCarried(boolean carried) {
 		this.carried = carried;
 	} 
+
+	/**
+	 *
+	 * @param other the other equipment
+	 * @return whether the other equipment has the same values
+	 */
+	/* package private */ boolean sameAs(Equipment other) {
+		return StringUtils.equals(description, other.description) && StringUtils.equals(place, other.place)
+				&& weightFloat == other.weightFloat && favorite == other.favorite && carried == other.carried;
+	}
+
+	/* package private */ Equipment copy() {
+		Equipment copy = new Equipment(description, place, weightFloat, favorite, carried);
+		copy.weight = weight;
+		return copy;
+	}
 }
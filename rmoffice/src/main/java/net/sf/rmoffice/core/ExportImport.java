@@ -17,6 +17,12 @@
 package net.sf.rmoffice.core;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -48,24 +54,122 @@ public class ExportImport {
     public static final String ENCODING = "UTF-8";
 
     public static boolean supportedFileExtension(String fileName) {
-        return fileName.endsWith(RMPreferences.RMO_EXTENSION) || fileName.endsWith("json");
+        return fileName.endsWith(RMPreferences.RMO_EXTENSION) || fileName.endsWith(RMPreferences.RMOB_EXTENSION)
+                || fileName.endsWith("json");
     }
 
     public static RMSheet importFile(File file) throws IOException {
-        FileInputStream in = new FileInputStream(file);
-        Reader freader = new BufferedReader(new InputStreamReader(in, ExportImport.ENCODING));
-
-        String fileName = file.getName();
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return importFile(file.getName(), in);
+        } finally {
+            in.close();
+        }
+    }
 
+    /**
+     * Imports the sheet in the format of the file extension. The stream is not closed.
+     *
+     * @param fileName the file name with the extension of the format
+     * @param in the input stream
+     * @return the sheet, not {@code null}
+     * @throws IOException if the format is unsupported or reading failed
+     */
+    public static RMSheet importFile(String fileName, InputStream in) throws IOException {
+        if (fileName.endsWith(RMPreferences.RMOB_EXTENSION)) {
+            return BinarySheetFormat.read(Configurations.XSTREAM_IMPORT, in);
+        }
+        Reader freader = new InputStreamReader(in, ExportImport.ENCODING);
         if (fileName.endsWith(RMPreferences.RMO_EXTENSION)) {
             return importXml(freader);
         } else if (fileName.endsWith("json")) {
             return importJson(freader);
         }
-
         throw new IOException("Unsupported file");
     }
 
+    /**
+     * Exports the sheet in the format of the file extension. The stream is not closed.
+     *
+     * @param fileName the file name with the extension of the format
+     * @param sheet the sheet
+     * @param out the output stream
+     * @throws IOException if the format is unsupported or writing failed
+     */
+    public static void exportFile(String fileName, RMSheet sheet, OutputStream out) throws IOException {
+        if (fileName.endsWith(RMPreferences.RMOB_EXTENSION)) {
+            BinarySheetFormat.write(sheet, Configurations.XSTREAM_BINARY, out);
+        } else {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, ExportImport.ENCODING));
+            exportFile(fileName, sheet, writer);
+            writer.flush();
+        }
+    }
+
+    /**
+     * Exports the sheet in the format of the file extension. The sheet is written to a
+     * temporary file in the same directory which replaces the file afterwards, so the
+     * file is either the old or the new sheet but never a partially written one.
+     *
+     * @param file the file with the extension of the format
+     * @param sheet the sheet
+     * @throws IOException if the format is unsupported or writing failed, the file is unchanged then
+     */
+    public static void exportFile(File file, RMSheet sheet) throws IOException {
+        writeFile(file, exportBytes(file.getName(), sheet));
+    }
+
+    /**
+     * Exports the sheet in the format of the file extension into a byte array, e.g. to
+     * write it on another thread with {@link #writeFile(File, byte[])} while the sheet is
+     * changed.
+     *
+     * @param fileName the file name with the extension of the format
+     * @param sheet the sheet
+     * @return the exported sheet, not {@code null}
+     * @throws IOException if the format is unsupported or writing failed
+     */
+    public static byte[] exportBytes(String fileName, RMSheet sheet) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        exportFile(fileName, sheet, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the exported sheet of {@link #exportBytes(String, RMSheet)} to the file. The
+     * content is written to a temporary file in the same directory which replaces the
+     * file afterwards, so the file is either the old or the new sheet but never a
+     * partially written one.
+     *
+     * @param file the file
+     * @param content the exported sheet
+     * @throws IOException if writing failed, the file is unchanged then
+     */
+    public static void writeFile(File file, byte[] content) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        File tmpFile = File.createTempFile(file.getName() + ".", ".tmp", dir);
+        boolean moved = false;
+        try {
+            FileOutputStream fout = new FileOutputStream(tmpFile);
+            try {
+                fout.write(content);
+                fout.getFD().sync();
+            } finally {
+                fout.close();
+            }
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+        } finally {
+            if (!moved && !tmpFile.delete()) {
+                tmpFile.deleteOnExit();
+            }
+        }
+    }
+
     public static void exportFile(String fileName, RMSheet sheet, Writer out) throws IOException {
         if (fileName.endsWith(RMPreferences.RMO_EXTENSION)) {
             exportXml(sheet, out);
@@ -76,27 +180,81 @@ public class ExportImport {
         }
     }
 
+    /**
+     * Serializes a part of the sheet, e.g. for the {@link SheetJournal}. The XML is
+     * deflated and does not contain the character image.
+     *
+     * @param obj the part of the sheet
+     * @return the deflated XML, not {@code null}
+     * @throws IOException if writing failed
+     */
+    /* package */ static byte[] toDeflatedXml(Object obj) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        Writer writer = new OutputStreamWriter(new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_SPEED)), ENCODING);
+        Configurations.XSTREAM_BINARY.toXML(obj, writer);
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a part of the sheet written by {@link #toDeflatedXml(Object)}.
+     *
+     * @param bytes the deflated XML
+     * @return the part of the sheet
+     * @throws IOException if reading failed
+     */
+    /* package */ static Object fromDeflatedXml(byte[] bytes) throws IOException {
+        Reader reader = new InputStreamReader(new InflaterInputStream(new ByteArrayInputStream(bytes)), ENCODING);
+        try {
+            return Configurations.XSTREAM_IMPORT.fromXML(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
     private static void exportXml(RMSheet sheet, Writer out) {
-        XStream xStream = createXStream(true);
-        xStream.toXML(sheet, out);
+        Configurations.XSTREAM_EXPORT.toXML(sheet, out);
     }
 
     private static void exportJson(RMSheet sheet, Writer out) {
-        Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .enableComplexMapKeySerialization()
-                .create();
-        gson.toJson(sheet, out);
+        Configurations.GSON_EXPORT.toJson(sheet, out);
     }
 
     private static RMSheet importXml(Reader xmlReader) {
-        XStream xStream = createXStream(false);
-        return (RMSheet) xStream.fromXML(xmlReader);
+        return (RMSheet) Configurations.XSTREAM_IMPORT.fromXML(xmlReader);
     }
 
     private static RMSheet importJson(Reader reader) {
-        Gson gson = new Gson();
-        return gson.fromJson(reader, RMSheet.class);
+        return Configurations.GSON_IMPORT.fromJson(reader, RMSheet.class);
+    }
+
+    /**
+     * The configured XStream and Gson instances are thread safe, so they are created
+     * only once when they are needed first.
+     */
+    private static final class Configurations {
+        static final XStream XSTREAM_EXPORT = createXStream(true);
+        static final XStream XSTREAM_IMPORT = createXStream(false);
+        /* the binary format stores the image, the ranks and the stats as separate blocks */
+        static final XStream XSTREAM_BINARY = createXStream(true);
+        static {
+            XSTREAM_BINARY.omitField(Characteristics.class, "charImage");
+            XSTREAM_BINARY.omitField(RMSheet.class, "skillRanks");
+            XSTREAM_BINARY.omitField(RMSheet.class, "skillgroupRanks");
+            XSTREAM_BINARY.omitField(RMSheet.class, "tempAttr");
+            XSTREAM_BINARY.omitField(RMSheet.class, "potAttr");
+            XSTREAM_BINARY.omitField(RMSheet.class, "miscAttrBonus");
+        }
+        static final Gson GSON_EXPORT = new GsonBuilder()
+                .setPrettyPrinting()
+                .enableComplexMapKeySerialization()
+                .registerTypeAdapter(Rank.class, new RankConverters.GsonRankAdapter())
+                .registerTypeAdapter(RankStore.class, new RankConverters.GsonRankStoreAdapter())
+                .create();
+        static final Gson GSON_IMPORT = new GsonBuilder()
+                .registerTypeAdapter(Rank.class, new RankConverters.GsonRankAdapter())
+                .registerTypeAdapter(RankStore.class, new RankConverters.GsonRankStoreAdapter())
+                .create();
     }
 
     private static XStream createXStream(boolean export) {
@@ -193,6 +351,9 @@ public class ExportImport {
             }
         };
         xStream.registerConverter(converter);
+        /* fixed-point ranks in the format of the former BigDecimal rank maps */
+        xStream.registerConverter(new RankConverters.XStreamRankConverter());
+        xStream.registerConverter(new RankConverters.XStreamRankStoreConverter());
         return xStream;
     }
 
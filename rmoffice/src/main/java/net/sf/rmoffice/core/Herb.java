@@ -50,6 +50,10 @@ public class Herb {
 	public void setAmount(int amount) {
 		this.amount = amount;
 	}
+
+	/* package private */ Herb copy() {
+		return new Herb(name, description, amount);
+	}
 	
 	
 }
@@ -46,6 +46,13 @@ public class InfoPage extends AbstractPropertyChangeSupport {
 	}
 	
 	/** {@inheritDoc} */
+	/* package private */ InfoPage copy() {
+		InfoPage copy = new InfoPage();
+		copy.title = title;
+		copy.content = content;
+		return copy;
+	}
+
 	@Override
 	public String toString() {
 		return title;
@@ -15,7 +15,6 @@
  */
 package net.sf.rmoffice.core;
 
-import java.math.BigDecimal;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -85,6 +84,25 @@ public class RMLevelUp {
 		fireDevPointsUpdated();
 	}
 	
+	/**
+	 * 
+	 * @param forkedSheet the fork of the sheet, see {@link RMSheet#fork()}
+	 * @return a copy of the level up for the forked sheet
+	 */
+	/* package private */ RMLevelUp fork(RMSheet forkedSheet) {
+		RMLevelUp fork = new RMLevelUp();
+		fork.sheet = forkedSheet;
+		fork.meta = meta;
+		fork.active = active;
+		fork.devPoints = devPoints;
+		fork.devPointsText = devPointsText;
+		fork.statusText = statusText;
+		fork.spellLists = spellLists == null ? null : new ArrayList<Integer>(spellLists);
+		fork.skillRanks = skillRanks == null ? null : new HashMap<Integer, Integer>(skillRanks);
+		fork.skillgroupRanks = skillgroupRanks == null ? null : new HashMap<Integer, Integer>(skillgroupRanks);
+		return fork;
+	}
+	
 	public boolean getLvlUpActive() {
 		return active;
 	}
@@ -148,14 +166,11 @@ public class RMLevelUp {
 	 * If active it validates whether the operation is within the valid costs and skill rank borders or not.
 	 * 
 	 * @param skill the skill
-	 * @param rank the new rank
+	 * @param delta the difference of the new and the current rank, only the sign is relevant
 	 * @throws LevelUpVetoException if skill rank operation is not allowed
 	 */
-	/* package private */ boolean modifySkillRank(ISkill skill, BigDecimal rank) throws LevelUpVetoException {
+	/* package private */ boolean modifySkillRank(ISkill skill, int delta) throws LevelUpVetoException {
 		if (active) {
-			/* current val */
-			Rank rankObj = sheet.getSkillRank(skill);
-			BigDecimal delta = rank.subtract(rankObj.getRank());
 			/* get costs */
 			Skillcost costs = sheet.getSkillcost(skill);
 			/* */
@@ -163,7 +178,7 @@ public class RMLevelUp {
 			if (skillRanks.containsKey(skill.getId())) {
 				costSteps = skillRanks.get(skill.getId()).intValue();
 			}
-			if (delta.doubleValue() > 0) {
+			if (delta > 0) {
 				/* increase rank*/
 				if (costSteps >= costs.size()) {
 					setError(RESOURCE.getString("ui.levelup.error.skill.maxreached"));
@@ -185,7 +200,7 @@ public class RMLevelUp {
 					setError(RESOURCE.getString("ui.levelup.error.skill.notenoughDP"));
 					throw new LevelUpVetoException(RESOURCE.getString("ui.levelup.error.skill.notenoughDP"));
 				}
-			} else if (delta.doubleValue() < 0) {
+			} else if (delta < 0) {
 				/* decrease rank */
 				if (costSteps <= 0) {
 					setError(RESOURCE.getString("ui.levelup.error.skill.minreached"));
@@ -254,13 +269,11 @@ public class RMLevelUp {
 	/**
 	 * 
 	 * @param category
-	 * @param rank
+	 * @param delta the difference of the new and the current rank, only the sign is relevant
 	 * @throws LevelUpVetoException if skill rank operation is not allowed
 	 */
-	/* package private */ void modifySkillcategoryRank(SkillCategory category, BigDecimal rank) throws LevelUpVetoException {
+	/* package private */ void modifySkillcategoryRank(SkillCategory category, int delta) throws LevelUpVetoException {
 		if (active) {
-			Rank rankObj = sheet.getSkillcategoryRank(category);
-			BigDecimal delta = rank.subtract(rankObj.getRank());
 			/* get costs */
 			Skillcost costs = sheet.getSkillcost(category);
 			/* */
@@ -268,7 +281,7 @@ public class RMLevelUp {
 			if (skillgroupRanks.containsKey(category.getId())) {
 				costSteps = skillgroupRanks.get(category.getId()).intValue();
 			}
-			if (delta.doubleValue() > 0) {
+			if (delta > 0) {
 				/* increase rank*/
 				if (costSteps >= costs.size()) {
 					setError(RESOURCE.getString("ui.levelup.error.skillcat.maxreached"));
@@ -286,7 +299,7 @@ public class RMLevelUp {
 					setError(RESOURCE.getString("ui.levelup.error.skillcat.notenoughDP"));
 					throw new LevelUpVetoException(RESOURCE.getString("ui.levelup.error.skillcat.notenoughDP"));
 				}
-			} else if (delta.doubleValue() < 0) {
+			} else if (delta < 0) {
 				/* decrease rank */
 				if (costSteps <= 0) {
 					setError(RESOURCE.getString("ui.levelup.error.skillcat.minreached"));
@@ -18,13 +18,14 @@ package net.sf.rmoffice.core;
 import java.beans.PropertyChangeListener;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -48,6 +49,7 @@ import net.sf.rmoffice.meta.Skill;
 import net.sf.rmoffice.meta.SkillCategory;
 import net.sf.rmoffice.meta.Skillcost;
 import net.sf.rmoffice.meta.Spelllist;
+import net.sf.rmoffice.meta.TableProgression;
 import net.sf.rmoffice.meta.TrainPack;
 import net.sf.rmoffice.meta.enums.CharImagePos;
 import net.sf.rmoffice.meta.enums.LengthUnit;
@@ -128,6 +130,8 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	public static final String GRACEPOINTS_PROP = "gracepoints";
 	public static final String DIVINESTATUS_PROP = "divinestatus";
 	public static final String TALENTFLAW_OWN_PAGE_PROP = "talentFlawOwnPage";
+	/** the content of a list was edited, the new value is the property of the list, e.g. {@link #PROPERTY_EQUIPMENTS} */
+	public static final String PROPERTY_CONTENT_CHANGED = "contentChanged";
 	
 	/* export to xml */
 	private String playerName;
@@ -143,9 +147,9 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	private Map<StatEnum, Integer> potAttr;
 	private Map<StatEnum, Integer> miscAttrBonus;
 	private Map<StatEnum, Integer> misc2StatBonus;
-	private Map<Integer, Rank> skillgroupRanks;
+	private RankStore skillgroupRanks;
 	private Map<Integer, String> itemSkillBonus;
-	private Map<Integer, Rank> skillRanks;
+	private RankStore skillRanks;
 	private Map<Integer, SkillType> skillTypes; 
 	private Set<StatEnum> magicrealm;
 	private Characteristics characteristics;
@@ -175,11 +179,29 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	private transient Progression progressionPower;
 	private transient int tempAttrSum = 0;
 	private transient boolean magicRealmEditable;
+	private transient BonusCache bonusCache;
+	/* sorted skills, rebuilt if custom skills or the excludes have changed */
+	private transient volatile List<ISkill> sortedSkills;
+	private transient volatile int sortedSkillsExcludesVersion;
 
 	public RMSheet() {
 	}
 	
+	/**
+	 * Initializes a new or imported sheet. The property changes are fired at the end in one batch.
+	 */
 	public void init() {
+		beginBatch();
+		try {
+			internalInit();
+		} finally {
+			commitBatch();
+		}
+	}
+
+	private void internalInit() {
+		getBonusCache().invalidateAll();
+		sortedSkills = null;
 		convertOldFormats();
 		firePropertyChange(PROPERTY_MAGICREALM_EDITABLE, null, Boolean.FALSE);
 		if (talentsFlaws == null) {talentsFlaws = new ArrayList<TalentFlaw>();}
@@ -189,8 +211,8 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		if (miscAttrBonus == null) {miscAttrBonus = new HashMap<StatEnum, Integer>();}
 		if (misc2StatBonus == null) {misc2StatBonus = new HashMap<StatEnum, Integer>();}
 		if (itemSkillBonus == null) {itemSkillBonus = new HashMap<Integer, String>(); }
-		if (skillgroupRanks == null)  {skillgroupRanks = new HashMap<Integer, Rank>();}
-		if (skillRanks == null) {skillRanks = new HashMap<Integer, Rank>();}
+		if (skillgroupRanks == null)  {skillgroupRanks = new RankStore();}
+		if (skillRanks == null) {skillRanks = new RankStore();}
 		if (magicrealm == null) {magicrealm = new HashSet<StatEnum>();}
 		if (skillTypes == null) {skillTypes = new HashMap<Integer, SkillType>();}
 		if (customSkills == null) {
@@ -371,12 +393,12 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			int toReplace[]   = new int[] {103, 246, 354, 355};
 			int replacement[] = new int[] {242, 299, 348, 349};
 			for (int i=0; i<toReplace.length; i++) {
-				Rank rankToReplace = skillRanks.remove(Integer.valueOf(toReplace[i]));
-				Rank rankReplacement = skillRanks.get(Integer.valueOf(replacement[i]));
+				Rank rankToReplace = skillRanks.remove(toReplace[i]);
+				Rank rankReplacement = skillRanks.get(replacement[i]);
 				if (rankReplacement == null && rankToReplace != null) {
 					if (log.isInfoEnabled()) log.info("converting the skill "+toReplace[i]+" to "+replacement[i]);
 					rankToReplace.setId(Integer.valueOf(replacement[i]));
-					skillRanks.put(Integer.valueOf(replacement[i]), rankToReplace);
+					skillRanks.put(replacement[i], rankToReplace);
 				}
 			}
 		}
@@ -551,6 +573,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		int oldBonus = getStatBonus(stat);
 		Integer oldValue = tempAttr.get(stat);
 		tempAttr.put(stat, Integer.valueOf(value));
+		getBonusCache().invalidateStat(stat);
 		int newBonus = getStatBonus(stat);
 		firePropertyChange(PROPERTY_STAT_BONUS_PREFIX+stat.name(), oldValue, Integer.valueOf(value));
 		firePropertyChange(PROPERTY_DEVPPOINTS, oldDevPoints, Integer.valueOf(getDevPoints()));
@@ -582,26 +605,51 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * 
 	 */
 	public IProgression getProgressionBody() {
-		IProgression prog = null;
-		if (progressionBody == null) {
-			prog = new Progression(0, 0, 0, 0, 0);
-		} else {
-			prog = progressionBody;
+		IProgression prog = getBonusCache().getProgressionBody();
+		if (prog == null) {
+			prog = combineProgression(progressionBody, true);
+			getBonusCache().setProgressionBody(prog);
+		}
+		return prog;
+	}
+
+	/**
+	 * Adds the progression modifiers of the talents and flaws to the given progression.
+	 * The result is shared with the meta data, so its bonus table is calculated once.
+	 * 
+	 * @param base the progression or {@code null} for an empty progression
+	 * @param body {@code true} for the body development, {@code false} for the power point progression
+	 * @return the progression, not {@code null}
+	 */
+	private IProgression combineProgression(IProgression base, boolean body) {
+		float[] digits = new float[5];
+		if (base != null) {
+			for (int i = 0; i < digits.length; i++) {
+				digits[i] = base.getDigit(i);
+			}
 		}
 		/* search in talent flaw */
 		if (talentsFlaws != null) {
 			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getProgressionBody() != null) {
-					prog = prog.modify(tf.getProgressionBody());
+				IProgression modifier = body ? tf.getProgressionBody() : tf.getProgressionPower();
+				if (modifier != null) {
+					for (int i = 0; i < digits.length; i++) {
+						digits[i] += modifier.getDigit(i);
+					}
 				}
 			}
 		}
+		TableProgression prog = new TableProgression(digits[0], digits[1], digits[2], digits[3], digits[4]);
+		if (data != null) {
+			return data.internProgression(prog);
+		}
 		return prog;
 	}
 
 	private void setProgressionBody(IProgression progressionBody) {
 		IProgression old = this.progressionBody;
 		this.progressionBody = progressionBody;
+		getBonusCache().invalidateProgressions();
 		firePropertyChange(PROPERTY_PROGRESSION_BODY, old, getProgressionBody());
 	}
 
@@ -613,19 +661,10 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * 
 	 */
 	public IProgression getProgressionPower() {
-		IProgression prog = null;
-		if (progressionPower == null) {
-			prog = new Progression(0, 0, 0, 0, 0);
-		} else {
-			prog = progressionPower;
-		}
-		/* search in talent flaw */
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getProgressionPower() != null) {
-					prog = prog.modify(tf.getProgressionPower());
-				}
-			}
+		IProgression prog = getBonusCache().getProgressionPower();
+		if (prog == null) {
+			prog = combineProgression(progressionPower, false);
+			getBonusCache().setProgressionPower(prog);
 		}
 		return prog;
 	}
@@ -633,6 +672,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	private void setProgressionPower(Progression progressionPower) {
 		Progression oldVal = this.progressionPower;
 		this.progressionPower = progressionPower;
+		getBonusCache().invalidateProgressions();
 		if (oldVal == null || this.progressionPower == null || getProgressionPower().compareTo(oldVal) != 0) {
 			firePropertyChange(PROPERTY_PROGRESSION_POWER, oldVal, getProgressionPower());
 		}
@@ -668,10 +708,15 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 
 	public int getStatBonusTotal(StatEnum stat) {
 		if (getState() == null || getState() == State.RACE_PROF_SELECTION) return 0;
+		Integer cached = getBonusCache().getStatBonusTotal(stat);
+		if (cached != null) {
+			return cached.intValue();
+		}
 		int b = getStatBonus(stat);
 		b += data.getRace(raceId).getStatBonus(stat);
 		b += getStatMiscBonus(stat);
 		b += getStatMisc2Bonus(stat);
+		getBonusCache().putStatBonusTotal(stat, b);
 		return b;
 	}
 
@@ -692,15 +737,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return the special bonus
 	 */
 	public int getResistanceSpecialBonus(ResistanceEnum res) {
-		int bonus = 0;
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getResistanceBonus(res) != null) {
-					bonus += tf.getResistanceBonus(res).intValue();
-				}
-			}
-		}
-		return bonus;
+		return getTalentFlawEffects().getResistanceBonus(res);
 	}
 	
 	/**
@@ -780,15 +817,32 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		}
 	}
 
+	/**
+	 * Returns the rank of the skill category, it must not be modified. Use
+	 * {@link #setSkillcategoryRank(SkillCategory, BigDecimal)} or
+	 * {@link #setSkillcategorySpecialBonus(SkillCategory, int)} to change it.
+	 * 
+	 * @param category the skill category, not {@code null}
+	 * @return the rank, not {@code null}
+	 */
 	public Rank getSkillcategoryRank(SkillCategory category) {
-		if (skillgroupRanks.containsKey(category.getId())) {
-			Rank rank = skillgroupRanks.get(category.getId());
+		return getSkillcategoryRank(category, false);
+	}
+
+	/*
+	 * Returns the rank of the skill category, a shared rank store is copied if the
+	 * rank is created for a modification.
+	 */
+	private Rank getSkillcategoryRank(SkillCategory category, boolean createRank) {
+		Rank rank = createRank ? skillgroupRanks.get(category.getId().intValue()) : skillgroupRanks.peek(category.getId().intValue());
+		if (rank != null) {
 			return rank;
-		} else {
-			Rank r = new Rank(category.getId());
-			skillgroupRanks.put(category.getId(), r);
-			return r;
-		}		
+		}
+		rank = new Rank(category.getId());
+		if (createRank) {
+			skillgroupRanks.put(category.getId().intValue(), rank);
+		}
+		return rank;
 	}
 
 	/**
@@ -799,20 +853,34 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @throws LevelUpVetoException if skill group rank operation is not allowed
 	 */
 	public void setSkillcategoryRank(SkillCategory category, BigDecimal rank) throws LevelUpVetoException {
-		levelUp.modifySkillcategoryRank(category, rank);
-		internalSetSkillcategoryRank(category, rank);
+		int scaledRank = Rank.toScaled(rank);
+		levelUp.modifySkillcategoryRank(category, scaledRank - getSkillcategoryRank(category).getScaledRank());
+		internalSetSkillcategoryRank(category, scaledRank);
+	}
+
+	/**
+	 * Increases the rank of the skill category by one.
+	 * Fires {@link #PROPERTY_SKILLCATEGORY_CHANGED} and {@link #PROPERTY_SKILLS_CHANGED} property change event.
+	 * 
+	 * @param category the category, not {@code null}
+	 * @throws LevelUpVetoException if skill group rank operation is not allowed
+	 */
+	public void increaseSkillcategoryRank(SkillCategory category) throws LevelUpVetoException {
+		levelUp.modifySkillcategoryRank(category, Rank.SCALE);
+		internalSetSkillcategoryRank(category, getSkillcategoryRank(category).getScaledRank() + Rank.SCALE);
 	}
 
 	/**
 	 * 
 	 * @param category
-	 * @param rank
+	 * @param scaledRank the new rank in the fixed-point scale of {@link Rank}
 	 */
-	private void internalSetSkillcategoryRank(SkillCategory category, BigDecimal rank) {
+	private void internalSetSkillcategoryRank(SkillCategory category, int scaledRank) {
 		if ( category.getRankType().isGroupRankEditable() ) {
-			Rank rankObj = getSkillcategoryRank(category);
-			rankObj.setRank(rank);
-			if (log.isDebugEnabled()) log.debug("increased rank of skill category "+category.getName() +" to "+rank);
+			Rank rankObj = getSkillcategoryRank(category, true);
+			rankObj.setScaledRank(scaledRank);
+			getBonusCache().invalidateSkillcategory(category.getId());
+			if (log.isDebugEnabled()) log.debug("increased rank of skill category "+category.getName() +" to "+rankObj.getRank());
 			firePropertyChange(PROPERTY_SKILLCATEGORY_CHANGED, null, rankObj);
 			firePropertyChange(PROPERTY_SKILLS_CHANGED, null, null);
 			/* check, if the modified skill category is for current armor */
@@ -830,16 +898,18 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return the bonus depending on the current rank
 	 */
 	public int getSkillcategoryRankBonus(SkillCategory category) {
-		if (skillgroupRanks.containsKey(category.getId())) {
-			Rank rank = skillgroupRanks.get(category.getId());
+		Rank rank = skillgroupRanks.peek(category.getId().intValue());
+		if (rank != null) {
 			IProgression prog = data.getSkillgroupProgression(category.getRankType());
-			return prog.getBonus(rank.getRank().toBigInteger().intValue());
+			return prog.getBonus(rank.getWholeRank());
 		}
 		return 0;
 	}
 
 	/**
 	 * Return the current rank object or creates a new rank object for the given skill. 
+	 * The rank must not be modified, use the setters of the sheet, e.g.
+	 * {@link #setSkillRank(ISkill, BigDecimal)}, to change it.
 	 * 
 	 * @param skill the skill
 	 * @return the rank object of skill, not {@code null}
@@ -852,15 +922,16 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * Return the current rank object or creates a new rank object for the given skill. 
 	 * 
 	 * @param skill the skill
-	 * @param createRank creates the skill rank if its not available
+	 * @param createRank creates the skill rank if its not available, the rank may be modified then
 	 * @return the rank object of skill, not {@code null}
 	 */
 	protected Rank getSkillRank(ISkill skill, boolean createRank) {
-		if (skillRanks.containsKey(skill.getId())) {
-			return skillRanks.get(skill.getId());
+		Rank rank = createRank ? skillRanks.get(skill.getId().intValue()) : skillRanks.peek(skill.getId().intValue());
+		if (rank != null) {
+			return rank;
 		} else if (createRank) {
 			Rank newValue = new Rank(skill.getId());
-			skillRanks.put(skill.getId(), newValue);
+			skillRanks.put(skill.getId().intValue(), newValue);
 			return newValue;
 		}
 		return new Rank(skill.getId());
@@ -868,8 +939,9 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	
 	public void removeSkillRank(ISkill skill) {
 		levelUp.removeSkill(skill);
-		if (skillRanks.containsKey(skill.getId())) {
-			skillRanks.remove(skill.getId());
+		if (skillRanks.remove(skill.getId().intValue()) != null) {
+			getBonusCache().invalidateSkill(skill.getId());
+			firePropertyChange(PROPERTY_SKILLS_CHANGED, null, null);
 		}
 	}
 		
@@ -881,8 +953,23 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @throws LevelUpVetoException if in level up mode the operation is not allowed
 	 */
 	public void setSkillRank(ISkill skill, BigDecimal rank) throws LevelUpVetoException {
-		boolean needSecondRun = levelUp.modifySkillRank(skill, rank);
-		internalModifySkillRank(skill, rank);
+		modifySkillRank(skill, Rank.toScaled(rank) - getSkillRank(skill).getScaledRank());
+	}
+	
+	/**
+	 * Increases the rank of the skill by one step of its skill type (everyman, etc.).
+	 * Fires {@link #PROPERTY_SKILLS_CHANGED} property change event.
+	 * 
+	 * @param skill the skill to increase the rank for
+	 * @throws LevelUpVetoException if in level up mode the operation is not allowed
+	 */
+	public void increaseSkillRank(ISkill skill) throws LevelUpVetoException {
+		modifySkillRank(skill, Rank.SCALE);
+	}
+	
+	private void modifySkillRank(ISkill skill, int delta) throws LevelUpVetoException {
+		boolean needSecondRun = levelUp.modifySkillRank(skill, delta);
+		internalModifySkillRank(skill, delta);
 		if (needSecondRun) {
 			levelUp.decreaseSkillRankSecondRun(skill);
 		}
@@ -891,25 +978,20 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	/*
 	 * Fires {@link #PROPERTY_SKILLS_CHANGED} and {@link #PROPERTY_ARMOR_SKILL} property change event.
 	 * @param skill the skill to set the rank for 
-	 * @param rank positive or negative number (effective number depends on the steps (everyman, etc,.))
+	 * @param delta positive or negative number, only the sign is relevant (effective number depends on the steps (everyman, etc,.))
 	 */
-	private void internalModifySkillRank(ISkill skill, BigDecimal rank) {
+	private void internalModifySkillRank(ISkill skill, int delta) {
 		Rank r = getSkillRank(skill, true);
-		BigDecimal delta = rank.subtract(r.getRank());
-		if (delta.doubleValue() > 0) {
+		if (delta > 0) {
 			/* increase */
-			BigDecimal newRank = r.getRank().add( getSkillType(skill).getStep() );
-			r.setRank(newRank);
-			if (log.isDebugEnabled()) log.debug("increased rank of skill "+skill.getName()+" to "+newRank);
-		} else if (delta.doubleValue() < 0) {
+			r.setScaledRank(r.getScaledRank() + Rank.scaledStep(getSkillType(skill)));
+			if (log.isDebugEnabled()) log.debug("increased rank of skill "+skill.getName()+" to "+r.getRank());
+		} else if (delta < 0) {
 			/* decrease */
-			BigDecimal newRank = r.getRank().subtract( getSkillType(skill).getStep() );
-			if (newRank.floatValue() < 0) {
-				newRank = BigDecimal.ZERO;
-			}
-			r.setRank(newRank);
-			if (log.isDebugEnabled()) log.debug("decreased rank of skill "+skill.getName()+" to "+newRank);
+			r.setScaledRank(Math.max(0, r.getScaledRank() - Rank.scaledStep(getSkillType(skill))));
+			if (log.isDebugEnabled()) log.debug("decreased rank of skill "+skill.getName()+" to "+r.getRank());
 		}
+		getBonusCache().invalidateSkill(skill.getId());
 		firePropertyChange(PROPERTY_SKILLS_CHANGED, null, null);
 		/* check, if the modified skill is for current armor */
 		if (data.getArmorSkill(getArmor()) != null && data.getArmorSkill(getArmor()).equals(skill)) {
@@ -918,12 +1000,13 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	}
 	
 	/**
-	 * Returns an unmodifiable collection of the current ranks.
+	 * Returns an unmodifiable collection of the current ranks. The ranks must not be
+	 * modified, they may be shared with a {@link #fork()}.
 	 * 
 	 * @return an unmodifiable list of ranks, not {@code null}
 	 */
 	public Collection<Rank> getSkillRanks() {
-		return Collections.unmodifiableCollection(skillRanks.values());
+		return Collections.unmodifiableCollection(skillRanks.peekValues());
 	}
 	
 	/**
@@ -932,14 +1015,9 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @param bonus the new bonus
 	 */
 	public void setSkillSpecialBonus(ISkill skill, int bonus) {
-		Rank r = null;
-		if (skillRanks.containsKey(skill.getId())) {
-			 r = skillRanks.get(skill.getId());
-		} else {
-			r = new Rank(skill.getId());
-			skillRanks.put(skill.getId(), r);
-		}
+		Rank r = getSkillRank(skill, true);
 		r.setSpecialBonus(Integer.valueOf(bonus));
+		getBonusCache().invalidateSkill(skill.getId());
 		firePropertyChange(PROPERTY_SKILLS_CHANGED, null, null);
 		/* check, if the modified skill is for current armor */
 		if (data.getArmorSkill(getArmor()) != null && data.getArmorSkill(getArmor()).equals(skill)) {
@@ -947,6 +1025,18 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		}
 	}
 
+	/**
+	 * Marks the skill as favorite, e.g. to print it on the first page.
+	 * 
+	 * @param skill the skill
+	 * @param favorite whether the skill is a favorite
+	 */
+	public void setSkillFavorite(ISkill skill, boolean favorite) {
+		Rank r = getSkillRank(skill, true);
+		r.setFavorite(Boolean.valueOf(favorite));
+		firePropertyChange(PROPERTY_SKILLS_CHANGED, null, null);
+	}
+
 	/**
 	 * @param skill the skill 
 	 * @return the rank bonus of the current skill rank
@@ -954,12 +1044,10 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 */
 	public int getSkillRankBonus(ISkill skill) {
 		int rk = 0;
-		if (skillRanks.containsKey(skill.getId())) {
-			Rank rank = skillRanks.get(skill.getId());
+		Rank rank = skillRanks.peek(skill.getId().intValue());
+		if (rank != null) {
 			/* ignore precision parts */
-			if (rank.getRank() != null) {
-				rk = rank.getRank().toBigInteger().intValue();
-			}
+			rk = rank.getWholeRank();
 		}
 		IProgression prog = getSkillProgression(getSkillcategory(skill).getRankType());
 		return prog.getBonus(rk);
@@ -975,16 +1063,19 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return the total bonus of the given skill 
 	 */
 	public int getSkillTotalBonus(ISkill skill) {
+		Integer cached = getBonusCache().getSkillTotalBonus(skill.getId());
+		if (cached != null) {
+			return cached.intValue();
+		}
 		int bonus = getSkillRankBonus(skill);
 		bonus += getSkillcategoryTotalBonus(getSkillcategory(skill));
 		/* special bonus */
-		if (skillRanks.containsKey(skill.getId())) {
-			Rank rank = skillRanks.get(skill.getId());
-			if (rank.getSpecialBonus() != null) {
-				bonus += rank.getSpecialBonus().intValue();
-			}
+		Rank rank = skillRanks.peek(skill.getId().intValue());
+		if (rank != null && rank.getSpecialBonus() != null) {
+			bonus += rank.getSpecialBonus().intValue();
 		}
 		bonus += getSkillSpecialBonus(skill);
+		getBonusCache().putSkillTotalBonus(skill.getId(), bonus);
 		return bonus;
 	}
 	
@@ -996,25 +1087,22 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return the calculated bonus
 	 */
 	public int getSkillSpecialBonus(ISkill skill) {
-		int bonus = 0;
+		Integer cached = getBonusCache().getSkillSpecialBonus(skill.getId());
+		if (cached != null) {
+			return cached.intValue();
+		}
 		/* Talent/Flaw special bonus */
-		for (TalentFlaw tf : getTalentsFlaws()) {
-			if (tf.getSkillBonus() != null) {
-				if (tf.getSkillBonus().containsKey(skill.getId())) {
-					bonus += tf.getSkillBonus().get(skill.getId()).intValue();
-				}
-			} else if (skill instanceof Spelllist) {
-				Spelllist spelllist = (Spelllist)skill;
-				if (spelllist.getAttributes() != null) {
-					for (StatEnum stat : spelllist.getAttributes()) {
-						Integer spellBonus = tf.getSpellRealmBonus(stat);
-						if (spellBonus != null) {
-							bonus += spellBonus.intValue();
-						}
-					}
+		TalentFlawEffects effects = getTalentFlawEffects();
+		int bonus = effects.getSkillBonus(skill.getId());
+		if (skill instanceof Spelllist) {
+			Spelllist spelllist = (Spelllist)skill;
+			if (spelllist.getAttributes() != null) {
+				for (StatEnum stat : spelllist.getAttributes()) {
+					bonus += effects.getSpellRealmBonus(stat);
 				}
 			}
 		}
+		getBonusCache().putSkillSpecialBonus(skill.getId(), bonus);
 		return bonus;
 	}
 
@@ -1041,6 +1129,10 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	}
 
 	public int getSkillcategoryTotalBonus(SkillCategory category) {
+		Integer cached = getBonusCache().getSkillcategoryTotalBonus(category.getId());
+		if (cached != null) {
+			return cached.intValue();
+		}
 		int bonus = getSkillcategoryRankBonus(category);
 		bonus += getSkillcategoryStatBonus(category);
 		/* profession bonus */
@@ -1048,12 +1140,14 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			bonus += getProfession().getSkillgroupBonus(category.getId().intValue());
 		}
 		/* special */
-		Integer userDefinedSpecialBonus = getSkillcategoryRank(category).getSpecialBonus();
+		Rank rank = skillgroupRanks.peek(category.getId().intValue());
+		Integer userDefinedSpecialBonus = rank == null ? null : rank.getSpecialBonus();
 		if (userDefinedSpecialBonus != null) {
 			bonus += userDefinedSpecialBonus.intValue();
 		}
 		/* Special bonus (calculated) */
 		bonus += getSkillcategorySpecial1Bonus(category);
+		getBonusCache().putSkillcategoryTotalBonus(category.getId(), bonus);
 		return bonus;
 	}
 
@@ -1109,56 +1203,9 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	
 	public SkillCategory getSkillcategory(ISkill skill) {
 		if (skill instanceof Spelllist) {
-			Spelllist spelllist = (Spelllist) skill;
-			/* compare magic realm */
-			boolean spelllistIsOwnRealm = false;
-			if (spelllist.getAttributes() != null && getMagicRealm().containsAll(spelllist.getAttributes())) {
-				spelllistIsOwnRealm = true;
-			}
-			boolean charIsArcane = false;
-			if (getMagicRealm().size() == 3) {
-				charIsArcane = true;
-			}
-			/* resolve the skillgroup */			
-			Integer profId = getProfession() == null ? Integer.valueOf(-1) : getProfession().getId();
-			for (SkillCategory sg : data.getSkillCategories()) {
-				if (sg.getRankType().isMagical() && sg.getRankSubType() != null) {
-					if ( /* skill group && spelllist are own realm
-					        or both other realm 
-					        or special handling for arcane users */
-					  sg.getRankType().isOwnRealm() && spelllistIsOwnRealm ||
-					  ! sg.getRankType().isOwnRealm() && ! spelllistIsOwnRealm ||
-					  charIsArcane && sg.getAttributes().size() == 3) {
-						
-						if (spelllist.getSpelllistType().isOpen() && sg.getRankSubType().isOpen() ||
-						    spelllist.getSpelllistType().isClosed() && sg.getRankSubType().isClosed()) {
-							/* open/closed skill group  */
-							if ((sg.getAttributes().size() == 0 && sg.getAttributes().size() != 3) || statListEquals(spelllist.getAttributes(), sg.getAttributes())) {
-								return sg;
-							}
-						} else if (spelllist.getSpelllistType().isProfession()) {
-							boolean containsProfId = spelllist.getSpelllistType().getProfessionIds().contains(profId);
-							if (containsProfId && sg.getRankSubType().isBase()) {
-								/* base skill group */
-								return sg;
-							} else if ((!containsProfId) && sg.getRankSubType().isProfession()) {
-								/* other profession skill group */
-								      /*    other base group    AND   not arcane */
-								if ( ( sg.getAttributes().size() == 0 && sg.getAttributes().size() != 3 ) || spelllist.getAttributes().containsAll(sg.getAttributes())) {
-									return sg;
-								}
-							}
-						}
-					}
-				}
-				// training package
-				if (sg.getRankType().isMagical()
-						&& spelllist.getSpelllistType().isTrainingPackage()
-						&& (sg.getRankType().equals(RankType.T) ||
-						    sg.getRankType().equals(RankType.P))
-						&& sg.getId().equals(spelllist.getSpelllistType().getTrainingPackageSpelllistId())) {
-					return sg;
-				}
+			SkillCategory sg = data.getSpelllistCategory((Spelllist) skill, getProfession(), getMagicRealm());
+			if (sg != null) {
+				return sg;
 			}
 		} else if (skill instanceof Skill) {
 			return ((Skill)skill).getCategory();
@@ -1170,19 +1217,6 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		return null;
 	}
 	
-	private boolean statListEquals(Collection<StatEnum> c1, Collection<StatEnum> c2) {
-		if (c1 == null && c2 == null)  return true;
-		if (c1 == null || c2 == null) return false;
-		if (c1.size() != c2.size()) return false;
-		Iterator<StatEnum> it1 = c1.iterator();
-		while (it1.hasNext()) {
-			if (!c2.contains(it1.next())) {
-				return false;
-			}
-		}
-		return true;
-	}
-
 	/**
 	 * Returns the PP regeneration including divine status modifications.
 	 * 
@@ -1190,13 +1224,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return recovery points
 	 */
 	public int getRecoverPP(boolean sleep) {
-		ISkill skillMEntw = null;
-		for (ISkill skill : data.getSkills()) {
-			if (getSkillcategory(skill).getRankType().isProgressionMagic()) {
-				skillMEntw = skill;
-				break;
-			}
-		}
+		ISkill skillMEntw = getProgressionSkill(RankType.M);
 		if (skillMEntw == null)
 			return 0;
 
@@ -1243,19 +1271,9 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		if (getRace() != null) {
 			exh += getRace().getExhaustionPoints();
 		}
-		float factor = 1;
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getExhaustion() != null) {
-					exh += tf.getExhaustion().intValue();
-				}
-				if (tf.getExhaustionMultiplier() != null) {
-					factor *= tf.getExhaustionMultiplier().floatValue();
-				}
-			}
-		}
-		
-		return Math.round(exh * factor);
+		TalentFlawEffects effects = getTalentFlawEffects();
+		exh += effects.getExhaustion();
+		return Math.round(exh * effects.getExhaustionMultiplier());
 	}
 
 	public boolean isMagicRealmEditable() {
@@ -1345,17 +1363,12 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			Integer id = costsSwitchable.get(cat.getId());
 			cat = data.getSkillCategory(id);
 		}
-		Skillcost returnValue = data.getSkillcost(getProfession(), cat);
 		// talent flaw
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getSkillCategoryCostReplacement(cat) != null) {
-					returnValue = tf.getSkillCategoryCostReplacement(cat);
-				}
-			}
+		Skillcost replacement = getTalentFlawEffects().getSkillCatCostReplacement(cat.getId());
+		if (replacement != null) {
+			return replacement;
 		}
-		
-		return returnValue;
+		return data.getSkillcost(getProfession(), cat);
 	}
 	
 	/**
@@ -1371,29 +1384,20 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			Integer id = costsSwitchable.get(cat.getId());
 			cat = data.getSkillCategory(id);
 		}
-		/* spell lists have costs that depends on rank */
-		BigDecimal rank = getSkillRank(skill).getRank();
-		Skillcost returnValue = data.getSkillcost(getProfession(), cat, skill, rank);
-		
 		// talent flaw
-		if (talentsFlaws != null) {
-			boolean foundSkillReplacement = false;
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getSkillCostReplacement(skill) != null) {
-					returnValue = tf.getSkillCostReplacement(skill);
-					foundSkillReplacement = true;
-				}
-			}
-			if (!foundSkillReplacement) {
-				// if there is no skill replacement, search for an category replacement
-				for (TalentFlaw tf : talentsFlaws) {
-					if (tf.getSkillCategoryCostReplacement(cat) != null) {
-						returnValue = tf.getSkillCategoryCostReplacement(cat);
-					}
-				}
-			}
+		TalentFlawEffects effects = getTalentFlawEffects();
+		Skillcost replacement = effects.getSkillCostReplacement(skill.getId());
+		if (replacement == null) {
+			// if there is no skill replacement, search for an category replacement
+			replacement = effects.getSkillCatCostReplacement(cat.getId());
+		}
+		if (replacement != null) {
+			return replacement;
 		}
-		return returnValue;
+		/* spell lists have costs that depends on rank */
+		Rank skillRank = skillRanks.peek(skill.getId().intValue());
+		BigDecimal rank = skillRank == null ? BigDecimal.ZERO : skillRank.getRank();
+		return data.getSkillcost(getProfession(), cat, skill, rank);
 	}
 	
 	/**
@@ -1458,18 +1462,9 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		width = width * 100;
 		
 		// talent flaw modifier
-		float factor = 1;
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getBaseMovement() != null) {
-					width += Math.round(tf.getBaseMovement().floatValue());
-				}
-				if (tf.getBasemoverateMultiplier() != null) {
-					factor *= tf.getBasemoverateMultiplier().floatValue();
-				}
-			}
-		}
-		return Math.round(width * factor);
+		TalentFlawEffects effects = getTalentFlawEffects();
+		width += effects.getBaseMovement();
+		return Math.round(width * effects.getBasemoverateMultiplier());
 	}
 	
 	public int getReactionBonus() {
@@ -1731,19 +1726,18 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		/* remove all youth ranks */		
 		skillgroupRanks.clear();		
 		skillRanks.clear();
+		getBonusCache().invalidateAll();
 		/* add new youth ranks (skill category)*/
 		for (SkillCategory category : getCulture().getYouthSkillgroups()) {
-			Rank rank = getSkillcategoryRank(category);
-			rank.setRank(BigDecimal.valueOf(getCulture().getYouthRank(category)));
-			skillgroupRanks.put(category.getId(), rank);
+			Rank rank = getSkillcategoryRank(category, true);
+			rank.setScaledRank(getCulture().getYouthRank(category) * Rank.SCALE);
 		}
 		/* add new youth ranks (skills)*/
 		for (ISkill skill : getCulture().getYouthSkills()) {
 			int rankVal = getCulture().getYouthRank(skill);
 			if (log.isDebugEnabled()) log.debug("youth skill "+skill.getName()+"="+rankVal);
-			Rank rank = getSkillRank(skill);
-			rank.setRank(BigDecimal.valueOf(rankVal));
-			skillRanks.put(skill.getId(), rank);
+			Rank rank = getSkillRank(skill, true);
+			rank.setScaledRank(rankVal * Rank.SCALE);
 		}
 		firePropertyChange(PROPERTY_SKILL_STRUCTURE_CHANGED, null, null);
 		if (log.isDebugEnabled()) log.debug("update youth ranks finished");
@@ -1771,15 +1765,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return db
 	 */
 	public int getDefensiveBonusSpecial() {
-		int dbSpecial = 0;
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getDb() != null) {
-					dbSpecial += tf.getDb().intValue();
-				}
-			}
-		}
-		return dbSpecial;
+		return getTalentFlawEffects().getDb();
 	}
 
 	/**
@@ -1788,15 +1774,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return shield db bonus
 	 */
 	public int getShieldDbBonusSpecial() {
-		int dbSpecial = 0;
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getShieldDb() != null) {
-					dbSpecial += tf.getShieldDb().intValue();
-				}
-			}
-		}
-		return dbSpecial;
+		return getTalentFlawEffects().getShieldDb();
 	}
 	
 	/**
@@ -1811,7 +1789,8 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		CustomSkill customSkill = new CustomSkill(skill, id, newName, type);
 		if (log.isDebugEnabled()) log.debug("created custom skill "+newName+" with id "+id+", actual skill id "+skill.getId());
 		customSkills.put(id, customSkill);
-		skillRanks.put(id, getSkillRank(customSkill));
+		skillRanks.put(id.intValue(), getSkillRank(customSkill));
+		sortedSkills = null;
 		return customSkill;
 	}
 	
@@ -1829,11 +1808,23 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	}
 	/**
 	 * Returns all skills from meta data and all custom skills. All excluded skills
-	 * won't be returned. 
+	 * won't be returned. The list is cached until a custom skill is registered or
+	 * the excludes have changed.
 	 * 
-	 * @return a list a all skills sorted by name
+	 * @return an unmodifiable list a all skills sorted by name
 	 */
 	public List<ISkill> getSkills() {
+		int excludesVersion = RMPreferences.getInstance().getExcludesVersion();
+		List<ISkill> skills = sortedSkills;
+		if (skills == null || sortedSkillsExcludesVersion != excludesVersion) {
+			skills = Collections.unmodifiableList(createSortedSkills());
+			sortedSkillsExcludesVersion = excludesVersion;
+			sortedSkills = skills;
+		}
+		return skills;
+	}
+	
+	private List<ISkill> createSortedSkills() {
 		List<ISkill> skills = new ArrayList<ISkill>();
 		for (ISkill skill : data.getSkills()) {
 			if ( ! RMPreferences.getInstance().isExcluded(skill.getSource())) {
@@ -1841,11 +1832,16 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			}
 		}
 		skills.addAll(customSkills.values());
-		/* sort */
+		/* sort with the precomputed collation keys of the names */
+		Collator collator = Collator.getInstance();
+		final Map<Integer, CollationKey> sortKeys = new HashMap<Integer, CollationKey>();
+		for (ISkill skill : skills) {
+			sortKeys.put(skill.getId(), collator.getCollationKey(skill.getName()));
+		}
 		Collections.sort(skills, new Comparator<ISkill>() {
 			@Override
 			public int compare(ISkill o1, ISkill o2) {
-				return o1.getName().compareTo(o2.getName());
+				return sortKeys.get(o1.getId()).compareTo(sortKeys.get(o2.getId()));
 			}});
 		return skills;
 	}
@@ -1857,9 +1853,11 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @param trainPack the pack to add
 	 */
 	public void addTrainPack(TrainPack trainPack) {
+		beginBatch();
 		try {
 			/* validate*/
 			levelUp.addTrainPack(trainPack);
+			getBonusCache().invalidateAll();
 			/* process */
 			String oldAppr = apprenticeShip;
 			/* TODO check if training pack is allowed before */
@@ -1876,19 +1874,14 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 				Integer tpRank = trainPack.getSkills().get(id);
 				ISkill skill = getSkill(id);
 				Rank skillRank = getSkillRank(skill, true);
-				BigDecimal newRank = BigDecimal.valueOf(tpRank.longValue()).add( skillRank.getRank() );
-				if (newRank.floatValue() < 0) {
-					newRank = BigDecimal.ZERO;
-				}
-				skillRank.setRank(newRank);
-				if (log.isDebugEnabled()) log.debug("set rank of skill "+skill.getName()+" to "+newRank);
+				skillRank.setScaledRank(Math.max(0, skillRank.getScaledRank() + tpRank.intValue() * Rank.SCALE));
+				if (log.isDebugEnabled()) log.debug("set rank of skill "+skill.getName()+" to "+skillRank.getRank());
 			}
 			for (Integer id : trainPack.getSkillsGroups().keySet()) {
 				Integer rank = trainPack.getSkillsGroups().get(id);
 				SkillCategory skillgroup = data.getSkillCategory(id);
 				Rank skillRank = getSkillcategoryRank(skillgroup);
-				BigDecimal newRank = BigDecimal.valueOf(rank.longValue()).add( skillRank.getRank() );
-				internalSetSkillcategoryRank(skillgroup, newRank);
+				internalSetSkillcategoryRank(skillgroup, skillRank.getScaledRank() + rank.intValue() * Rank.SCALE);
 			}
 			/* skill types */
 			Map<Integer, SkillType> st = trainPack.getSkillTypes();
@@ -1899,6 +1892,8 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			firePropertyChange(PROPERTY_ARMOR_SKILL, null, null);
 		} catch (LevelUpVetoException veto) {
 			if (log.isDebugEnabled()) log.debug(veto.getMessage());
+		} finally {
+			commitBatch();
 		}
 	}
 
@@ -1908,9 +1903,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return available {@link TrainPack}s
 	 */
 	public List<TrainPack> getAvailableDevPacks() {
-		List<TrainPack> avail = new ArrayList<TrainPack>();
-		avail.addAll(data.getTrainPacks());
-		return Collections.unmodifiableList( avail );
+		return data.getTrainPacks();
 	}
 	
 	public Integer getDevPackCosts(TrainPack devPack) {
@@ -1920,6 +1913,137 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		return Integer.valueOf(0);
 	}
 
+	/**
+	 * Creates a fork of the sheet to try alternatives, e.g. a training package or a level up,
+	 * and compare them with {@link #diff(RMSheet)}. The rank stores are shared until a rank
+	 * is changed or handed out, the bonus calculation only reads them. The characteristics, coins and custom skills are copied, the sheet
+	 * changes them in place, e.g. {@link #setCulture(Culture)} or {@link #modifySkill(ISkill, String, SkillType)}.
+	 * The equipment, herbs, magical items and info pages are copied with their elements, the
+	 * panels edit them in place. The copied magical items have no sheet adapter. The talents
+	 * and flaws are shared, they are only replaced. The small maps (e.g. the stats) are copied.
+	 * The fork has no listeners.
+	 * 
+	 * @return the fork, not {@code null}
+	 */
+	public RMSheet fork() {
+		RMSheet fork = new RMSheet();
+		fork.playerName = playerName;
+		fork.characterName = characterName;
+		fork.ep = ep;
+		fork.raceId = raceId;
+		fork.cultureId = cultureId;
+		fork.professionId = professionId;
+		fork.apprenticeShip = apprenticeShip;
+		fork.shieldId = shieldId;
+		fork.armor = armor;
+		fork.tempAttr = copy(tempAttr);
+		fork.potAttr = copy(potAttr);
+		fork.miscAttrBonus = copy(miscAttrBonus);
+		fork.misc2StatBonus = copy(misc2StatBonus);
+		fork.skillgroupRanks = skillgroupRanks == null ? null : skillgroupRanks.fork();
+		fork.itemSkillBonus = copy(itemSkillBonus);
+		fork.skillRanks = skillRanks == null ? null : skillRanks.fork();
+		fork.skillTypes = copy(skillTypes);
+		fork.magicrealm = magicrealm == null ? null : new HashSet<StatEnum>(magicrealm);
+		fork.characteristics = characteristics == null ? null : characteristics.copy();
+		fork.costsSwitchable = copy(costsSwitchable);
+		if (customSkills != null) {
+			fork.customSkills = new HashMap<Integer, CustomSkill>();
+			for (Map.Entry<Integer, CustomSkill> entry : customSkills.entrySet()) {
+				fork.customSkills.put(entry.getKey(), entry.getValue().copy());
+			}
+		}
+		fork.nextCustomSkillId = nextCustomSkillId;
+		fork.state = state;
+		fork.todos = todos == null ? null : new ArrayList<ToDo>(todos);
+		if (magicalitems != null) {
+			fork.magicalitems = new ArrayList<MagicalItem>(magicalitems.size());
+			for (MagicalItem item : magicalitems) {
+				fork.magicalitems.add(item.copy());
+			}
+		}
+		if (equipments != null) {
+			fork.equipments = new ArrayList<Equipment>(equipments.size());
+			for (Equipment equipment : equipments) {
+				fork.equipments.add(equipment.copy());
+			}
+		}
+		if (herbs != null) {
+			fork.herbs = new ArrayList<Herb>(herbs.size());
+			for (Herb herb : herbs) {
+				fork.herbs.add(herb.copy());
+			}
+		}
+		fork.coins = coins == null ? null : coins.copy();
+		if (infoPages != null) {
+			fork.infoPages = new ArrayList<InfoPage>(infoPages.size());
+			for (InfoPage infoPage : infoPages) {
+				fork.infoPages.add(infoPage.copy());
+			}
+		}
+		fork.levelUp = levelUp == null ? null : levelUp.fork(fork);
+		fork.weightUnit = weightUnit;
+		fork.lengthUnit = lengthUnit;
+		fork.printOutlineImage = printOutlineImage;
+		fork.imagePos = imagePos;
+		fork.talentsFlaws = talentsFlaws;
+		fork.fatepoints = fatepoints;
+		fork.gracepoints = gracepoints;
+		fork.talentFlawOwnPage = talentFlawOwnPage;
+		/* transient */
+		fork.data = data;
+		fork.progressionBody = progressionBody;
+		fork.progressionPower = progressionPower;
+		fork.tempAttrSum = tempAttrSum;
+		fork.magicRealmEditable = magicRealmEditable;
+		return fork;
+	}
+
+	private static <K, V> Map<K, V> copy(Map<K, V> map) {
+		return map == null ? null : new HashMap<K, V>(map);
+	}
+
+	/**
+	 * Compares the sheet with another one, e.g. with a {@link #fork()}.
+	 * 
+	 * @param other the other sheet, not {@code null}
+	 * @return the differences from this sheet to the other one, not {@code null}
+	 */
+	public SheetDiff diff(RMSheet other) {
+		return new SheetDiff(this, other);
+	}
+
+	/* package private */ RankStore getSkillRankStore() {
+		return skillRanks;
+	}
+
+	/* package private */ RankStore getSkillcategoryRankStore() {
+		return skillgroupRanks;
+	}
+
+	/* package private */ void setRankStores(RankStore skillRanks, RankStore skillgroupRanks) {
+		this.skillRanks = skillRanks;
+		this.skillgroupRanks = skillgroupRanks;
+	}
+
+	/* package private */ Map<StatEnum, Integer> getTempAttr() {
+		return tempAttr;
+	}
+
+	/* package private */ Map<StatEnum, Integer> getPotAttr() {
+		return potAttr;
+	}
+
+	/* package private */ Map<StatEnum, Integer> getMiscAttrBonus() {
+		return miscAttrBonus;
+	}
+
+	/* package private */ void setStatValues(Map<StatEnum, Integer> tempAttr, Map<StatEnum, Integer> potAttr, Map<StatEnum, Integer> miscAttrBonus) {
+		this.tempAttr = tempAttr;
+		this.potAttr = potAttr;
+		this.miscAttrBonus = miscAttrBonus;
+	}
+
 	/**
 	 * Disposes the sheet. Disposes the property change listeners.
 	 */
@@ -1961,13 +2085,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			bonus += getDivineStatusObject().getIntuitionBonus();
 		}
 		// talent flaw
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getStatBonus(stat) != null) {
-					bonus += tf.getStatBonus(stat).intValue();
-				}
-			}
-		}
+		bonus += getTalentFlawEffects().getStatBonus(stat);
 		return bonus;
 	}
 	
@@ -1982,6 +2100,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		Integer oldValue = miscAttrBonus.get(stat);
 		Integer newValue = Integer.valueOf(bonus);
 		miscAttrBonus.put(stat, newValue);
+		getBonusCache().invalidateStat(stat);
 		if (sendChangeEvent) {			
 			firePropertyChange(PROPERTY_STAT_MISCBONUS_PREFIX+stat, oldValue, newValue);
 		}
@@ -2000,8 +2119,9 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @param bonus the new bonus
 	 */
 	public void setSkillcategorySpecialBonus(SkillCategory category, int bonus) {
-		Rank rankObj = getSkillcategoryRank(category);
+		Rank rankObj = getSkillcategoryRank(category, true);
 		rankObj.setSpecialBonus(Integer.valueOf(bonus));
+		getBonusCache().invalidateSkillcategory(category.getId());
 		firePropertyChange(PROPERTY_SKILLCATEGORY_CHANGED, null, rankObj);
 		firePropertyChange(PROPERTY_SKILLS_CHANGED, null, null);
 		/* check, if the modified skill is for current armor */
@@ -2021,13 +2141,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		/* body development */
 		int bonus = category.getRankType().isProgressionBody() ? 10 : 0;
 		/* talent and flaws */
-		for (TalentFlaw tf : getTalentsFlaws()) {
-			if (tf.getSkillCatBonus() != null) {
-				if (tf.getSkillCatBonus().containsKey(category.getId())) {
-					bonus += tf.getSkillCatBonus().get(category.getId()).intValue();
-				}
-			}
-		}
+		bonus += getTalentFlawEffects().getSkillCatBonus(category.getId());
 		return bonus;
 	}
 
@@ -2099,14 +2213,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			fac = 1;
 		}
 		// Talent Flaw Modifier
-		float tfModifier = 1;
-		if (talentsFlaws != null) {
-			for (TalentFlaw tf : talentsFlaws) {
-				if (tf.getWeightPenalty() != null) {
-					tfModifier *= tf.getWeightPenalty().floatValue(); 
-				}
-			}
-		}
+		float tfModifier = getTalentFlawEffects().getWeightPenalty();
 		return Math.round( tfModifier * (-8 * (fac - 1)) );
 	}
 	
@@ -2148,32 +2255,12 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		}
 		/* check talent and flaws (skills types) */
 		if (retVal == null) {
-			for (TalentFlaw tf : getTalentsFlaws()) {
-				if (tf.getSkillType() != null && tf.getSkillType().containsKey(skill.getId())) {
-					SkillType newType = tf.getSkillType().get(skill.getId());
-					if (SkillType.RESTRICTED.equals(newType)) {
-						retVal = SkillType.RESTRICTED; // this is always stronger
-						break;
-					} else if (retVal == null || newType.ordinal() > retVal.ordinal() ){
-						retVal = newType;
-					}
-				}
-			}
+			retVal = getTalentFlawEffects().getSkillType(skill.getId());
 		}
 		/* check talent and flaws (skill category types) */
 		if (retVal == null) {
 			SkillCategory skillCat = getSkillcategory(skill);
-			for (TalentFlaw tf : getTalentsFlaws()) {
-				if (tf.getSkillCatType() != null && tf.getSkillCatType().containsKey(skillCat.getId())) {
-					SkillType newType = tf.getSkillCatType().get(skillCat.getId());
-					if (SkillType.RESTRICTED.equals(newType)) {
-						retVal = SkillType.RESTRICTED; // this is always stronger
-						break;
-					} else if (retVal == null || newType.ordinal() > retVal.ordinal() ){
-						retVal = newType;
-					}
-				}
-			}
+			retVal = getTalentFlawEffects().getSkillCatType(skillCat.getId());
 		}
 		if (retVal == null) {
 			retVal = getProfession().getSkillType(skillId);
@@ -2214,18 +2301,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		if (skillCat == null || getProfession() == null) {
 			return SkillType.DEFAULT;
 		}
-		SkillType retVal = null;
-		for (TalentFlaw tf : getTalentsFlaws()) {
-			if (tf.getSkillCatType() != null && tf.getSkillCatType().containsKey(skillCat.getId())) {
-				SkillType newType = tf.getSkillCatType().get(skillCat.getId());
-				if (SkillType.RESTRICTED.equals(newType)) {
-					retVal = SkillType.RESTRICTED; // this is always stronger
-					break;
-				} else if (retVal == null || newType.ordinal() > retVal.ordinal() ){
-					retVal = newType;
-				}
-			}
-		}
+		SkillType retVal = getTalentFlawEffects().getSkillCatType(skillCat.getId());
 		if (retVal == null) {
 			retVal = getProfession().getSkillGroupType(skillCat.getId().intValue());
 		}
@@ -2356,7 +2432,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return whether the skill has a skill rank or not
 	 */
 	public boolean hasSkillRank(ISkill skill) {
-		return skillRanks.containsKey(skill.getId());
+		return skillRanks.containsKey(skill.getId().intValue());
 	}
 	
 	public boolean getLvlUpActive() {
@@ -2417,30 +2493,31 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	public int getHitPoints() {
 		int hits = getProgressionBodyTotalBonus();
 		// talent flaw tolerance
-		float tolerance = 1f;
-		if (getTalentsFlaws() != null) {
-			for (TalentFlaw tf : getTalentsFlaws()) {
-				if (tf.getTolerance() != null) {
-					tolerance *= tf.getTolerance().floatValue();
-				}
-			}
-		}
+		float tolerance = getTalentFlawEffects().getTolerance();
 		hits = Math.round( tolerance * hits);
 		return hits;
 	}
 
 	protected int getProgressionBodyTotalBonus() {
-		ISkill skillHits = null;
-		for (ISkill skill : data.getSkills()) {
-			SkillCategory sc = getSkillcategory(skill);
-			if (sc.getRankType().isProgressionBody()) {
-				skillHits = skill;				
-			}
-		}
+		ISkill skillHits = getProgressionSkill(RankType.K);
 		int hits = getSkillTotalBonus(skillHits);
 		return hits;
 	}
 	
+	/**
+	 * Returns the development skill of the progression category (body or power point development).
+	 * 
+	 * @param rankType the rank type of the progression category
+	 * @return the skill or {@code null}
+	 */
+	private ISkill getProgressionSkill(RankType rankType) {
+		List<ISkill> skills = data.getSkills(rankType);
+		if (skills.isEmpty()) {
+			return null;
+		}
+		return skills.get(0);
+	}
+	
 	/**
 	 * Returns the unconscious points without the hit points.
 	 * 
@@ -2459,12 +2536,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	 * @return power points
 	 */
 	public int getPowerPoints() {
-		ISkill skillPPs = null;
-		for (ISkill skill : data.getSkills()) {
-			if (getSkillcategory(skill).getRankType().isProgressionMagic()) {
-				skillPPs = skill;
-			}
-		}
+		ISkill skillPPs = getProgressionSkill(RankType.M);
 		if (skillPPs != null) {
 			return getSkillTotalBonus(skillPPs);
 		}
@@ -2480,36 +2552,42 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	public void modifySkill(ISkill skill, String skillName, SkillType skillType) {
 		/* check changed type */
 		SkillType oldSkillType = getSkillType(skill);
-		BigDecimal newRank = null;
+		Integer newRank = null;
 		if (skillType != null && ! skillType.equals(oldSkillType)) {
 			/* re-calculate ranks */
 			int levelUpSteps = levelUp.getLevelUpSteps(skill);
-			BigDecimal ranksThisLevelNormal =  new BigDecimal(levelUpSteps).multiply(oldSkillType.getStep());
-			BigDecimal rankWithOutLevelUp = getSkillRank(skill).getRank().subtract(ranksThisLevelNormal);
-			newRank = new BigDecimal(levelUpSteps).multiply(skillType.getStep()).add(rankWithOutLevelUp);
+			int ranksThisLevelNormal = levelUpSteps * Rank.scaledStep(oldSkillType);
+			int rankWithOutLevelUp = getSkillRank(skill).getScaledRank() - ranksThisLevelNormal;
+			newRank = Integer.valueOf(levelUpSteps * Rank.scaledStep(skillType) + rankWithOutLevelUp);
 		}
 		
 		if (skill instanceof CustomSkill) {
-			((CustomSkill) skill).setName(skillName); 
-			((CustomSkill) skill).setType(skillType);
+			/* the instance of this sheet, a fork has its own copy */
+			CustomSkill customSkill = customSkills.containsKey(skill.getId()) ? customSkills.get(skill.getId()) : (CustomSkill) skill;
+			customSkill.setName(skillName); 
+			customSkill.setType(skillType);
+			/* the name is the sort order of the skills */
+			sortedSkills = null;
 			/* modify skill rank */
-			if (skillRanks.containsKey(skill.getId())) {
-				skillRanks.get(skill.getId()).setRank(newRank);
+			Rank rank = skillRanks.get(skill.getId().intValue());
+			if (rank != null && newRank != null) {
+				rank.setScaledRank(newRank.intValue());
 			}
 				
 		} else {
 			/* remap skill rank */
-			if (skillRanks.containsKey(skill.getId())) {
-				Rank oldSkillRank = skillRanks.remove(skill.getId());				
+			Rank oldSkillRank = skillRanks.remove(skill.getId().intValue());
+			if (oldSkillRank != null) {
 				ISkill newSkill = registerCustomSkill(skill, skillName, skillType);
 				oldSkillRank.setId(newSkill.getId());
 				if (newRank != null) {
-					oldSkillRank.setRank(newRank);
+					oldSkillRank.setScaledRank(newRank.intValue());
 				}
-				skillRanks.put(newSkill.getId(), oldSkillRank);
+				skillRanks.put(newSkill.getId().intValue(), oldSkillRank);
 				levelUp.modifySkill(skill, newSkill);
 			}
 		}
+		getBonusCache().invalidateAll();
 		firePropertyChange(PROPERTY_SKILL_STRUCTURE_CHANGED, null, null);
 	}
 	
@@ -2517,6 +2595,16 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		firePropertyChange(PROPERTY_SKILL_STRUCTURE_CHANGED, null, null);
 	}
 
+	/**
+	 * Fires {@link #PROPERTY_CONTENT_CHANGED} after an element of a list was edited, e.g. the
+	 * description of an equipment.
+	 *
+	 * @param listProperty the property of the list, e.g. {@link #PROPERTY_EQUIPMENTS}
+	 */
+	public void fireContentChanged(String listProperty) {
+		firePropertyChange(PROPERTY_CONTENT_CHANGED, null, listProperty);
+	}
+
 	/**
 	 * Notifies the sheet about changes in magical items and talents and flaws.
 	 */
@@ -2552,6 +2640,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		}
 		/* update stat bonus */
 		misc2StatBonus = newStatMisc2Bonus;
+		getBonusCache().invalidateAll();
 		for (StatEnum stat : StatEnum.values()) {
 			firePropertyChange(PROPERTY_STAT_MISC2BONUS_PREFIX+stat.name(), null, Integer.valueOf(getStatMisc2Bonus(stat)));
 		}
@@ -2588,6 +2677,8 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 
 	public void setMetaData(MetaData data) {
 		this.data = data;
+		getBonusCache().invalidateAll();
+		sortedSkills = null;
 	}
 
 	public CharImagePos getImagePos() {
@@ -2630,6 +2721,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 		if (talentsFlaws != null) {
 			this.talentsFlaws.addAll(talentsFlaws);
 		}
+		getBonusCache().invalidateAll();
 		firePropertyChange(TALENTSFLAWS_PROP, oldValue, this.talentsFlaws);
 		firePropertyChange(PROPERTY_SKILLCATEGORY_CHANGED, null, null);
 		firePropertyChange(PROPERTY_SKILL_CATEGORIES, null, null);
@@ -2650,11 +2742,7 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	public int getInitiativeBonus() {
 		int bonus = getStatBonusTotal(StatEnum.QUICKNESS);
 		// check the talents/flaws
-		for (TalentFlaw tf : getTalentsFlaws()) {
-			if (tf.getInitiativeBonus() != null) {
-				bonus += tf.getInitiativeBonus().intValue();
-			}
-		}
+		bonus += getTalentFlawEffects().getInitiativeBonus();
 		return bonus;
 	}
 
@@ -2710,18 +2798,17 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 	}
 	
 	public void fixBackwardCompatibilities() {
+		getBonusCache().invalidateAll();
 		// with 4.3.20 skill 540 (architecture) was removed and has to be replaced with 132
 		Integer idArchitectureOld = Integer.valueOf(540);
 		Integer idArchitectureNew = Integer.valueOf(132);
 		if (skillRanks != null) {
-			if (skillRanks.containsKey(idArchitectureOld)) {
-				Rank r = skillRanks.remove(idArchitectureOld);
-				if (r != null) {
-					r.setId(idArchitectureNew);
-				}
-				if (!skillRanks.containsKey(idArchitectureNew)) {
+			Rank r = skillRanks.remove(idArchitectureOld.intValue());
+			if (r != null) {
+				r.setId(idArchitectureNew);
+				if (!skillRanks.containsKey(idArchitectureNew.intValue())) {
 					// replace with skill 132 if not exists
-					skillRanks.put(idArchitectureNew, r);
+					skillRanks.put(idArchitectureNew.intValue(), r);
 				}
 			}
 		}
@@ -2747,4 +2834,32 @@ public class RMSheet extends AbstractPropertyChangeSupport {
 			}
 		}
 	}
+	
+	/**
+	 * Invalidates the cached bonus values before the listeners are notified, so they
+	 * already read the new values.
+	 */
+	@Override
+	protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+		getBonusCache().propertyChanged(propertyName);
+		super.firePropertyChange(propertyName, oldValue, newValue);
+	}
+	
+	/* the summed up effects of the talents and flaws, created again after changes */
+	private TalentFlawEffects getTalentFlawEffects() {
+		TalentFlawEffects effects = getBonusCache().getTalentFlawEffects();
+		if (effects == null) {
+			effects = new TalentFlawEffects(getTalentsFlaws());
+			getBonusCache().setTalentFlawEffects(effects);
+		}
+		return effects;
+	}
+	
+	/* the cache is transient, so it is null after import */
+	private BonusCache getBonusCache() {
+		if (bonusCache == null) {
+			bonusCache = new BonusCache();
+		}
+		return bonusCache;
+	}
 }
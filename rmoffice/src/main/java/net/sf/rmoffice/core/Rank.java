@@ -16,14 +16,28 @@
 package net.sf.rmoffice.core;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import net.sf.rmoffice.meta.enums.SkillType;
 
 
 /**
- * The association between a sheet and the skills/skill groups.
+ * The association between a sheet and the skills/skill groups. The rank is stored
+ * as fixed-point number in quarter steps, see {@link #SCALE}.
  */
 public class Rank {
+	/** the fixed-point scale of the rank, ranks are whole, half or quarter steps */
+	/* package private */ static final int SCALE = 4;
+	private static final BigDecimal BIG_SCALE = BigDecimal.valueOf(SCALE);
+	private static final int[] SCALED_STEPS = new int[SkillType.values().length];
+	static {
+		for (SkillType type : SkillType.values()) {
+			SCALED_STEPS[type.ordinal()] = toScaled(type.getStep());
+		}
+	}
+	
 	private Integer id;
-	private BigDecimal rank;	
+	private int rank;
 	private Integer specialBonus;
 	private Boolean favorite;
 	
@@ -32,7 +46,6 @@ public class Rank {
 	 */
 	/* package private */ Rank(Integer id) {
 		this.id = id;
-		rank = BigDecimal.valueOf(0);
 	}
 	
 	public Rank() {
@@ -60,16 +73,49 @@ public class Rank {
 	 * @return rank, not {@code null}
 	 */
 	public BigDecimal getRank() {
-		if (rank == null) {
-			return BigDecimal.valueOf(0);
-		} else {
-			return rank;
+		if (rank % SCALE == 0) {
+			return BigDecimal.valueOf(rank / SCALE);
 		}
+		return BigDecimal.valueOf(rank).divide(BIG_SCALE);
+	}
+	
+	/**
+	 * Returns the rank without the fraction, e.g. 2 for the rank 2.5.
+	 * 
+	 * @return the whole ranks
+	 */
+	public int getWholeRank() {
+		return rank / SCALE;
 	}
 	
+	/**
+	 * 
+	 * @param rank the new rank, {@code null} is rank 0
+	 */
 	/* package private */ void setRank(BigDecimal rank) {
+		this.rank = rank == null ? 0 : toScaled(rank);
+	}
+	
+	/* package private */ int getScaledRank() {
+		return rank;
+	}
+	
+	/* package private */ void setScaledRank(int rank) {
 		this.rank = rank;
 	}
+	
+	/* package private */ static int toScaled(BigDecimal rank) {
+		return rank.multiply(BIG_SCALE).setScale(0, RoundingMode.HALF_UP).intValue();
+	}
+	
+	/**
+	 * 
+	 * @param type the skill type, not {@code null}
+	 * @return the rank step of the skill type in the fixed-point scale
+	 */
+	/* package private */ static int scaledStep(SkillType type) {
+		return SCALED_STEPS[type.ordinal()];
+	}
 
 	/**
 	 * 
@@ -96,4 +142,16 @@ public class Rank {
 	/* package private */ void setSpecialBonus(Integer specialBonus) {
 		this.specialBonus = specialBonus;
 	}
+
+	/**
+	 * 
+	 * @return a new rank with the same values
+	 */
+	/* package private */ Rank copy() {
+		Rank copy = new Rank(id);
+		copy.rank = rank;
+		copy.specialBonus = specialBonus;
+		copy.favorite = favorite;
+		return copy;
+	}
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+
+/**
+ * Persists the {@link Rank} and {@link RankStore} in the format of the former
+ * {@code Map<Integer, Rank>} with a {@link BigDecimal} rank, so files of all versions
+ * can be read and written.
+ * <pre>
+ * &lt;skillRanks&gt;
+ *   &lt;entry&gt;
+ *     &lt;int&gt;204&lt;/int&gt;
+ *     &lt;rank&gt;
+ *       &lt;id&gt;204&lt;/id&gt;
+ *       &lt;rank&gt;1.5&lt;/rank&gt;
+ *     &lt;/rank&gt;
+ *   &lt;/entry&gt;
+ * &lt;/skillRanks&gt;
+ * </pre>
+ */
+/* package private */ final class RankConverters {
+	private static final String ID = "id";
+	private static final String RANK = "rank";
+	private static final String SPECIAL_BONUS = "specialBonus";
+	private static final String FAVORITE = "favorite";
+
+	private RankConverters() {
+	}
+
+	/* -------------------------------------------------------------------------
+	 * XStream
+	 * ------------------------------------------------------------------------- */
+	/**
+	 * XStream converter of {@link Rank}.
+	 */
+	static class XStreamRankConverter implements Converter {
+		@Override
+		public boolean canConvert(@SuppressWarnings("rawtypes") Class type) {
+			return Rank.class.equals(type);
+		}
+
+		@Override
+		public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+			Rank rank = (Rank) source;
+			if (rank.getId() != null) {
+				writeNode(writer, ID, rank.getId().toString());
+			}
+			writeNode(writer, RANK, rank.getRank().toString());
+			if (rank.getSpecialBonus() != null) {
+				writeNode(writer, SPECIAL_BONUS, rank.getSpecialBonus().toString());
+			}
+			if (Boolean.TRUE.equals(rank.getFavorite())) {
+				writeNode(writer, FAVORITE, Boolean.TRUE.toString());
+			}
+		}
+
+		@Override
+		public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+			Rank rank = new Rank();
+			while (reader.hasMoreChildren()) {
+				reader.moveDown();
+				String name = reader.getNodeName();
+				String value = reader.getValue();
+				if (ID.equals(name)) {
+					rank.setId(Integer.valueOf(value.trim()));
+				} else if (RANK.equals(name)) {
+					rank.setRank(new BigDecimal(value.trim()));
+				} else if (SPECIAL_BONUS.equals(name)) {
+					rank.setSpecialBonus(Integer.valueOf(value.trim()));
+				} else if (FAVORITE.equals(name)) {
+					rank.setFavorite(Boolean.valueOf(value.trim()));
+				}
+				reader.moveUp();
+			}
+			return rank;
+		}
+
+		private static void writeNode(HierarchicalStreamWriter writer, String name, String value) {
+			writer.startNode(name);
+			writer.setValue(value);
+			writer.endNode();
+		}
+	}
+
+	/**
+	 * XStream converter of {@link RankStore}, written like a map with integer keys.
+	 */
+	static class XStreamRankStoreConverter implements Converter {
+		@Override
+		public boolean canConvert(@SuppressWarnings("rawtypes") Class type) {
+			return RankStore.class.equals(type);
+		}
+
+		@Override
+		public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+			RankStore store = (RankStore) source;
+			for (int key : store.keys()) {
+				writer.startNode("entry");
+				writer.startNode("int");
+				writer.setValue(String.valueOf(key));
+				writer.endNode();
+				writer.startNode(RANK);
+				context.convertAnother(store.peek(key));
+				writer.endNode();
+				writer.endNode();
+			}
+		}
+
+		@Override
+		public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+			RankStore store = new RankStore();
+			while (reader.hasMoreChildren()) {
+				reader.moveDown();
+				Integer key = null;
+				Rank rank = null;
+				while (reader.hasMoreChildren()) {
+					reader.moveDown();
+					if (key == null && ! RANK.equals(reader.getNodeName())) {
+						key = Integer.valueOf(reader.getValue().trim());
+					} else {
+						rank = (Rank) context.convertAnother(store, Rank.class);
+					}
+					reader.moveUp();
+				}
+				if (key != null && rank != null) {
+					store.put(key.intValue(), rank);
+				}
+				reader.moveUp();
+			}
+			return store;
+		}
+	}
+
+	/* -------------------------------------------------------------------------
+	 * Gson
+	 * ------------------------------------------------------------------------- */
+	/**
+	 * Gson adapter of {@link Rank}.
+	 */
+	static class GsonRankAdapter extends TypeAdapter<Rank> {
+		@Override
+		public void write(JsonWriter out, Rank rank) throws IOException {
+			if (rank == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			if (rank.getId() != null) {
+				out.name(ID).value(rank.getId());
+			}
+			out.name(RANK).value(rank.getRank());
+			if (rank.getSpecialBonus() != null) {
+				out.name(SPECIAL_BONUS).value(rank.getSpecialBonus());
+			}
+			if (Boolean.TRUE.equals(rank.getFavorite())) {
+				out.name(FAVORITE).value(true);
+			}
+			out.endObject();
+		}
+
+		@Override
+		public Rank read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			Rank rank = new Rank();
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+				} else if (ID.equals(name)) {
+					rank.setId(Integer.valueOf(in.nextInt()));
+				} else if (RANK.equals(name)) {
+					rank.setRank(new BigDecimal(in.nextString()));
+				} else if (SPECIAL_BONUS.equals(name)) {
+					rank.setSpecialBonus(Integer.valueOf(in.nextInt()));
+				} else if (FAVORITE.equals(name)) {
+					rank.setFavorite(Boolean.valueOf(in.nextBoolean()));
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return rank;
+		}
+	}
+
+	/**
+	 * Gson adapter of {@link RankStore}, written like a map with integer keys.
+	 */
+	static class GsonRankStoreAdapter extends TypeAdapter<RankStore> {
+		private final GsonRankAdapter rankAdapter = new GsonRankAdapter();
+
+		@Override
+		public void write(JsonWriter out, RankStore store) throws IOException {
+			if (store == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			for (int key : store.keys()) {
+				out.name(String.valueOf(key));
+				rankAdapter.write(out, store.peek(key));
+			}
+			out.endObject();
+		}
+
+		@Override
+		public RankStore read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			RankStore store = new RankStore();
+			in.beginObject();
+			while (in.hasNext()) {
+				int key = Integer.parseInt(in.nextName());
+				Rank rank = rankAdapter.read(in);
+				if (rank != null) {
+					store.put(key, rank);
+				}
+			}
+			in.endObject();
+			return store;
+		}
+	}
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The ranks of a sheet by skill or skill category id. It is an open addressing hash map
+ * with linear probing and primitive int keys, so the lookups don't box the ids. Not thread
+ * safe. It is persisted like a {@code Map<Integer, Rank>}, see {@link RankConverters}.
+ * <p>
+ * A {@link #fork()} shares the arrays and ranks with this store. The ranks are modified in
+ * place by the sheet, so a shared store copies them before a rank is changed or handed out
+ * by {@link #get(int)} or {@link #values()}, except for the last store that still uses them.
+ * The read only lookups use {@link #peek(int)} and {@link #peekValues()} and keep sharing,
+ * they never write to the store, e.g. while the PDF is created on another thread.
+ */
+/* package private */ final class RankStore {
+	/* no skill has this id */
+	private static final int FREE = Integer.MIN_VALUE;
+	private static final int MIN_CAPACITY = 16;
+
+	private int[] keys;
+	private Rank[] values;
+	private int size;
+	private int modCount;
+	/* the stores using the same arrays, null if this store is the only one */
+	private Shared shared;
+
+	RankStore() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param expectedSize the expected number of ranks
+	 */
+	RankStore(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 / 4 < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	private RankStore(RankStore store) {
+		keys = store.keys;
+		values = store.values;
+		size = store.size;
+		shared = store.shared;
+	}
+
+	/**
+	 * 
+	 * @return a store with the same ranks, sharing them until the first access
+	 */
+	RankStore fork() {
+		if (shared == null) {
+			shared = new Shared();
+		}
+		shared.stores++;
+		return new RankStore(this);
+	}
+
+	/* copies the shared arrays and ranks before they are accessed */
+	private void own() {
+		if (shared != null) {
+			if (shared.stores > 1) {
+				shared.stores--;
+				keys = keys.clone();
+				values = values.clone();
+				for (int i = 0; i < values.length; i++) {
+					if (values[i] != null) {
+						values[i] = values[i].copy();
+					}
+				}
+			}
+			shared = null;
+		}
+	}
+
+	/**
+	 * 
+	 * @param other the other store
+	 * @return whether both stores still share the same ranks, so they are equal
+	 */
+	boolean sharesWith(RankStore other) {
+		return keys == other.keys && values == other.values;
+	}
+
+	/**
+	 * Returns the rank without copying a shared store, the rank must not be modified.
+	 * 
+	 * @param key the skill or skill category id
+	 * @return the rank or {@code null}
+	 */
+	Rank peek(int key) {
+		int idx = indexOf(key);
+		return idx < 0 ? null : values[idx];
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		Arrays.fill(keys, FREE);
+		values = new Rank[capacity];
+	}
+
+	private int slot(int key) {
+		/* spread the ids, they are mostly consecutive */
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (keys.length - 1);
+	}
+
+	private int indexOf(int key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key); ; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return i;
+			} else if (keys[i] == FREE) {
+				return -1;
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean containsKey(int key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 *
+	 * @param key the skill or skill category id
+	 * @return the rank or {@code null}
+	 */
+	Rank get(int key) {
+		own();
+		int idx = indexOf(key);
+		return idx < 0 ? null : values[idx];
+	}
+
+	/**
+	 *
+	 * @param key the skill or skill category id
+	 * @param rank the rank, not {@code null}
+	 * @return the previous rank or {@code null}
+	 */
+	Rank put(int key, Rank rank) {
+		if (key == FREE) {
+			throw new IllegalArgumentException("Invalid id "+key);
+		}
+		own();
+		int mask = keys.length - 1;
+		int i = slot(key);
+		for ( ; keys[i] != FREE; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				Rank old = values[i];
+				values[i] = rank;
+				return old;
+			}
+		}
+		keys[i] = key;
+		values[i] = rank;
+		size++;
+		modCount++;
+		if (size > keys.length * 3 / 4) {
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * @param key the skill or skill category id
+	 * @return the removed rank or {@code null}
+	 */
+	Rank remove(int key) {
+		own();
+		int idx = indexOf(key);
+		if (idx < 0) {
+			return null;
+		}
+		Rank old = values[idx];
+		removeAt(idx);
+		return old;
+	}
+
+	/* backward shift deletion, keeps the probe sequences without tombstones */
+	private void removeAt(int idx) {
+		int mask = keys.length - 1;
+		int gap = idx;
+		int i = (idx + 1) & mask;
+		while (keys[i] != FREE) {
+			int home = slot(keys[i]);
+			/* move the entry into the gap if the gap is between its home slot and its slot */
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[gap] = FREE;
+		values[gap] = null;
+		size--;
+		modCount++;
+	}
+
+	void clear() {
+		own();
+		Arrays.fill(keys, FREE);
+		Arrays.fill(values, null);
+		size = 0;
+		modCount++;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		Rank[] oldValues = values;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] != FREE) {
+				int i = slot(oldKeys[j]);
+				while (keys[i] != FREE) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return a new array of all ids, not {@code null}
+	 */
+	int[] keys() {
+		int[] result = new int[size];
+		int j = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE) {
+				result[j++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @return a view of the ranks, not {@code null}
+	 */
+	Collection<Rank> values() {
+		own();
+		return new AbstractCollection<Rank>() {
+			@Override
+			public Iterator<Rank> iterator() {
+				return new RankIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Returns the ranks without copying a shared store, the ranks must not be modified.
+	 *
+	 * @return a view of the ranks, not {@code null}
+	 */
+	Collection<Rank> peekValues() {
+		return new AbstractCollection<Rank>() {
+			@Override
+			public Iterator<Rank> iterator() {
+				return new RankIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	/* the number of stores using the same arrays */
+	private static final class Shared {
+		private int stores = 1;
+	}
+
+	private class RankIterator implements Iterator<Rank> {
+		private final int expectedModCount = modCount;
+		private int next = advance(0);
+
+		private int advance(int from) {
+			int i = from;
+			while (i < keys.length && keys[i] == FREE) {
+				i++;
+			}
+			return i;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < keys.length;
+		}
+
+		@Override
+		public Rank next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next >= keys.length) {
+				throw new NoSuchElementException();
+			}
+			Rank rank = values[next];
+			next = advance(next + 1);
+			return rank;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+
+/**
+ * The differences between two sheets, e.g. a sheet and its {@link RMSheet#fork()}. The
+ * rank stores which are still shared by both sheets are not compared. The talents and
+ * flaws are compared by identity, the instances are shared by a fork. The equipment is
+ * compared by its values, a fork has copies.
+ */
+public class SheetDiff {
+
+	private final Map<Integer, Change<Integer, BigDecimal>> skillRanks;
+	private final Map<Integer, Change<Integer, BigDecimal>> skillcategoryRanks;
+	private final List<Change<StatEnum, Integer>> statTemp = new ArrayList<Change<StatEnum, Integer>>();
+	private final List<Change<StatEnum, Integer>> statPot = new ArrayList<Change<StatEnum, Integer>>();
+	private final List<TalentFlaw> addedTalentsFlaws;
+	private final List<TalentFlaw> removedTalentsFlaws;
+	private final List<Equipment> addedEquipments;
+	private final List<Equipment> removedEquipments;
+	private final Change<String, Long> ep;
+	private final Change<String, String> apprenticeShip;
+
+	/**
+	 * A changed value.
+	 *
+	 * @param <K> the key, e.g. the skill id
+	 * @param <V> the value
+	 */
+	public static class Change<K, V> {
+		private final K key;
+		private final V oldValue;
+		private final V newValue;
+
+		/* package private */ Change(K key, V oldValue, V newValue) {
+			this.key = key;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+		}
+
+		public K getKey() {
+			return key;
+		}
+
+		public V getOldValue() {
+			return oldValue;
+		}
+
+		public V getNewValue() {
+			return newValue;
+		}
+
+		@Override
+		public String toString() {
+			return key + ": " + oldValue + " -> " + newValue;
+		}
+	}
+
+	/**
+	 *
+	 * @param from the old sheet, not {@code null}
+	 * @param to the new sheet, not {@code null}
+	 */
+	/* package private */ SheetDiff(RMSheet from, RMSheet to) {
+		skillRanks = diff(from.getSkillRankStore(), to.getSkillRankStore());
+		skillcategoryRanks = diff(from.getSkillcategoryRankStore(), to.getSkillcategoryRankStore());
+		for (StatEnum stat : StatEnum.values()) {
+			if (from.getStatTemp(stat) != to.getStatTemp(stat)) {
+				statTemp.add(new Change<StatEnum, Integer>(stat, Integer.valueOf(from.getStatTemp(stat)), Integer.valueOf(to.getStatTemp(stat))));
+			}
+			if (from.getStatPot(stat) != to.getStatPot(stat)) {
+				statPot.add(new Change<StatEnum, Integer>(stat, Integer.valueOf(from.getStatPot(stat)), Integer.valueOf(to.getStatPot(stat))));
+			}
+		}
+		addedTalentsFlaws = missing(to.getTalentsFlaws(), from.getTalentsFlaws());
+		removedTalentsFlaws = missing(from.getTalentsFlaws(), to.getTalentsFlaws());
+		addedEquipments = missingEquipments(to.getEquipments(), from.getEquipments());
+		removedEquipments = missingEquipments(from.getEquipments(), to.getEquipments());
+		ep = from.getEp().equals(to.getEp()) ? null : new Change<String, Long>(RMSheet.PROPERTY_EXPPOINTS, from.getEp(), to.getEp());
+		apprenticeShip = from.getApprenticeShip().equals(to.getApprenticeShip()) ? null
+				: new Change<String, String>(RMSheet.PROPERTY_APPRENTICESHIP, from.getApprenticeShip(), to.getApprenticeShip());
+	}
+
+	private static Map<Integer, Change<Integer, BigDecimal>> diff(RankStore from, RankStore to) {
+		if (from == to || from == null && to == null || from != null && to != null && from.sharesWith(to)) {
+			return Collections.emptyMap();
+		}
+		Map<Integer, Change<Integer, BigDecimal>> changes = new TreeMap<Integer, Change<Integer, BigDecimal>>();
+		if (from != null) {
+			for (int key : from.keys()) {
+				addChange(changes, key, from, to);
+			}
+		}
+		if (to != null) {
+			for (int key : to.keys()) {
+				if (from == null || from.peek(key) == null) {
+					addChange(changes, key, from, to);
+				}
+			}
+		}
+		return changes;
+	}
+
+	private static void addChange(Map<Integer, Change<Integer, BigDecimal>> changes, int key, RankStore from, RankStore to) {
+		BigDecimal oldRank = rank(from, key);
+		BigDecimal newRank = rank(to, key);
+		if (oldRank.compareTo(newRank) != 0) {
+			Integer id = Integer.valueOf(key);
+			changes.put(id, new Change<Integer, BigDecimal>(id, oldRank, newRank));
+		}
+	}
+
+	private static BigDecimal rank(RankStore store, int key) {
+		Rank rank = store == null ? null : store.peek(key);
+		return rank == null ? BigDecimal.ZERO : rank.getRank();
+	}
+
+	/* the elements of the list which are not in the other list */
+	private static <T> List<T> missing(List<T> list, List<T> other) {
+		if (list == other || list == null) {
+			return Collections.emptyList();
+		}
+		Map<T, Object> others = new IdentityHashMap<T, Object>();
+		if (other != null) {
+			for (T t : other) {
+				others.put(t, Boolean.TRUE);
+			}
+		}
+		List<T> result = new ArrayList<T>();
+		for (T t : list) {
+			if (!others.containsKey(t)) {
+				result.add(t);
+			}
+		}
+		return result;
+	}
+
+	/* the equipment of the list without an equal one in the other list */
+	private static List<Equipment> missingEquipments(List<Equipment> list, List<Equipment> other) {
+		if (list == other || list == null) {
+			return Collections.emptyList();
+		}
+		List<Equipment> others = other == null ? new ArrayList<Equipment>() : new ArrayList<Equipment>(other);
+		List<Equipment> result = new ArrayList<Equipment>();
+		for (Equipment equipment : list) {
+			boolean found = false;
+			for (Iterator<Equipment> it = others.iterator(); !found && it.hasNext();) {
+				if (equipment.sameAs(it.next())) {
+					it.remove();
+					found = true;
+				}
+			}
+			if (!found) {
+				result.add(equipment);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @return the changed skill ranks by skill id, rank 0 if the skill has no rank, not {@code null}
+	 */
+	public Map<Integer, Change<Integer, BigDecimal>> getSkillRanks() {
+		return Collections.unmodifiableMap(skillRanks);
+	}
+
+	/**
+	 *
+	 * @return the changed skill category ranks by category id, not {@code null}
+	 */
+	public Map<Integer, Change<Integer, BigDecimal>> getSkillcategoryRanks() {
+		return Collections.unmodifiableMap(skillcategoryRanks);
+	}
+
+	public List<Change<StatEnum, Integer>> getStatTemp() {
+		return Collections.unmodifiableList(statTemp);
+	}
+
+	public List<Change<StatEnum, Integer>> getStatPot() {
+		return Collections.unmodifiableList(statPot);
+	}
+
+	public List<TalentFlaw> getAddedTalentsFlaws() {
+		return Collections.unmodifiableList(addedTalentsFlaws);
+	}
+
+	public List<TalentFlaw> getRemovedTalentsFlaws() {
+		return Collections.unmodifiableList(removedTalentsFlaws);
+	}
+
+	public List<Equipment> getAddedEquipments() {
+		return Collections.unmodifiableList(addedEquipments);
+	}
+
+	public List<Equipment> getRemovedEquipments() {
+		return Collections.unmodifiableList(removedEquipments);
+	}
+
+	/**
+	 *
+	 * @return the changed experience points or {@code null}
+	 */
+	public Change<String, Long> getEp() {
+		return ep;
+	}
+
+	/**
+	 *
+	 * @return the changed apprenticeship or {@code null}
+	 */
+	public Change<String, String> getApprenticeShip() {
+		return apprenticeShip;
+	}
+
+	/**
+	 *
+	 * @return whether the sheets are equal in the compared values
+	 */
+	public boolean isEmpty() {
+		return skillRanks.isEmpty() && skillcategoryRanks.isEmpty() && statTemp.isEmpty() && statPot.isEmpty()
+				&& addedTalentsFlaws.isEmpty() && removedTalentsFlaws.isEmpty() && addedEquipments.isEmpty()
+				&& removedEquipments.isEmpty() && ep == null && apprenticeShip == null;
+	}
+}
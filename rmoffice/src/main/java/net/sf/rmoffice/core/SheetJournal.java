@@ -0,0 +1,598 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+import javax.swing.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of the changes of a saved sheet, next to its file
+ * ({@code hero.rmo.journal}). Each change of the sheet is recorded as the new state of the
+ * changed members of the {@link RMSheet}, e.g. the equipment. The skill and skill category
+ * ranks are recorded per id, only the changed ranks are written. The records are written
+ * in the order of the changes, so the last record of a member or rank is its current state.
+ * Opening the file replays the journal with {@link #replay(RMSheet, File)}. The journal is
+ * compacted into the sheet file when it becomes too large or is closed.
+ * <p>
+ * The file starts with a magic number and the format version, followed by the records.
+ * Each record has the member name, the length, the state and a CRC32 checksum. The state
+ * of a member is its deflated XML, a rank record is named like {@code skillRanks#12} and
+ * has the rank in binary form, no bytes if it was removed. A torn record at the end (e.g.
+ * after a crash) ends the replay.
+ * <p>
+ * The changed members are collected and serialized {@link #COALESCE_DELAY} ms after the
+ * first change, e.g. once for a word typed in a text field. They are serialized in the
+ * event dispatch thread, which changes the sheet, the file is written with the given
+ * executor. It must run the tasks in order, one after the other.
+ */
+public class SheetJournal implements PropertyChangeListener {
+	private final static Logger log = LoggerFactory.getLogger(SheetJournal.class);
+	/** the extension appended to the sheet file name */
+	public static final String EXTENSION = ".journal";
+	/* "RMOJ" */
+	static final int MAGIC = 0x524D4F4A;
+	static final short FORMAT_VERSION = 2;
+	/** the changes are recorded this many milliseconds after the first change */
+	static final int COALESCE_DELAY = 300;
+	/** the journal is compacted into the sheet file above this size in bytes */
+	static final long COMPACT_SIZE = 512 * 1024;
+	/* the character image is recorded raw, the characteristics without it */
+	static final String CHAR_IMAGE = "charImage";
+	static final String CHARACTERISTICS = "characteristics";
+	static final String COINS = "coins";
+	/* separates the rank store member and the id in the name of a rank record */
+	static final char RANK_ID = '#';
+	private static final String SKILL_RANKS = "skillRanks";
+	private static final String SKILLGROUP_RANKS = "skillgroupRanks";
+
+	private static final String[] STATS = {"tempAttr", "potAttr", "miscAttrBonus"};
+	private static final String[] ITEM_BONUS = {"misc2StatBonus", "itemSkillBonus", "magicalitems"};
+	private static final String[] RANKS = {SKILL_RANKS, SKILLGROUP_RANKS, "levelUp"};
+	private static final String[] SKILLS = {SKILL_RANKS, SKILLGROUP_RANKS, "levelUp", "skillTypes", "customSkills", "nextCustomSkillId", "costsSwitchable"};
+	/* the members of the sheet changed with the property, derived and UI properties are not recorded */
+	private static final Map<String, String[]> MEMBERS = new HashMap<String, String[]>();
+	static {
+		MEMBERS.put(RMSheet.PROPERTY_CHARACTERNAME, new String[] {"characterName"});
+		MEMBERS.put(RMSheet.PROPERTY_PLAYERNAME, new String[] {"playerName"});
+		MEMBERS.put(RMSheet.PROPERTY_EXPPOINTS, new String[] {"ep"});
+		MEMBERS.put(RMSheet.PROPERTY_LEVEL, new String[] {"ep", "levelUp"});
+		MEMBERS.put(RMSheet.PROPERTY_LEVELUP_MODE, new String[] {"levelUp"});
+		MEMBERS.put(RMSheet.PROPERTY_RACE, new String[] {"raceId", "state"});
+		MEMBERS.put(RMSheet.PROPERTY_CULTURE, new String[] {"cultureId", "state"});
+		MEMBERS.put(RMSheet.PROPERTY_PROFESSION, new String[] {"professionId", "state"});
+		MEMBERS.put(RMSheet.PROPERTY_STATE, new String[] {"state", "todos"});
+		MEMBERS.put(RMSheet.PROPERTY_TODO_CHANGED, new String[] {"todos"});
+		MEMBERS.put(RMSheet.PROPERTY_APPRENTICESHIP, new String[] {"apprenticeShip"});
+		MEMBERS.put(RMSheet.PROPERTY_SHIELD, new String[] {"shieldId"});
+		MEMBERS.put(RMSheet.PROPERTY_ARMOR, new String[] {"armor"});
+		MEMBERS.put(RMSheet.PROPERTY_MAGICREALM_CHANGED, new String[] {"magicrealm"});
+		MEMBERS.put(RMSheet.PROPERTY_STAT_COST_SUM, STATS);
+		MEMBERS.put(RMSheet.PROPERTY_SKILLS_CHANGED, RANKS);
+		MEMBERS.put(RMSheet.PROPERTY_SKILLCATEGORY_CHANGED, RANKS);
+		MEMBERS.put(RMSheet.PROPERTY_SKILL_STRUCTURE_CHANGED, SKILLS);
+		MEMBERS.put(RMSheet.PROPERTY_SKILL_CATEGORIES, SKILLS);
+		MEMBERS.put(RMSheet.PROPERTY_MAGICALITEMS, new String[] {"magicalitems"});
+		MEMBERS.put(RMSheet.PROPERTY_EQUIPMENTS, new String[] {"equipments"});
+		MEMBERS.put(RMSheet.PROPERTY_HERBS, new String[] {"herbs"});
+		MEMBERS.put(RMSheet.PROPERTY_INFO_PAGES, new String[] {"infoPages"});
+		MEMBERS.put(RMSheet.PROPERTY_WEIGHT_UNIT, new String[] {"weightUnit"});
+		MEMBERS.put(RMSheet.PROPERTY_LENGTH_UNIT, new String[] {"lengthUnit"});
+		MEMBERS.put(RMSheet.PROPERTY_PRINT_OUTLINE_IMG, new String[] {"printOutlineImage"});
+		MEMBERS.put(RMSheet.IMG_POS_PROP, new String[] {"imagePos"});
+		MEMBERS.put(RMSheet.TALENTSFLAWS_PROP, new String[] {"talentsFlaws"});
+		MEMBERS.put(RMSheet.FATEPOINTS_PROP, new String[] {"fatepoints"});
+		MEMBERS.put(RMSheet.GRACEPOINTS_PROP, new String[] {"gracepoints"});
+		MEMBERS.put(RMSheet.TALENTFLAW_OWN_PAGE_PROP, new String[] {"talentFlawOwnPage"});
+	}
+
+	private final RMSheet sheet;
+	private final Executor executor;
+	/* the changed members not serialized yet, the lock for the recording */
+	private final Set<String> dirty = new LinkedHashSet<String>();
+	private final Timer flushTimer;
+	/* the checksums of the last recorded state by member */
+	private final Map<String, Long> recorded = new HashMap<String, Long>();
+	/* the ranks of the last record, forks of the rank stores of the sheet */
+	private final Map<String, RankStore> recordedRanks = new HashMap<String, RankStore>();
+	/* the serialized changes not written yet, the last change of a member replaces the previous */
+	private final Map<String, byte[]> pending = new LinkedHashMap<String, byte[]>();
+	private boolean writeScheduled;
+	/* used by the executor only */
+	private File file;
+	private DataOutputStream out;
+	private boolean closed;
+
+	/**
+	 *
+	 * @param file the sheet file, not {@code null}
+	 * @param sheet the sheet saved in the file, not {@code null}
+	 * @param executor runs the file operations in order, not {@code null}
+	 */
+	public SheetJournal(File file, RMSheet sheet, Executor executor) {
+		this(file, sheet, executor, COALESCE_DELAY);
+	}
+
+	/* package */ SheetJournal(File file, RMSheet sheet, Executor executor, int coalesceDelay) {
+		this.file = file;
+		this.sheet = sheet;
+		this.executor = executor;
+		flushTimer = new Timer(coalesceDelay, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				flush();
+			}
+		});
+		flushTimer.setRepeats(false);
+	}
+
+	/**
+	 *
+	 * @param file the sheet file
+	 * @return the journal file of the sheet file
+	 */
+	public static File getJournalFile(File file) {
+		return new File(file.getPath() + EXTENSION);
+	}
+
+	/**
+	 * Starts recording the changes. A remaining journal of the file (e.g. after a crash) is
+	 * compacted into the file first, it must have been replayed into the sheet.
+	 */
+	public void start() {
+		synchronized (dirty) {
+			recordedRanks.put(SKILL_RANKS, fork(sheet.getSkillRankStore()));
+			recordedRanks.put(SKILLGROUP_RANKS, fork(sheet.getSkillcategoryRankStore()));
+		}
+		sheet.addPropertyChangeListener(this);
+		if (sheet.getCharacteristics() != null) {
+			sheet.getCharacteristics().addPropertyChangeListener(this);
+		}
+		sheet.getCoins().addPropertyChangeListener(this);
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				compact();
+			}
+		});
+	}
+
+	/**
+	 * Stops recording. The recorded changes are compacted into the sheet file.
+	 */
+	public void close() {
+		flushTimer.stop();
+		flush();
+		sheet.removePropertyChangeListener(this);
+		if (sheet.getCharacteristics() != null) {
+			sheet.getCharacteristics().removePropertyChangeListener(this);
+		}
+		sheet.getCoins().removePropertyChangeListener(this);
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				writePending();
+				compact();
+				closed = true;
+			}
+		});
+	}
+
+	/**
+	 *
+	 * @return the recorded sheet, not {@code null}
+	 */
+	public RMSheet getSheet() {
+		return sheet;
+	}
+
+	/**
+	 * Must be called by the executor after the whole sheet was saved. The records written
+	 * so far are part of the saved file, so the journal starts again.
+	 *
+	 * @param savedFile the file the sheet was saved to, the following records are for this file
+	 */
+	public void saved(File savedFile) {
+		closeJournal();
+		deleteJournal();
+		file = savedFile;
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+		synchronized (dirty) {
+			if (evt.getSource() instanceof Characteristics) {
+				if (Characteristics.PROP_CHARIMAGE.equals(evt.getPropertyName())) {
+					dirty.add(CHAR_IMAGE);
+				} else {
+					dirty.add(CHARACTERISTICS);
+				}
+			} else if (evt.getSource() instanceof Coins) {
+				dirty.add(COINS);
+			} else {
+				String property = evt.getPropertyName();
+				if (RMSheet.PROPERTY_CONTENT_CHANGED.equals(property)) {
+					/* the content of a list was edited */
+					property = (String) evt.getNewValue();
+				}
+				dirty.addAll(Arrays.asList(getMembers(property)));
+			}
+			if (dirty.isEmpty()) {
+				return;
+			}
+		}
+		if (!flushTimer.isRunning()) {
+			flushTimer.start();
+		}
+	}
+
+	/**
+	 * Records the changed members now. Called by the timer in the event dispatch thread,
+	 * after the last event has been delivered.
+	 */
+	/* package */ void flush() {
+		synchronized (dirty) {
+			for (String member : dirty) {
+				try {
+					if (SKILL_RANKS.equals(member)) {
+						recordRanks(member, sheet.getSkillRankStore());
+					} else if (SKILLGROUP_RANKS.equals(member)) {
+						recordRanks(member, sheet.getSkillcategoryRankStore());
+					} else {
+						record(member, serialize(member));
+					}
+				} catch (IOException e) {
+					log.error("could not record the change of "+member, e);
+				}
+			}
+			dirty.clear();
+		}
+	}
+
+	private byte[] serialize(String member) throws IOException {
+		if (CHAR_IMAGE.equals(member)) {
+			byte[] image = sheet.getCharacteristics() == null ? null : sheet.getCharacteristics().getCharImage();
+			return image == null ? new byte[0] : image;
+		} else if (CHARACTERISTICS.equals(member)) {
+			return ExportImport.toDeflatedXml(sheet.getCharacteristics());
+		} else if (COINS.equals(member)) {
+			return ExportImport.toDeflatedXml(sheet.getCoins());
+		}
+		return ExportImport.toDeflatedXml(getMember(sheet, member));
+	}
+
+	/* records the ranks changed since the last record */
+	private void recordRanks(String member, RankStore store) throws IOException {
+		RankStore last = recordedRanks.get(member);
+		if (store == null || last != null && last.sharesWith(store)) {
+			return;
+		}
+		for (int id : store.keys()) {
+			Rank rank = store.peek(id);
+			Rank lastRank = last == null ? null : last.peek(id);
+			if (lastRank == null || !equalRanks(rank, lastRank)) {
+				record(member + RANK_ID + id, toBytes(rank));
+			}
+		}
+		if (last != null) {
+			for (int id : last.keys()) {
+				if (store.peek(id) == null) {
+					record(member + RANK_ID + id, new byte[0]);
+				}
+			}
+		}
+		recordedRanks.put(member, fork(store));
+	}
+
+	private static RankStore fork(RankStore store) {
+		return store == null ? null : store.fork();
+	}
+
+	private static boolean equalRanks(Rank rank, Rank other) {
+		return rank.getScaledRank() == other.getScaledRank()
+				&& (rank.getSpecialBonus() == null ? other.getSpecialBonus() == null : rank.getSpecialBonus().equals(other.getSpecialBonus()))
+				&& rank.getFavorite().equals(other.getFavorite());
+	}
+
+	/* package */ static byte[] toBytes(Rank rank) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+		DataOutputStream out = new DataOutputStream(bytes);
+		BinarySheetFormat.writeRank(out, rank);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	/* package */ static Rank fromBytes(int id, byte[] state) throws IOException {
+		return BinarySheetFormat.readRank(new DataInputStream(new ByteArrayInputStream(state)), id);
+	}
+
+	/* package */ static String[] getMembers(String property) {
+		if (property == null) {
+			return new String[0];
+		} else if (property.startsWith(RMSheet.PROPERTY_STAT_MISC2BONUS_PREFIX)) {
+			/* the bonus of the magical items */
+			return ITEM_BONUS;
+		} else if (property.startsWith(RMSheet.PROPERTY_STAT_TEMP_PREFIX)
+				|| property.startsWith(RMSheet.PROPERTY_STAT_POT_PREFIX)
+				|| property.startsWith(RMSheet.PROPERTY_STAT_BONUS_PREFIX)
+				|| property.startsWith(RMSheet.PROPERTY_STAT_MISCBONUS_PREFIX)) {
+			return STATS;
+		}
+		String[] members = MEMBERS.get(property);
+		return members == null ? new String[0] : members;
+	}
+
+	private void record(String member, byte[] state) {
+		CRC32 crc = new CRC32();
+		crc.update(state);
+		Long checksum = Long.valueOf(crc.getValue());
+		if (checksum.equals(recorded.put(member, checksum))) {
+			/* not changed since the last record */
+			return;
+		}
+		synchronized (pending) {
+			pending.put(member, state);
+			if (writeScheduled) {
+				return;
+			}
+			writeScheduled = true;
+		}
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				writePending();
+				if (getJournalFile(file).length() > COMPACT_SIZE) {
+					compact();
+				}
+			}
+		});
+	}
+
+	/* executor */
+	private void writePending() {
+		List<Map.Entry<String, byte[]>> records;
+		synchronized (pending) {
+			records = new ArrayList<Map.Entry<String, byte[]>>(pending.entrySet());
+			pending.clear();
+			writeScheduled = false;
+		}
+		if (closed || records.isEmpty()) {
+			return;
+		}
+		try {
+			if (out == null) {
+				File journalFile = getJournalFile(file);
+				boolean exists = journalFile.length() > 0;
+				out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+				if (!exists) {
+					out.writeInt(MAGIC);
+					out.writeShort(FORMAT_VERSION);
+				}
+			}
+			for (Map.Entry<String, byte[]> record : records) {
+				writeRecord(out, record.getKey(), record.getValue());
+			}
+			/* the records are in the file system, the app may crash now */
+			out.flush();
+			if (log.isDebugEnabled()) log.debug("recorded "+records.size()+" changes of "+file.getName());
+		} catch (IOException e) {
+			log.error("could not write the journal of "+file.getAbsolutePath(), e);
+			closeJournal();
+		}
+	}
+
+	/* executor */
+	private void compact() {
+		closeJournal();
+		File journalFile = getJournalFile(file);
+		if (closed || !journalFile.exists() || !file.exists()) {
+			return;
+		}
+		try {
+			RMSheet saved = ExportImport.importFile(file);
+			int records = replay(saved, journalFile);
+			if (records > 0) {
+				ExportImport.exportFile(file, saved);
+			}
+			deleteJournal();
+			if (log.isInfoEnabled()) log.info("compacted "+records+" changes into "+file.getName());
+		} catch (IOException e) {
+			log.error("could not compact the journal of "+file.getAbsolutePath(), e);
+		}
+	}
+
+	/* executor */
+	private void closeJournal() {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				log.error("could not close the journal of "+file.getAbsolutePath(), e);
+			}
+			out = null;
+		}
+	}
+
+	/* executor */
+	private void deleteJournal() {
+		File journalFile = getJournalFile(file);
+		if (journalFile.exists() && !journalFile.delete()) {
+			log.warn("could not delete the journal "+journalFile.getAbsolutePath());
+		}
+	}
+
+	/* package */ static void writeRecord(DataOutputStream out, String member, byte[] state) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(state);
+		out.writeUTF(member);
+		out.writeInt(state.length);
+		out.write(state);
+		out.writeInt((int) crc.getValue());
+	}
+
+	/**
+	 * Applies the recorded changes to the sheet read from the file. The sheet must not be
+	 * initialized yet.
+	 *
+	 * @param sheet the sheet read from the file, not {@code null}
+	 * @param journalFile the journal, see {@link #getJournalFile(File)}
+	 * @return the number of applied records, 0 if there is no journal
+	 * @throws IOException if the journal is no journal of RMOffice
+	 */
+	public static int replay(RMSheet sheet, File journalFile) throws IOException {
+		if (!journalFile.exists() || journalFile.length() == 0) {
+			return 0;
+		}
+		/* the journal is compacted at a small size, in memory the bytes left are known */
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(journalFile.toPath())));
+		try {
+			int magic;
+			short version;
+			try {
+				magic = in.readInt();
+				version = in.readShort();
+			} catch (EOFException e) {
+				/* torn header, nothing recorded */
+				return 0;
+			}
+			if (magic != MAGIC) {
+				throw new IOException("Not a journal of RMOffice: "+journalFile.getName());
+			}
+			if (version > FORMAT_VERSION) {
+				throw new IOException("Unsupported journal version "+version);
+			}
+			int records = 0;
+			while (true) {
+				String member;
+				byte[] state;
+				try {
+					member = in.readUTF();
+					int length = in.readInt();
+					if (length < 0 || length > in.available()) {
+						log.warn("ignoring the corrupt journal from record "+records+" of "+journalFile.getName());
+						return records;
+					}
+					state = new byte[length];
+					in.readFully(state);
+					CRC32 crc = new CRC32();
+					crc.update(state);
+					if (in.readInt() != (int) crc.getValue()) {
+						log.warn("ignoring the corrupt journal from record "+records+" of "+journalFile.getName());
+						return records;
+					}
+				} catch (EOFException e) {
+					/* end of journal or torn last record */
+					return records;
+				}
+				apply(sheet, member, state);
+				records++;
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void apply(RMSheet sheet, String member, byte[] state) throws IOException {
+		int sep = member.indexOf(RANK_ID);
+		if (sep > 0) {
+			applyRank(sheet, member.substring(0, sep), member.substring(sep + 1), state);
+		} else if (CHAR_IMAGE.equals(member)) {
+			if (sheet.getCharacteristics() != null) {
+				sheet.getCharacteristics().setCharImage(state.length == 0 ? null : state);
+			}
+		} else if (CHARACTERISTICS.equals(member)) {
+			Characteristics characteristics = (Characteristics) ExportImport.fromDeflatedXml(state);
+			if (sheet.getCharacteristics() != null) {
+				characteristics.setCharImage(sheet.getCharacteristics().getCharImage());
+			}
+			setMember(sheet, member, characteristics);
+		} else {
+			setMember(sheet, member, ExportImport.fromDeflatedXml(state));
+		}
+	}
+
+	private static void applyRank(RMSheet sheet, String member, String id, byte[] state) throws IOException {
+		int key;
+		try {
+			key = Integer.parseInt(id);
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid rank record "+member+RANK_ID+id, e);
+		}
+		RankStore store = (RankStore) getMember(sheet, member);
+		if (store == null) {
+			store = new RankStore();
+			setMember(sheet, member, store);
+		}
+		if (state.length == 0) {
+			store.remove(key);
+		} else {
+			store.put(key, fromBytes(key, state));
+		}
+	}
+
+	private static Object getMember(RMSheet sheet, String member) throws IOException {
+		try {
+			return getField(member).get(sheet);
+		} catch (IllegalAccessException e) {
+			throw new IOException("Cannot read "+member, e);
+		}
+	}
+
+	private static void setMember(RMSheet sheet, String member, Object value) throws IOException {
+		try {
+			getField(member).set(sheet, value);
+		} catch (IllegalAccessException e) {
+			throw new IOException("Cannot write "+member, e);
+		}
+	}
+
+	private static Field getField(String member) throws IOException {
+		try {
+			Field field = RMSheet.class.getDeclaredField(member);
+			field.setAccessible(true);
+			return field;
+		} catch (NoSuchFieldException e) {
+			throw new IOException("Unknown member of the sheet: "+member, e);
+		}
+	}
+}
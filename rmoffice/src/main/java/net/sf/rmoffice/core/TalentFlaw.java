@@ -511,6 +511,27 @@ public class TalentFlaw extends Model {
 		return skillCategoryCostReplacement.get(skillCat.getId());
 	}
 	
+	/**
+	 * Adds the skill and skill category cost replacements to the given maps.
+	 * 
+	 * @param skills the replacements by skill id, not {@code null}
+	 * @param categories the replacements by skill category id, not {@code null}
+	 */
+	/* package */ void putSkillCostReplacements(Map<Integer, Skillcost> skills, Map<Integer, Skillcost> categories) {
+		putReplacements(skillCostReplacement, skills);
+		putReplacements(skillCategoryCostReplacement, categories);
+	}
+	
+	private static void putReplacements(Map<Integer, Skillcost> replacements, Map<Integer, Skillcost> target) {
+		if (replacements != null) {
+			for (Map.Entry<Integer, Skillcost> entry : replacements.entrySet()) {
+				if (entry.getValue() != null) {
+					target.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Returns this talent/flaw as text.
 	 * 
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.rmoffice.meta.Skillcost;
+import net.sf.rmoffice.meta.enums.ResistanceEnum;
+import net.sf.rmoffice.meta.enums.SkillType;
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+/**
+ * The summed up effects of all talents and flaws of a sheet, so the sheet does not
+ * iterate the talents and flaws on every read. Immutable, it is created again if the
+ * talents and flaws have changed, see {@link BonusCache}.
+ */
+/* package private */ final class TalentFlawEffects {
+	private static final StatEnum[] STATS = StatEnum.values();
+	private static final ResistanceEnum[] RESISTANCES = ResistanceEnum.values();
+
+	private int initiativeBonus;
+	private int db;
+	private int shieldDb;
+	private int exhaustion;
+	private float exhaustionMultiplier = 1;
+	private int baseMovement;
+	private float basemoverateMultiplier = 1;
+	private float weightPenalty = 1;
+	private float tolerance = 1;
+	private final int[] statBonus = new int[STATS.length];
+	private final int[] resistanceBonus = new int[RESISTANCES.length];
+	/* only of talents and flaws without skill bonus */
+	private final int[] spellRealmBonus = new int[STATS.length];
+	private final Map<Integer, Integer> skillBonus = new HashMap<Integer, Integer>();
+	private final Map<Integer, Integer> skillCatBonus = new HashMap<Integer, Integer>();
+	private final Map<Integer, SkillType> skillType = new HashMap<Integer, SkillType>();
+	private final Map<Integer, SkillType> skillCatType = new HashMap<Integer, SkillType>();
+	/* the last replacement wins */
+	private final Map<Integer, Skillcost> skillCostReplacement = new HashMap<Integer, Skillcost>();
+	private final Map<Integer, Skillcost> skillCatCostReplacement = new HashMap<Integer, Skillcost>();
+
+	/**
+	 *
+	 * @param talentsFlaws the talents and flaws or {@code null}
+	 */
+	TalentFlawEffects(List<TalentFlaw> talentsFlaws) {
+		if (talentsFlaws == null) {
+			return;
+		}
+		for (TalentFlaw tf : talentsFlaws) {
+			if (tf.getInitiativeBonus() != null) {
+				initiativeBonus += tf.getInitiativeBonus().intValue();
+			}
+			if (tf.getDb() != null) {
+				db += tf.getDb().intValue();
+			}
+			if (tf.getShieldDb() != null) {
+				shieldDb += tf.getShieldDb().intValue();
+			}
+			if (tf.getExhaustion() != null) {
+				exhaustion += tf.getExhaustion().intValue();
+			}
+			if (tf.getExhaustionMultiplier() != null) {
+				exhaustionMultiplier *= tf.getExhaustionMultiplier().floatValue();
+			}
+			if (tf.getBaseMovement() != null) {
+				baseMovement += Math.round(tf.getBaseMovement().floatValue());
+			}
+			if (tf.getBasemoverateMultiplier() != null) {
+				basemoverateMultiplier *= tf.getBasemoverateMultiplier().floatValue();
+			}
+			if (tf.getWeightPenalty() != null) {
+				weightPenalty *= tf.getWeightPenalty().floatValue();
+			}
+			if (tf.getTolerance() != null) {
+				tolerance *= tf.getTolerance().floatValue();
+			}
+			for (StatEnum stat : STATS) {
+				if (tf.getStatBonus(stat) != null) {
+					statBonus[stat.ordinal()] += tf.getStatBonus(stat).intValue();
+				}
+			}
+			for (ResistanceEnum res : RESISTANCES) {
+				if (tf.getResistanceBonus(res) != null) {
+					resistanceBonus[res.ordinal()] += tf.getResistanceBonus(res).intValue();
+				}
+			}
+			if (tf.getSkillBonus() != null) {
+				sum(skillBonus, tf.getSkillBonus());
+			} else {
+				for (StatEnum stat : STATS) {
+					if (tf.getSpellRealmBonus(stat) != null) {
+						spellRealmBonus[stat.ordinal()] += tf.getSpellRealmBonus(stat).intValue();
+					}
+				}
+			}
+			if (tf.getSkillCatBonus() != null) {
+				sum(skillCatBonus, tf.getSkillCatBonus());
+			}
+			if (tf.getSkillType() != null) {
+				merge(skillType, tf.getSkillType());
+			}
+			if (tf.getSkillCatType() != null) {
+				merge(skillCatType, tf.getSkillCatType());
+			}
+			tf.putSkillCostReplacements(skillCostReplacement, skillCatCostReplacement);
+		}
+	}
+
+	private static void sum(Map<Integer, Integer> target, Map<Integer, Integer> bonus) {
+		for (Map.Entry<Integer, Integer> entry : bonus.entrySet()) {
+			if (entry.getValue() != null) {
+				Integer old = target.get(entry.getKey());
+				int value = entry.getValue().intValue() + (old == null ? 0 : old.intValue());
+				target.put(entry.getKey(), Integer.valueOf(value));
+			}
+		}
+	}
+
+	/* restricted is always stronger, otherwise the type with the higher ordinal */
+	private static void merge(Map<Integer, SkillType> target, Map<Integer, SkillType> types) {
+		for (Map.Entry<Integer, SkillType> entry : types.entrySet()) {
+			SkillType newType = entry.getValue();
+			SkillType old = target.get(entry.getKey());
+			if (old == null || SkillType.RESTRICTED.equals(newType)
+					|| (! SkillType.RESTRICTED.equals(old) && newType.ordinal() > old.ordinal())) {
+				target.put(entry.getKey(), newType);
+			}
+		}
+	}
+
+	int getInitiativeBonus() {
+		return initiativeBonus;
+	}
+
+	int getDb() {
+		return db;
+	}
+
+	int getShieldDb() {
+		return shieldDb;
+	}
+
+	int getExhaustion() {
+		return exhaustion;
+	}
+
+	float getExhaustionMultiplier() {
+		return exhaustionMultiplier;
+	}
+
+	int getBaseMovement() {
+		return baseMovement;
+	}
+
+	float getBasemoverateMultiplier() {
+		return basemoverateMultiplier;
+	}
+
+	float getWeightPenalty() {
+		return weightPenalty;
+	}
+
+	float getTolerance() {
+		return tolerance;
+	}
+
+	int getStatBonus(StatEnum stat) {
+		return statBonus[stat.ordinal()];
+	}
+
+	int getResistanceBonus(ResistanceEnum res) {
+		return resistanceBonus[res.ordinal()];
+	}
+
+	int getSpellRealmBonus(StatEnum stat) {
+		return spellRealmBonus[stat.ordinal()];
+	}
+
+	int getSkillBonus(Integer skillId) {
+		Integer bonus = skillBonus.get(skillId);
+		return bonus == null ? 0 : bonus.intValue();
+	}
+
+	int getSkillCatBonus(Integer categoryId) {
+		Integer bonus = skillCatBonus.get(categoryId);
+		return bonus == null ? 0 : bonus.intValue();
+	}
+
+	/**
+	 *
+	 * @param skillId the skill id
+	 * @return the skill type or {@code null}
+	 */
+	SkillType getSkillType(Integer skillId) {
+		return skillType.get(skillId);
+	}
+
+	/**
+	 *
+	 * @param categoryId the skill category id
+	 * @return the skill type or {@code null}
+	 */
+	SkillType getSkillCatType(Integer categoryId) {
+		return skillCatType.get(categoryId);
+	}
+
+	/**
+	 *
+	 * @param skillId the skill id
+	 * @return the cost replacement or {@code null}
+	 */
+	Skillcost getSkillCostReplacement(Integer skillId) {
+		return skillCostReplacement.get(skillId);
+	}
+
+	/**
+	 *
+	 * @param categoryId the skill category id
+	 * @return the cost replacement or {@code null}
+	 */
+	Skillcost getSkillCatCostReplacement(Integer categoryId) {
+		return skillCatCostReplacement.get(categoryId);
+	}
+}
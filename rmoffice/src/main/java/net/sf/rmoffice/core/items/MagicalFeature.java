@@ -76,6 +76,9 @@ public class MagicalFeature {
 	
 	public void setDescription(String description) {
 		this.description = description;
+		if (rmSheetAdapter != null) {
+			rmSheetAdapter.getBean().fireContentChanged(RMSheet.PROPERTY_MAGICALITEMS);
+		}
 	}
 
 	
@@ -140,4 +143,20 @@ public class MagicalFeature {
 		this.resistance = resistance;
 		rmSheetAdapter.getBean().notifyItemBonusChanged();
 	}
+
+	/**
+	 * Copies the feature without the sheet adapter, see {@link MagicalItem#copy()}.
+	 *
+	 * @return the copy, not {@code null}
+	 */
+	public MagicalFeature copy() {
+		MagicalFeature copy = new MagicalFeature();
+		copy.type = type;
+		copy.bonus = bonus;
+		copy.description = description;
+		copy.id = id;
+		copy.stat = stat;
+		copy.resistance = resistance;
+		return copy;
+	}
 }
@@ -72,6 +72,9 @@ public class MagicalItem extends AbstractPropertyChangeSupport {
 		String oldValue = this.name;
 		this.name = name;
 		firePropertyChange(PROP_NAME, oldValue, this.name);
+		if (rmSheetAdapter != null) {
+			rmSheetAdapter.getBean().fireContentChanged(RMSheet.PROPERTY_MAGICALITEMS);
+		}
 	}
 	
 	public Boolean getFavorite() {
@@ -107,6 +110,25 @@ public class MagicalItem extends AbstractPropertyChangeSupport {
 	}
 	
 	/** {@inheritDoc} */
+	/**
+	 * Copies the item and its features, e.g. for a fork of the sheet. The copy has no
+	 * sheet adapter, see {@link #init(BeanAdapter)}.
+	 *
+	 * @return the copy, not {@code null}
+	 */
+	public MagicalItem copy() {
+		MagicalItem copy = new MagicalItem();
+		copy.name = name;
+		copy.favorite = favorite;
+		if (features != null) {
+			copy.features = new ArrayList<MagicalFeature>(features.size());
+			for (MagicalFeature feature : features) {
+				copy.features.add(feature.copy());
+			}
+		}
+		return copy;
+	}
+
 	@Override
 	public String toString() {
 		return getName();
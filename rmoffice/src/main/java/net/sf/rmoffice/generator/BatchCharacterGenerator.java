@@ -0,0 +1,183 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.core.ToDo;
+import net.sf.rmoffice.meta.Culture;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.enums.ToDoType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates fully leveled characters without any UI binding. The characters are generated
+ * in parallel on a fork-join pool. Each character has its own random generator that is split
+ * from the seed of the {@link GeneratorSpec}, so the same spec always returns the same characters.
+ */
+public class BatchCharacterGenerator {
+	private final static Logger log = LoggerFactory.getLogger(BatchCharacterGenerator.class);
+
+	private final MetaData data;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a generator that uses the common fork-join pool.
+	 *
+	 * @param data the meta data, not {@code null}
+	 */
+	public BatchCharacterGenerator(MetaData data) {
+		this(data, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @param pool the pool to generate the characters on, not {@code null}
+	 */
+	public BatchCharacterGenerator(MetaData data, ForkJoinPool pool) {
+		this.data = data;
+		this.pool = pool;
+	}
+
+	/**
+	 * Generates the characters of the given spec.
+	 *
+	 * @param spec the spec, not {@code null}
+	 * @return unmodifiable list of generated sheets in state {@link RMSheet.State#NORMAL}, not {@code null}
+	 */
+	public List<RMSheet> generate(GeneratorSpec spec) {
+		if (log.isDebugEnabled()) log.debug("generating "+spec.getCount()+" characters with level "+spec.getLevel());
+		/* split the randoms in order, so the result does not depend on the scheduling */
+		SplittableRandom seed = new SplittableRandom(spec.getSeed());
+		SplittableRandom[] randoms = new SplittableRandom[spec.getCount()];
+		for (int i = 0; i < randoms.length; i++) {
+			randoms[i] = seed.split();
+		}
+		RMSheet[] sheets = new RMSheet[spec.getCount()];
+		pool.invoke(new GenerateTask(spec, randoms, sheets, 0, sheets.length));
+		return Collections.unmodifiableList(new ArrayList<RMSheet>(Arrays.asList(sheets)));
+	}
+
+	/**
+	 * Generates one character with the given random generator.
+	 *
+	 * @param spec the spec, not {@code null}
+	 * @param random the random generator, not {@code null}
+	 * @return the generated sheet, not {@code null}
+	 */
+	public RMSheet generate(GeneratorSpec spec, SplittableRandom random) {
+		RMSheet sheet = createSheet(data, spec, random);
+		/* same steps as the interactive generator */
+		CharacterGenerator gen = new CharacterGenerator(sheet, data, random);
+		gen.generateName();
+		gen.distributeStats();
+		gen.generatePotStats();
+		gen.generateCharacteristics();
+		gen.levelUpPrepare();
+		gen.levelUpHobbyAndLanguages();
+		for (long lvl = 1; lvl <= spec.getLevel(); lvl++) {
+			gen.doStatGains();
+			gen.levelUpSkillsAndCategories(lvl);
+		}
+		gen.levelUpFinish();
+		return sheet;
+	}
+
+	/**
+	 * Creates a sheet with the race, culture and profession of the spec. The stats are not set.
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @param spec the spec, not {@code null}
+	 * @param random the random generator, not {@code null}
+	 * @return the new sheet, not {@code null}
+	 */
+	/* package */ static RMSheet createSheet(MetaData data, GeneratorSpec spec, SplittableRandom random) {
+		RMSheet sheet = new RMSheet();
+		sheet.setMetaData(data);
+		sheet.init();
+		sheet.getCharacteristics().setFemale(random.nextBoolean());
+		sheet.setRace(spec.getRace());
+		Culture culture = spec.getCulture();
+		if (culture == null) {
+			List<Culture> cultures = data.getCultureForRace(spec.getRace());
+			if (cultures.size() > 0) {
+				culture = cultures.get(DiceUtils.roll(random, 1, cultures.size()) - 1);
+			}
+		}
+		if (culture == null) {
+			throw new IllegalArgumentException("No culture available for race "+spec.getRace().getName());
+		}
+		sheet.setCulture(culture);
+		sheet.setProfession(spec.getProfession());
+		/* leave the race/profession selection */
+		for (ToDo todo : new ArrayList<ToDo>(sheet.getToDos())) {
+			if (ToDoType.RACE_PROF.equals(todo.getType())) {
+				sheet.finishTodo(todo);
+			}
+		}
+		sheet.setLevel(spec.getLevel());
+		return sheet;
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	private final class GenerateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final GeneratorSpec spec;
+		private final SplittableRandom[] randoms;
+		private final RMSheet[] sheets;
+		private final int from;
+		private final int to;
+
+		/**
+		 *
+		 * @param from first index (inclusive)
+		 * @param to last index (exclusive)
+		 */
+		public GenerateTask(GeneratorSpec spec, SplittableRandom[] randoms, RMSheet[] sheets, int from, int to) {
+			this.spec = spec;
+			this.randoms = randoms;
+			this.sheets = sheets;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				/* one character is enough work for one task */
+				if (from < to) {
+					sheets[from] = generate(spec, randoms[from]);
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new GenerateTask(spec, randoms, sheets, from, middle),
+						  new GenerateTask(spec, randoms, sheets, middle, to));
+			}
+		}
+	}
+}
@@ -24,6 +24,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import net.sf.rmoffice.LevelUpVetoException;
 import net.sf.rmoffice.RMPreferences;
@@ -78,6 +79,8 @@ public class CharacterGenerator {
 	private final MetaData data;
 	private final BeanAdapter<Characteristics> characteristics;
 	private final BeanAdapter<RMSheet> sheetAdapter;
+	private final RMSheet sheet;
+	private final SplittableRandom random;
 	private List<ISkill> skills;
 
 	/**
@@ -89,25 +92,61 @@ public class CharacterGenerator {
 	public CharacterGenerator(final BeanAdapter<Characteristics> characteristics, final BeanAdapter<RMSheet> sheetAdapter, final MetaData data) {
 		this.characteristics = characteristics;
 		this.sheetAdapter = sheetAdapter;
+		this.sheet = null;
+		this.random = null;
 		this.data = data;
 	}
 	
+	/**
+	 * Creates a generator that works directly on the sheet without any UI binding,
+	 * e.g. for the headless {@link BatchCharacterGenerator}.
+	 * 
+	 * @param sheet the sheet to modify, not {@code null}
+	 * @param data the meta data, not {@code null}
+	 * @param random the random generator of this generator, may be {@code null} to use the shared one
+	 */
+	public CharacterGenerator(final RMSheet sheet, final MetaData data, final SplittableRandom random) {
+		this.characteristics = null;
+		this.sheetAdapter = null;
+		this.sheet = sheet;
+		this.random = random;
+		this.data = data;
+	}
+	
+	private RMSheet getSheet() {
+		if (sheetAdapter != null) {
+			return sheetAdapter.getBean();
+		}
+		return sheet;
+	}
+	
+	private Characteristics getCharacteristics() {
+		if (characteristics != null) {
+			return characteristics.getBean();
+		}
+		return sheet.getCharacteristics();
+	}
+	
+	private int roll(int count, int maxVal) {
+		return DiceUtils.roll(random, count, maxVal);
+	}
+	
 	/**
 	 * Generates a styled name according the the race and gender
 	 */
 	public void generateName() {
 		boolean isMale = true;
-		if (characteristics.getBean() != null && characteristics.getBean().isFemale()) {
+		if (getCharacteristics() != null && getCharacteristics().isFemale()) {
 			isMale = false;
 		}
 		Style style = null;
-		if (sheetAdapter.getBean() != null && sheetAdapter.getBean().getRace() != null) {
-			style = sheetAdapter.getBean().getRace().getNameStyle();
+		if (getSheet() != null && getSheet().getRace() != null) {
+			style = getSheet().getRace().getNameStyle();
 		}
 		if (style == null) {
 			style = Style.HUMAN;
 		}
-		sheetAdapter.getBean().setCharacterName(Name.getName(style, isMale));
+		getSheet().setCharacterName(Name.getName(style, isMale, random));
 	}
 	
 	/**
@@ -115,52 +154,30 @@ public class CharacterGenerator {
 	 * used as minimum. Potential values not equals 0 are used as maximum, 
 	 */
 	public void distributeStats() {
-		if (sheetAdapter.getBean() != null && sheetAdapter.getBean().getProfession() != null) {
-			int pointsToDistribute = 600 + DiceUtils.roll(10, 10);
+		if (getSheet() != null && getSheet().getProfession() != null) {
+			int pointsToDistribute = 600 + roll(10, 10);
 			
-			Profession prof = sheetAdapter.getBean().getProfession();
+			Profession prof = getSheet().getProfession();
 			/* set all to 25 */
-			for (StatEnum stat : StatEnum.values()) {
-				if (sheetAdapter.getBean().getStatTemp(stat) == 0) {
+			StatEnum[] stats = StatEnum.values();
+			int[] temp = new int[stats.length];
+			int[] pot = new int[stats.length];
+			for (StatEnum stat : stats) {
+				if (getSheet().getStatTemp(stat) == 0) {
 					if ( prof.getStats().contains(stat) ) {
 						/* prof stats */
-						sheetAdapter.getBean().setStatTemp(stat, 90, true);
+						getSheet().setStatTemp(stat, 90, true);
 					} else {
-						sheetAdapter.getBean().setStatTemp(stat, 25, true);
+						getSheet().setStatTemp(stat, 25, true);
 					}
 				}
+				temp[stat.ordinal()] = getSheet().getStatTemp(stat);
+				pot[stat.ordinal()] = getSheet().getStatPot(stat);
 			}
-			while (pointsToDistribute > sheetAdapter.getBean().getTempSum()) {
-				StatEnum stat = StatEnum.values()[ DiceUtils.roll(1, 10) - 1 ];
-				int currentStat = sheetAdapter.getBean().getStatTemp(stat);
-				int maxStat = sheetAdapter.getBean().getStatPot(stat);
-				if (maxStat == 0) {
-					maxStat = 100;
-				}
-				int newVal = -1;
-				if (currentStat < 70) {
-					if (DiceUtils.roll(1, 100) < (60 + (stat.isForAPCalculation() ? 10 : 0))) {
-						newVal = currentStat + DiceUtils.roll(1, 10);
-						if (newVal % 10 > 1 && newVal % 10 < 5) {
-							newVal = Math.round(newVal / 10 ) * 10 + 5;
-							if (log.isDebugEnabled()) log.debug("round up to "+newVal);
-						}
-					}
-				} else if (currentStat < 90) {
-					if (DiceUtils.roll(1, 100) < 50) {
-						newVal = currentStat + DiceUtils.roll(1, 5);
-					}
-				} else if (currentStat < 100) {
-					if (DiceUtils.roll(1, 100) < 30) {
-						newVal = currentStat + DiceUtils.roll(1, 3);
-					}
-				}
-				/* check max value */
-				if (newVal > -1) {
-					if (newVal > maxStat) {
-						newVal = maxStat;
-					}
-					sheetAdapter.getBean().setStatTemp(stat, newVal, true);
+			StatGainGenerator.distributeStats(temp, pot, pointsToDistribute, random);
+			for (StatEnum stat : stats) {
+				if (temp[stat.ordinal()] != getSheet().getStatTemp(stat)) {
+					getSheet().setStatTemp(stat, temp[stat.ordinal()], true);
 				}
 			}
 		}
@@ -171,9 +188,9 @@ public class CharacterGenerator {
 	 */
 	public void generatePotStats() {
 		for (StatEnum stat : StatEnum.values()) {
-			if (sheetAdapter.getBean().getStatPot(stat) == 0) {
-				int potStat = StatGainGenerator.getStatPotDice(sheetAdapter.getBean().getStatTemp(stat));
-				sheetAdapter.getBean().setStatPot(stat, potStat, true);
+			if (getSheet().getStatPot(stat) == 0) {
+				int potStat = StatGainGenerator.getStatPotDice(getSheet().getStatTemp(stat), random);
+				getSheet().setStatPot(stat, potStat, true);
 			}
 		}
 	}
@@ -183,12 +200,12 @@ public class CharacterGenerator {
 	 */
 	public void doStatGains() {
 		for (StatEnum stat : StatEnum.values()) {
-			int tempStat = sheetAdapter.getBean().getStatTemp(stat);
-			int potStat = sheetAdapter.getBean().getStatPot(stat);
-			int dice1 = DiceUtils.roll(1, 10);
-			int dice2 = DiceUtils.roll(1, 10);
+			int tempStat = getSheet().getStatTemp(stat);
+			int potStat = getSheet().getStatPot(stat);
+			int dice1 = roll(1, 10);
+			int dice2 = roll(1, 10);
 			int newVal = StatGainGenerator.getStatGainDice(tempStat, potStat, dice1, dice2);
-			sheetAdapter.getBean().setStatTemp(stat, newVal, true);
+			getSheet().setStatTemp(stat, newVal, true);
 		}
 	}
 
@@ -197,43 +214,43 @@ public class CharacterGenerator {
 	 */
 	public void generateCharacteristics() {
 		/* appearance potential presence - 25 + 5W10 */
-		int app = sheetAdapter.getBean().getStatPot(StatEnum.PRESENCE) - 25 + DiceUtils.roll(5, 10);
+		int app = getSheet().getStatPot(StatEnum.PRESENCE) - 25 + roll(5, 10);
 		if (app < 1) {
 			app = 1;
 		} else if (app > 100) {
 			app = 100;
 		}
-		characteristics.getBean().setAppearance(app);
+		getCharacteristics().setAppearance(app);
 		/* age */
-		characteristics.getBean().setAge(16 + DiceUtils.roll(3, 2 + (int)sheetAdapter.getBean().getLevel()));
+		getCharacteristics().setAge(16 + roll(3, 2 + (int)getSheet().getLevel()));
 		/* weight and height */
-		if (sheetAdapter.getBean().getCulture() != null) {
-			WeightHeight wh = sheetAdapter.getBean().getCulture().getWeightHeight();
-			boolean isFemale = characteristics.getBean().isFemale();
+		if (getSheet().getCulture() != null) {
+			WeightHeight wh = getSheet().getCulture().getWeightHeight();
+			boolean isFemale = getCharacteristics().isFemale();
 			int avgH = wh.getHeightAvg(isFemale);
 			/* height = 85% of avg height + 2 x 0-15% of avg height; range: 85% - 115% */
-			int rnd = 85 + DiceUtils.roll(2, 15);
+			int rnd = 85 + roll(2, 15);
 			int height = (int) ((rnd / 100f) * avgH);
-			if (0 != sheetAdapter.getBean().getLengthUnit().compareTo(LengthUnit.CM)) {
+			if (0 != getSheet().getLengthUnit().compareTo(LengthUnit.CM)) {
 				// convert
-				height = LengthUnit.CM.convertTo(height, sheetAdapter.getBean().getLengthUnit());
+				height = LengthUnit.CM.convertTo(height, getSheet().getLengthUnit());
 			}
-			characteristics.getBean().setHeight(height);
+			getCharacteristics().setHeight(height);
 			
 			/* weight */
 			int avgW = wh.getWeightAvg(isFemale);
-			rnd = 100 + DiceUtils.roll(1, 15) /* 100-115% */  - (rnd - 100) /* the diff from height */;
+			rnd = 100 + roll(1, 15) /* 100-115% */  - (rnd - 100) /* the diff from height */;
 			int weight = (int) ((rnd / 100f) * avgW);
-			if (0 != sheetAdapter.getBean().getWeightUnit().compareTo(WeightUnit.KILOGRAM)) {
+			if (0 != getSheet().getWeightUnit().compareTo(WeightUnit.KILOGRAM)) {
 				// convert
-				weight = Math.round(WeightUnit.KILOGRAM.convertTo(weight, sheetAdapter.getBean().getWeightUnit()));
+				weight = Math.round(WeightUnit.KILOGRAM.convertTo(weight, getSheet().getWeightUnit()));
 			}
-			characteristics.getBean().setWeight(weight);
+			getCharacteristics().setWeight(weight);
 		}
 	}
 	
 	public void levelUpPrepare() {
-		RMSheet sheet = sheetAdapter.getBean();
+		RMSheet sheet = getSheet();
 		skills = new ArrayList<ISkill>();
 		/* set magic realm */
 		if (sheet.isMagicRealmEditable()) {
@@ -305,7 +322,7 @@ public class CharacterGenerator {
 		List<ISkill> skillsPool = new ArrayList<ISkill>();
 		skillsPool.addAll( data.getSkills() );
 		while (skillsPool.size() > 0) {
-			ISkill skill = skillsPool.remove(DiceUtils.roll(1, skillsPool.size()) - 1);
+			ISkill skill = skillsPool.remove(roll(1, skillsPool.size()) - 1);
 			if (skill.isSpelllist() && !RMPreferences.getInstance().isExcluded(skill.getSource())) {
 				SkillCategory cat = sheet.getSkillcategory(skill);
 				if (cat.getRankSubType().isBase() && !((Spelllist)skill).getSpelllistType().isEvil()) {
@@ -325,7 +342,7 @@ public class CharacterGenerator {
 						chance -= cost.getCost(0) * 2;
 					}
 					chance -= chanceToIgnore;
-					int dice = DiceUtils.roll(1, 100);
+					int dice = roll(1, 100);
 					boolean addSpelllist = dice <= chance;
 					if (log.isDebugEnabled()) log.debug(chance+"% to get spelllist "+skill.getName()+" result="+dice+" => add "+addSpelllist);
 					if (addSpelllist) {
@@ -341,11 +358,11 @@ public class CharacterGenerator {
 		}
 		/* youth open spell ranks */
 		if (!isOpenInList && openOwnRealmList.size() > 0) {
-			ISkill rndSpelllist = openOwnRealmList.get(DiceUtils.roll(1, openOwnRealmList.size()) - 1);
+			ISkill rndSpelllist = openOwnRealmList.get(roll(1, openOwnRealmList.size()) - 1);
 			skills.add(rndSpelllist);
 		}
 		/* order by favorite, development costs */
-		Collections.sort(skills, new SkillComparator(sheetAdapter.getBean()));
+		Collections.sort(skills, new SkillComparator(getSheet()));
 	}
 
 	private List<ISkill> collectFlavorSkills(RMSheet sheet) {
@@ -355,7 +372,7 @@ public class CharacterGenerator {
 			if (!RMPreferences.getInstance().isExcluded(skill.getSource())) {
 				SkillCategory cat = sheet.getSkillcategory(skill);
 				int chance = 15 - flavored.size() * 7;
-				if (FLAVOR_SKILL_CATS.contains(cat.getId()) && ! foundCats.contains(cat) && DiceUtils.roll(1, 100) < chance) {
+				if (FLAVOR_SKILL_CATS.contains(cat.getId()) && ! foundCats.contains(cat) && roll(1, 100) < chance) {
 					foundCats.add(cat);
 					flavored.add(skill);
 				}
@@ -374,7 +391,7 @@ public class CharacterGenerator {
 		for (int id : SECONDARY_SKILLS) {
 			int chance = 100;
 			ISkill skill = data.getSkill(Integer.valueOf(id));
-			Skillcost costs = sheetAdapter.getBean().getSkillcost(skill);
+			Skillcost costs = getSheet().getSkillcost(skill);
 			/* Example base chance:
 			 * Cost 1/3 --> 80%
 			 * Cost 2/7 --> 70%
@@ -392,7 +409,7 @@ public class CharacterGenerator {
 				chance -= 35;
 			}
 			/* check if everyman, restricted, vocational */
-			SkillType skillType = sheetAdapter.getBean().getSkillType(skill);
+			SkillType skillType = getSheet().getSkillType(skill);
 			switch (skillType) {
 			case DEFAULT:
 				chance -= 10;
@@ -408,7 +425,7 @@ public class CharacterGenerator {
 				chance -= 100;
 				break;
 			}
-			if (DiceUtils.roll(1, 100) < chance) {
+			if (roll(1, 100) < chance) {
 				subset.add(skill);
 			}
 		}
@@ -469,7 +486,7 @@ public class CharacterGenerator {
 		while (idx < cats.size()) {
 			List<ISkill> ws = weaponsPerCat.get(cats.get(idx++));
 			if (ws.size() > 0) {
-				ISkill skill = ws.get(DiceUtils.roll(1, ws.size()) - 1);
+				ISkill skill = ws.get(roll(1, ws.size()) - 1);
 				weaponsCostDP += sheet.getSkillcost(skill).getCost(0);
 				if (weaponsCostDP < 6) {
 					weaponsToAdd.add(skill);
@@ -480,12 +497,12 @@ public class CharacterGenerator {
 	}
 
 	public void levelUpFinish() {
-		RMSheet bean = sheetAdapter.getBean();
+		RMSheet bean = getSheet();
 		for (ISkill skill : skills) {
 			Rank rank = bean.getSkillRank(skill);
 			SkillCategory cat = bean.getSkillcategory(skill);
-			if (rank.getRank().intValue() > 0 && !cat.getRankType().isProgressionBody() && !cat.getRankType().isProgressionMagic()) {
-				rank.setFavorite(Boolean.TRUE);
+			if (rank.getWholeRank() > 0 && !cat.getRankType().isProgressionBody() && !cat.getRankType().isProgressionMagic()) {
+				bean.setSkillFavorite(skill, true);
 			}
 		}
 		/* set all weapons as favorite (to avoid empty favorite weapons) */
@@ -493,8 +510,8 @@ public class CharacterGenerator {
 			SkillCategory cat = bean.getSkillcategory(skill);
 			if (cat.getRankType().isWeapon()) {
 				Rank rank = bean.getSkillRank(skill);
-				if (rank.getRank().intValue() > 0) {
-					rank.setFavorite(Boolean.TRUE);
+				if (rank.getWholeRank() > 0) {
+					bean.setSkillFavorite(skill, true);
 				}
 			}
 		}
@@ -506,7 +523,7 @@ public class CharacterGenerator {
 	}
 	
 	public void levelUpSkillsAndCategories(long level) {
-		RMSheet bean = sheetAdapter.getBean();
+		RMSheet bean = getSheet();
 		/* */
 		bean.setLvlUpActive(false);		
 		int devPoints = bean.getDevPoints();
@@ -521,15 +538,15 @@ public class CharacterGenerator {
 		/* TODO languages */
 		/* hobby ranks */
 		if (log.isDebugEnabled()) log.debug("distributing hobby ranks");
-		RMSheet bean = sheetAdapter.getBean();
+		RMSheet bean = getSheet();
 		int hobbyRanks = bean.getCulture().getHobbyRanks();
 		for (int runs=5; hobbyRanks > 0 && runs > 0; runs--) {
 			for (ISkill skill : skills) {
-				BigDecimal currRank = bean.getSkillRank(skill).getRank();
-				if (!skill.isSpelllist() && currRank.intValue() < 10) {
-					if ( DiceUtils.roll(1, 100) < 80 ) {
+				int currRank = bean.getSkillRank(skill).getWholeRank();
+				if (!skill.isSpelllist() && currRank < 10) {
+					if ( roll(1, 100) < 80 ) {
 						try {
-							bean.setSkillRank(skill, currRank.add(BigDecimal.valueOf(1)));
+							bean.increaseSkillRank(skill);
 							hobbyRanks--;
 						} catch (LevelUpVetoException e) {
 							/* ignore */
@@ -551,10 +568,9 @@ public class CharacterGenerator {
 		}
 		if (openOwnRealmLists.size() > 0) {
 			for (int spellRanks = bean.getCulture().getOpenSpellRanks(); spellRanks > 0; spellRanks--) {
-				ISkill spelllist = openOwnRealmLists.get(DiceUtils.roll(1, openOwnRealmLists.size())-1);
-				BigDecimal rank = bean.getSkillRank(spelllist).getRank();
+				ISkill spelllist = openOwnRealmLists.get(roll(1, openOwnRealmLists.size())-1);
 				try {
-					bean.setSkillRank(spelllist, rank.add(BigDecimal.valueOf(1)));
+					bean.increaseSkillRank(spelllist);
 				} catch (LevelUpVetoException e) {
 					/* ignore, this should not occur, to prevent endless loop we do not distribute this point */
 					log.error("Could not level up the spell "+spelllist.getName(), e);
@@ -573,9 +589,8 @@ public class CharacterGenerator {
 			Skillcost costs = bean.getSkillcost(arSkill);
 			for (int i=0; i<costs.size() && modi < 0; i++) {
 				if (costs.getCost(i) <= devPoints) {
-					Rank skillRank = bean.getSkillRank(arSkill);
 					try {
-						bean.setSkillRank(arSkill, skillRank.getRank().add(BigDecimal.valueOf(1)));
+						bean.increaseSkillRank(arSkill);
 						modi = bean.getArmorManeuverModi() - data.getArmorManeuverModiMin(bean.getArmor());
 						devPoints -= costs.getCost(i);
 					} catch (LevelUpVetoException e) {
@@ -585,9 +600,8 @@ public class CharacterGenerator {
 			}
 			if (costs.getCost(0) <= devPoints && modi < 0) {
 				/* level up category */
-				Rank catRank = bean.getSkillcategoryRank(skillcategory);
 				try {
-					bean.setSkillcategoryRank(skillcategory, catRank.getRank().add(BigDecimal.valueOf(1)));
+					bean.increaseSkillcategoryRank(skillcategory);
 					devPoints -= costs.getCost(0);
 				} catch (LevelUpVetoException e) {
 					/* ignore */
@@ -607,18 +621,18 @@ public class CharacterGenerator {
 			SkillCategory cat = bean.getSkillcategory(skill);
 			if (!cats.contains(cat) && cat.getRankType().isGroupRankEditable()) {
 				cats.add(cat);
-				BigDecimal rank = bean.getSkillcategoryRank(cat).getRank();
-				if (rank.intValue() < 29) {
+				int rank = bean.getSkillcategoryRank(cat).getWholeRank();
+				if (rank < 29) {
 					/* do not learn greater than 29, and only in */
 					Skillcost cost = bean.getSkillcost(cat);
 					if (cost.size() > 0 && devPointForSkillcats > cost.getCost(0)) {
 						Rank skillRank = bean.getSkillRank(skill);
 						boolean isFavorite =Boolean.TRUE.equals(skillRank.getFavorite());
-						int chance = (100 - (cost.getCost(0) * 5) -  rank.intValue() * 4);
-						if (isFavorite || DiceUtils.roll(1, 100) < chance) {
+						int chance = (100 - (cost.getCost(0) * 5) -  rank * 4);
+						if (isFavorite || roll(1, 100) < chance) {
 							/* only if 100 - (cost*5)% chance to learn */
 							try {
-								bean.setSkillcategoryRank(cat, rank.add(BigDecimal.valueOf(1)) );
+								bean.increaseSkillcategoryRank(cat);
 								devPointForSkillcats -= cost.getCost(0);
 							} catch (LevelUpVetoException e) {
 								/* ignore */
@@ -664,20 +678,20 @@ public class CharacterGenerator {
 							Rank rank = bean.getSkillRank(skill);		
 							/* reduce the chance to increase very high skill ranks (e.g. 1/2 everyman skills will
 							 * be very high on higher levels) */
-							chance -= Math.max(0, (rank.getRank().longValue() - level) * 4 );
+							chance -= Math.max(0, (rank.getWholeRank() - level) * 4 );
 							/* spell list: if learned this level, increase chance */
 							if (skill.isSpelllist()) {
 								if (learnSpellistsThisLevel.contains(skill.getId())) {
 									chance += 30;
-								} else if (rank.getRank().longValue() > level) {
+								} else if (rank.getWholeRank() > level) {
 									/* lesser chance to learn spell lists, if the rank is greater than level */
 									chance -= 16;
 								}
 							}
 							boolean isFavorit = Boolean.TRUE.equals(rank.getFavorite());
-							if ( (DiceUtils.roll(1, 100) < chance || isFavorit) && rank.getRank().longValue() < 9997) {
+							if ( (roll(1, 100) < chance || isFavorit) && rank.getWholeRank() < 9997) {
 								try {
-									bean.setSkillRank(skill, rank.getRank().add(BigDecimal.valueOf(1)));
+									bean.increaseSkillRank(skill);
 									devPoints -= cost;
 									if (skill.isSpelllist()) {
 										learnSpellistsThisLevel.add(skill.getId());
@@ -685,13 +699,13 @@ public class CharacterGenerator {
 									/* check if the categorys rank is > 0 */
 									if (!skill.isSpelllist()) {
 										SkillCategory cat = bean.getSkillcategory(skill);
-										BigDecimal catRank = bean.getSkillcategoryRank(cat).getRank();
-										if (catRank.intValue() <= 0) {
+										int catRank = bean.getSkillcategoryRank(cat).getWholeRank();
+										if (catRank <= 0) {
 											/* we increase the rank */
 											Skillcost catCost = bean.getSkillcost(cat);
 											if (catCost.size() > 0 && devPoints > catCost.getCost(0)) {
 												try {
-													bean.setSkillcategoryRank(cat, catRank.add(BigDecimal.valueOf(1)) );
+													bean.increaseSkillcategoryRank(cat);
 													devPoints -= catCost.getCost(0);
 												} catch (LevelUpVetoException e) {
 													/* ignore */
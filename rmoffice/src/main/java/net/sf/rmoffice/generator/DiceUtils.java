@@ -15,6 +15,8 @@
  */
 package net.sf.rmoffice.generator;
 
+import java.util.SplittableRandom;
+
 import org.apache.commons.lang.math.RandomUtils;
 
 
@@ -36,4 +38,24 @@ public class DiceUtils {
 		}
 		return r;
 	}
+	
+	/**
+	 * Rolls the given number of dices with the given random generator. Falls back to
+	 * {@link #roll(int, int)} if no generator is given.
+	 * 
+	 * @param random the random generator, may be {@code null}
+	 * @param count the number of dices.
+	 * @param maxVal the max value, e.g. for 1d10 is maxVal 10
+	 * @return the rolled number
+	 */
+	public static int roll(SplittableRandom random, int count, int maxVal) {
+		if (random == null) {
+			return roll(count, maxVal);
+		}
+		int r = 0;
+		for (int i=0; i< count; i++) {
+			r += random.nextInt(maxVal) + 1;
+		}
+		return r;
+	}
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.generator;
+
+/**
+ * The frequencies of integer values, e.g. of a stat over all trials of the
+ * {@link StatGainSimulator}. The values are counted in an array from the minimum
+ * to the maximum value. Not thread safe, it is not modified after the simulation.
+ */
+public final class Distribution {
+	private int offset;
+	private long[] counts = new long[0];
+	private long count;
+	private long sum;
+
+	/* package */ void add(int value) {
+		ensureRange(value, value);
+		counts[value - offset]++;
+		count++;
+		sum += value;
+	}
+
+	/* package */ void add(Distribution other) {
+		if (other.count == 0) {
+			return;
+		}
+		ensureRange(other.offset, other.offset + other.counts.length - 1);
+		for (int i = 0; i < other.counts.length; i++) {
+			counts[other.offset + i - offset] += other.counts[i];
+		}
+		count += other.count;
+		sum += other.sum;
+	}
+
+	private void ensureRange(int min, int max) {
+		if (counts.length == 0) {
+			offset = min;
+			counts = new long[max - min + 1];
+			return;
+		}
+		int newOffset = Math.min(offset, min);
+		int newMax = Math.max(offset + counts.length - 1, max);
+		if (newOffset != offset || newMax - newOffset + 1 != counts.length) {
+			long[] newCounts = new long[newMax - newOffset + 1];
+			System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+			counts = newCounts;
+			offset = newOffset;
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 *
+	 * @param value the value
+	 * @return how often the value occurred
+	 */
+	public long getCount(int value) {
+		int idx = value - offset;
+		return idx < 0 || idx >= counts.length ? 0 : counts[idx];
+	}
+
+	/**
+	 *
+	 * @return the minimum value, 0 if there are no values
+	 */
+	public int getMin() {
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				return offset + i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 *
+	 * @return the maximum value, 0 if there are no values
+	 */
+	public int getMax() {
+		for (int i = counts.length - 1; i >= 0; i--) {
+			if (counts[i] > 0) {
+				return offset + i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 *
+	 * @return the mean value, 0 if there are no values
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 *
+	 * @param percent the percent between 0 and 100, e.g. 50 for the median
+	 * @return the smallest value that is greater or equal than the given percent of the values, 0 if there are no values
+	 */
+	public int getPercentile(double percent) {
+		if (percent < 0 || percent > 100) throw new IllegalArgumentException("percent must be between 0 and 100: "+percent);
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return offset + i;
+			}
+		}
+		return getMax();
+	}
+
+	@Override
+	public String toString() {
+		return "Distribution[count="+count+", min="+getMin()+", median="+getPercentile(50)+", mean="+getMean()+", max="+getMax()+"]";
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.generator;
+
+import net.sf.rmoffice.meta.Culture;
+import net.sf.rmoffice.meta.Profession;
+import net.sf.rmoffice.meta.Race;
+
+/**
+ * The specification of a batch of generated characters for the {@link BatchCharacterGenerator}.
+ */
+public class GeneratorSpec {
+	private final Race race;
+	private final Culture culture;
+	private final Profession profession;
+	private final long level;
+	private final int count;
+	private final long seed;
+
+	/**
+	 *
+	 * @param race the race, not {@code null}
+	 * @param culture the culture or {@code null} to choose a random culture of the race
+	 * @param profession the profession, not {@code null}
+	 * @param level the level of the generated characters (1 or greater)
+	 * @param count the number of characters to generate
+	 * @param seed the seed, the same seed generates the same characters
+	 */
+	public GeneratorSpec(Race race, Culture culture, Profession profession, long level, int count, long seed) {
+		if (race == null) throw new IllegalArgumentException("race must not be null");
+		if (profession == null) throw new IllegalArgumentException("profession must not be null");
+		if (level < 1) throw new IllegalArgumentException("level must be greater than 0: "+level);
+		if (count < 0) throw new IllegalArgumentException("count must not be negative: "+count);
+		this.race = race;
+		this.culture = culture;
+		this.profession = profession;
+		this.level = level;
+		this.count = count;
+		this.seed = seed;
+	}
+
+	public Race getRace() {
+		return race;
+	}
+
+	/**
+	 *
+	 * @return the culture or {@code null} for a random culture of the race
+	 */
+	public Culture getCulture() {
+		return culture;
+	}
+
+	public Profession getProfession() {
+		return profession;
+	}
+
+	public long getLevel() {
+		return level;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+}
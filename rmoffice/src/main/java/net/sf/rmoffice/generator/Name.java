@@ -18,6 +18,7 @@ package net.sf.rmoffice.generator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -151,13 +152,26 @@ public class Name {
 	 * @return styled name, not {@code null}
 	 */
 	public static String getName(Style style, boolean male) {
+		return getName(style, male, null);
+	}
+	
+	/**
+	 * Returns a styled name using the given random generator. 
+	 * 
+	 * @param style the 
+	 * @param male whether the name should be male or female
+	 * @param random the random generator, may be {@code null} to use the shared one
+	 * @return styled name, not {@code null}
+	 */
+	public static String getName(Style style, boolean male, SplittableRandom random) {
 		StringBuilder sb = new StringBuilder();
 		String[][] syllable = syllablesMale.get(style);
 		if (! male && syllablesFemale.containsKey(style)) {
 			syllable = syllablesFemale.get(style);	
 		}
 		for (int i = 0; i < 3; i++) {
-			int ix = (int) (rand.nextDouble() * syllable[i].length);
+			double rnd = random == null ? rand.nextDouble() : random.nextDouble();
+			int ix = (int) (rnd * syllable[i].length);
 			String str = syllable[i][ix];
 			log.debug("name generator: "+i+"/"+ix+"="+str);
 			sb.append(str);
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.generator;
+
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+/**
+ * The distributions of the temp stats, hits and power points by level of a
+ * {@link StatGainSimulator} run. Level 0 are the values after the stat distribution,
+ * before the first stat gain.
+ */
+public class SimulationResult {
+	private static final StatEnum[] STATS = StatEnum.values();
+
+	private final long maxLevel;
+	/* [level][stat] */
+	private final Distribution[][] stats;
+	private final Distribution[] hits;
+	private final Distribution[] powerPoints;
+
+	/**
+	 *
+	 * @param maxLevel the highest simulated level
+	 */
+	/* package */ SimulationResult(int maxLevel) {
+		this.maxLevel = maxLevel;
+		stats = new Distribution[maxLevel + 1][STATS.length];
+		hits = new Distribution[maxLevel + 1];
+		powerPoints = new Distribution[maxLevel + 1];
+		for (int level = 0; level <= maxLevel; level++) {
+			for (int i = 0; i < STATS.length; i++) {
+				stats[level][i] = new Distribution();
+			}
+			hits[level] = new Distribution();
+			powerPoints[level] = new Distribution();
+		}
+	}
+
+	/* package */ void add(int level, int[] temp, int hitPoints, int pp) {
+		for (int i = 0; i < temp.length; i++) {
+			stats[level][i].add(temp[i]);
+		}
+		hits[level].add(hitPoints);
+		powerPoints[level].add(pp);
+	}
+
+	/* package */ void add(SimulationResult other) {
+		for (int level = 0; level < stats.length; level++) {
+			for (int i = 0; i < STATS.length; i++) {
+				stats[level][i].add(other.stats[level][i]);
+			}
+			hits[level].add(other.hits[level]);
+			powerPoints[level].add(other.powerPoints[level]);
+		}
+	}
+
+	/**
+	 *
+	 * @return the highest simulated level
+	 */
+	public long getMaxLevel() {
+		return maxLevel;
+	}
+
+	/**
+	 *
+	 * @return the number of simulated characters
+	 */
+	public long getTrials() {
+		return hits[0].getCount();
+	}
+
+	/**
+	 *
+	 * @param level the level from 0 to {@link #getMaxLevel()}
+	 * @param stat the stat, not {@code null}
+	 * @return the distribution of the temp stat, not {@code null}
+	 */
+	public Distribution getStat(int level, StatEnum stat) {
+		return stats[level][stat.ordinal()];
+	}
+
+	/**
+	 *
+	 * @param level the level from 0 to {@link #getMaxLevel()}
+	 * @return the distribution of the hits, not {@code null}
+	 */
+	public Distribution getHits(int level) {
+		return hits[level];
+	}
+
+	/**
+	 *
+	 * @param level the level from 0 to {@link #getMaxLevel()}
+	 * @return the distribution of the power points, not {@code null}
+	 */
+	public Distribution getPowerPoints(int level) {
+		return powerPoints[level];
+	}
+}
@@ -15,14 +15,16 @@
  */
 package net.sf.rmoffice.generator;
 
-import org.apache.commons.lang.math.RandomUtils;
+import java.util.SplittableRandom;
 
+import net.sf.rmoffice.meta.enums.StatEnum;
 
 
 /**
  * 
  */
 public class StatGainGenerator {
+	private static final StatEnum[] STATS = StatEnum.values();
 	
 	/**
 	 * Role the dices and returns the potential stat.
@@ -31,40 +33,100 @@ public class StatGainGenerator {
 	 * @return the random potential stat
 	 */
 	public static int getStatPotDice(int tempStat) {
+		return getStatPotDice(tempStat, null);
+	}
+	
+	/**
+	 * Role the dices with the given random generator and returns the potential stat.
+	 * 
+	 * @param tempStat the temp stat
+	 * @param random the random generator, may be {@code null} to use the shared one
+	 * @return the random potential stat
+	 */
+	public static int getStatPotDice(int tempStat, SplittableRandom random) {
 		if (tempStat <= 24) {
-			return 20 + DiceUtils.roll(8, 10);
+			return 20 + DiceUtils.roll(random, 8, 10);
 		} else if (tempStat <= 34) {
-			return 30 + DiceUtils.roll(7, 10);
+			return 30 + DiceUtils.roll(random, 7, 10);
 		} else if (tempStat <= 44) {
-			return 40 + DiceUtils.roll(6, 10);
+			return 40 + DiceUtils.roll(random, 6, 10);
 		} else if (tempStat <= 54) {
-			return 50 + DiceUtils.roll(5, 10);
+			return 50 + DiceUtils.roll(random, 5, 10);
 		} else if (tempStat <= 64) {
-			return 60 + DiceUtils.roll(4, 10);
+			return 60 + DiceUtils.roll(random, 4, 10);
 		} else if (tempStat <= 74) {
 			/* "70 + 3d10 *"; */
-			int r = 70 + DiceUtils.roll(3, 10);
+			int r = 70 + DiceUtils.roll(random, 3, 10);
 			if (r < tempStat) {
 				r = tempStat;
 			}
 			return r;
 		} else if (tempStat <= 84) {
 			/* "80 + 2d10 *"; */
-			int r = 80 + DiceUtils.roll(2, 10);
+			int r = 80 + DiceUtils.roll(random, 2, 10);
 			if (r < tempStat) {
 				r = tempStat;
 			}
 			return r;
 		} else if (tempStat <= 91) {
-			return 90 + DiceUtils.roll(1, 10);
+			return 90 + DiceUtils.roll(random, 1, 10);
 		} else if (tempStat <= 99) {
-			return (tempStat-1) + RandomUtils.nextInt((101-tempStat)) + 1;
+			return (tempStat-1) + DiceUtils.roll(random, 1, 101-tempStat);
 		} else if (tempStat == 100) {
-			return 99 + RandomUtils.nextInt(2) + 1;
+			return 99 + DiceUtils.roll(random, 1, 2);
 		}
 		return tempStat;
 	}
 	
+	/**
+	 * Distributes the start points to the temp stats until their sum reaches the points.
+	 * The stats are in the order of {@link StatEnum#values()}.
+	 * 
+	 * @param temp the temp stats with their start values, they are increased
+	 * @param pot the potential stats as maximum, 0 for no potential
+	 * @param points the start points, e.g. 600 + 10d10
+	 * @param random the random generator, may be {@code null} to use the shared one
+	 */
+	public static void distributeStats(int[] temp, int[] pot, int points, SplittableRandom random) {
+		int sum = 0;
+		for (int value : temp) {
+			sum += value;
+		}
+		while (points > sum) {
+			int idx = DiceUtils.roll(random, 1, 10) - 1;
+			int currentStat = temp[idx];
+			int maxStat = pot[idx];
+			if (maxStat == 0) {
+				maxStat = 100;
+			}
+			int newVal = -1;
+			if (currentStat < 70) {
+				if (DiceUtils.roll(random, 1, 100) < (60 + (STATS[idx].isForAPCalculation() ? 10 : 0))) {
+					newVal = currentStat + DiceUtils.roll(random, 1, 10);
+					if (newVal % 10 > 1 && newVal % 10 < 5) {
+						newVal = Math.round(newVal / 10 ) * 10 + 5;
+					}
+				}
+			} else if (currentStat < 90) {
+				if (DiceUtils.roll(random, 1, 100) < 50) {
+					newVal = currentStat + DiceUtils.roll(random, 1, 5);
+				}
+			} else if (currentStat < 100) {
+				if (DiceUtils.roll(random, 1, 100) < 30) {
+					newVal = currentStat + DiceUtils.roll(random, 1, 3);
+				}
+			}
+			/* check max value */
+			if (newVal > -1) {
+				if (newVal > maxStat) {
+					newVal = maxStat;
+				}
+				sum += newVal - currentStat;
+				temp[idx] = newVal;
+			}
+		}
+	}
+	
 	/**
 	 * Returns a string representation of the dices to role for stat potential.
 	 * 
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.generator;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.meta.ISkill;
+import net.sf.rmoffice.meta.IProgression;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.SkillCategory;
+import net.sf.rmoffice.meta.TableProgression;
+import net.sf.rmoffice.meta.enums.RankType;
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates the stat distribution, the stat gains and the body and power point development
+ * of many characters of a race and profession, and returns the distributions of the stats,
+ * hits and power points by level. The characters are no {@link RMSheet}s, one sheet is
+ * created to resolve the constant bonuses and progressions, each trial works on primitive
+ * arrays. Talents and flaws and the rank costs are not part of the simulation.
+ * <p>
+ * The trials are run in parallel on a fork-join pool in chunks of {@link #TRIALS_PER_CHUNK}
+ * trials. Each chunk has its own random generator that is split from the seed of the
+ * {@link GeneratorSpec}, so the same spec always returns the same distributions.
+ */
+public class StatGainSimulator {
+	private final static Logger log = LoggerFactory.getLogger(StatGainSimulator.class);
+	private static final StatEnum[] STATS = StatEnum.values();
+	/* package */ static final int TRIALS_PER_CHUNK = 1024;
+	private static final int CHUNKS_PER_TASK = 8;
+
+	private final MetaData data;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a simulator that uses the common fork-join pool.
+	 *
+	 * @param data the meta data, not {@code null}
+	 */
+	public StatGainSimulator(MetaData data) {
+		this(data, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @param pool the pool to run the trials on, not {@code null}
+	 */
+	public StatGainSimulator(MetaData data, ForkJoinPool pool) {
+		this.data = data;
+		this.pool = pool;
+	}
+
+	/**
+	 * Simulates {@link GeneratorSpec#getCount()} characters up to {@link GeneratorSpec#getLevel()}.
+	 *
+	 * @param spec the spec, not {@code null}
+	 * @param bodyRanksPerLevel the ranks of body development per level
+	 * @param powerRanksPerLevel the ranks of power point development per level
+	 * @return the distributions by level, not {@code null}
+	 */
+	public SimulationResult simulate(GeneratorSpec spec, int bodyRanksPerLevel, int powerRanksPerLevel) {
+		if (bodyRanksPerLevel < 0) throw new IllegalArgumentException("bodyRanksPerLevel must not be negative: "+bodyRanksPerLevel);
+		if (powerRanksPerLevel < 0) throw new IllegalArgumentException("powerRanksPerLevel must not be negative: "+powerRanksPerLevel);
+		long start = System.currentTimeMillis();
+		SplittableRandom seed = new SplittableRandom(spec.getSeed());
+		Model model = new Model(data, BatchCharacterGenerator.createSheet(data, spec, seed.split()), (int) spec.getLevel(),
+				bodyRanksPerLevel, powerRanksPerLevel);
+		/* split the randoms in order, so the result does not depend on the scheduling */
+		SplittableRandom[] randoms = new SplittableRandom[(spec.getCount() + TRIALS_PER_CHUNK - 1) / TRIALS_PER_CHUNK];
+		for (int i = 0; i < randoms.length; i++) {
+			randoms[i] = seed.split();
+		}
+		SimulationResult result = pool.invoke(new SimulateTask(model, spec.getCount(), randoms, 0, randoms.length));
+		if (log.isInfoEnabled()) log.info("simulated "+spec.getCount()+" characters up to level "+spec.getLevel()+" in "+(System.currentTimeMillis() - start)+"ms");
+		return result;
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	/**
+	 * The constant values of the simulated race and profession, resolved once from a sheet.
+	 * Immutable, shared by all tasks.
+	 */
+	private static final class Model {
+		private static final int STAT_BONUS_TABLE_SIZE = 128;
+		private final RMSheet sheet;
+		private final int maxLevel;
+		private final boolean[] profStat = new boolean[STATS.length];
+		private final int[] statBonus = new int[STAT_BONUS_TABLE_SIZE];
+		/* race and misc bonus of the stat */
+		private final int[] statBonusConst = new int[STATS.length];
+		/* body development */
+		private final IProgression bodyProgression;
+		private final int[] bodyStats;
+		private final boolean bodyMagical;
+		private final int bodyConst;
+		private final int bodyRanks;
+		private final int bodyRanksPerLevel;
+		/* power point development */
+		private final IProgression powerProgression;
+		private final int[] powerStats;
+		private final boolean powerMagical;
+		private final int powerConst;
+		private final int powerRanks;
+		private final int powerRanksPerLevel;
+		/* the realm is chosen by the highest stat bonus like in CharacterGenerator#levelUpPrepare */
+		private final boolean realmEditable;
+		private final IProgression[] realmProgressions = new IProgression[STATS.length];
+		private final int[][] realmStats = new int[STATS.length][];
+
+		Model(MetaData data, RMSheet sheet, int maxLevel, int bodyRanksPerLevel, int powerRanksPerLevel) {
+			this.sheet = sheet;
+			this.maxLevel = maxLevel;
+			this.bodyRanksPerLevel = bodyRanksPerLevel;
+			this.powerRanksPerLevel = powerRanksPerLevel;
+			for (int v = 0; v < statBonus.length; v++) {
+				statBonus[v] = sheet.getStatBonus(v);
+			}
+			for (StatEnum stat : STATS) {
+				profStat[stat.ordinal()] = sheet.getProfession().getStats().contains(stat);
+				statBonusConst[stat.ordinal()] = sheet.getStatBonusTotal(stat) - sheet.getStatBonus(stat);
+				if (stat.isForMagic()) {
+					realmProgressions[stat.ordinal()] = TableProgression.valueOf(sheet.getRace().getProgMagic(stat));
+					realmStats[stat.ordinal()] = new int[] { stat.ordinal() };
+				}
+			}
+			realmEditable = sheet.isMagicRealmEditable();
+			ISkill bodySkill = getProgressionSkill(data, RankType.K);
+			if (bodySkill != null && sheet.getProgressionBody() != null) {
+				SkillCategory cat = sheet.getSkillcategory(bodySkill);
+				bodyProgression = TableProgression.valueOf(sheet.getProgressionBody());
+				bodyStats = toOrdinals(sheet.getSkillcategoryStats(cat));
+				bodyMagical = cat.getRankType().isMagical();
+				bodyConst = sheet.getSkillTotalBonus(bodySkill) - sheet.getSkillRankBonus(bodySkill) - sheet.getSkillcategoryStatBonus(cat);
+				bodyRanks = sheet.getSkillRank(bodySkill).getWholeRank();
+			} else {
+				bodyProgression = null;
+				bodyStats = new int[0];
+				bodyMagical = false;
+				bodyConst = 0;
+				bodyRanks = 0;
+			}
+			ISkill powerSkill = getProgressionSkill(data, RankType.M);
+			if (powerSkill != null && sheet.getProgressionPower() != null) {
+				SkillCategory cat = sheet.getSkillcategory(powerSkill);
+				powerProgression = TableProgression.valueOf(sheet.getProgressionPower());
+				powerStats = toOrdinals(sheet.getSkillcategoryStats(cat));
+				powerMagical = cat.getRankType().isMagical();
+				powerConst = sheet.getSkillTotalBonus(powerSkill) - sheet.getSkillRankBonus(powerSkill) - sheet.getSkillcategoryStatBonus(cat);
+				powerRanks = sheet.getSkillRank(powerSkill).getWholeRank();
+			} else {
+				powerProgression = null;
+				powerStats = new int[0];
+				powerMagical = false;
+				powerConst = 0;
+				powerRanks = 0;
+			}
+		}
+
+		private static ISkill getProgressionSkill(MetaData data, RankType rankType) {
+			List<ISkill> skills = data.getSkills(rankType);
+			return skills.isEmpty() ? null : skills.get(0);
+		}
+
+		private static int[] toOrdinals(List<StatEnum> stats) {
+			int[] ordinals = new int[stats.size()];
+			for (int i = 0; i < ordinals.length; i++) {
+				ordinals[i] = stats.get(i).ordinal();
+			}
+			return ordinals;
+		}
+
+		private int getStatBonusTotal(int[] temp, int stat) {
+			int value = temp[stat];
+			int bonus = value >= 0 && value < statBonus.length ? statBonus[value] : sheet.getStatBonus(value);
+			return bonus + statBonusConst[stat];
+		}
+
+		/* like RMSheet#getSkillcategoryStatBonus */
+		private int getCategoryStatBonus(int[] temp, int[] stats, boolean magical) {
+			int bonus = 0;
+			for (int stat : stats) {
+				bonus += getStatBonusTotal(temp, stat);
+			}
+			if (magical && stats.length > 0) {
+				bonus = bonus / stats.length;
+			}
+			return bonus;
+		}
+
+		/**
+		 * Simulates one character and adds its values to the result.
+		 *
+		 * @param random the random generator, not {@code null}
+		 * @param temp the temp stat array to work on
+		 * @param pot the potential stat array to work on
+		 * @param result the result, not {@code null}
+		 */
+		void run(SplittableRandom random, int[] temp, int[] pot, SimulationResult result) {
+			/* start values like CharacterGenerator#distributeStats */
+			for (int i = 0; i < temp.length; i++) {
+				temp[i] = profStat[i] ? 90 : 25;
+				pot[i] = 0;
+			}
+			StatGainGenerator.distributeStats(temp, pot, 600 + DiceUtils.roll(random, 10, 10), random);
+			for (int i = 0; i < temp.length; i++) {
+				pot[i] = StatGainGenerator.getStatPotDice(temp[i], random);
+			}
+			IProgression power = powerProgression;
+			int[] realm = powerStats;
+			if (realmEditable) {
+				int maxBonus = 0;
+				for (StatEnum stat : STATS) {
+					if (stat.isForMagic()) {
+						int bonus = getStatBonusTotal(temp, stat.ordinal());
+						if (maxBonus < bonus) {
+							maxBonus = bonus;
+							power = realmProgressions[stat.ordinal()];
+							realm = realmStats[stat.ordinal()];
+						}
+					}
+				}
+			}
+			for (int level = 0; level <= maxLevel; level++) {
+				if (level > 0) {
+					for (int i = 0; i < temp.length; i++) {
+						int dice1 = DiceUtils.roll(random, 1, 10);
+						int dice2 = DiceUtils.roll(random, 1, 10);
+						temp[i] = StatGainGenerator.getStatGainDice(temp[i], pot[i], dice1, dice2);
+					}
+				}
+				int hits = 0;
+				if (bodyProgression != null) {
+					hits = bodyProgression.getBonus(bodyRanks + level * bodyRanksPerLevel) + bodyConst
+							+ getCategoryStatBonus(temp, bodyStats, bodyMagical);
+				}
+				int pp = 0;
+				if (power != null) {
+					pp = power.getBonus(powerRanks + level * powerRanksPerLevel) + powerConst
+							+ getCategoryStatBonus(temp, realm, powerMagical);
+				}
+				result.add(level, temp, hits, pp);
+			}
+		}
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	private static final class SimulateTask extends RecursiveTask<SimulationResult> {
+		private static final long serialVersionUID = 1L;
+		private final Model model;
+		private final int trials;
+		private final SplittableRandom[] randoms;
+		private final int from;
+		private final int to;
+
+		/**
+		 *
+		 * @param trials the number of all trials
+		 * @param from first chunk index (inclusive)
+		 * @param to last chunk index (exclusive)
+		 */
+		SimulateTask(Model model, int trials, SplittableRandom[] randoms, int from, int to) {
+			this.model = model;
+			this.trials = trials;
+			this.randoms = randoms;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected SimulationResult compute() {
+			if (to - from <= CHUNKS_PER_TASK) {
+				SimulationResult result = new SimulationResult(model.maxLevel);
+				int[] temp = new int[STATS.length];
+				int[] pot = new int[STATS.length];
+				for (int chunk = from; chunk < to; chunk++) {
+					int chunkTrials = Math.min(TRIALS_PER_CHUNK, trials - chunk * TRIALS_PER_CHUNK);
+					for (int t = 0; t < chunkTrials; t++) {
+						model.run(randoms[chunk], temp, pot, result);
+					}
+				}
+				return result;
+			}
+			int middle = (from + to) >>> 1;
+			SimulateTask left = new SimulateTask(model, trials, randoms, from, middle);
+			SimulateTask right = new SimulateTask(model, trials, randoms, middle, to);
+			invokeAll(left, right);
+			SimulationResult result = left.join();
+			result.add(right.join());
+			return result;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The load steps of the configuration files and their dependencies. Steps without
+ * dependencies between each other run in parallel. A step must be added after all
+ * of its dependencies, so the steps are submitted in dependency order and a waiting
+ * step never blocks a step it depends on.
+ */
+/* package private */ class ConfigLoadGraph {
+	private final static Logger log = LoggerFactory.getLogger(ConfigLoadGraph.class);
+
+	private final Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+	private final Map<String, Long> loadTimes = new ConcurrentHashMap<String, Long>();
+
+	/**
+	 * One load step, e.g. parsing one configuration file.
+	 */
+	interface LoadStep {
+		void load() throws IOException;
+	}
+
+	/**
+	 * Adds a step.
+	 *
+	 * @param name the unique name of the step, not {@code null}
+	 * @param step the step, not {@code null}
+	 * @param dependencies the names of the steps that must be finished before, they must be added already
+	 */
+	void add(String name, LoadStep step, String... dependencies) {
+		if (nodes.containsKey(name)) {
+			throw new IllegalArgumentException("duplicate load step "+name);
+		}
+		List<Node> deps = new ArrayList<Node>();
+		for (String dep : dependencies) {
+			Node node = nodes.get(dep);
+			if (node == null) {
+				throw new IllegalArgumentException("load step "+name+" depends on unknown step "+dep);
+			}
+			deps.add(node);
+		}
+		nodes.put(name, new Node(name, step, deps));
+	}
+
+	/**
+	 * Runs all steps on the given pool and waits until they are finished. A pool with
+	 * one thread runs the steps sequentially in the order they were added.
+	 *
+	 * @param pool the pool, not {@code null}
+	 * @throws IOException if a step failed with an {@link IOException}
+	 */
+	void run(ExecutorService pool) throws IOException {
+		for (Node node : nodes.values()) {
+			node.future = pool.submit(node);
+		}
+		for (Node node : nodes.values()) {
+			await(node);
+		}
+	}
+
+	/**
+	 * Returns the time of each step without the time waiting for the dependencies.
+	 *
+	 * @return unmodifiable map of step name to milliseconds, in the order the steps were added
+	 */
+	Map<String, Long> getLoadTimes() {
+		Map<String, Long> times = new LinkedHashMap<String, Long>();
+		for (String name : nodes.keySet()) {
+			if (loadTimes.containsKey(name)) {
+				times.put(name, loadTimes.get(name));
+			}
+		}
+		return Collections.unmodifiableMap(times);
+	}
+
+	private static void await(Node node) throws IOException {
+		try {
+			node.future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while loading "+node.name, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("could not load "+node.name, cause);
+		}
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	private class Node implements Callable<Void> {
+		private final String name;
+		private final LoadStep step;
+		private final List<Node> dependencies;
+		private volatile Future<Void> future;
+
+		public Node(String name, LoadStep step, List<Node> dependencies) {
+			this.name = name;
+			this.step = step;
+			this.dependencies = dependencies;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			for (Node dep : dependencies) {
+				await(dep);
+			}
+			long start = System.currentTimeMillis();
+			step.load();
+			long time = System.currentTimeMillis() - start;
+			loadTimes.put(name, Long.valueOf(time));
+			if (log.isInfoEnabled()) log.info("loaded "+name+" in "+time+"ms");
+			return null;
+		}
+	}
+}
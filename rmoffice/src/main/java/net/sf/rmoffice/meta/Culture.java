@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -32,7 +33,8 @@ import org.slf4j.LoggerFactory;
 /**
  * 
  */
-public class Culture {
+public class Culture implements Serializable {
+	private static final long serialVersionUID = 1L;
 	private final static Logger log = LoggerFactory.getLogger(Culture.class);
 	
 	private Integer id;
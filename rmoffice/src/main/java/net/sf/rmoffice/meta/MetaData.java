@@ -15,27 +15,42 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
+import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sf.rmoffice.core.RMSheet;
 import net.sf.rmoffice.meta.enums.RankType;
 import net.sf.rmoffice.meta.enums.SpellUserType;
 import net.sf.rmoffice.meta.enums.SpelllistPart;
+import net.sf.rmoffice.meta.enums.StatEnum;
+import net.sf.rmoffice.meta.internal.ProfessionMagicRealmKey;
 import net.sf.rmoffice.meta.internal.SkillcategorySpelllistPartKey;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 
 
 /**
  * 
  */
-public class MetaData {
+public class MetaData implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private final static Logger log = LoggerFactory.getLogger(MetaData.class);
+	
 	private static int[] armorManeuverMin = new int[] {0,0,0,0,
 		                                               0,0,-10,-15,
 		                                               -5, -10, -15, -15,
@@ -57,11 +72,11 @@ public class MetaData {
 		                                                -5,-10,-20,-20,
 		                                                -10,-20,-30,-40};
 	/* maybe we can configure this later, too*/
-	private IProgression defaultSkillgroupProg = new Progression(-15f, 2f, 1f, 0.5f, 0f);
-	private IProgression emptySkillgroupProg = new Progression(0, 0, 0, 0, 0);
-	private IProgression combinedSkillProg = new Progression(-30, 5, 3, 1.5f, 0.5f);
-	private IProgression limitedSkillProg = new Progression(0, 1, 1, 0.5f, 0);
-	private IProgression defaultSkillProg = new Progression(-15, 3, 2, 1, 0.5f);
+	private IProgression defaultSkillgroupProg = new TableProgression(-15f, 2f, 1f, 0.5f, 0f);
+	private IProgression emptySkillgroupProg = new TableProgression(0, 0, 0, 0, 0);
+	private IProgression combinedSkillProg = new TableProgression(-30, 5, 3, 1.5f, 0.5f);
+	private IProgression limitedSkillProg = new TableProgression(0, 1, 1, 0.5f, 0);
+	private IProgression defaultSkillProg = new TableProgression(-15, 3, 2, 1, 0.5f);
 	
 	private List<Race> races;
 	private Map<Integer, Race> raceById;
@@ -74,6 +89,7 @@ public class MetaData {
 	private Map<Profession, Map<SkillCategory, Skillcost>> skillcosts = new HashMap<Profession, Map<SkillCategory,Skillcost>>();
 	private List<ISkill> skills;
 	private Map<Integer, ISkill> skillsById;
+	private Map<RankType, List<ISkill>> skillsByRankType;
 	private List<Shield> shields = new ArrayList<Shield>();
 	private Map<Integer, Shield> shieldsById = new HashMap<Integer, Shield>();
 	private Map<Integer, ISkill> armorSkills = new HashMap<Integer, ISkill>();
@@ -81,6 +97,20 @@ public class MetaData {
 	private Map<TrainPackKey, Integer> trainPackCosts = new HashMap<TrainPackKey, Integer>();
 	private Map<SkillcategorySpelllistPartKey, Skillcost> spellcostByLevel = new HashMap<SkillcategorySpelllistPartKey, Skillcost>();
     private List<TalentFlawPreset> talentFlaws = new ArrayList<TalentFlawPreset>();
+    /* spell list id to skill category, lazily created per profession and magic realm */
+    private transient volatile Map<ProfessionMagicRealmKey, Map<Integer, SkillCategory>> spelllistCategories;
+    /* the skill costs by profession and category ordinal, lazily created */
+    private transient volatile SkillcostMatrix skillcostMatrix;
+    /* shared table progressions, lazily created */
+    private transient volatile ConcurrentMap<TableProgression, TableProgression> progressions;
+    /* the valid cultures by race, lazily created */
+    private transient volatile Map<Race, List<Culture>> culturesByRace;
+    /* the training packs sorted by name, lazily created */
+    private transient volatile List<TrainPack> sortedTrainPacks;
+    /* the training pack costs by profession and training pack id, lazily created */
+    private transient volatile TrainPackCostTable trainPackCostTable;
+    /* whether the professions and skill categories have their ordinal for the cost tables */
+    private transient boolean ordinalsAssigned;
 	
 	public List<Race> getRaces() {
 		return races;
@@ -94,6 +124,14 @@ public class MetaData {
 		raceById = new HashMap<Integer, Race>();
 		for (Race r : races) {
 			raceById.put(r.getId(), r);
+			if (r.getProgKoerperentw() != null) {
+				r.setProgKoerperentw(internProgression(r.getProgKoerperentw()));
+			}
+			for (StatEnum stat : StatEnum.values()) {
+				if (stat.isForMagic() && r.getProgMagic(stat) != null) {
+					r.setProgMagic(stat, internProgression(r.getProgMagic(stat)));
+				}
+			}
 		}
 		this.races = races;
 	}
@@ -102,6 +140,35 @@ public class MetaData {
 		return raceById.get(raceId);
 	}
 	
+	/**
+	 * Returns the shared {@link TableProgression} with the digits of the given progression.
+	 * The bonus table of a shared progression is calculated once for all races and characters.
+	 * 
+	 * @param progression the progression, not {@code null}
+	 * @return the shared table progression, not {@code null}
+	 */
+	public TableProgression internProgression(IProgression progression) {
+		ConcurrentMap<TableProgression, TableProgression> pool = progressions;
+		if (pool == null) {
+			synchronized (this) {
+				pool = progressions;
+				if (pool == null) {
+					pool = new ConcurrentHashMap<TableProgression, TableProgression>();
+					progressions = pool;
+				}
+			}
+		}
+		TableProgression prog = TableProgression.valueOf(progression);
+		TableProgression shared = pool.get(prog);
+		if (shared == null) {
+			shared = pool.putIfAbsent(prog, prog);
+			if (shared == null) {
+				shared = prog;
+			}
+		}
+		return shared;
+	}
+	
 	public List<Profession> getProfessions() {
 		return professions;
 	}
@@ -116,6 +183,9 @@ public class MetaData {
 			professionsById.put(p.getId(), p);
 		}
 		this.professions = professions;
+		ordinalsAssigned = false;
+		skillcostMatrix = null;
+		trainPackCostTable = null;
 	}
 	
 	public Profession getProfession(Integer id) {
@@ -136,6 +206,9 @@ public class MetaData {
 			skillgroupById.put(sg.getId(), sg);
 		}
 		this.skillgroups = skillgroups;
+		ordinalsAssigned = false;
+		spelllistCategories = null;
+		skillcostMatrix = null;
 	}
 	
 	/**
@@ -155,8 +228,42 @@ public class MetaData {
 			skillcosts.put(prof, new HashMap<SkillCategory, Skillcost>());
 		}
 		skillcosts.get(prof).put(sg, cost);
+		skillcostMatrix = null;
+	}
+	
+	private SkillcostMatrix getSkillcostMatrix() {
+		SkillcostMatrix matrix = skillcostMatrix;
+		if (matrix == null) {
+			synchronized (this) {
+				matrix = skillcostMatrix;
+				if (matrix == null) {
+					if (log.isDebugEnabled()) log.debug("creating the skill cost matrix");
+					assignOrdinals();
+					matrix = new SkillcostMatrix(professions, skillgroups, skillcosts, spellcostByLevel);
+					skillcostMatrix = matrix;
+				}
+			}
+		}
+		return matrix;
 	}
 	
+	/*
+	 * Assigns the positions in the lists as ordinal of the professions and skill
+	 * categories, the cost tables index their arrays with them. Called with the lock
+	 * before a table is created, the ordinals are not serialized.
+	 */
+	private void assignOrdinals() {
+		if (!ordinalsAssigned) {
+			for (int p = 0; professions != null && p < professions.size(); p++) {
+				professions.get(p).setOrdinal(p);
+			}
+			for (int c = 0; skillgroups != null && c < skillgroups.size(); c++) {
+				skillgroups.get(c).setOrdinal(c);
+			}
+			ordinalsAssigned = true;
+		}
+	}
+
 	/**
 	 * UI must use {@link RMSheet#getSkillcost(SkillCategory)}. This returns only the default meta data. 
 	 * 
@@ -165,13 +272,14 @@ public class MetaData {
 	 * @return the costs given by the meta data without modified switchable costs  
 	 */
 	public Skillcost getSkillcost(Profession prof, SkillCategory group) {
-		if (! skillcosts.containsKey(prof)) {
-			return new Skillcost();
+		SkillcostMatrix matrix = getSkillcostMatrix();
+		if (matrix.contains(prof, group)) {
+			return matrix.getSkillcost(prof, group);
 		}
-		if (skillcosts.get(prof).containsKey(group) ) {
-			return skillcosts.get(prof).get(group);
-		}
-		return new Skillcost();
+		/* not part of the meta data */
+		Map<SkillCategory, Skillcost> profCosts = skillcosts.get(prof);
+		Skillcost cost = profCosts == null ? null : profCosts.get(group);
+		return cost == null ? Skillcost.EMPTY : cost;
 	}
 	
 	/**
@@ -188,11 +296,17 @@ public class MetaData {
 			/* spell lists have costs that depends on rank */
 			/* 1. convert rank to spelllistPart */
 			SpelllistPart spelllistPart = SpelllistPart.getPartForRank(rank.intValue() + 1);
+			if (cat.getRankSubType().isTraining()) {
+				return getSkillcost(profession, cat);
+			}
+			SkillcostMatrix matrix = getSkillcostMatrix();
+			if (matrix.contains(profession, cat)) {
+				return matrix.getSpelllistcost(profession, cat, spelllistPart);
+			}
+			/* not part of the meta data */
 			SpellUserType spellUserType = profession.getSpellUserType();
 			Skillcost baseCosts = getSkillcost(profession, cat);
-			if (cat.getRankSubType().isTraining()) {
-				return baseCosts;				
-			} else if (SpellUserType.NONE.equals(spellUserType)) {
+			if (SpellUserType.NONE.equals(spellUserType)) {
 				/* we have to calculate the costs from base */
 				int[] newCosts = new int[baseCosts.size()];
 				for (int i = 0; i < newCosts.length; i++) {
@@ -232,10 +346,148 @@ public class MetaData {
 	/*package */ void setSkills(List<ISkill> newSkills) {
 		skills = new ArrayList<ISkill>();		
 		skillsById = new HashMap<Integer, ISkill>();
+		Map<RankType, List<ISkill>> byRankType = new EnumMap<RankType, List<ISkill>>(RankType.class);
 		for (ISkill skill : newSkills) {
 			skills.add(skill);
 			skillsById.put(skill.getId(), skill);
+			if (skill instanceof Skill && ((Skill) skill).getCategory() != null) {
+				RankType rankType = ((Skill) skill).getCategory().getRankType();
+				if (! byRankType.containsKey(rankType)) {
+					byRankType.put(rankType, new ArrayList<ISkill>());
+				}
+				byRankType.get(rankType).add(skill);
+			}
+		}
+		skillsByRankType = byRankType;
+		spelllistCategories = null;
+	}
+	
+	/**
+	 * Returns the skills of the categories with the given rank type (e.g. {@link RankType#K}
+	 * for body development). Spell lists are not included, their category depends on the character.
+	 * 
+	 * @param rankType the rank type, not {@code null}
+	 * @return unmodifiable list of skills in meta data order, not {@code null}
+	 */
+	public List<ISkill> getSkills(RankType rankType) {
+		List<ISkill> result = skillsByRankType.get(rankType);
+		if (result == null) {
+			return Collections.emptyList();
 		}
+		return Collections.unmodifiableList(result);
+	}
+	
+	/**
+	 * Only used by {@link RMSheet}. Use {@link RMSheet#getSkillcategory(ISkill)}. Returns the skill
+	 * category of the spell list for the given profession and magic realm. The categories of all
+	 * spell lists are resolved once per profession and magic realm combination.
+	 * 
+	 * @param spelllist the spell list, not {@code null}
+	 * @param profession the profession or {@code null}
+	 * @param magicRealm the magic realm of the character, not {@code null}
+	 * @return the skill category or {@code null}
+	 */
+	public SkillCategory getSpelllistCategory(Spelllist spelllist, Profession profession, Collection<StatEnum> magicRealm) {
+		Integer profId = profession == null ? Integer.valueOf(-1) : profession.getId();
+		ProfessionMagicRealmKey key = new ProfessionMagicRealmKey(profId, magicRealm);
+		Map<ProfessionMagicRealmKey, Map<Integer, SkillCategory>> index = spelllistCategories;
+		if (index == null) {
+			index = new ConcurrentHashMap<ProfessionMagicRealmKey, Map<Integer,SkillCategory>>();
+			spelllistCategories = index;
+		}
+		Map<Integer, SkillCategory> categories = index.get(key);
+		if (categories == null) {
+			/* concurrent creation resolves the same categories, so the last one wins */
+			categories = createSpelllistCategories(key);
+			index.put(key, categories);
+		}
+		SkillCategory category = categories.get(spelllist.getId());
+		if (category == null) {
+			/* not part of the meta data */
+			category = resolveSpelllistCategory(spelllist, key.getProfessionId(), key.getMagicRealm());
+		}
+		return category;
+	}
+	
+	private Map<Integer, SkillCategory> createSpelllistCategories(ProfessionMagicRealmKey key) {
+		if (log.isDebugEnabled()) log.debug("resolving spell list categories for "+key);
+		Set<StatEnum> magicRealm = key.getMagicRealm();
+		Map<Integer, SkillCategory> categories = new HashMap<Integer, SkillCategory>();
+		for (ISkill skill : skills) {
+			if (skill instanceof Spelllist) {
+				SkillCategory category = resolveSpelllistCategory((Spelllist) skill, key.getProfessionId(), magicRealm);
+				if (category != null) {
+					categories.put(skill.getId(), category);
+				}
+			}
+		}
+		return Collections.unmodifiableMap(categories);
+	}
+	
+	private SkillCategory resolveSpelllistCategory(Spelllist spelllist, Integer profId, Set<StatEnum> magicRealm) {
+		/* compare magic realm */
+		boolean spelllistIsOwnRealm = false;
+		if (spelllist.getAttributes() != null && magicRealm.containsAll(spelllist.getAttributes())) {
+			spelllistIsOwnRealm = true;
+		}
+		boolean charIsArcane = false;
+		if (magicRealm.size() == 3) {
+			charIsArcane = true;
+		}
+		/* resolve the skillgroup */			
+		for (SkillCategory sg : skillgroups) {
+			if (sg.getRankType().isMagical() && sg.getRankSubType() != null) {
+				if ( /* skill group && spelllist are own realm
+				        or both other realm 
+				        or special handling for arcane users */
+				  sg.getRankType().isOwnRealm() && spelllistIsOwnRealm ||
+				  ! sg.getRankType().isOwnRealm() && ! spelllistIsOwnRealm ||
+				  charIsArcane && sg.getAttributes().size() == 3) {
+					
+					if (spelllist.getSpelllistType().isOpen() && sg.getRankSubType().isOpen() ||
+					    spelllist.getSpelllistType().isClosed() && sg.getRankSubType().isClosed()) {
+						/* open/closed skill group  */
+						if ((sg.getAttributes().size() == 0 && sg.getAttributes().size() != 3) || statListEquals(spelllist.getAttributes(), sg.getAttributes())) {
+							return sg;
+						}
+					} else if (spelllist.getSpelllistType().isProfession()) {
+						boolean containsProfId = spelllist.getSpelllistType().getProfessionIds().contains(profId);
+						if (containsProfId && sg.getRankSubType().isBase()) {
+							/* base skill group */
+							return sg;
+						} else if ((!containsProfId) && sg.getRankSubType().isProfession()) {
+							/* other profession skill group */
+							      /*    other base group    AND   not arcane */
+							if ( ( sg.getAttributes().size() == 0 && sg.getAttributes().size() != 3 ) || spelllist.getAttributes().containsAll(sg.getAttributes())) {
+								return sg;
+							}
+						}
+					}
+				}
+			}
+			// training package
+			if (sg.getRankType().isMagical()
+					&& spelllist.getSpelllistType().isTrainingPackage()
+					&& (sg.getRankType().equals(RankType.T) ||
+					    sg.getRankType().equals(RankType.P))
+					&& sg.getId().equals(spelllist.getSpelllistType().getTrainingPackageSpelllistId())) {
+				return sg;
+			}
+		}
+		return null;
+	}
+	
+	private boolean statListEquals(Collection<StatEnum> c1, Collection<StatEnum> c2) {
+		if (c1 == null && c2 == null)  return true;
+		if (c1 == null || c2 == null) return false;
+		if (c1.size() != c2.size()) return false;
+		Iterator<StatEnum> it1 = c1.iterator();
+		while (it1.hasNext()) {
+			if (!c2.contains(it1.next())) {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -346,23 +598,36 @@ public class MetaData {
 	 */
 	public void addTrainPack(TrainPack tp) {		
 		trainPacks.put(tp.getId(), tp);
+		sortedTrainPacks = null;
+		trainPackCostTable = null;
 	}
 
-	public Collection<TrainPack> getTrainPacks() {
-		List<TrainPack> values = new ArrayList<TrainPack>();
-		values.addAll(trainPacks.values());
-		Comparator<TrainPack> comp = new Comparator<TrainPack>() {
-			
-			@Override
-			public int compare(TrainPack o1, TrainPack o2) {
-				if (o1 == null && o2 == null) return 0;
-				if (o1 == null) return -1;
-				if (o2 == null) return 1;
-				return o1.getName().compareTo(o2.getName());
-			}
-		};
-		Collections.sort(values, comp); 
-		return Collections.unmodifiableCollection( values );
+	/**
+	 * Returns the training packs sorted by name in the order of the current locale.
+	 * 
+	 * @return unmodifiable list of training packs, not {@code null}
+	 */
+	public List<TrainPack> getTrainPacks() {
+		List<TrainPack> values = sortedTrainPacks;
+		if (values == null) {
+			values = new ArrayList<TrainPack>();
+			values.addAll(trainPacks.values());
+			final Collator collator = Collator.getInstance();
+			Comparator<TrainPack> comp = new Comparator<TrainPack>() {
+				
+				@Override
+				public int compare(TrainPack o1, TrainPack o2) {
+					if (o1 == null && o2 == null) return 0;
+					if (o1 == null) return -1;
+					if (o2 == null) return 1;
+					return collator.compare(o1.getName(), o2.getName());
+				}
+			};
+			Collections.sort(values, comp); 
+			values = Collections.unmodifiableList(values);
+			sortedTrainPacks = values;
+		}
+		return values;
 	}
 	
 	/**
@@ -377,13 +642,36 @@ public class MetaData {
 	
 	/* package private */ void addTrainPackCosts(TrainPack trainPack, Profession prof, int costs) {
 		trainPackCosts.put(new TrainPackKey(trainPack, prof), Integer.valueOf(costs));
+		trainPackCostTable = null;
 	}
 	
 	public int getTrainPackCosts(TrainPack trainpack, Profession prof) {
-		if (trainPackCosts.containsKey(new TrainPackKey(trainpack, prof))) {
-			return trainPackCosts.get(new TrainPackKey(trainpack, prof)).intValue();
+		TrainPackCostTable table = getTrainPackCostTable();
+		if (table.contains(prof, trainpack)) {
+			return table.getCosts(prof, trainpack);
 		}
-		return 0;
+		/* not part of the meta data */
+		Integer costs = trainPackCosts.get(new TrainPackKey(trainpack, prof));
+		return costs == null ? 0 : costs.intValue();
+	}
+
+	private TrainPackCostTable getTrainPackCostTable() {
+		TrainPackCostTable table = trainPackCostTable;
+		if (table == null) {
+			synchronized (this) {
+				table = trainPackCostTable;
+				if (table == null) {
+					if (log.isDebugEnabled()) log.debug("creating the training pack cost table");
+					assignOrdinals();
+					table = new TrainPackCostTable(professions, trainPacks.values());
+					for (Map.Entry<TrainPackKey, Integer> entry : trainPackCosts.entrySet()) {
+						table.set(entry.getKey().prof, entry.getKey().trainPack, entry.getValue().intValue());
+					}
+					trainPackCostTable = table;
+				}
+			}
+		}
+		return table;
 	}
 
 	/**
@@ -396,6 +684,7 @@ public class MetaData {
 		for (Culture culture : cultures) {
 			culturesById.put(culture.getId(), culture);
 		}
+		culturesByRace = null;
 	}
 
 	/**
@@ -411,14 +700,33 @@ public class MetaData {
 	 * Returns a list of valid {@link Culture}s for the race. Returns all {@link Culture}s if race is {@code null}.
 	 * 
 	 * @param race the race, may be {@code null}
-	 * @return list of cultures
+	 * @return unmodifiable list of cultures
 	 */
 	public List<Culture> getCultureForRace(Race race) {
-		List<Culture> culturesForRace = new ArrayList<Culture>();
-		for (Culture culture : cultures) {
-			if (culture.getValidRaces().contains(race)) {
-				culturesForRace.add(culture);
+		Map<Race, List<Culture>> index = culturesByRace;
+		if (index == null) {
+			index = new HashMap<Race, List<Culture>>();
+			for (Culture culture : cultures) {
+				for (Race valid : culture.getValidRaces()) {
+					List<Culture> culturesForRace = index.get(valid);
+					if (culturesForRace == null) {
+						culturesForRace = new ArrayList<Culture>();
+						index.put(valid, culturesForRace);
+					}
+					/* a race may be listed twice */
+					if (culturesForRace.isEmpty() || culturesForRace.get(culturesForRace.size() - 1) != culture) {
+						culturesForRace.add(culture);
+					}
+				}
 			}
+			for (Map.Entry<Race, List<Culture>> entry : index.entrySet()) {
+				entry.setValue(Collections.unmodifiableList(entry.getValue()));
+			}
+			culturesByRace = index;
+		}
+		List<Culture> culturesForRace = index.get(race);
+		if (culturesForRace == null) {
+			return Collections.emptyList();
 		}
 		return culturesForRace;
 	}
@@ -433,6 +741,7 @@ public class MetaData {
 	/* package */ void addSpellcostByLevel(Integer skillCatID, SpelllistPart part, SpellUserType type, Skillcost sc) {
 		SkillCategory category = getSkillCategory(skillCatID);
 		spellcostByLevel.put(new SkillcategorySpelllistPartKey(category, part, type), sc);
+		skillcostMatrix = null;
 	}
 	
 	/**
@@ -450,7 +759,8 @@ public class MetaData {
 	/* **************************************************
 	 * 
 	 * ************************************************* */
-	private static class TrainPackKey {
+	private static class TrainPackKey implements Serializable {
+		private static final long serialVersionUID = 1L;
 		private final TrainPack trainPack;
 		private final Profession prof;
 
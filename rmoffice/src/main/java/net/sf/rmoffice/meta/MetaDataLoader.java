@@ -28,9 +28,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
@@ -73,6 +78,10 @@ public class MetaDataLoader {
 	private static final String CONF_TRAINING_PACK = "/conf/trainingpacks.conf";
 	private static final String CONF_TRAINING_PACK_COSTS = "/conf/trainingpackcosts.conf";
 	private static final String CONF_TALENT_FLAW = "/conf/talentflaw.conf";
+	/* all configuration files, the user may override some of them in the RMOffice directory */
+	/* package private */ static final String[] CONF_FILES = new String[] {CONF_SKILLCOSTS, CONF_PROF, CONF_RACE, CONF_SKILLS,
+		CONF_CULTURES, CONF_SPELLLISTS, CONF_SPELLCOSTS_BY_LEVEL, CONF_SHIELD, CONF_ARMOR, CONF_TRAINING_PACK,
+		CONF_TRAINING_PACK_COSTS, CONF_TALENT_FLAW};
 	
 	private final static Logger log = LoggerFactory.getLogger(MetaDataLoader.class);
 	private static final ResourceBundle RESOURCE = ResourceBundle.getBundle("conf.i18n.locale"); //$NON-NLS-1$
@@ -82,25 +91,106 @@ public class MetaDataLoader {
 	public static final String SKILL_CHAR = "S";
 	public static final String DESCR = "DESCR=";
 	
+	private volatile Map<String, Long> loadTimes = Collections.emptyMap();
+	
 	public MetaDataLoader() {
 	}
 	
+	/**
+	 * Loads the configuration files. Files that do not depend on each other are
+	 * parsed in parallel.
+	 * 
+	 * @return the meta data, not {@code null}
+	 * @throws IOException if a configuration file could not be read
+	 */
 	public MetaData load() throws IOException {
-		MetaData metaData = new MetaData();
-		metaData.setProfessions(loadProfessions());
-		metaData.setRaces(loadRaces());
-		metaData.setSkillgroups(loadSkillcosts(metaData));
-		metaData.setSkills(loadSkills(metaData));
-		loadSkillcostPerLevel(metaData);
-		loadShields(metaData);
-		loadCultures(metaData);
-		loadArmorConf(metaData);
-		loadTrainingPacks(metaData);
-		loadTrainingPackCosts(metaData);
-		loadTalentFlaw(metaData);
+		long start = System.currentTimeMillis();
+		final MetaData metaData = new MetaData();
+		ConfigLoadGraph graph = new ConfigLoadGraph();
+		graph.add(CONF_PROF, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				metaData.setProfessions(loadProfessions());
+			}});
+		graph.add(CONF_RACE, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				metaData.setRaces(loadRaces());
+			}});
+		graph.add(CONF_SHIELD, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				loadShields(metaData);
+			}});
+		graph.add(CONF_SKILLCOSTS, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				metaData.setSkillgroups(loadSkillcosts(metaData));
+			}}, CONF_PROF);
+		/* includes the spell lists */
+		graph.add(CONF_SKILLS, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				metaData.setSkills(loadSkills(metaData));
+			}}, CONF_SKILLCOSTS);
+		graph.add(CONF_SPELLCOSTS_BY_LEVEL, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				loadSkillcostPerLevel(metaData);
+			}}, CONF_SKILLCOSTS);
+		graph.add(CONF_CULTURES, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				loadCultures(metaData);
+			}}, CONF_RACE, CONF_SKILLS);
+		graph.add(CONF_ARMOR, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				loadArmorConf(metaData);
+			}}, CONF_SKILLS);
+		graph.add(CONF_TRAINING_PACK, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				loadTrainingPacks(metaData);
+			}}, CONF_SKILLS);
+		graph.add(CONF_TRAINING_PACK_COSTS, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				loadTrainingPackCosts(metaData);
+			}}, CONF_TRAINING_PACK, CONF_PROF);
+		graph.add(CONF_TALENT_FLAW, new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				loadTalentFlaw(metaData);
+			}}, CONF_SKILLS);
+		int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+		ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "metadata-loader-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}});
+		try {
+			graph.run(pool);
+		} finally {
+			pool.shutdown();
+		}
+		loadTimes = graph.getLoadTimes();
+		if (log.isInfoEnabled()) log.info("loaded meta data in "+(System.currentTimeMillis() - start)+"ms with "+threads+" threads");
 		return metaData;
 	}
 	
+	/**
+	 * Returns the parse time of each configuration file of the last {@link #load()}.
+	 * 
+	 * @return unmodifiable map of configuration file to milliseconds, not {@code null}
+	 */
+	public Map<String, Long> getLoadTimes() {
+		return loadTimes;
+	}
+	
 	private void loadTalentFlaw(MetaData metaData) throws IOException {
 		BufferedReader reader = getReader(CONF_TALENT_FLAW);
 		String line = null;
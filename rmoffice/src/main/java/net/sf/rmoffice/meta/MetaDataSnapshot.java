@@ -0,0 +1,291 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import net.sf.rmoffice.RMPreferences;
+import net.sf.rmoffice.meta.talentflaw.TalentFlawFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A binary snapshot of the completely loaded {@link MetaData} for the current locale. The
+ * snapshot is written after the configuration files were parsed and is read (memory mapped)
+ * on the next start instead of parsing the files again. The configuration files are parsed
+ * if the snapshot is older than any configuration file or the user preferences, if a user
+ * file in the RMOffice directory was added, removed or modified since the snapshot was
+ * written, or if it was written by another version. The snapshot stores the modification
+ * time of each user file for this, 0 if the file did not exist.
+ */
+public class MetaDataSnapshot {
+	private final static Logger log = LoggerFactory.getLogger(MetaDataSnapshot.class);
+	private static final ResourceBundle RESOURCE = ResourceBundle.getBundle("conf.i18n.locale"); //$NON-NLS-1$
+	private static final String FORMAT = "RMOMETA2";
+	private static final String SEP = System.getProperty("file.separator");
+	private static final String CACHE_DIR = "cache";
+
+	private final File snapshotFile;
+	/* the RMOffice directory with the user files */
+	private final String userDir;
+
+	/**
+	 * Uses the snapshot file of the current locale in the RMOffice directory.
+	 */
+	public MetaDataSnapshot() {
+		this(new File(System.getProperty("user.home") + RMPreferences.RMOFFICE_DIR + CACHE_DIR + SEP + "metadata_" + Locale.getDefault() + ".bin"));
+	}
+
+	/**
+	 *
+	 * @param snapshotFile the snapshot file, not {@code null}
+	 */
+	public MetaDataSnapshot(File snapshotFile) {
+		this(snapshotFile, System.getProperty("user.home") + RMPreferences.RMOFFICE_DIR);
+	}
+
+	/* package private */ MetaDataSnapshot(File snapshotFile, String userDir) {
+		this.snapshotFile = snapshotFile;
+		this.userDir = userDir;
+	}
+
+	/**
+	 * Reads the meta data from the snapshot if it is up to date. Otherwise the meta data
+	 * is loaded with the given loader and a new snapshot is written.
+	 *
+	 * @param loader the loader for parsing the configuration files, not {@code null}
+	 * @return the meta data, not {@code null}
+	 * @throws IOException if the configuration files could not be loaded
+	 */
+	public MetaData load(MetaDataLoader loader) throws IOException {
+		if (isUpToDate()) {
+			try {
+				long start = System.currentTimeMillis();
+				MetaData data = read();
+				if (log.isInfoEnabled()) log.info("read meta data snapshot "+snapshotFile.getAbsolutePath()+" in "+(System.currentTimeMillis() - start)+"ms");
+				return data;
+			} catch (Exception e) {
+				log.warn("Could not read meta data snapshot, parsing configuration files: "+e.getMessage());
+			}
+		}
+		MetaData data = loader.load();
+		try {
+			write(data);
+		} catch (IOException e) {
+			log.warn("Could not write meta data snapshot "+snapshotFile.getAbsolutePath()+": "+e.getMessage());
+		}
+		return data;
+	}
+
+	/**
+	 *
+	 * @return whether the snapshot exists, is newer than the configuration files and the user
+	 *         files were not added, removed or modified since it was written
+	 */
+	public boolean isUpToDate() {
+		if (! snapshotFile.isFile()) {
+			return false;
+		}
+		long snapshotModified = snapshotFile.lastModified();
+		for (String conf : MetaDataLoader.CONF_FILES) {
+			if (getResourceLastModified(conf) > snapshotModified) {
+				if (log.isDebugEnabled()) log.debug("meta data snapshot is older than "+conf);
+				return false;
+			}
+		}
+		/* a removed user file is older than the snapshot, compare with the stored times */
+		try {
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+			try {
+				if (! readHeader(in)) {
+					if (log.isDebugEnabled()) log.debug("user files changed since the meta data snapshot");
+					return false;
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return false;
+		}
+		if (getResourceLastModified("/conf/i18n/locale.properties") > snapshotModified
+				|| getResourceLastModified("/conf/i18n/locale_" + Locale.getDefault().getLanguage() + ".properties") > snapshotModified) {
+			return false;
+		}
+		/* the excluded races and professions are not part of the meta data */
+		String prefFile = RMPreferences.getPropertiesFilePath();
+		if (prefFile != null && new File(prefFile).lastModified() > snapshotModified) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the snapshot. The file is replaced when it is written completely.
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @throws IOException if the snapshot could not be written
+	 */
+	public void write(MetaData data) throws IOException {
+		File dir = snapshotFile.getAbsoluteFile().getParentFile();
+		if (! dir.isDirectory() && ! dir.mkdirs()) {
+			throw new IOException("Could not create directory "+dir.getAbsolutePath());
+		}
+		File tmpFile = new File(dir, snapshotFile.getName() + ".tmp");
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+		try {
+			out.writeUTF(FORMAT);
+			out.writeUTF(RESOURCE.getString("rolemaster.version"));
+			out.writeUTF(Locale.getDefault().toString());
+			long[] userFiles = getUserFilesModified();
+			out.writeInt(userFiles.length);
+			for (long modified : userFiles) {
+				out.writeLong(modified);
+			}
+			out.writeObject(data);
+		} finally {
+			out.close();
+		}
+		Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		if (log.isDebugEnabled()) log.debug("wrote meta data snapshot "+snapshotFile.getAbsolutePath());
+	}
+
+	/**
+	 * Reads the snapshot.
+	 *
+	 * @return the meta data, not {@code null}
+	 * @throws IOException if the snapshot could not be read, was written by another version
+	 *           or the user files were changed
+	 * @throws ClassNotFoundException if the snapshot contains unknown classes
+	 */
+	public MetaData read() throws IOException, ClassNotFoundException {
+		RandomAccessFile file = new RandomAccessFile(snapshotFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer));
+			if (! readHeader(in)) {
+				throw new IOException("The snapshot was written by another version or for other user files");
+			}
+			MetaData data = (MetaData) in.readObject();
+			/* registers the talent flaw parts like loading the configuration does */
+			new TalentFlawFactory(data);
+			return data;
+		} finally {
+			file.close();
+		}
+	}
+
+	/* whether the snapshot was written by this version for the current user files */
+	private boolean readHeader(ObjectInputStream in) throws IOException {
+		if (! FORMAT.equals(in.readUTF())
+				|| ! RESOURCE.getString("rolemaster.version").equals(in.readUTF())
+				|| ! Locale.getDefault().toString().equals(in.readUTF())) {
+			return false;
+		}
+		long[] userFiles = getUserFilesModified();
+		if (in.readInt() != userFiles.length) {
+			return false;
+		}
+		for (long modified : userFiles) {
+			if (in.readLong() != modified) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* the modification time of the user file of each configuration file, 0 if there is none */
+	private long[] getUserFilesModified() {
+		long[] modified = new long[MetaDataLoader.CONF_FILES.length];
+		for (int i = 0; i < modified.length; i++) {
+			File userFile = new File(userDir + MetaDataLoader.CONF_FILES[i]);
+			modified[i] = userFile.isFile() ? userFile.lastModified() : 0;
+		}
+		return modified;
+	}
+
+	private long getResourceLastModified(String resource) {
+		URL url = getClass().getResource(resource);
+		if (url == null) {
+			return 0;
+		}
+		try {
+			URLConnection con = url.openConnection();
+			con.setUseCaches(false);
+			long lastModified = con.getLastModified();
+			con.getInputStream().close();
+			return lastModified;
+		} catch (IOException e) {
+			/* unknown, parse again */
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (! buffer.hasRemaining()) {
+				return -1;
+			}
+			return buffer.get() & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (! buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return buffer.remaining();
+		}
+	}
+}
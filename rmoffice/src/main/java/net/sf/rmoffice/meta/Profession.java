@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -29,7 +30,8 @@ import net.sf.rmoffice.util.StatEnumList;
 /**
  * 
  */
-public class Profession {
+public class Profession implements Serializable {
+	private static final long serialVersionUID = 1L;
 	private Integer id;
 	private String name;
 	private String source;
@@ -41,6 +43,8 @@ public class Profession {
 	private Map<Integer, SkillType> skillgroupType = new HashMap<Integer, SkillType>();
 	private Map<Integer, SkillType> skillType = new HashMap<Integer, SkillType>();
 	private List<String> additionInfo = new ArrayList<String>();
+	/* index in the meta data, set by the skill cost matrix */
+	private transient int ordinal = -1;
 	
 	/* package */ Profession() {
 	}
@@ -53,6 +57,14 @@ public class Profession {
 		this.id = id;
 	}
 
+	/* package */ int getOrdinal() {
+		return ordinal;
+	}
+
+	/* package */ void setOrdinal(int ordinal) {
+		this.ordinal = ordinal;
+	}
+
 
 	public String getName() {
 		return name;
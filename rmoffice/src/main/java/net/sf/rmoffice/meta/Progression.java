@@ -15,12 +15,15 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
+
 
 
 /**
  * 
  */
-public class Progression implements IProgression {
+public class Progression implements IProgression, Serializable {
+	private static final long serialVersionUID = 1L;
 	private final float[] bonus;
 	
 	/* constructor for java 7 and XStream */
@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,7 +32,8 @@ import net.sf.rmoffice.meta.enums.StatEnum;
 /**
  * The race meta data loaded from configuration.
  */
-public class Race {
+public class Race implements Serializable {
+	private static final long serialVersionUID = 1L;
 	private Integer id;
 	private RaceScope scope;
 	private String name;
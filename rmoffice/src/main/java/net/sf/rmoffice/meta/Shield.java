@@ -15,11 +15,14 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
+
 
 /**
  * 
  */
-public class Shield {
+public class Shield implements Serializable {
+	private static final long serialVersionUID = 1L;
 	private int id;
 	private String name;
 	private int closeBonus;
@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,7 +27,8 @@ import net.sf.rmoffice.meta.enums.RaceScope;
 /**
  * 
  */
-public class Skill implements ISkill {	
+public class Skill implements ISkill, Serializable {
+	private static final long serialVersionUID = 1L;	
 	private Integer id;
 	private String name;
 	private SkillCategory category;
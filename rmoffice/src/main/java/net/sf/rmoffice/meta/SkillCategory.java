@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.List;
 
 import net.sf.rmoffice.core.RMSheet;
@@ -28,12 +29,15 @@ import net.sf.rmoffice.meta.enums.StatEnum;
 /**
  * skill category (skill group is wrong translation).
  */
-public class SkillCategory implements INamed {
+public class SkillCategory implements INamed, Serializable {
+	private static final long serialVersionUID = 1L;
 	private Integer id;
 	private String name;
 	private RankType rankType;
 	private RankSubType rankSubType;
 	private List<StatEnum> attributes;
+	/* index in the meta data, set by the skill cost matrix */
+	private transient int ordinal = -1;
 	
 	
 	/* package */ SkillCategory() {
@@ -86,6 +90,14 @@ public class SkillCategory implements INamed {
 		this.rankSubType = rankSubType;
 	}
 
+	/* package */ int getOrdinal() {
+		return ordinal;
+	}
+
+	/* package */ void setOrdinal(int ordinal) {
+		this.ordinal = ordinal;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public String toString() {
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import net.sf.rmoffice.meta.enums.LengthUnit;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Search index over the names and descriptions of the skills and spell lists. The texts
+ * are folded (lower case of the locale, without accents), a query matches a skill if every
+ * word of the query is found in its texts. Words with less than three characters are
+ * looked up as prefix of the words in the sorted word list, longer words as substring with
+ * the trigrams of the texts. The result is a {@link BitSet} of the skill positions.
+ */
+public class SkillSearchIndex {
+	private final static Logger log = LoggerFactory.getLogger(SkillSearchIndex.class);
+	private static final Pattern MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+	private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final int GRAM = 3;
+
+	private final Locale locale;
+	private final List<ISkill> skills;
+	private final Map<ISkill, Integer> positions;
+	/* the folded name and description */
+	private final String[] texts;
+	/* all words of the texts, sorted, and the position of their skill */
+	private final String[] words;
+	private final int[] wordPositions;
+	/* the sorted positions of the skills by trigram */
+	private final Map<String, int[]> grams;
+
+	/**
+	 *
+	 * @param skills the skills, not {@code null}
+	 * @param locale the locale of the texts, not {@code null}
+	 */
+	public SkillSearchIndex(List<ISkill> skills, Locale locale) {
+		long start = System.currentTimeMillis();
+		this.locale = locale;
+		this.skills = new ArrayList<ISkill>(skills);
+		positions = new IdentityHashMap<ISkill, Integer>(skills.size() * 2);
+		texts = new String[skills.size()];
+		List<String> wordList = new ArrayList<String>();
+		Map<String, BitSet> gramSets = new HashMap<String, BitSet>();
+		for (int i = 0; i < texts.length; i++) {
+			ISkill skill = this.skills.get(i);
+			positions.put(skill, Integer.valueOf(i));
+			/* the units of the description are not searched */
+			texts[i] = fold(skill.getName()) + "\n" + fold(skill.getDescription(LengthUnit.CM));
+			for (String word : NON_WORD.split(texts[i])) {
+				if (word.length() > 0) {
+					/* the position is appended to sort the words with their skill */
+					wordList.add(word + '\0' + i);
+				}
+			}
+			for (int j = 0; j + GRAM <= texts[i].length(); j++) {
+				String gram = texts[i].substring(j, j + GRAM);
+				BitSet set = gramSets.get(gram);
+				if (set == null) {
+					set = new BitSet(texts.length);
+					gramSets.put(gram, set);
+				}
+				set.set(i);
+			}
+		}
+		String[] sorted = wordList.toArray(new String[wordList.size()]);
+		Arrays.sort(sorted);
+		words = new String[sorted.length];
+		wordPositions = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			int sep = sorted[i].lastIndexOf('\0');
+			words[i] = sorted[i].substring(0, sep);
+			wordPositions[i] = Integer.parseInt(sorted[i].substring(sep + 1));
+		}
+		grams = new HashMap<String, int[]>(gramSets.size() * 2);
+		for (Map.Entry<String, BitSet> entry : gramSets.entrySet()) {
+			BitSet set = entry.getValue();
+			int[] posting = new int[set.cardinality()];
+			int j = 0;
+			for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+				posting[j++] = i;
+			}
+			grams.put(entry.getKey(), posting);
+		}
+		if (log.isDebugEnabled()) log.debug("indexed "+texts.length+" skills, "+words.length+" words, "+grams.size()+" trigrams in "+(System.currentTimeMillis() - start)+"ms");
+	}
+
+	/**
+	 * Returns the text for the search, lower case without accents.
+	 *
+	 * @param text the text, may be {@code null}
+	 * @return the folded text, not {@code null}
+	 */
+	public String fold(String text) {
+		if (text == null) {
+			return "";
+		}
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		return MARKS.matcher(decomposed).replaceAll("").toLowerCase(locale).replace("ß", "ss");
+	}
+
+	/**
+	 *
+	 * @return the number of indexed skills
+	 */
+	public int size() {
+		return skills.size();
+	}
+
+	/**
+	 *
+	 * @param position the position of the skill
+	 * @return the skill, not {@code null}
+	 */
+	public ISkill getSkill(int position) {
+		return skills.get(position);
+	}
+
+	/**
+	 *
+	 * @param skill the skill
+	 * @return the position of the skill, -1 if it is not indexed
+	 */
+	public int indexOf(ISkill skill) {
+		Integer position = positions.get(skill);
+		return position == null ? -1 : position.intValue();
+	}
+
+	/**
+	 * Searches the skills.
+	 *
+	 * @param query the query, words separated by blanks
+	 * @return the positions of the matching skills, all skills if the query is blank, not {@code null}
+	 */
+	public BitSet search(String query) {
+		return search(query, null);
+	}
+
+	/**
+	 * Searches the skills within the given positions, e.g. the result of a shorter query.
+	 *
+	 * @param query the query, words separated by blanks
+	 * @param within the positions to search, {@code null} for all skills
+	 * @return the positions of the matching skills, not {@code null}
+	 */
+	public BitSet search(String query, BitSet within) {
+		BitSet result = new BitSet(skills.size());
+		if (within == null) {
+			result.set(0, skills.size());
+		} else {
+			result.or(within);
+		}
+		for (String word : NON_WORD.split(fold(query))) {
+			if (word.length() == 0) {
+				continue;
+			}
+			if (word.length() < GRAM) {
+				result.and(prefix(word));
+			} else {
+				filterSubstring(word, result);
+			}
+			if (result.isEmpty()) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	/* the positions of the skills with a word starting with the prefix */
+	private BitSet prefix(String prefix) {
+		BitSet result = new BitSet(skills.size());
+		int i = Arrays.binarySearch(words, prefix);
+		if (i < 0) {
+			i = -i - 1;
+		}
+		/* binary search finds any of the equal words */
+		while (i > 0 && words[i - 1].startsWith(prefix)) {
+			i--;
+		}
+		for (; i < words.length && words[i].startsWith(prefix); i++) {
+			result.set(wordPositions[i]);
+		}
+		return result;
+	}
+
+	/* keeps the positions of the skills whose texts contain the word */
+	private void filterSubstring(String word, BitSet result) {
+		/* the rarest trigram has the fewest candidates */
+		int[] candidates = null;
+		for (int j = 0; j + GRAM <= word.length(); j++) {
+			int[] posting = grams.get(word.substring(j, j + GRAM));
+			if (posting == null) {
+				result.clear();
+				return;
+			}
+			if (candidates == null || posting.length < candidates.length) {
+				candidates = posting;
+			}
+		}
+		BitSet matches = new BitSet(skills.size());
+		for (int position : candidates) {
+			if (result.get(position) && texts[position].contains(word)) {
+				matches.set(position);
+			}
+		}
+		result.and(matches);
+	}
+
+	/**
+	 * Searches while the user types. If the query extends the previous query only the
+	 * previous result is searched.
+	 */
+	public static class Incremental {
+		private final SkillSearchIndex index;
+		private String lastQuery;
+		private BitSet lastResult;
+
+		/**
+		 *
+		 * @param index the index, not {@code null}
+		 */
+		public Incremental(SkillSearchIndex index) {
+			this.index = index;
+		}
+
+		/**
+		 *
+		 * @param query the current query
+		 * @return the positions of the matching skills, {@code null} if the query is blank
+		 */
+		public BitSet update(String query) {
+			if (StringUtils.isBlank(query)) {
+				lastQuery = null;
+				lastResult = null;
+				return null;
+			}
+			String folded = index.fold(query);
+			BitSet within = null;
+			if (lastQuery != null && folded.startsWith(lastQuery) && !changesMatching(folded)) {
+				within = lastResult;
+			}
+			lastResult = index.search(folded, within);
+			lastQuery = folded;
+			return lastResult;
+		}
+
+		/* a last word growing to a trigram is no longer a prefix but a substring, which may match more */
+		private boolean changesMatching(String folded) {
+			int last = 0;
+			while (last < lastQuery.length() && Character.isLetterOrDigit(lastQuery.charAt(lastQuery.length() - last - 1))) {
+				last++;
+			}
+			int end = lastQuery.length();
+			while (end < folded.length() && Character.isLetterOrDigit(folded.charAt(end))) {
+				end++;
+			}
+			return last > 0 && last < GRAM && last + end - lastQuery.length() >= GRAM;
+		}
+
+		public SkillSearchIndex getIndex() {
+			return index;
+		}
+	}
+}
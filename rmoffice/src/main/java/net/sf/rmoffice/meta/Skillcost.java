@@ -15,13 +15,18 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
+
 
 
 
 /**
  *
  */
-public class Skillcost implements Comparable<Skillcost>{
+public class Skillcost implements Comparable<Skillcost>, Serializable {
+	private static final long serialVersionUID = 1L;
+	/** The costs of a category without costs, shared by all lookups. */
+	public static final Skillcost EMPTY = new Skillcost();
 	private final int[] costs;
 	private final String name;
 
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import java.util.List;
+import java.util.Map;
+
+import net.sf.rmoffice.meta.enums.SpellUserType;
+import net.sf.rmoffice.meta.enums.SpelllistPart;
+import net.sf.rmoffice.meta.internal.SkillcategorySpelllistPartKey;
+
+/**
+ * The skill costs of the meta data in arrays indexed by the profession and skill category
+ * ordinal, which {@link MetaData} assigns before it creates the matrix. The spell list costs are calculated for all spell list parts and spell user
+ * types in advance. Immutable once created, {@link MetaData} creates a new matrix if the
+ * costs have changed.
+ */
+/* package private */ final class SkillcostMatrix {
+	private static final SpelllistPart[] PARTS = SpelllistPart.values();
+	private static final SpellUserType[] USER_TYPES = SpellUserType.values();
+
+	private final Profession[] professions;
+	private final SkillCategory[] categories;
+	/* [profession][category], Skillcost.EMPTY if there are no costs */
+	private final Skillcost[][] costs;
+	/* costs of non spell users [profession][category][part], null for spell users */
+	private final Skillcost[][][] noneSpellusercosts;
+	/* fixed costs of spell users [category][part][spell user type], may contain null */
+	private final Skillcost[][][] spellcosts;
+
+	SkillcostMatrix(List<Profession> professionList, List<SkillCategory> categoryList,
+			Map<Profession, Map<SkillCategory, Skillcost>> skillcosts, Map<SkillcategorySpelllistPartKey, Skillcost> spellcostByLevel) {
+		professions = professionList == null ? new Profession[0] : professionList.toArray(new Profession[professionList.size()]);
+		categories = categoryList == null ? new SkillCategory[0] : categoryList.toArray(new SkillCategory[categoryList.size()]);
+		/* the costs of categories without costs are multiplied, too */
+		Skillcost[] emptyPartCosts = new Skillcost[PARTS.length];
+		for (SpelllistPart part : PARTS) {
+			emptyPartCosts[part.ordinal()] = multiply(Skillcost.EMPTY, part.getNoneSpelluserFactor());
+		}
+		costs = new Skillcost[professions.length][categories.length];
+		noneSpellusercosts = new Skillcost[professions.length][][];
+		for (int p = 0; p < professions.length; p++) {
+			Map<SkillCategory, Skillcost> profCosts = skillcosts.get(professions[p]);
+			boolean noneSpelluser = SpellUserType.NONE.equals(professions[p].getSpellUserType());
+			if (noneSpelluser) {
+				noneSpellusercosts[p] = new Skillcost[categories.length][];
+			}
+			for (int c = 0; c < categories.length; c++) {
+				Skillcost cost = profCosts == null ? null : profCosts.get(categories[c]);
+				costs[p][c] = cost == null ? Skillcost.EMPTY : cost;
+				if (noneSpelluser) {
+					if (cost == null) {
+						noneSpellusercosts[p][c] = emptyPartCosts;
+					} else {
+						noneSpellusercosts[p][c] = new Skillcost[PARTS.length];
+						for (SpelllistPart part : PARTS) {
+							noneSpellusercosts[p][c][part.ordinal()] = multiply(cost, part.getNoneSpelluserFactor());
+						}
+					}
+				}
+			}
+		}
+		spellcosts = new Skillcost[categories.length][][];
+		for (int c = 0; c < categories.length; c++) {
+			Skillcost[][] byPart = null;
+			for (SpelllistPart part : PARTS) {
+				for (SpellUserType type : USER_TYPES) {
+					Skillcost cost = spellcostByLevel.get(new SkillcategorySpelllistPartKey(categories[c], part, type));
+					if (cost != null) {
+						if (byPart == null) {
+							byPart = new Skillcost[PARTS.length][USER_TYPES.length];
+						}
+						byPart[part.ordinal()][type.ordinal()] = cost;
+					}
+				}
+			}
+			spellcosts[c] = byPart;
+		}
+	}
+
+	private static Skillcost multiply(Skillcost base, int factor) {
+		int[] newCosts = new int[base.size()];
+		for (int i = 0; i < newCosts.length; i++) {
+			newCosts[i] = base.getCost(i) * factor;
+		}
+		return new Skillcost(newCosts);
+	}
+
+	private int indexOf(Profession profession) {
+		int p = profession == null ? -1 : profession.getOrdinal();
+		return p >= 0 && p < professions.length && professions[p] == profession ? p : -1;
+	}
+
+	private int indexOf(SkillCategory category) {
+		int c = category == null ? -1 : category.getOrdinal();
+		return c >= 0 && c < categories.length && categories[c] == category ? c : -1;
+	}
+
+	/**
+	 *
+	 * @param profession the profession
+	 * @param category the skill category
+	 * @return {@code true} if both are part of the matrix
+	 */
+	boolean contains(Profession profession, SkillCategory category) {
+		return indexOf(profession) >= 0 && indexOf(category) >= 0;
+	}
+
+	/**
+	 * The profession and category must be part of the matrix, see {@link #contains(Profession, SkillCategory)}.
+	 *
+	 * @param profession the profession
+	 * @param category the skill category
+	 * @return the costs, not {@code null}
+	 */
+	Skillcost getSkillcost(Profession profession, SkillCategory category) {
+		return costs[profession.getOrdinal()][category.getOrdinal()];
+	}
+
+	/**
+	 * The profession and category must be part of the matrix, see {@link #contains(Profession, SkillCategory)}.
+	 *
+	 * @param profession the profession
+	 * @param category the skill category
+	 * @param part the spell list part
+	 * @return the spell list costs or {@code null}
+	 */
+	Skillcost getSpelllistcost(Profession profession, SkillCategory category, SpelllistPart part) {
+		int p = profession.getOrdinal();
+		int c = category.getOrdinal();
+		if (noneSpellusercosts[p] != null) {
+			return noneSpellusercosts[p][c][part.ordinal()];
+		}
+		Skillcost[][] byPart = spellcosts[c];
+		return byPart == null ? null : byPart[part.ordinal()][profession.getSpellUserType().ordinal()];
+	}
+}
@@ -27,6 +27,7 @@ import net.sf.rmoffice.meta.enums.StatEnum;
  * 
  */
 public class Spelllist extends Skill {
+	private static final long serialVersionUID = 1L;
 	private SpelllistType  type;
 	private Set<StatEnum> attributes;
 	
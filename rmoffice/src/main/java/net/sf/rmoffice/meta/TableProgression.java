@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+/**
+ * A {@link Progression} that calculates the bonus of the ranks once and looks them up
+ * afterwards. The table grows on demand up to {@link #MAX_TABLE_SIZE} ranks, the bonus
+ * of higher ranks is calculated. Two table progressions with the same digits are equal,
+ * so they can be shared, see {@link MetaData#internProgression(IProgression)}.
+ */
+public final class TableProgression extends Progression {
+	private static final long serialVersionUID = 1L;
+	private static final int INITIAL_TABLE_SIZE = 64;
+	/* package private */ static final int MAX_TABLE_SIZE = 1024;
+
+	/* bonus by rank, immutable once published */
+	private transient volatile int[] table;
+
+	public TableProgression(float bonus1, float bonus2, float bonus3, float bonus4, float bonus5) {
+		super(bonus1, bonus2, bonus3, bonus4, bonus5);
+	}
+
+	/**
+	 *
+	 * @param progression the progression to copy, not {@code null}
+	 * @return the table progression with the digits of the given progression, not {@code null}
+	 */
+	public static TableProgression valueOf(IProgression progression) {
+		if (progression instanceof TableProgression) {
+			return (TableProgression) progression;
+		}
+		return new TableProgression(progression.getDigit(0), progression.getDigit(1), progression.getDigit(2),
+				progression.getDigit(3), progression.getDigit(4));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int getBonus(int rangCount) {
+		int[] t = table;
+		if (t != null && rangCount >= 0 && rangCount < t.length) {
+			return t[rangCount];
+		}
+		if (rangCount < 0 || rangCount >= MAX_TABLE_SIZE) {
+			return super.getBonus(rangCount);
+		}
+		return grow(rangCount)[rangCount];
+	}
+
+	/* concurrent growing calculates the same values, so the last one wins */
+	private int[] grow(int rangCount) {
+		int[] old = table;
+		int size = old == null ? INITIAL_TABLE_SIZE : old.length;
+		while (size <= rangCount) {
+			size <<= 1;
+		}
+		size = Math.min(size, MAX_TABLE_SIZE);
+		int[] t = new int[size];
+		int start = 0;
+		if (old != null) {
+			System.arraycopy(old, 0, t, 0, old.length);
+			start = old.length;
+		}
+		for (int i = start; i < size; i++) {
+			t[i] = super.getBonus(i);
+		}
+		table = t;
+		return t;
+	}
+
+	@Override
+	public IProgression modify(IProgression progression) {
+		return valueOf(super.modify(progression));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (! (obj instanceof TableProgression)) {
+			return false;
+		}
+		TableProgression other = (TableProgression) obj;
+		for (int i = 0; i < 5; i++) {
+			if (Float.floatToIntBits(getDigit(i)) != Float.floatToIntBits(other.getDigit(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (int i = 0; i < 5; i++) {
+			result = 31 * result + Float.floatToIntBits(getDigit(i));
+		}
+		return result;
+	}
+}
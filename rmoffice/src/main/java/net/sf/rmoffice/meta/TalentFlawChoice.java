@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,7 +24,8 @@ import net.sf.rmoffice.meta.enums.SkillType;
 /**
  * Stores the possible values to choose and additional information about the effect.
  */
-public class TalentFlawChoice {
+public class TalentFlawChoice implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	private int amount;
 	private Integer bonus;
@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,7 +25,8 @@ import net.sf.rmoffice.meta.enums.TalentFlawType;
  * Meta data: Talent or flaw from configuration file. All different sub levels
  * of the talent are here in one base talent or flaw.
  */
-public class TalentFlawPreset {
+public class TalentFlawPreset implements Serializable {
+	private static final long serialVersionUID = 1L;
 	private Integer id;
 	private String name;
 	private String source;
@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -26,7 +27,8 @@ import net.sf.rmoffice.meta.talentflaw.ITalentFlawPart;
  * Meta data: One talent flaw level of a {@link TalentFlawPreset} from configuration
  * file. It represents one level with multiple level parts that contains the data.
  */
-public class TalentFlawPresetLevel {
+public class TalentFlawPresetLevel implements Serializable {
+	private static final long serialVersionUID = 1L;
 	private TalentFlawLevel level;
 	private int costs;
 	private List<ITalentFlawPart> parts = new ArrayList<ITalentFlawPart>();
@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -27,7 +28,8 @@ import net.sf.rmoffice.meta.enums.StatEnum;
 /**
  * The description of a development package.
  */
-public class TrainPack {
+public class TrainPack implements Serializable {
+	private static final long serialVersionUID = 1L;
 	public static enum Type { L, V } 
 	
 	private Integer id;
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The training pack costs of the meta data in an array per profession, indexed by the
+ * training pack id. The ids of the training packs are nearly consecutive. The professions are
+ * indexed by their ordinal like in the {@link SkillcostMatrix}, assigned by {@link MetaData}. Filled by {@link MetaData}
+ * before it is published, immutable afterwards.
+ */
+/* package private */ final class TrainPackCostTable {
+	private final Profession[] professions;
+	private final int minId;
+	/* [profession][training pack id - minId], 0 if there are no costs */
+	private final int[][] costs;
+
+	TrainPackCostTable(List<Profession> professionList, Collection<TrainPack> trainPacks) {
+		professions = professionList == null ? new Profession[0] : professionList.toArray(new Profession[professionList.size()]);
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (TrainPack trainPack : trainPacks) {
+			min = Math.min(min, trainPack.getId().intValue());
+			max = Math.max(max, trainPack.getId().intValue());
+		}
+		minId = trainPacks.isEmpty() ? 0 : min;
+		costs = new int[professions.length][trainPacks.isEmpty() ? 0 : max - min + 1];
+	}
+
+	/* called while the table is filled */
+	void set(Profession profession, TrainPack trainPack, int cost) {
+		int p = indexOf(profession);
+		int t = indexOf(trainPack);
+		if (p >= 0 && t >= 0) {
+			costs[p][t] = cost;
+		}
+	}
+
+	/**
+	 *
+	 * @param profession the profession
+	 * @param trainPack the training pack
+	 * @return whether the costs are in the table
+	 */
+	boolean contains(Profession profession, TrainPack trainPack) {
+		return indexOf(profession) >= 0 && indexOf(trainPack) >= 0;
+	}
+
+	/**
+	 * The profession and training pack must be part of the table, see {@link #contains(Profession, TrainPack)}.
+	 *
+	 * @param profession the profession
+	 * @param trainPack the training pack
+	 * @return the costs, 0 if there are no costs
+	 */
+	int getCosts(Profession profession, TrainPack trainPack) {
+		return costs[profession.getOrdinal()][trainPack.getId().intValue() - minId];
+	}
+
+	private int indexOf(Profession profession) {
+		int p = profession == null ? -1 : profession.getOrdinal();
+		return p >= 0 && p < professions.length && professions[p] == profession ? p : -1;
+	}
+
+	private int indexOf(TrainPack trainPack) {
+		if (trainPack == null || trainPack.getId() == null || costs.length == 0) {
+			return -1;
+		}
+		int t = trainPack.getId().intValue() - minId;
+		return t >= 0 && t < costs[0].length ? t : -1;
+	}
+}
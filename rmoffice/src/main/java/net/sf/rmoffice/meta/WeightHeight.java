@@ -15,11 +15,14 @@
  */
 package net.sf.rmoffice.meta;
 
+import java.io.Serializable;
+
 
 /**
  * Holder for male/female avg values for weight and height.
  */
-public class WeightHeight {
+public class WeightHeight implements Serializable {
+	private static final long serialVersionUID = 1L;
 	private int MALE = 0;
 	private int FEMALE = 1;
 	private int[] weight = new int[2];
@@ -15,6 +15,7 @@
  */
 package net.sf.rmoffice.meta.enums;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -25,7 +26,8 @@ import java.util.Map;
 /**
  * 
  */
-public class SpelllistType {	
+public class SpelllistType implements Serializable {
+	private static final long serialVersionUID = 1L;	
 	public final static int OPEN = 1;
 	public final static int CLOSED = 2;
 	public final static int PROFESSION = 4;
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta.internal;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+
+/**
+ * Compound object used as key in a map for the spell list categories.
+ */
+public class ProfessionMagicRealmKey {
+
+	private final Integer professionId;
+	private final Set<StatEnum> magicRealm;
+
+	/**
+	 * @param professionId the profession id, -1 if no profession is selected
+	 * @param magicRealm the magic realm, will be copied
+	 */
+	public ProfessionMagicRealmKey(Integer professionId, Collection<StatEnum> magicRealm) {
+		this.professionId = professionId;
+		this.magicRealm = EnumSet.noneOf(StatEnum.class);
+		if (magicRealm != null) {
+			this.magicRealm.addAll(magicRealm);
+		}
+	}
+
+	public Integer getProfessionId() {
+		return professionId;
+	}
+
+	public Set<StatEnum> getMagicRealm() {
+		return EnumSet.copyOf(magicRealm);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((professionId == null) ? 0 : professionId.hashCode());
+		result = prime * result + magicRealm.hashCode();
+		return result;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (getClass() != obj.getClass()) return false;
+		ProfessionMagicRealmKey other = (ProfessionMagicRealmKey) obj;
+		if (professionId == null) {
+			if (other.professionId != null) return false;
+		} else if (!professionId.equals(other.professionId)) return false;
+		return magicRealm.equals(other.magicRealm);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("ProfessionMagicRealmKey[").append(professionId).append("/").append(magicRealm).append("]");
+		return sb.toString();
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package net.sf.rmoffice.meta.internal;
 
+import java.io.Serializable;
+
 import net.sf.rmoffice.meta.SkillCategory;
 import net.sf.rmoffice.meta.enums.SpellUserType;
 import net.sf.rmoffice.meta.enums.SpelllistPart;
@@ -23,7 +25,8 @@ import net.sf.rmoffice.meta.enums.SpelllistPart;
 /**
  * Compound object used as key in a map for spelllist costs.
  */
-public class SkillcategorySpelllistPartKey {
+public class SkillcategorySpelllistPartKey implements Serializable {
+	private static final long serialVersionUID = 1L;
 	
 	private final SpelllistPart part;
 	private final SkillCategory category;
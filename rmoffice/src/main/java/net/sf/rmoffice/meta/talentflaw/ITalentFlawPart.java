@@ -15,13 +15,15 @@
  */
 package net.sf.rmoffice.meta.talentflaw;
 
+import java.io.Serializable;
+
 import net.sf.rmoffice.core.TalentFlaw;
 
 /**
  * This is one part of a talent or flaw. It is a base interface 
  * for all interactive or non-interactive talent/flaw parts.
  */
-public interface ITalentFlawPart {
+public interface ITalentFlawPart extends Serializable {
 	
 	/**
 	 * Returns an identifying string for the part, not {@code null}
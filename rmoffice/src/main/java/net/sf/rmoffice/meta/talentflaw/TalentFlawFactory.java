@@ -17,12 +17,16 @@ package net.sf.rmoffice.meta.talentflaw;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.MetaDataLoader;
+import net.sf.rmoffice.meta.enums.StatEnum;
+import net.sf.rmoffice.meta.talentflaw.parser.AbstractPatternParser;
 import net.sf.rmoffice.meta.talentflaw.parser.BaseMoveRateParser;
 import net.sf.rmoffice.meta.talentflaw.parser.BasemoverateMultiplerParser;
 import net.sf.rmoffice.meta.talentflaw.parser.ChooseParser;
@@ -49,6 +53,8 @@ import net.sf.rmoffice.meta.talentflaw.parser.StatBonusParser;
 import net.sf.rmoffice.meta.talentflaw.parser.ToleranceParser;
 import net.sf.rmoffice.meta.talentflaw.parser.WeightPenaltyParser;
 
+import org.apache.commons.lang.StringUtils;
+
 /**
  * Factory for creating {@link ITalentFlawPart}.
  */
@@ -57,6 +63,8 @@ public class TalentFlawFactory {
 	private static final Set<String> partIDs = new HashSet<String>();
 	private final MetaData metaData;
 	private final List<ITalentFlawPartParser<?>> parsers = new ArrayList<ITalentFlawPartParser<?>>();
+	/* the parsers by the key of the part, see #getKey(String) */
+	private final Map<String, List<ITalentFlawPartParser<?>>> parsersByKey = new HashMap<String, List<ITalentFlawPartParser<?>>>();
 	
 	/**
 	 * @param metaData the meta data, not null
@@ -88,30 +96,73 @@ public class TalentFlawFactory {
 	
 	private void initParser() {
 		// FIXME find a nicer solution to "register" the parsers
-		parsers.add(new InitiativeParser());
-		parsers.add(new DescriptionParser());
-		parsers.add(new BonusParser(metaData)); 
-		parsers.add(new SkillTypeParser(metaData)); 
-		parsers.add(new ChooseParser(metaData));
-		parsers.add(new ChooseSkillParser(metaData));
-		parsers.add(new ProgressionParser());
-		parsers.add(new RankParser());
-		parsers.add(new WeightPenaltyParser());
-		parsers.add(new BaseMoveRateParser());
-		parsers.add(new ResistanceParser());
-		parsers.add(new DBParser());
-		parsers.add(new ShieldDBParser());
-		parsers.add(new ExhaustionParser());
-		parsers.add(new StatBonusParser());
-		parsers.add(new RecoveryParser());
-		parsers.add(new ToleranceParser());
-		parsers.add(new ChooseStatParser());
-		parsers.add(new CostParser(metaData));
-		parsers.add(new ChooseResistanceParser());
-		parsers.add(new SouldepartureParser());
-		parsers.add(new SnapBonusParser());
-		parsers.add(new BasemoverateMultiplerParser());
-		parsers.add(new ExhaustionMultiplerParser());
+		register(new InitiativeParser(), InitiativeParser.INI);
+		register(new DescriptionParser(), "DESCR");
+		register(new BonusParser(metaData), MetaDataLoader.SKILL_CHAR, MetaDataLoader.CATEGORY_CHAR);
+		register(new SkillTypeParser(metaData), MetaDataLoader.SKILL_CHAR, MetaDataLoader.CATEGORY_CHAR);
+		register(new ChooseParser(metaData), "CHOOSE");
+		register(new ChooseSkillParser(metaData), "CHOOSESKILL");
+		register(new ProgressionParser(), "BODYDEV", "POWERDEV");
+		register(new RankParser(), "RANK");
+		register(new WeightPenaltyParser(), "WEIGHTPENALTY");
+		register(new BaseMoveRateParser(), "BASEMOVERATE");
+		register(new ResistanceParser(), "RR");
+		register(new DBParser(), "DB");
+		register(new ShieldDBParser(), "SHIELDDB");
+		register(new ExhaustionParser(), "EXHAUSTION");
+		StatEnum[] stats = StatEnum.values();
+		String[] statKeys = new String[stats.length];
+		for (int i = 0; i < stats.length; i++) {
+			statKeys[i] = stats[i].name();
+		}
+		register(new StatBonusParser(), statKeys);
+		register(new RecoveryParser(), "RECOVERYMULTIPLIER");
+		register(new ToleranceParser(), "TOLERANCE");
+		register(new ChooseStatParser(), "STAT");
+		register(new CostParser(metaData), "COST");
+		register(new ChooseResistanceParser(), "CHOOSERR");
+		register(new SouldepartureParser(), "SOULDEPARTURE");
+		register(new SnapBonusParser(), "SNAPBONUS");
+		register(new BasemoverateMultiplerParser(), "BASEMOVERATEMULTIPLIER");
+		register(new ExhaustionMultiplerParser(), "EXHAUSTIONMULTIPLIER");
+	}
+
+	/**
+	 * Adds the parser to the parsers of the given keys. The parsers of a key are
+	 * asked in the order of registration.
+	 * 
+	 * @param parser the parser, not {@code null}
+	 * @param keys the keys of the parts the parser can parse, see {@link #getKey(String)}
+	 */
+	private void register(ITalentFlawPartParser<?> parser, String... keys) {
+		parsers.add(parser);
+		for (String key : keys) {
+			List<ITalentFlawPartParser<?>> keyParsers = parsersByKey.get(key);
+			if (keyParsers == null) {
+				keyParsers = new ArrayList<ITalentFlawPartParser<?>>(2);
+				parsersByKey.put(key, keyParsers);
+			}
+			keyParsers.add(parser);
+		}
+	}
+
+	/**
+	 * Returns the key of the part, that are the leading letters and underscores
+	 * (e.g. {@code CHOOSE} for {@code CHOOSE2=S1;S2=5}).
+	 * 
+	 * @param trimmed the trimmed part, not {@code null}
+	 * @return the key, not {@code null}
+	 */
+	/* package */ static String getKey(String trimmed) {
+		int end = 0;
+		while (end < trimmed.length()) {
+			char c = trimmed.charAt(end);
+			if ((c < 'A' || c > 'Z') && c != '_') {
+				break;
+			}
+			end++;
+		}
+		return trimmed.substring(0, end);
 	}
 
 	/**
@@ -120,12 +171,40 @@ public class TalentFlawFactory {
 	 * @param partAsString the part as string, may be {@code null}
 	 */
 	public ITalentFlawPart parseTalentFlawPart(String partAsString) {
-		for (Iterator<ITalentFlawPartParser<?>> it = parsers.iterator(); it.hasNext(); ){
-			ITalentFlawPartParser<?> parser = it.next();
-			if (parser.isParseable(partAsString)) {
-				return parser.parse(partAsString);
+		String trimmed = StringUtils.trimToEmpty(partAsString);
+		List<ITalentFlawPartParser<?>> keyParsers = parsersByKey.get(getKey(trimmed));
+		if (keyParsers != null) {
+			for (ITalentFlawPartParser<?> parser : keyParsers) {
+				ITalentFlawPart part = parse(parser, trimmed);
+				if (part != null) {
+					return part;
+				}
+			}
+		}
+		/* unknown key or the parsers of the key could not parse it (e.g. DESCR prefixed keys) */
+		for (ITalentFlawPartParser<?> parser : parsers) {
+			if (keyParsers == null || ! keyParsers.contains(parser)) {
+				ITalentFlawPart part = parse(parser, trimmed);
+				if (part != null) {
+					return part;
+				}
 			}
 		}
 		throw new IllegalArgumentException("Could not find a parser for '"+partAsString+"'");
 	}
+
+	/*
+	 * Returns the part or null if the parser cannot parse it. The pattern parsers get the
+	 * trimmed part and its tokens, they do not trim and split it again.
+	 */
+	private static ITalentFlawPart parse(ITalentFlawPartParser<?> parser, String trimmed) {
+		if (parser instanceof AbstractPatternParser) {
+			AbstractPatternParser<?> patternParser = (AbstractPatternParser<?>) parser;
+			if (trimmed.length() > 0 && patternParser.matches(trimmed)) {
+				return patternParser.parse(AbstractPatternParser.split(trimmed));
+			}
+			return null;
+		}
+		return parser.isParseable(trimmed) ? parser.parse(trimmed) : null;
+	}
 }
@@ -42,7 +42,16 @@ public abstract class AbstractPatternParser<T extends ITalentFlawPart> implement
 		if (StringUtils.isEmpty(toParse)) {
 			return false;
 		}
-		String trimmed = StringUtils.trim(toParse);
+		return matches(StringUtils.trim(toParse));
+	}
+
+	/**
+	 * Like {@link #isParseable(String)} for a part that is already trimmed.
+	 * 
+	 * @param trimmed the trimmed part, not {@code null}
+	 * @return whether one of the patterns matches
+	 */
+	public boolean matches(String trimmed) {
 		for (Pattern p : patternList) {
 			if (p.matcher(trimmed).matches()) {
 				return true;
@@ -53,14 +62,36 @@ public abstract class AbstractPatternParser<T extends ITalentFlawPart> implement
 	
 	@Override
 	public final T parse(String parseableString) {
-		String trimmed = StringUtils.trimToEmpty(parseableString);
+		return parse(split(StringUtils.trimToEmpty(parseableString)));
+	}
+
+	/**
+	 * Like {@link #parse(String)} for a part that is already split with {@link #split(String)}.
+	 * 
+	 * @param tokens the trimmed key and value parts, not {@code null}
+	 * @return the talent flaw part
+	 */
+	public final T parse(String[] tokens) {
+		String[] valueParts = new String[tokens.length - 1];
+		System.arraycopy(tokens, 1, valueParts, 0, valueParts.length);
+		return createPart(tokens[0], valueParts);
+	}
+
+	/**
+	 * Splits the part into the key and the value parts.
+	 * 
+	 * @param trimmed the trimmed part, not {@code null}
+	 * @return the trimmed key followed by the trimmed value parts, not {@code null}
+	 */
+	public static String[] split(String trimmed) {
 		String[] parts = StringUtils.splitPreserveAllTokens(trimmed, "=");
-		String key = StringUtils.trimToEmpty(parts[0]);
-		String[] valueParts = new String[parts.length - 1];
-		for (int i=0; i<valueParts.length; i++) {
-			valueParts[i] = StringUtils.trimToEmpty(parts[i+1]);
+		if (parts.length == 0) {
+			return new String[] {""};
+		}
+		for (int i=0; i<parts.length; i++) {
+			parts[i] = StringUtils.trimToEmpty(parts[i]);
 		}
-		return createPart(key, valueParts);
+		return parts;
 	}
 
 	/**
@@ -25,12 +25,13 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.MalformedURLException;
-import java.net.URL;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 import javax.swing.JFrame;
@@ -61,6 +62,7 @@ import com.itextpdf.text.BadElementException;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Element;
+import com.itextpdf.text.ExceptionConverter;
 import com.itextpdf.text.Font;
 import com.itextpdf.text.Image;
 import com.itextpdf.text.PageSize;
@@ -68,6 +70,8 @@ import com.itextpdf.text.Phrase;
 import com.itextpdf.text.pdf.BaseFont;
 import com.itextpdf.text.pdf.ColumnText;
 import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfTemplate;
+import com.itextpdf.text.pdf.PdfWriter;
 
 
 /**
@@ -96,6 +100,9 @@ public abstract class AbstractPDFCreator implements IPDFCreator {
 	protected BaseFont fontWidget;
 
 	private final JFrame parent;
+	/* the static page parts of the current document by key, see #addStatic */
+	private final Map<String, PdfTemplate> templates = new HashMap<String, PdfTemplate>();
+	private PdfWriter templateWriter;
 
 	public AbstractPDFCreator(RMSheet sheet, MetaData data, JFrame parent, LongRunningUIModel longRunningModel) {
 		this.sheet = sheet;
@@ -152,22 +159,18 @@ public abstract class AbstractPDFCreator implements IPDFCreator {
 	protected abstract void internalCreate(OutputStream outputFileStream, LongRunningUIModel longRunAdapter) throws Exception;
 
 	/**
-	 * Loads the fonts.
+	 * Loads the fonts. The fonts are shared by all creators.
 	 * 
 	 * @throws DocumentException
 	 * @throws IOException
 	 */
 	protected void loadFonts() throws DocumentException, IOException {
-		if (log.isDebugEnabled()) log.debug("loading fonts");
-		fontHeadline = BaseFont.createFont("fonts/TrajanPro-Regular.otf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-		fontHeadline.setSubset(true);
-		fontRegular = BaseFont.createFont("fonts/ACaslonPro-Regular.otf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-		fontRegular.setSubset(true);
-		fontBold = BaseFont.createFont("fonts/ACaslonPro-Bold.otf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-		fontBold.setSubset(true);
-		fontUser = BaseFont.createFont("fonts/LiberationSans-Italic.ttf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-		fontUser.setSubset(true);
-		fontWidget = BaseFont.createFont( BaseFont.ZAPFDINGBATS, BaseFont.WINANSI, false );
+		PDFResources.Fonts fonts = PDFResources.getFonts();
+		fontHeadline = fonts.headline;
+		fontRegular = fonts.regular;
+		fontBold = fonts.bold;
+		fontUser = fonts.user;
+		fontWidget = fonts.widget;
 	}
 	
 	/**
@@ -176,12 +179,65 @@ public abstract class AbstractPDFCreator implements IPDFCreator {
 	 * @param canvas
 	 */
 	protected void footer(PdfContentByte canvas) {
-		/* Footer */
-		canvas.beginText();
-		canvas.setFontAndSize(fontRegular, 6);
-		canvas.showTextAligned(Element.ALIGN_RIGHT, RESOURCE.getString("pdf.footer"), 555, 42, 0);
-		canvas.showTextAligned(Element.ALIGN_RIGHT, RESOURCE.getString("pdf.copyright"), 555, 34, 0);
-		canvas.endText();
+		try {
+			addStatic(canvas, "footer", new StaticContent() {
+				@Override
+				public void draw(PdfContentByte template) {
+					/* Footer */
+					template.beginText();
+					template.setFontAndSize(fontRegular, 6);
+					template.showTextAligned(Element.ALIGN_RIGHT, RESOURCE.getString("pdf.footer"), 555, 42, 0);
+					template.showTextAligned(Element.ALIGN_RIGHT, RESOURCE.getString("pdf.copyright"), 555, 34, 0);
+					template.endText();
+				}
+			});
+		} catch (DocumentException e) {
+			throw new ExceptionConverter(e);
+		} catch (IOException e) {
+			throw new ExceptionConverter(e);
+		}
+	}
+
+	/**
+	 * Adds the static content with the given key to the page. The content is drawn once per
+	 * document into a {@link PdfTemplate}, so all pages share it in the PDF. It pays off for
+	 * content on several pages of a document (footer, headers, skill pages). The layout of
+	 * pages printed once per document (e.g. page 1) is drawn directly, a template would not
+	 * be reused.
+	 * 
+	 * @param canvas the page canvas, not {@code null}
+	 * @param key the key of the content, not {@code null}
+	 * @param content draws the content on first use, not {@code null}
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	protected void addStatic(PdfContentByte canvas, String key, StaticContent content) throws DocumentException, IOException {
+		PdfWriter writer = canvas.getPdfWriter();
+		if (writer != templateWriter) {
+			/* templates belong to one document */
+			templates.clear();
+			templateWriter = writer;
+		}
+		PdfTemplate template = templates.get(key);
+		if (template == null) {
+			template = canvas.createTemplate(writer.getPageSize().getWidth(), writer.getPageSize().getHeight());
+			content.draw(template);
+			templates.put(key, template);
+		}
+		canvas.addTemplate(template, 0, 0);
+	}
+
+	/**
+	 * Static page content that does not depend on the character, see {@link AbstractPDFCreator#addStatic}.
+	 */
+	protected interface StaticContent {
+		/**
+		 * 
+		 * @param template the template to draw on, it has the size of the page
+		 * @throws DocumentException
+		 * @throws IOException
+		 */
+		void draw(PdfContentByte template) throws DocumentException, IOException;
 	}
 
 	
@@ -242,26 +298,30 @@ public abstract class AbstractPDFCreator implements IPDFCreator {
 	}
 	
 	/*  Header for pages (not page 1). */
-	protected float headerCustomTitle(PdfContentByte canvas, String title) throws BadElementException, MalformedURLException, IOException, DocumentException {
-		URL imageUrl =  getClass().getResource( "/images/rmlogo.png" );
-		Image logo = Image.getInstance(imageUrl);
-		logo.setAbsolutePosition(365f, 792f);
-		logo.scaleToFit(170, 120);		
-		canvas.addImage(logo, false);
-		
-		box(canvas, LEFT_X, 780, RIGHT_X, 767);
-		
-		canvas.beginText();              
-        canvas.setFontAndSize(fontHeadline, 14);
-        canvas.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("pdf.page.title"), 92, 810, 0);
-        canvas.showTextAligned(Element.ALIGN_LEFT, title, 92, 794, 0);
-        
-        canvas.setFontAndSize(fontHeadline, 8);
-        canvas.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("pdf.page2.character"), 60, 771, 0);
+	protected float headerCustomTitle(PdfContentByte canvas, final String title) throws BadElementException, MalformedURLException, IOException, DocumentException {
+		addStatic(canvas, "header." + title, new StaticContent() {
+			@Override
+			public void draw(PdfContentByte template) throws DocumentException, IOException {
+				Image logo = PDFResources.getImage("/images/rmlogo.png");
+				logo.setAbsolutePosition(365f, 792f);
+				logo.scaleToFit(170, 120);		
+				template.addImage(logo, false);
+				
+				box(template, LEFT_X, 780, RIGHT_X, 767);
+				
+				template.beginText();              
+				template.setFontAndSize(fontHeadline, 14);
+				template.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("pdf.page.title"), 92, 810, 0);
+				template.showTextAligned(Element.ALIGN_LEFT, title, 92, 794, 0);
+				
+				template.setFontAndSize(fontHeadline, 8);
+				template.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("pdf.page2.character"), 60, 771, 0);
+				template.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("ui.basic.level")+":", 300, 771, 0);
+				template.endText();
+			}
+		});
         float x1 = fontHeadline.getWidthPoint(RESOURCE.getString("pdf.page2.character"), 8) + 65;
-        canvas.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("ui.basic.level")+":", 300, 771, 0);
         float x2 = fontHeadline.getWidthPoint(RESOURCE.getString("ui.basic.level")+":", 8) + 305;
-        canvas.endText();
         showUserText(canvas, 8, x1, 771, sheet.getCharacterName());
         showUserText(canvas, 8, x2, 771, ""+sheet.getLevel());
         return 771;
@@ -300,8 +360,7 @@ public abstract class AbstractPDFCreator implements IPDFCreator {
 		String imageStr = null;
 		try {
 			imageStr = fullPathOfImage+".jpg";
-			URL imageUrl = getClass().getResource( imageStr );
-			return Image.getInstance(imageUrl);				
+			return PDFResources.getImage(imageStr);
 		} catch (Exception e) {
 			log.error("Could not find the rune image "+imageStr);				
 		}
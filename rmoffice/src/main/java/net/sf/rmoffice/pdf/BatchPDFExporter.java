@@ -0,0 +1,228 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.pdf;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.ui.models.LongRunningUIModel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+
+/**
+ * Creates the PDFs of several characters in parallel, e.g. the whole party. The jobs
+ * run on a bounded pool and share the fonts and images, see {@link PDFResources}.
+ */
+public class BatchPDFExporter {
+	private final static Logger log = LoggerFactory.getLogger(BatchPDFExporter.class);
+
+	private final MetaData data;
+	private final PDFVersion version;
+	private final int threads;
+
+	/**
+	 * Creates an exporter with one thread per processor, at most 4.
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @param version the PDF version, not {@code null}
+	 */
+	public BatchPDFExporter(MetaData data, PDFVersion version) {
+		this(data, version, Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+	}
+
+	/**
+	 *
+	 * @param data the meta data, not {@code null}
+	 * @param version the PDF version, not {@code null}
+	 * @param threads the number of parallel jobs
+	 */
+	public BatchPDFExporter(MetaData data, PDFVersion version, int threads) {
+		this.data = data;
+		this.version = version;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Creates one PDF file per sheet.
+	 *
+	 * @param sheets the initialized sheets, not {@code null}
+	 * @param files the PDF file of each sheet, same size as the sheets
+	 * @param progress the progress model, {@code null} for none
+	 * @throws IOException if a PDF could not be created
+	 */
+	public void export(List<RMSheet> sheets, final List<File> files, LongRunningUIModel progress) throws IOException {
+		if (sheets.size() != files.size()) {
+			throw new IllegalArgumentException("sheets and files differ in size: "+sheets.size()+" != "+files.size());
+		}
+		run(sheets, progress, new JobOutput() {
+			@Override
+			public OutputStream open(int index) throws IOException {
+				return new BufferedOutputStream(new FileOutputStream(files.get(index)));
+			}
+		});
+	}
+
+	/**
+	 * Creates one PDF with the pages of all sheets in the given order.
+	 *
+	 * @param sheets the initialized sheets, not {@code null}
+	 * @param out the output stream, will not be closed
+	 * @param progress the progress model, {@code null} for none
+	 * @throws IOException if the PDF could not be created
+	 */
+	public void exportCombined(List<RMSheet> sheets, OutputStream out, LongRunningUIModel progress) throws IOException {
+		final ByteArrayOutputStream[] results = new ByteArrayOutputStream[sheets.size()];
+		run(sheets, progress, new JobOutput() {
+			@Override
+			public OutputStream open(int index) throws IOException {
+				results[index] = new ByteArrayOutputStream(256 * 1024);
+				return results[index];
+			}
+		});
+		try {
+			Document document = new Document();
+			PdfCopy copy = new PdfSmartCopy(document, out);
+			copy.setCloseStream(false);
+			document.open();
+			for (ByteArrayOutputStream result : results) {
+				PdfReader reader = new PdfReader(result.toByteArray());
+				copy.addDocument(reader);
+				reader.close();
+			}
+			document.close();
+		} catch (DocumentException e) {
+			throw new IOException("Could not combine the PDFs", e);
+		}
+	}
+
+	private void run(List<RMSheet> sheets, LongRunningUIModel progress, final JobOutput output) throws IOException {
+		long start = System.currentTimeMillis();
+		if (progress != null) {
+			progress.startJobs(sheets.size());
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, sheets.size())), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "pdf-export-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < sheets.size(); i++) {
+				futures.add(pool.submit(new Job(i, sheets.get(i), output, new LongRunningUIModel.JobModel(progress))));
+			}
+			for (Future<Void> future : futures) {
+				await(future);
+			}
+		} finally {
+			pool.shutdownNow();
+			if (progress != null) {
+				progress.done();
+			}
+		}
+		if (log.isInfoEnabled()) log.info("created "+sheets.size()+" PDFs in "+(System.currentTimeMillis() - start)+"ms with "+threads+" threads");
+	}
+
+	private static void await(Future<Void> future) throws IOException {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while creating the PDFs", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Could not create the PDF", cause);
+		}
+	}
+
+	/* the creator of the sheet, like in the PDF export action */
+	private AbstractPDFCreator createCreator(RMSheet sheet) {
+		switch (version) {
+		case PDF_FULL_V2:
+			return new PDFCreator2(sheet, data, null, null);
+		case PDF_MINIMAL_V1:
+			return new NpcPDFCreator(sheet, data, null, null);
+		case PDF_FULL_V1:
+		default:
+			return new PDFCreator(sheet, data, null, null);
+		}
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	private interface JobOutput {
+		OutputStream open(int index) throws IOException;
+	}
+
+	private class Job implements Callable<Void> {
+		private final int index;
+		private final RMSheet sheet;
+		private final JobOutput output;
+		private final LongRunningUIModel.JobModel progress;
+
+		public Job(int index, RMSheet sheet, JobOutput output, LongRunningUIModel.JobModel progress) {
+			this.index = index;
+			this.sheet = sheet;
+			this.output = output;
+			this.progress = progress;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			OutputStream out = output.open(index);
+			try {
+				createCreator(sheet).internalCreate(out, progress);
+			} finally {
+				out.close();
+				progress.done();
+			}
+			return null;
+		}
+	}
+}
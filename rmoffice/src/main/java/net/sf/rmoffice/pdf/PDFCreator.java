@@ -19,7 +19,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
-import java.net.URL;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -648,8 +647,8 @@ public class PDFCreator extends AbstractPDFCreator {
 	}
 
 	private void page3SkillsPage(PdfContentByte canvas, List<ISkill> skills,
-			Map<ISkill, Rank> ranks) {
-		float[] xVal = new float[] {61,260,282,317,352,387,422,457,RIGHT_X - (RIGHT_X - 475)/2 };
+			Map<ISkill, Rank> ranks) throws DocumentException, IOException {
+		final float[] xVal = new float[] {61,260,282,317,352,387,422,457,RIGHT_X - (RIGHT_X - 475)/2 };
 		float lineHeight = 10.5f;
 		/* draw each col */
 		float y = 0;
@@ -718,30 +717,40 @@ public class PDFCreator extends AbstractPDFCreator {
 				y -= lineHeight;
 			}
 		}
-		float y0 = UPPER_Y;
-		float y1 = y + 8f;
-		/* lines */
-		box(canvas, LEFT_X, y0, RIGHT_X, y1);
-		vline(canvas, 265, y0, y1);
-		vline(canvas, 300, y0, y1);
-		vline(canvas, 335, y0, y1);
-		vline(canvas, 370, y0, y1);
-		vline(canvas, 405, y0, y1);
-		vline(canvas, 440, y0, y1);
-		vline(canvas, 475, y0, y1);
+		final float y0 = UPPER_Y;
+		final float y1 = y + 8f;
+		/* lines, the full skill pages have the same height */
+		addStatic(canvas, "page3.grid." + y1, new StaticContent() {
+			@Override
+			public void draw(PdfContentByte template) {
+				box(template, LEFT_X, y0, RIGHT_X, y1);
+				vline(template, 265, y0, y1);
+				vline(template, 300, y0, y1);
+				vline(template, 335, y0, y1);
+				vline(template, 370, y0, y1);
+				vline(template, 405, y0, y1);
+				vline(template, 440, y0, y1);
+				vline(template, 475, y0, y1);
+			}
+		});
 		/* headline */
-		canvas.setFontAndSize(fontBold, 8);
-		canvas.beginText();
-		y0 -= 8.5;
-		canvas.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("pdf.page3.skill"), xVal[0], y0, 0);
-		canvas.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.ranks"), xVal[2], y0, 0);
-		canvas.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.newranks"), xVal[3], y0, 0);
-		canvas.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.rank"), xVal[4], y0, 0);
-		canvas.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.group"), xVal[5], y0, 0);
-		canvas.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.special"), xVal[6], y0, 0);
-		canvas.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.total"), xVal[7], y0, 0);
-		canvas.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.item"), xVal[8], y0, 0);
-		canvas.endText();
+		final float yHead = y0 - 8.5f;
+		addStatic(canvas, "page3.headline", new StaticContent() {
+			@Override
+			public void draw(PdfContentByte template) {
+				template.beginText();
+				template.setFontAndSize(fontBold, 8);
+				template.showTextAligned(Element.ALIGN_LEFT, RESOURCE.getString("pdf.page3.skill"), xVal[0], yHead, 0);
+				template.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.ranks"), xVal[2], yHead, 0);
+				template.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.newranks"), xVal[3], yHead, 0);
+				template.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.rank"), xVal[4], yHead, 0);
+				template.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.group"), xVal[5], yHead, 0);
+				template.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.special"), xVal[6], yHead, 0);
+				template.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.total"), xVal[7], yHead, 0);
+				template.showTextAligned(Element.ALIGN_CENTER, RESOURCE.getString("pdf.page3.bonus.item"), xVal[8], yHead, 0);
+				template.endText();
+			}
+		});
 	}
 
 	private void showTextAligned(PdfContentByte canvas, int alignment, String text, float x, float y) {
@@ -1081,8 +1090,7 @@ public class PDFCreator extends AbstractPDFCreator {
 	}
 
 	protected void page1LogoAndHeader(PdfContentByte canvas) throws BadElementException, MalformedURLException, IOException, DocumentException {
-		URL imageUrl = getClass().getResource( "/images/rmlogo.png" );
-		Image logo = Image.getInstance(imageUrl);
+		Image logo = PDFResources.getImage("/images/rmlogo.png");
 		logo.setAbsolutePosition(328f, 782f);
 		logo.scaleToFit(226, 120);		
 		canvas.addImage(logo, false);
@@ -1391,8 +1399,7 @@ public class PDFCreator extends AbstractPDFCreator {
 				sb.append(sheet.getCharacteristics().isFemale() ? "f" : "m");
 				sb.append(".png");
 
-				URL resUrl = PDFCreator.class.getResource(sb.toString());
-				Image charImage = Image.getInstance(resUrl);
+				Image charImage = PDFResources.getImage(sb.toString());
 				float maxHeight = (y - BOTTOM_Y) * 0.75f;
 				float height = charImage.getHeight(); 
 				float width = charImage.getWidth();
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.pdf;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.itextpdf.text.BadElementException;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.pdf.BaseFont;
+
+/**
+ * The fonts and images shared by all PDF creators. They are parsed once and used by
+ * all documents, also by documents created in parallel. The used glyphs of the subset
+ * fonts are tracked per document by the writer, so the fonts can be shared.
+ */
+/* package private */ final class PDFResources {
+	private static final Logger log = LoggerFactory.getLogger(PDFResources.class);
+
+	private static final ConcurrentMap<String, Image> images = new ConcurrentHashMap<String, Image>();
+	private static Fonts fonts;
+
+	private PDFResources() {
+	}
+
+	/**
+	 *
+	 * @return the shared fonts, not {@code null}
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	static synchronized Fonts getFonts() throws DocumentException, IOException {
+		if (fonts == null) {
+			fonts = new Fonts();
+		}
+		return fonts;
+	}
+
+	/**
+	 * Returns a copy of the image. The image data is parsed once and shared by all copies,
+	 * so the copy may be positioned and scaled.
+	 *
+	 * @param resourcePath the absolute class path resource, e.g. /images/rmlogo.png
+	 * @return the image, not {@code null}
+	 * @throws IOException if the image does not exist
+	 * @throws BadElementException if the image could not be parsed
+	 */
+	static Image getImage(String resourcePath) throws IOException, BadElementException {
+		Image image = images.get(resourcePath);
+		if (image == null) {
+			URL url = PDFResources.class.getResource(resourcePath);
+			if (url == null) {
+				throw new IOException("Image not found: "+resourcePath);
+			}
+			if (log.isDebugEnabled()) log.debug("loading image "+resourcePath);
+			image = Image.getInstance(url);
+			Image existing = images.putIfAbsent(resourcePath, image);
+			if (existing != null) {
+				image = existing;
+			}
+		}
+		return Image.getInstance(image);
+	}
+
+	/**
+	 * The fonts used in the sheets.
+	 */
+	static final class Fonts {
+		final BaseFont headline;
+		final BaseFont regular;
+		final BaseFont bold;
+		final BaseFont user;
+		final BaseFont widget;
+
+		private Fonts() throws DocumentException, IOException {
+			if (log.isDebugEnabled()) log.debug("loading fonts");
+			headline = BaseFont.createFont("fonts/TrajanPro-Regular.otf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+			headline.setSubset(true);
+			regular = BaseFont.createFont("fonts/ACaslonPro-Regular.otf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+			regular.setSubset(true);
+			bold = BaseFont.createFont("fonts/ACaslonPro-Bold.otf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+			bold.setSubset(true);
+			user = BaseFont.createFont("fonts/LiberationSans-Italic.ttf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+			user.setSubset(true);
+			widget = BaseFont.createFont( BaseFont.ZAPFDINGBATS, BaseFont.WINANSI, false );
+		}
+	}
+}
@@ -25,22 +25,21 @@ import java.awt.Insets;
 import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.net.URI;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.event.TreeSelectionEvent;
@@ -67,7 +66,6 @@ import net.sf.rmoffice.RMOffice;
 import net.sf.rmoffice.RMPreferences;
 import net.sf.rmoffice.core.Characteristics;
 import net.sf.rmoffice.core.Coins;
-import net.sf.rmoffice.core.ExportImport;
 import net.sf.rmoffice.core.RMLevelUp;
 import net.sf.rmoffice.core.RMSheet;
 import net.sf.rmoffice.core.RMSheet.State;
@@ -76,6 +74,7 @@ import net.sf.rmoffice.core.items.MagicalItem;
 import net.sf.rmoffice.meta.ISkill;
 import net.sf.rmoffice.meta.MetaData;
 import net.sf.rmoffice.meta.SkillCategory;
+import net.sf.rmoffice.meta.SkillSearchIndex;
 import net.sf.rmoffice.pdf.PDFVersion;
 import net.sf.rmoffice.ui.actions.CharacterCharacteristicsAction;
 import net.sf.rmoffice.ui.actions.CharacterGeneratorAction;
@@ -136,6 +135,10 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
     private File currentFile;
     private SkillTreeNode skillSelectionRootNode;
     private JTree skillsSelectionTree;
+    private JTextField tfSkillFilter;
+    private SkillSearchIndex.Incremental skillSearch;
+    /* the skills of the selection tree by category, before the filter */
+    private final Map<SkillCategory, List<ISkill>> selectableSkills = new LinkedHashMap<SkillCategory, List<ISkill>>();
     private JTextArea taSkillDescription;
     private TodoPanel toDoPanel;
 
@@ -150,6 +153,7 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
     private JMenu newLatestVersionMenu;
     private LongRunningUIModel longRunAdapter;
     private ProgressGlassPane glassPane;
+    private SheetFileService fileService;
 
     /**
      *
@@ -183,6 +187,8 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
 
     public void init(MetaData data) {
         this.data = data;
+        fileService = new SheetFileService(data, longRunAdapter);
+        skillSearch = new SkillSearchIndex.Incremental(new SkillSearchIndex(data.getSkills(), Locale.getDefault()));
         createCleanRMSheet();
 
         initMenu();
@@ -342,6 +348,23 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
     private Component initSkillsPanel() {
         skillSelectionRootNode = new SkillTreeNode();
         skillsSelectionTree = new JTree(skillSelectionRootNode);
+        tfSkillFilter = new JTextField();
+        tfSkillFilter.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateSkillSelectionFilter();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateSkillSelectionFilter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateSkillSelectionFilter();
+            }
+        });
         skillsSelectionTree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
         skillsSelectionTree.setEditable(false);
         skillsSelectionTree.getSelectionModel().addTreeSelectionListener(new TreeSelectionListener() {
@@ -493,7 +516,13 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
 
 
         leftPanel.add(new JScrollPane(taSkillDescription), BorderLayout.NORTH);
-        leftPanel.add(treechoserPane, BorderLayout.CENTER);
+        JPanel filterPanel = new JPanel(new BorderLayout());
+        filterPanel.add(new JLabel(RESOURCE.getString("ui.skills.filter") + " "), BorderLayout.WEST);
+        filterPanel.add(tfSkillFilter, BorderLayout.CENTER);
+        JPanel treePanel = new JPanel(new BorderLayout());
+        treePanel.add(filterPanel, BorderLayout.NORTH);
+        treePanel.add(treechoserPane, BorderLayout.CENTER);
+        leftPanel.add(treePanel, BorderLayout.CENTER);
         final SearchableBar searchableBar = new SearchableBar(searchable, true);
         int visibleBt = SearchableBar.SHOW_NAVIGATION | SearchableBar.SHOW_STATUS;
         searchableBar.setVisibleButtons(visibleBt);
@@ -513,12 +542,9 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
 
     private void createSkillSelectionData(SkillTreeNode rootNode) {
         /* prepare groups as folders */
-        Map<SkillCategory, SkillTreeNode> folders = new HashMap<SkillCategory, SkillTreeNode>();
+        selectableSkills.clear();
         for (SkillCategory group : data.getSkillCategories()) {
-            SkillTreeNode node = new SkillTreeNode();
-            node.setUserObject(group);
-            rootNode.add(node);
-            folders.put(group, node);
+            selectableSkills.put(group, new ArrayList<ISkill>());
         }
         /* add skills */
         if (sheet.getRace() != null) {
@@ -531,14 +557,48 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
                                         && !RMPreferences.getInstance().isExcludedSkillId(skill.getId())
                         )
                 ) {
+                    List<ISkill> skills = selectableSkills.get(sheet.getSkillcategory(skill));
+                    if (skills != null) {
+                        skills.add(skill);
+                    }
+                }
+            }
+        }
+        addSkillSelectionNodes(rootNode, skillSearch.update(tfSkillFilter.getText()));
+    }
+
+    /* filters the prepared skills without scanning the meta data again */
+    private void addSkillSelectionNodes(SkillTreeNode rootNode, BitSet filter) {
+        SkillSearchIndex index = skillSearch.getIndex();
+        for (Map.Entry<SkillCategory, List<ISkill>> entry : selectableSkills.entrySet()) {
+            SkillTreeNode node = new SkillTreeNode();
+            node.setUserObject(entry.getKey());
+            for (ISkill skill : entry.getValue()) {
+                int position = index.indexOf(skill);
+                if (filter == null || position >= 0 && filter.get(position)) {
                     SkillTreeNode skillnode = new SkillTreeNode();
                     skillnode.setUserObject(skill);
-                    SkillTreeNode parentNode = folders.get(sheet.getSkillcategory(skill));
-                    if (parentNode != null) {
-                        parentNode.add(skillnode);
-                    }
+                    node.add(skillnode);
                 }
             }
+            /* without filter the empty categories are shown, too */
+            if (filter == null || node.getChildCount() > 0) {
+                rootNode.add(node);
+            }
+        }
+    }
+
+    private void updateSkillSelectionFilter() {
+        BitSet filter = skillSearch.update(tfSkillFilter.getText());
+        skillSelectionRootNode.removeAllChildren();
+        addSkillSelectionNodes(skillSelectionRootNode, filter);
+        DefaultTreeModel model = (DefaultTreeModel) skillsSelectionTree.getModel();
+        model.setRoot(skillSelectionRootNode);
+        if (filter != null) {
+            /* expanding a category inserts its skills as rows */
+            for (int row = 0; row < skillsSelectionTree.getRowCount(); row++) {
+                skillsSelectionTree.expandRow(row);
+            }
         }
     }
 
@@ -593,6 +653,7 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
         menuNew.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                fileService.stopJournal();
                 if (sheet != null) {
                     sheet.dispose();
                 }
@@ -617,66 +678,56 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
 
             @Override
             public void actionPerformed(ActionEvent e) {
-                Reader freader = null;
-                InputStream in = null;
-                try {
-                    JFileChooser fch = new JFileChooser(RMPreferences.getInstance().getLastDir());
-                    fch.setAcceptAllFileFilterUsed(false);
-                    fch.setFileFilter(new RMOFileFilter());
-                    int result = fch.showOpenDialog(RMFrame.this);
-                    if (JFileChooser.APPROVE_OPTION == result) {
-                        if (sheet != null) {
-                            removePropertyChangeListener();
-                        }
-                        File selectedFile = fch.getSelectedFile();
-                        RMPreferences.getInstance().setLastDir(selectedFile.getParentFile());
-                        in = new FileInputStream(selectedFile);
-                        freader = new BufferedReader(new InputStreamReader(in, ExportImport.ENCODING));
-                        sheet = ExportImport.importFile(selectedFile);
-                        sheet.fixBackwardCompatibilities();
-                        sheet.setMetaData(data);
-                        if (validateExclusions(sheet)) {
-                            updateAdapters();
-                            setCurrentFile(selectedFile);
-                            RMFrame.this.setTitle(selectedFile.getName());
-                            initPropertyChangeListener();
-                            toDoPanel.setSheet(sheet);
-                            sheet.init();
-                            if (refreshing) return;
-                            refreshing = true;
-                            skillModel.setSheet(sheet);
-                            skillcatModel.setSheet(sheet);
-                            if (RMSheet.State.NORMAL.equals(sheet.getState())) {
-                                sheet2ui();
+                JFileChooser fch = new JFileChooser(RMPreferences.getInstance().getLastDir());
+                fch.setAcceptAllFileFilterUsed(false);
+                fch.setFileFilter(new RMOFileFilter());
+                int result = fch.showOpenDialog(RMFrame.this);
+                if (JFileChooser.APPROVE_OPTION == result) {
+                    final File selectedFile = fch.getSelectedFile();
+                    RMPreferences.getInstance().setLastDir(selectedFile.getParentFile());
+                    /* the file is parsed in the background, the adapters are bound to the new sheet afterwards */
+                    fileService.open(selectedFile, new SheetFileService.Callback<RMSheet>() {
+                        @Override
+                        public void done(RMSheet openedSheet) {
+                            if (validateExclusions(openedSheet)) {
+                                bindOpenedSheet(openedSheet, selectedFile);
                             }
-                        } else {
-                            sheet = null;
                         }
+
+                        @Override
+                        public void failed(Exception ex) {
+                            if (log.isDebugEnabled()) log.debug("Exception while opening file: ", ex);
+                            JOptionPane.showMessageDialog(RMFrame.this, RESOURCE.getString("error.file.open") + ex.getClass().getName() + ":" + ex.getLocalizedMessage());
+                        }
+                    });
+                }
+            }
+
+            private void bindOpenedSheet(RMSheet openedSheet, File selectedFile) {
+                try {
+                    if (sheet != null) {
+                        removePropertyChangeListener();
+                    }
+                    sheet = openedSheet;
+                    updateAdapters();
+                    setCurrentFile(selectedFile);
+                    RMFrame.this.setTitle(selectedFile.getName());
+                    initPropertyChangeListener();
+                    toDoPanel.setSheet(sheet);
+                    sheet.init();
+                    fileService.startJournal(selectedFile, sheet);
+                    if (refreshing) return;
+                    refreshing = true;
+                    skillModel.setSheet(sheet);
+                    skillcatModel.setSheet(sheet);
+                    if (RMSheet.State.NORMAL.equals(sheet.getState())) {
+                        sheet2ui();
                     }
                 } catch (Exception ex) {
                     if (log.isDebugEnabled()) log.debug("Exception while opening file: ", ex);
                     JOptionPane.showMessageDialog(RMFrame.this, RESOURCE.getString("error.file.open") + ex.getClass().getName() + ":" + ex.getLocalizedMessage());
                 } finally {
                     refreshing = false;
-                    if (in != null) {
-                        try {
-                            if (log.isDebugEnabled()) log.debug("closing opened file");
-                            in.close();
-                        } catch (IOException ex) {
-                            JOptionPane.showConfirmDialog(RMFrame.this, ex.getClass().getName() + ":" + ex.getLocalizedMessage());
-                            log.error("ignoring Exception while closing the file stream " + ex.getClass().getName() + ":" + ex.getLocalizedMessage());
-                        }
-                    }
-                    try {
-                        if (freader != null) {
-                            if (log.isDebugEnabled()) log.debug("closing input reader");
-                            freader.close();
-                        }
-                    } catch (Exception ex) {
-                        JOptionPane.showConfirmDialog(RMFrame.this, ex.getClass().getName() + ":" + ex.getLocalizedMessage());
-                        if (log.isDebugEnabled())
-                            log.debug("ignoring Exception while closing file reader " + ex.getClass().getName() + ":" + ex.getLocalizedMessage());
-                    }
                 }
             }
 
@@ -719,14 +770,14 @@ public class RMFrame extends JFrame implements PropertyChangeListener {
         /* -------- SAVE --------- */
         JMenuItem menuSave = new JMenuItem(RESOURCE.getString("ui.menu.save"), UIConstants.ICON_SAVE);
         menuSave.setEnabled(false);
-        SaveAction saveAction = new SaveAction(this, getRMSheetAdapter());
+        SaveAction saveAction = new SaveAction(this, getRMSheetAdapter(), fileService);
         menuSave.addActionListener(saveAction);
         menuSave.setAccelerator( KeyStroke.getKeyStroke(KeyEvent.VK_S, InputEvent.CTRL_DOWN_MASK));
         file.add(menuSave);
         Bindings.bind(menuSave, "enabled", enableMenuSaveValueHolder);
         /* -------- SAVE  AS --------- */
         JMenuItem menuSaveAs = new JMenuItem(RESOURCE.getString("ui.menu.saveas"), UIConstants.ICON_SAVE_AS);
-        SaveAsAction saveAsAction = new SaveAsAction(this, getRMSheetAdapter());
+        SaveAsAction saveAsAction = new SaveAsAction(this, getRMSheetAdapter(), fileService);
         menuSaveAs.addActionListener(saveAsAction);
         file.add(menuSaveAs);
 
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.ui;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.SwingUtilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.rmoffice.core.ExportImport;
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.core.SheetJournal;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.ui.models.LongRunningUIModel;
+
+
+/**
+ * Opens and saves the character files on a background thread. The progress is shown
+ * with the {@link LongRunningUIModel}, it blocks the input while the file is read or
+ * written. The {@link Callback} is called on the event dispatch thread when the file
+ * is done. The changes of the opened or saved sheet are recorded in its
+ * {@link SheetJournal}, which is written by the same thread.
+ */
+public class SheetFileService {
+    private final static Logger log = LoggerFactory.getLogger(SheetFileService.class);
+    /* open the file, done */
+    private static final int STEPS = 2;
+
+    private final MetaData data;
+    private final LongRunningUIModel longRunningModel;
+    /* the journal of the current sheet, null if it was not saved yet */
+    private volatile SheetJournal journal;
+    /* one thread, so the files and the journal are written in the order they were saved */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "sheet io thread");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /**
+     * The result of {@link SheetFileService#open(File, Callback)} or {@link SheetFileService#save(File, RMSheet, Callback)}.
+     */
+    public interface Callback<T> {
+        /**
+         * Called on the event dispatch thread.
+         *
+         * @param result the result
+         */
+        void done(T result);
+
+        /**
+         * Called on the event dispatch thread.
+         *
+         * @param e the exception while reading or writing the file
+         */
+        void failed(Exception e);
+    }
+
+    /**
+     * @param data the {@link MetaData}
+     * @param longRunningModel the progress model
+     */
+    public SheetFileService(MetaData data, LongRunningUIModel longRunningModel) {
+        this.data = data;
+        this.longRunningModel = longRunningModel;
+    }
+
+    /**
+     * Reads the sheet from the file and replays its journal. The sheet has the {@link MetaData}
+     * but is not initialized, there are no listeners and adapters yet.
+     *
+     * @param file the file
+     * @param callback gets the sheet
+     */
+    public void open(final File file, final Callback<RMSheet> callback) {
+        longRunningModel.startProgress(STEPS);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    longRunningModel.workDone(1, file.getName());
+                    RMSheet sheet = ExportImport.importFile(file);
+                    int records = SheetJournal.replay(sheet, SheetJournal.getJournalFile(file));
+                    if (records > 0 && log.isInfoEnabled()) log.info("recovered " + records + " changes of " + file.getName());
+                    sheet.fixBackwardCompatibilities();
+                    sheet.setMetaData(data);
+                    if (log.isDebugEnabled()) log.debug("opened " + file.getAbsolutePath());
+                    done(callback, sheet);
+                } catch (Exception e) {
+                    failed(callback, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes the sheet to the file, see {@link ExportImport#exportFile(File, RMSheet)}. The
+     * sheet is exported on the calling thread, the event dispatch thread, so the file
+     * has the sheet as it was saved even if it is changed while the file is written.
+     *
+     * @param file the file
+     * @param sheet the sheet
+     * @param callback gets the file
+     */
+    public void save(final File file, final RMSheet sheet, final Callback<File> callback) {
+        longRunningModel.startProgress(STEPS);
+        final byte[] content;
+        try {
+            content = ExportImport.exportBytes(file.getName(), sheet);
+        } catch (Exception e) {
+            failed(callback, e);
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    longRunningModel.workDone(1, file.getName());
+                    ExportImport.writeFile(file, content);
+                    if (journal != null && journal.getSheet() == sheet) {
+                        journal.saved(file);
+                    }
+                    if (log.isDebugEnabled()) log.debug("saved " + file.getAbsolutePath());
+                    done(callback, file);
+                } catch (Exception e) {
+                    failed(callback, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts the journal of the sheet, after it was opened or saved and is initialized.
+     * The journal of the previous sheet is closed.
+     *
+     * @param file the file of the sheet
+     * @param sheet the sheet
+     */
+    public void startJournal(File file, RMSheet sheet) {
+        if (journal != null && journal.getSheet() == sheet) {
+            /* still recording, e.g. saved as another file */
+            return;
+        }
+        stopJournal();
+        journal = new SheetJournal(file, sheet, executor);
+        journal.start();
+    }
+
+    /**
+     * Closes the journal of the current sheet, e.g. before a new sheet is created.
+     */
+    public void stopJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private <T> void done(final Callback<T> callback, final T result) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                longRunningModel.done();
+                callback.done(result);
+            }
+        });
+    }
+
+    private <T> void failed(final Callback<T> callback, final Exception e) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                longRunningModel.done();
+                callback.failed(e);
+            }
+        });
+    }
+}
@@ -84,36 +84,42 @@ public class CharacterGeneratorAction implements ActionListener {
 						longRunningModel.startProgress(7 + 2 * (int)level);
 						stepDone("ui.basic.charactername");
 						if (log.isInfoEnabled()) log.info("generating all missing information of this character");
-						final CharacterGenerator gen = new CharacterGenerator(characteristicsAdapter, adapter, data);
-						/* generate the character name  */
-						if (StringUtils.isEmpty(adapter.getBean().getCharacterName())) {
-							gen.generateName();
-						}
-						stepDone("ui.tab.stats");
-						/* stats */
-						gen.distributeStats();
-						stepDone("ui.tab.stats");
-						gen.generatePotStats();
-						stepDone("ui.tab.characteristics");
-						gen.generateCharacteristics();
-						stepDone("ui.generatecharacter.generate.prepare");
-						/* level ups */
-						gen.levelUpPrepare();
-						stepDone("ui.generatecharacter.generate.hobby");
-						gen.levelUpHobbyAndLanguages();
-						String lvlMsg = MessageFormat.format(RESOURCE.getString("ui.generatecharacter.generate.level"), Integer.valueOf(1));
-						stepDone(lvlMsg);
-						for (long lvl=1; lvl <= level; lvl++) {
-							lvlMsg = MessageFormat.format(RESOURCE.getString("ui.generatecharacter.generate.level"), Long.valueOf(lvl));
-							gen.doStatGains();
-							stepDone(lvlMsg);
-							gen.levelUpSkillsAndCategories(lvl);
-							if (lvl == level) {
-								lvlMsg = "ui.generatecharacter.generate.finish";
+						/* the UI is refreshed once after the generation */
+						adapter.getBean().beginBatch();
+						try {
+							final CharacterGenerator gen = new CharacterGenerator(characteristicsAdapter, adapter, data);
+							/* generate the character name  */
+							if (StringUtils.isEmpty(adapter.getBean().getCharacterName())) {
+								gen.generateName();
 							}
+							stepDone("ui.tab.stats");
+							/* stats */
+							gen.distributeStats();
+							stepDone("ui.tab.stats");
+							gen.generatePotStats();
+							stepDone("ui.tab.characteristics");
+							gen.generateCharacteristics();
+							stepDone("ui.generatecharacter.generate.prepare");
+							/* level ups */
+							gen.levelUpPrepare();
+							stepDone("ui.generatecharacter.generate.hobby");
+							gen.levelUpHobbyAndLanguages();
+							String lvlMsg = MessageFormat.format(RESOURCE.getString("ui.generatecharacter.generate.level"), Integer.valueOf(1));
 							stepDone(lvlMsg);
+							for (long lvl=1; lvl <= level; lvl++) {
+								lvlMsg = MessageFormat.format(RESOURCE.getString("ui.generatecharacter.generate.level"), Long.valueOf(lvl));
+								gen.doStatGains();
+								stepDone(lvlMsg);
+								gen.levelUpSkillsAndCategories(lvl);
+								if (lvl == level) {
+									lvlMsg = "ui.generatecharacter.generate.finish";
+								}
+								stepDone(lvlMsg);
+							}
+							gen.levelUpFinish();
+						} finally {
+							adapter.getBean().commitBatch();
 						}
-						gen.levelUpFinish();
 						SwingUtilities.invokeAndWait(new Runnable() {
 							@Override
 							public void run() {
@@ -18,21 +18,16 @@ package net.sf.rmoffice.ui.actions;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ResourceBundle;
 
 import javax.swing.JOptionPane;
 
 import com.jgoodies.binding.beans.BeanAdapter;
 
-import net.sf.rmoffice.core.ExportImport;
 import net.sf.rmoffice.core.RMSheet;
 import net.sf.rmoffice.ui.RMFrame;
+import net.sf.rmoffice.ui.SheetFileService;
 
 
 /**
@@ -43,14 +38,17 @@ public class SaveAction implements ActionListener {
 
     private final RMFrame rmFrame;
     private final BeanAdapter<RMSheet> beanAdapter;
+    private final SheetFileService fileService;
 
     /**
      * @param rmFrame
      * @param beanAdapter
+     * @param fileService writes the file in the background
      */
-    public SaveAction(RMFrame rmFrame, BeanAdapter<RMSheet> beanAdapter) {
+    public SaveAction(RMFrame rmFrame, BeanAdapter<RMSheet> beanAdapter, SheetFileService fileService) {
         this.rmFrame = rmFrame;
         this.beanAdapter = beanAdapter;
+        this.fileService = fileService;
     }
 
     /**
@@ -60,31 +58,17 @@ public class SaveAction implements ActionListener {
     public void actionPerformed(ActionEvent e) {
         if (rmFrame.getCurrentFile() != null) {
             if (rmFrame.getCurrentFile().canWrite()) {
-                try {
-                    File bakFile = new File(rmFrame.getCurrentFile().getAbsolutePath() + "." + System.currentTimeMillis() + ".bak");
-                    if (rmFrame.getCurrentFile().renameTo(bakFile)) {
-                        if (rmFrame.getCurrentFile().createNewFile()) {
-                            Writer fwriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(rmFrame.getCurrentFile()), ExportImport.ENCODING));
-                            ExportImport.exportFile(
-                                    rmFrame.getCurrentFile().getName(),
-                                    beanAdapter.getBean(),
-                                    fwriter
-                            );
-                            fwriter.close();
-                            /* if saving was successful, we delete the bak file */
-                            if (!bakFile.delete()) {
-                                bakFile.deleteOnExit();
-                            }
-                        } else {
-                            JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.couldNotCreate"));
-                        }
-                    } else {
-                        /* rename the temp file to current file */
-                        JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.save.renameTemp") + "\n" + bakFile.getName());
+                fileService.save(rmFrame.getCurrentFile(), beanAdapter.getBean(), new SheetFileService.Callback<File>() {
+                    @Override
+                    public void done(File result) {
+                        /* nothing to update */
                     }
-                } catch (IOException e1) {
-                    JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.save") + ": " + e1.getLocalizedMessage());
-                }
+
+                    @Override
+                    public void failed(Exception e1) {
+                        JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.save") + ": " + e1.getLocalizedMessage());
+                    }
+                });
             } else {
                 JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.notwriteable"));
             }
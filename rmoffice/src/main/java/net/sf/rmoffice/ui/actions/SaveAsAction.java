@@ -18,11 +18,7 @@ package net.sf.rmoffice.ui.actions;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ResourceBundle;
 
 import javax.swing.JFileChooser;
@@ -32,6 +28,7 @@ import net.sf.rmoffice.RMPreferences;
 import net.sf.rmoffice.core.ExportImport;
 import net.sf.rmoffice.core.RMSheet;
 import net.sf.rmoffice.ui.RMFrame;
+import net.sf.rmoffice.ui.SheetFileService;
 import net.sf.rmoffice.util.RMOFileFilter;
 
 import com.jgoodies.binding.beans.BeanAdapter;
@@ -45,14 +42,17 @@ public class SaveAsAction implements ActionListener {
 
     private final RMFrame rmFrame;
     private final BeanAdapter<RMSheet> beanAdapter;
+    private final SheetFileService fileService;
 
     /**
      * @param rmFrame
      * @param beanAdapter
+     * @param fileService writes the file in the background
      */
-    public SaveAsAction(RMFrame rmFrame, BeanAdapter<RMSheet> beanAdapter) {
+    public SaveAsAction(RMFrame rmFrame, BeanAdapter<RMSheet> beanAdapter, SheetFileService fileService) {
         this.rmFrame = rmFrame;
         this.beanAdapter = beanAdapter;
+        this.fileService = fileService;
     }
 
     /**
@@ -75,28 +75,27 @@ public class SaveAsAction implements ActionListener {
                 if (selectedFile.exists()) {
                     if (JFileChooser.APPROVE_OPTION != JOptionPane.showConfirmDialog(rmFrame, RESOURCE.getString("warning.file.overwrite"))) {
                         doIt = false;
-                    }
-                } else {
-                    if (!selectedFile.createNewFile()) {
-                        JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.couldNotCreate"));
-                        doIt = true;
+                    } else if (!selectedFile.canWrite()) {
+                        JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.notwriteable"));
+                        doIt = false;
                     }
                 }
                 if (doIt) {
-                    if (selectedFile.canWrite()) {
-                        Writer fwriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(selectedFile), ExportImport.ENCODING));
-                        ExportImport.exportFile(
-                                selectedFile.getName(),
-                                beanAdapter.getBean(),
-                                fwriter
-                        );
-                        fwriter.close();
-                        RMPreferences.getInstance().setLastDir(selectedFile.getParentFile());
-                        rmFrame.setCurrentFile(selectedFile);
-                        rmFrame.setTitle(selectedFile.getName());
-                    } else {
-                        JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.notwriteable"));
-                    }
+                    /* the file is created by the atomic rename of the written temporary file */
+                    fileService.save(selectedFile, beanAdapter.getBean(), new SheetFileService.Callback<File>() {
+                        @Override
+                        public void done(File result) {
+                            RMPreferences.getInstance().setLastDir(result.getParentFile());
+                            rmFrame.setCurrentFile(result);
+                            rmFrame.setTitle(result.getName());
+                            fileService.startJournal(result, beanAdapter.getBean());
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                            JOptionPane.showMessageDialog(rmFrame, RESOURCE.getString("error.file.save") + ": " + ex.getLocalizedMessage());
+                        }
+                    });
                 }
             }
         } catch (Exception ex) {
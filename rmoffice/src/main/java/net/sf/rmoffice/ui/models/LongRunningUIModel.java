@@ -26,6 +26,8 @@ import org.slf4j.LoggerFactory;
  */
 public class LongRunningUIModel {
 	private final static Logger log = LoggerFactory.getLogger(LongRunningUIModel.class);
+	/** the steps of one job in {@link #startJobs(int)} */
+	private static final int JOB_STEPS = 100;
 	private int steps = 0;
 	private int stepsDone = 0;
 	private final ProgressGlassPane glassPane;
@@ -37,7 +39,7 @@ public class LongRunningUIModel {
 		this.glassPane = glassPane;
 	}
 
-	public void startProgress(int steps) {
+	public synchronized void startProgress(int steps) {
 		glassPane.setVisible(true);
 		this.steps = steps;
 		this.stepsDone = 0;
@@ -49,7 +51,7 @@ public class LongRunningUIModel {
 	 * @param stepsDone
 	 * @param nextStep a resource key or a string
 	 */
-	public void workDone(int stepsDone, String nextStep) {
+	public synchronized void workDone(int stepsDone, String nextStep) {
 		this.stepsDone += stepsDone;
 		int progress = (int) (((float)this.stepsDone / (float)steps) * 100f);
 		if (log.isDebugEnabled()) log.debug("percent = "+progress + " next step="+nextStep);
@@ -64,4 +66,63 @@ public class LongRunningUIModel {
 		glassPane.setVisible(false);
 	}
 	
+	/**
+	 * Starts the progress of several jobs running in parallel. Each job reports its
+	 * progress through its own {@link JobModel}.
+	 * 
+	 * @param jobs the number of jobs
+	 */
+	public void startJobs(int jobs) {
+		startProgress(jobs * JOB_STEPS);
+	}
+	
+	/**
+	 * The progress model of one job started with {@link #startJobs(int)}. The job reports
+	 * its own steps, they are scaled to its share of the overall progress. {@link #done()}
+	 * finishes the job only.
+	 */
+	public static class JobModel extends LongRunningUIModel {
+		private final LongRunningUIModel batch;
+		private int jobSteps = 0;
+		private int jobStepsDone = 0;
+		private int reported = 0;
+		private String lastStep = "";
+		
+		/**
+		 * @param batch the model of all jobs, {@code null} to ignore the progress
+		 */
+		public JobModel(LongRunningUIModel batch) {
+			super(batch == null ? null : batch.glassPane);
+			this.batch = batch;
+		}
+		
+		@Override
+		public synchronized void startProgress(int steps) {
+			this.jobSteps = steps;
+			this.jobStepsDone = 0;
+		}
+		
+		@Override
+		public synchronized void workDone(int stepsDone, String nextStep) {
+			jobStepsDone += stepsDone;
+			int progress = jobSteps > 0 ? Math.min(JOB_STEPS, jobStepsDone * JOB_STEPS / jobSteps) : 0;
+			report(progress, nextStep);
+		}
+		
+		@Override
+		public synchronized void done() {
+			report(JOB_STEPS, lastStep);
+		}
+		
+		private void report(int progress, String nextStep) {
+			lastStep = nextStep;
+			int diff = progress - reported;
+			if (diff > 0) {
+				reported = progress;
+				if (batch != null) {
+					batch.workDone(diff, nextStep);
+				}
+			}
+		}
+	}
 }
@@ -16,17 +16,17 @@
 package net.sf.rmoffice.ui.models;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.ResourceBundle;
-import java.util.Vector;
 
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 
 import net.sf.rmoffice.LevelUpVetoException;
 import net.sf.rmoffice.core.RMSheet;
 import net.sf.rmoffice.core.Rank;
-import net.sf.rmoffice.meta.INamed;
 import net.sf.rmoffice.meta.ISkill;
 import net.sf.rmoffice.meta.Skillcost;
 import net.sf.rmoffice.meta.enums.SkillType;
@@ -37,9 +37,11 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * 
+ * The skills of the sheet. The cell values are calculated when they are read the first
+ * time and are kept until the skill values of the sheet have changed. Only the rows with
+ * changed values are updated then.
  */
-public class SkillsTableModel extends DefaultTableModel implements IOverlaySupportable {
+public class SkillsTableModel extends AbstractTableModel implements IOverlaySupportable {
 	private static final long serialVersionUID = 1L;
 	private final static Logger log = LoggerFactory.getLogger(SkillsTableModel.class);
 	private static final ResourceBundle RESOURCE = ResourceBundle.getBundle("conf.i18n.locale"); //$NON-NLS-1$
@@ -58,8 +60,27 @@ public class SkillsTableModel extends DefaultTableModel implements IOverlaySuppo
 	public static final int COL_TOTAL_BONUS = 9;
 	public static final int COL_ITEM_BONUS = 10;
 
+	/* marks a cell value that was not calculated, yet */
+	private static final Object NOT_CALCULATED = new Object();
+
+	private static final Comparator<Row> ROW_COMPARATOR = new Comparator<Row>() {
+		@Override
+		public int compare(Row r1, Row r2) {
+			ISkill sk1 = r1.skill;
+			ISkill sk2 = r2.skill;
+			if (! sk1.isSpelllist() && sk2.isSpelllist()) {
+				return -1;
+			}
+			if (sk1.isSpelllist() && ! sk2.isSpelllist()) {
+				return 1;
+			}
+			return sk1.getName().compareTo(sk2.getName());
+		}
+	};
+
 	private String[] columNames;
 	private RMSheet sheet;
+	private final List<Row> rows = new ArrayList<Row>();
 
 	/**
 	 * 
@@ -79,6 +100,12 @@ public class SkillsTableModel extends DefaultTableModel implements IOverlaySuppo
 				};
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public int getRowCount() {
+		return rows.size();
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public int getColumnCount() {
@@ -119,33 +146,66 @@ public class SkillsTableModel extends DefaultTableModel implements IOverlaySuppo
 
 	public void setSheet(RMSheet sheet) {
 		this.sheet = sheet;
-		for (int i = getRowCount() - 1; i >= 0; i--) {
-			super.removeRow(i);
-		}
+		rows.clear();
+		fireTableDataChanged();
 	}
 	
 	public ISkill getSkillAtRow(int row) {
-		return (ISkill)super.getValueAt(row, COL_SKILL);
+		return rows.get(row).skill;
 	}
 	
 	/** {@inheritDoc} */
 	@Override
 	public Object getValueAt(int row, int column) {
+		Row r = rows.get(row);
 		if (column == COL_SKILL) {
-			INamed skill = (INamed)super.getValueAt(row, column);
-			if (skill != null) {
-				return skill.getName();
-			} else {
-				return "";
+			return r.skill.getName();
+		}
+		Object value = r.values[column];
+		if (value == NOT_CALCULATED) {
+			value = calculateValue(r.skill, column);
+			r.values[column] = value;
+		}
+		return value;
+	}
+
+	private Object calculateValue(ISkill skill, int column) {
+		switch (column) {
+		case COL_ORDERGROUP:
+			return skill.getOrderGroup();
+		case COL_SKILLGROUP:
+			return sheet.getSkillcategory(skill).getName();
+		case COL_FAVORITE:
+			return sheet.getSkillRank(skill).getFavorite();
+		case COL_RANK:
+			BigDecimal rank = sheet.getSkillRank(skill).getRank();
+			return Double.valueOf(rank == null ? 0 : rank.doubleValue());
+		case COL_RANK_TYPE:
+			return RESOURCE.getString("SkillType."+sheet.getSkillType(skill).name());
+		case COL_COST:
+			if (sheet.getProfession() != null) {
+				return sheet.getSkillcost(skill);
 			}
+			return RESOURCE.getString("pdf.rank.notavailable.short");
+		case COL_SPECIAL2_BONUS:
+			/* talents, flaw special bonus */
+			return Integer.valueOf(sheet.getSkillSpecialBonus(skill));
+		case COL_SPECIAL_BONUS:
+			Integer specialBonus = sheet.getSkillRank(skill).getSpecialBonus();
+			return specialBonus == null ? Integer.valueOf(0) : specialBonus;
+		case COL_TOTAL_BONUS:
+			return Integer.valueOf(sheet.getSkillTotalBonus(skill));
+		case COL_ITEM_BONUS:
+			return sheet.getSkillItemBonus(skill);
+		default:
+			return null;
 		}
-		return super.getValueAt(row, column);
 	}
 	
 	/** {@inheritDoc} */
 	@Override
 	public void setValueAt(Object aValue, int row, int column) {
-		ISkill skill = (ISkill) super.getValueAt(row, COL_SKILL);			
+		ISkill skill = getSkillAtRow(row);
 		if (column == COL_RANK) {
 			try {
 				if (aValue instanceof Double) {
@@ -153,33 +213,26 @@ public class SkillsTableModel extends DefaultTableModel implements IOverlaySuppo
 				} else {
 					sheet.setSkillRank(skill, BigDecimal.valueOf(0));
 				}
-				super.setValueAt(Integer.valueOf(sheet.getSkillTotalBonus(skill)), row, COL_TOTAL_BONUS);
 			} catch (LevelUpVetoException e) {
 				if (log.isDebugEnabled()) log.debug(e.getMessage());
 			}
 		} else if (column == COL_FAVORITE) {
-			Rank skillRank = sheet.getSkillRank(skill);
-			Boolean favVal = Boolean.valueOf(aValue instanceof Boolean && ((Boolean) aValue).booleanValue());
-			skillRank.setFavorite(favVal);
-			super.setValueAt(aValue, row, column);
+			sheet.setSkillFavorite(skill, aValue instanceof Boolean && ((Boolean) aValue).booleanValue());
 		} else if (column == COL_SPECIAL_BONUS) {
 			if (aValue instanceof Integer) {
 				sheet.setSkillSpecialBonus(skill, ((Integer) aValue).intValue());
 			} else {
 				sheet.setSkillSpecialBonus(skill, 0);
 			}
-			super.setValueAt(aValue, row, column);
 		} else if (column == COL_ORDERGROUP) {
 			if (aValue instanceof Integer) {
 				skill.setOrderGroup((Integer) aValue);
 			} else {
 				skill.setOrderGroup(null);
 			}
-			super.setValueAt(aValue, row, column);
-		} else {
-			super.setValueAt(aValue, row, column);
 		}
-		super.setValueAt(Integer.valueOf(sheet.getSkillTotalBonus(skill)), row, COL_TOTAL_BONUS);
+		rows.get(row).invalidate();
+		fireTableRowsUpdated(row, row);
 	}
 
 	/**
@@ -202,104 +255,55 @@ public class SkillsTableModel extends DefaultTableModel implements IOverlaySuppo
 				log.error(e.getMessage(), e);
 			}
 		}
-		/* add to model */
-		Object[] rowData = new Object[columNames.length];
-		rowData[COL_ORDERGROUP] = skill.getOrderGroup();
-		rowData[COL_SKILL] = skill;
-		rowData[COL_SKILLGROUP] = sheet.getSkillcategory(skill).getName();
-		rowData[COL_FAVORITE] = sheet.getSkillRank(skill).getFavorite();
-		BigDecimal rank = sheet.getSkillRank(skill).getRank();
-		if (rank != null) {
-			rowData[COL_RANK] = Double.valueOf(sheet.getSkillRank(skill).getRank().doubleValue());
-		} else {
-			rowData[COL_RANK] = Double.valueOf(0);
-		}
-		rowData[COL_RANK_TYPE] = RESOURCE.getString("SkillType."+sheet.getSkillType(skill).name());
-		if (sheet.getProfession() != null) {
-			rowData[COL_COST] = sheet.getSkillcost(skill);
-		} else {
-			rowData[COL_COST] = "n/v";
+		/* add to model at the sorted position */
+		Row row = new Row(skill, columNames.length);
+		int idx = Collections.binarySearch(rows, row, ROW_COMPARATOR);
+		if (idx < 0) {
+			idx = -idx - 1;
 		}
-		Integer specialBonus = sheet.getSkillRank(skill).getSpecialBonus();
-		if (specialBonus == null) {
-			specialBonus = Integer.valueOf(0);
-		}
-		rowData[COL_SPECIAL_BONUS] = specialBonus;
-		/* talents, flaw special bonus */
-		rowData[COL_SPECIAL2_BONUS] = Integer.valueOf(sheet.getSkillSpecialBonus(skill));
-		rowData[COL_TOTAL_BONUS] = Integer.valueOf(sheet.getSkillTotalBonus(skill));
-		rowData[COL_ITEM_BONUS] = sheet.getSkillItemBonus(skill);
-		addRow(rowData);
-		sortAndUpdate(getDataVector());
+		rows.add(idx, row);
+		fireTableRowsInserted(idx, idx);
 	}
 
 	public void updateTable() {
-		/* remove all */
-		for (int row = getRowCount() - 1; row >= 0; row--) {
-			super.removeRow(row);
-		}
+		rows.clear();
 		/* add all added skills */
 		for (Rank rank : sheet.getSkillRanks()) {
 			ISkill skill = sheet.getSkill(rank.getId());
 			if (skill != null) {
-				addSkill(skill);
+				rows.add(new Row(skill, columNames.length));
 			} else {
 				if (log.isWarnEnabled()) log.warn("Could not load skill with ID "+rank.getId());
 			}
 		}
-		/* */
-		sortAndUpdate(getDataVector());
+		Collections.sort(rows, ROW_COMPARATOR);
+		fireTableDataChanged();
 	}
 	
-	/** {@inheritDoc} */
-	@Override
 	public void removeRow(int row) {
-		ISkill skill = (ISkill)super.getValueAt(row, COL_SKILL);			
+		ISkill skill = getSkillAtRow(row);
 		sheet.removeSkillRank(skill);
-		super.removeRow(row);
+		rows.remove(row);
+		fireTableRowsDeleted(row, row);
 	}
-	
-    private void sortAndUpdate(Vector<Vector> vector) {
-        Collections.sort(vector, new Comparator<Object>() {
-            @Override
-			public int compare(Object o1, Object o2) {
- 
-                Vector<Object> v1 = (Vector<Object>) o1;
-                Vector<Object> v2 = (Vector<Object>) o2;
- 
-                ISkill sk1 = (ISkill) v1.get(COL_SKILL);
-                ISkill sk2 = (ISkill) v2.get(COL_SKILL);
-                if (! sk1.isSpelllist() && sk2.isSpelllist()) {
-                	return -1;
-                }
-                if (sk1.isSpelllist() && ! sk2.isSpelllist()) {
-                	return 1;
-                }
-                return sk1.getName().compareTo(sk2.getName());
-            }
-        });
-    }
 
+	/**
+	 * Recalculates the cell values that were read before and updates the rows
+	 * with changed values.
+	 */
 	public void skillValuesChanged() {
-		for (int row=0; row < getRowCount(); row++) {
-			ISkill skill = (ISkill) super.getValueAt(row, COL_SKILL);
-			super.setValueAt(skill.getOrderGroup(), row, COL_ORDERGROUP);
-			super.setValueAt(sheet.getSkillRank(skill).getFavorite(), row, COL_FAVORITE);
-			BigDecimal rank = sheet.getSkillRank(skill).getRank();
-			if (rank == null) {
-				rank = BigDecimal.ZERO;
-			}
-			super.setValueAt(Double.valueOf(rank.doubleValue()), row, COL_RANK);
-			if (sheet.getProfession() != null) {
-				super.setValueAt(sheet.getSkillcost(skill), row, COL_COST);
-			} else {
-				super.setValueAt(RESOURCE.getString("pdf.rank.notavailable.short"), row, COL_COST);
+		int first = -1;
+		for (int row = 0; row < rows.size(); row++) {
+			boolean changed = rows.get(row).recalculate();
+			if (changed && first < 0) {
+				first = row;
+			} else if (! changed && first >= 0) {
+				fireTableRowsUpdated(first, row - 1);
+				first = -1;
 			}
-			String newRankString = RESOURCE.getString("SkillType."+sheet.getSkillType(skill).name());
-			super.setValueAt(newRankString, row, COL_RANK_TYPE);
-			super.setValueAt(Integer.valueOf(sheet.getSkillSpecialBonus(skill)), row, COL_SPECIAL2_BONUS);
-			super.setValueAt(Integer.valueOf(sheet.getSkillTotalBonus(skill)), row, COL_TOTAL_BONUS);
-			super.setValueAt(sheet.getSkillItemBonus(skill), row, COL_ITEM_BONUS);
+		}
+		if (first >= 0) {
+			fireTableRowsUpdated(first, rows.size() - 1);
 		}
 	}
 
@@ -312,4 +316,51 @@ public class SkillsTableModel extends DefaultTableModel implements IOverlaySuppo
 		}
 		return 0;
 	}
+
+	private static boolean isEqual(Object o1, Object o2) {
+		if (o1 == o2) {
+			return true;
+		} else if (o1 == null || o2 == null) {
+			return false;
+		} else if (o1 instanceof Skillcost && o2 instanceof Skillcost) {
+			/* costs have no equals */
+			return o1.toString().equals(o2.toString());
+		}
+		return o1.equals(o2);
+	}
+
+	/* -------------------------------------------------------------------------
+	 *
+	 * ------------------------------------------------------------------------- */
+	private class Row {
+		private final ISkill skill;
+		private final Object[] values;
+
+		public Row(ISkill skill, int columns) {
+			this.skill = skill;
+			this.values = new Object[columns];
+			invalidate();
+		}
+
+		void invalidate() {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = NOT_CALCULATED;
+			}
+		}
+
+		/* recalculates the values that were read before */
+		boolean recalculate() {
+			boolean changed = false;
+			for (int col = 0; col < values.length; col++) {
+				if (values[col] != NOT_CALCULATED) {
+					Object value = calculateValue(skill, col);
+					if (! isEqual(values[col], value)) {
+						values[col] = value;
+						changed = true;
+					}
+				}
+			}
+			return changed;
+		}
+	}
 }
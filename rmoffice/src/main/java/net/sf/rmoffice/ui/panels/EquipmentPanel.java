@@ -69,6 +69,7 @@ public class EquipmentPanel extends JPanel implements ActionListener {
 	private static final int COL_AT_BODY = 4;
 	
 	private SelectionInList<Equipment> listModel;
+	private final BeanAdapter<RMSheet> adapter;
 
 	/**
 	 * @param adapter the {@link RMSheet} adapter
@@ -76,6 +77,7 @@ public class EquipmentPanel extends JPanel implements ActionListener {
 	 */
 	public EquipmentPanel(BeanAdapter<RMSheet> adapter) {
 		super(new GridBagLayout());
+		this.adapter = adapter;
 		/* Buttons */
 		JButton btNew = new JButton(RESOURCE.getString("ui.equipment.newline"), UIConstants.ICON_NEWLINE);
 		btNew.setActionCommand(NEW_LINE);
@@ -207,6 +209,7 @@ public class EquipmentPanel extends JPanel implements ActionListener {
         			equip.setCarried(((Boolean)aValue).booleanValue());
         			break;
         	}
+        	adapter.getBean().fireContentChanged(RMSheet.PROPERTY_EQUIPMENTS);
         }
     }
 
@@ -60,9 +60,11 @@ public class HerbsPanel extends JPanel implements ActionListener {
 	private static final int COL_AMOUNT = 2;
 
 	private SelectionInList<Herb> listModel;
+	private final BeanAdapter<RMSheet> rmSheetAdapter;
 
 	public HerbsPanel(BeanAdapter<RMSheet> rmSheetAdapter) {
 		super(new GridBagLayout());
+		this.rmSheetAdapter = rmSheetAdapter;
 		/* Buttons */
 		JButton btNew = new JButton(RESOURCE.getString("ui.equipment.newline"), UIConstants.ICON_NEWLINE);
 		btNew.setActionCommand(NEW_LINE);
@@ -207,6 +209,7 @@ public class HerbsPanel extends JPanel implements ActionListener {
         		equip.setAmount(((Integer)aValue).intValue());
         		break;
         	}
+        	rmSheetAdapter.getBean().fireContentChanged(RMSheet.PROPERTY_HERBS);
         }
     }
 }
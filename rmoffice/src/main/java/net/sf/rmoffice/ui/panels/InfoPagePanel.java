@@ -58,7 +58,7 @@ public class InfoPagePanel extends JPanel implements ActionListener {
 	/**
 	 * @param rmSheetAdapter the adapter of the {@link RMSheet}
 	 */
-	public InfoPagePanel(BeanAdapter<RMSheet> rmSheetAdapter) {
+	public InfoPagePanel(final BeanAdapter<RMSheet> rmSheetAdapter) {
 		super(new BorderLayout());
 		/* prepare models */
 		BeanAdapter<RMSheet>.SimplePropertyAdapter infoModel = rmSheetAdapter.getValueModel(RMSheet.PROPERTY_INFO_PAGES);
@@ -85,6 +85,7 @@ public class InfoPagePanel extends JPanel implements ActionListener {
 				if (InfoPage.PROP_TITLE.equals(evt.getPropertyName()) && listModel.getSelectionIndex() > -1) {
 					listModel.fireSelectedContentsChanged();
 				}
+				rmSheetAdapter.getBean().fireContentChanged(RMSheet.PROPERTY_INFO_PAGES);
 			}
 		});
 		
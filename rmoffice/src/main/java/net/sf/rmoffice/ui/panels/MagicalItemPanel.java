@@ -272,6 +272,7 @@ public class MagicalItemPanel extends JPanel implements ActionListener {
 			featureListModel.getList().add(feat);
 			featureListModel.setSelection(feat);
 			featureListModel.fireIntervalAdded(size - 1, size - 1);
+			rmSheetAdapter.getBean().fireContentChanged(RMSheet.PROPERTY_MAGICALITEMS);
 		} else if (CMD_DEL_FEAT.equals( e.getActionCommand() )) {
 			int idx = featureListModel.getSelectionIndex();
 			if (idx > -1) {
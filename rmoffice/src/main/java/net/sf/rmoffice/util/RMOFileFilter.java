@@ -30,7 +30,8 @@ public class RMOFileFilter extends ExtensionFileFilter {
 	public RMOFileFilter() {
 		super(new String[] {
 				RMPreferences.RMO_EXTENSION,
+				RMPreferences.RMOB_EXTENSION,
 				"json"
-		}, "RoleMaster Office character (*.rmo), *.json");
+		}, "RoleMaster Office character (*.rmo, *.rmob), *.json");
 	}
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.campaign;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.MetaDataLoader;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CampaignIndexTest {
+	private static MetaData data;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void loadMetaData() throws Exception {
+		data = new MetaDataLoader().load();
+	}
+
+	@Test
+	public void test_that_unchanged_files_are_not_parsed_again() throws Exception {
+		File dir = folder.newFolder("campaign");
+		copyResource("test422.rmo", new File(dir, "test422.rmo"));
+		new File(dir, "notes.txt").createNewFile();
+
+		CampaignIndex index = new CampaignIndex(dir, data);
+		List<SheetSummary> summaries = index.scan();
+		assertEquals(1, summaries.size());
+		assertEquals(1, index.getLastParsedCount());
+		assertTrue(new File(dir, CampaignIndex.INDEX_FILE).isFile());
+		SheetSummary summary = summaries.get(0);
+		assertEquals("test422.rmo", summary.getPath());
+
+		/* a new index instance reads the index file */
+		CampaignIndex index2 = new CampaignIndex(dir, data);
+		List<SheetSummary> summaries2 = index2.scan();
+		assertEquals(0, index2.getLastParsedCount());
+		assertEquals(1, summaries2.size());
+		assertEquals(summary.getCharacterName(), summaries2.get(0).getCharacterName());
+		assertEquals(summary.getLevel(), summaries2.get(0).getLevel());
+		assertEquals(summary.getStatBonus(), summaries2.get(0).getStatBonus());
+	}
+
+	@Test
+	public void test_that_new_and_deleted_files_are_detected() throws Exception {
+		File dir = folder.newFolder("campaign");
+		File sub = new File(dir, "group");
+		sub.mkdir();
+		copyResource("test422.rmo", new File(dir, "test422.rmo"));
+		CampaignIndex index = new CampaignIndex(dir, data);
+		index.scan();
+
+		copyResource("test415.rmo", new File(sub, "test415.rmo"));
+		List<SheetSummary> summaries = index.scan();
+		assertEquals(1, index.getLastParsedCount());
+		assertEquals(2, summaries.size());
+		assertEquals("group/test415.rmo", summaries.get(0).getPath());
+
+		new File(dir, "test422.rmo").delete();
+		summaries = index.scan();
+		assertEquals(0, index.getLastParsedCount());
+		assertEquals(1, summaries.size());
+		assertEquals(1, new CampaignIndex(dir, data).scan().size());
+	}
+
+	@Test
+	public void test_that_broken_files_are_not_parsed_again() throws Exception {
+		File dir = folder.newFolder("campaign");
+		copyResource("test422.rmo", new File(dir, "test422.rmo"));
+		Files.write(new File(dir, "broken.rmo").toPath(), "no character".getBytes("UTF-8"));
+		CampaignIndex index = new CampaignIndex(dir, data);
+		assertEquals(1, index.scan().size());
+		assertEquals(2, index.getLastParsedCount());
+		assertEquals(Collections.singletonList("broken.rmo"), index.getFailedPaths());
+
+		File indexFile = new File(dir, CampaignIndex.INDEX_FILE);
+		assertTrue(indexFile.setLastModified(1000000000L));
+		CampaignIndex index2 = new CampaignIndex(dir, data);
+		assertEquals(1, index2.scan().size());
+		assertEquals(0, index2.getLastParsedCount());
+		assertEquals(Collections.singletonList("broken.rmo"), index2.getFailedPaths());
+		/* the index was not written again */
+		assertEquals(1000000000L, indexFile.lastModified());
+	}
+
+	@Test
+	public void test_that_links_to_directories_are_not_followed() throws Exception {
+		File dir = folder.newFolder("campaign");
+		File sub = new File(dir, "group");
+		sub.mkdir();
+		copyResource("test422.rmo", new File(sub, "test422.rmo"));
+		/* a cycle */
+		Files.createSymbolicLink(new File(sub, "campaign").toPath(), dir.toPath());
+		List<SheetSummary> summaries = new CampaignIndex(dir, data).scan();
+		assertEquals(1, summaries.size());
+		assertEquals("group/test422.rmo", summaries.get(0).getPath());
+	}
+
+	@Test
+	public void test_that_the_index_of_another_locale_is_rebuilt() throws Exception {
+		File dir = folder.newFolder("campaign");
+		copyResource("test422.rmo", new File(dir, "test422.rmo"));
+		Locale locale = Locale.getDefault();
+		try {
+			Locale.setDefault(Locale.ENGLISH);
+			new CampaignIndex(dir, data).scan();
+			Locale.setDefault(Locale.GERMAN);
+			CampaignIndex index = new CampaignIndex(dir, data);
+			index.scan();
+			assertEquals(1, index.getLastParsedCount());
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+
+	private void copyResource(String name, File target) throws Exception {
+		InputStream in = getClass().getResourceAsStream("/net/sf/rmoffice/core/" + name);
+		try {
+			Files.copy(in, target.toPath());
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -15,11 +15,30 @@
  */
 package net.sf.rmoffice.core;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.Reader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+import net.sf.rmoffice.meta.enums.StatEnum;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 
 /**
@@ -27,6 +46,9 @@ import org.junit.Test;
  */
 public class ExportImportTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testImportOldVersions() throws Exception {
         /* test if we can import old character files */
@@ -40,4 +62,164 @@ public class ExportImportTest {
         ExportImport.importFile(file);
     }
 
+    @Test
+    public void test_that_binary_format_keeps_the_character_and_image() throws Exception {
+        File file = new File(ExportImportTest.class.getResource("test422.rmo").toURI());
+        RMSheet sheet = ExportImport.importFile(file);
+        byte[] image = new byte[] {1, 2, 3, 4, 5};
+        sheet.getCharacteristics().setCharImage(image);
+
+        File binFile = folder.newFile("test.rmob");
+        OutputStream out = new FileOutputStream(binFile);
+        ExportImport.exportFile(binFile.getName(), sheet, out);
+        out.close();
+
+        RMSheet read = ExportImport.importFile(binFile);
+        assertEquals(sheet.getCharacterName(), read.getCharacterName());
+        assertEquals(sheet.getSkillRanks().size(), read.getSkillRanks().size());
+        assertArrayEquals(image, read.getCharacteristics().getCharImage());
+    }
+
+    @Test
+    public void test_that_binary_format_keeps_the_ranks_and_stats_in_own_blocks() throws Exception {
+        File file = new File(ExportImportTest.class.getResource("test422.rmo").toURI());
+        RMSheet sheet = ExportImport.importFile(file);
+        Rank half = sheet.getSkillRankStore().get(sheet.getSkillRanks().iterator().next().getId().intValue());
+        half.setRank(new BigDecimal("2.5"));
+        half.setSpecialBonus(Integer.valueOf(-5));
+        half.setFavorite(Boolean.TRUE);
+
+        File binFile = folder.newFile("test.rmob");
+        ExportImport.exportFile(binFile, sheet);
+        RMSheet read = ExportImport.importFile(binFile);
+
+        assertEquals(sheet.getSkillRanks().size(), read.getSkillRanks().size());
+        for (Rank rank : sheet.getSkillRanks()) {
+            Rank readRank = read.getSkillRankStore().peek(rank.getId().intValue());
+            assertEquals(0, rank.getRank().compareTo(readRank.getRank()));
+            assertEquals(rank.getSpecialBonus(), readRank.getSpecialBonus());
+            assertEquals(rank.getFavorite(), readRank.getFavorite());
+        }
+        assertEquals(sheet.getSkillcategoryRankStore().keys().length, read.getSkillcategoryRankStore().keys().length);
+        for (StatEnum stat : StatEnum.values()) {
+            assertEquals(sheet.getStatTemp(stat), read.getStatTemp(stat));
+            assertEquals(sheet.getStatPot(stat), read.getStatPot(stat));
+        }
+        /* the sheet block has no ranks */
+        String xml = new String(inflate(ExportImport.toDeflatedXml(sheet)), ExportImport.ENCODING);
+        assertFalse(xml.contains("<rank>"));
+        assertFalse(xml.contains("tempAttr"));
+    }
+
+    @Test
+    public void test_that_binary_format_skips_unknown_blocks() throws Exception {
+        File file = new File(ExportImportTest.class.getResource("test422.rmo").toURI());
+        RMSheet sheet = ExportImport.importFile(file);
+        byte[] content = ExportImport.exportBytes("test.rmob", sheet);
+        /* magic number and version, then a block of a newer version */
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(content, 0, 6);
+        out.writeByte(99);
+        out.writeInt(3);
+        out.write(new byte[] {1, 2, 3});
+        out.write(content, 6, content.length - 6);
+        out.close();
+
+        RMSheet read = ExportImport.importFile("test.rmob", new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(sheet.getCharacterName(), read.getCharacterName());
+        assertEquals(sheet.getSkillRanks().size(), read.getSkillRanks().size());
+    }
+
+    @Test
+    public void test_that_a_corrupt_block_length_fails_with_an_io_exception() throws Exception {
+        File file = new File(ExportImportTest.class.getResource("test422.rmo").toURI());
+        byte[] content = ExportImport.exportBytes("test.rmob", ExportImport.importFile(file));
+        for (int length : new int[] {Integer.MAX_VALUE, -1, content.length}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(content, 0, 7);
+            out.writeInt(length);
+            out.write(content, 11, content.length - 11);
+            out.close();
+            try {
+                ExportImport.importFile("test.rmob", new ByteArrayInputStream(bytes.toByteArray()));
+                fail("corrupt length " + length);
+            } catch (IOException e) {
+                /* expected */
+            }
+        }
+    }
+
+    private static byte[] inflate(byte[] deflated) throws IOException {
+        InputStream in = new InflaterInputStream(new ByteArrayInputStream(deflated));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void test_that_xml_and_json_keep_the_ranks() throws Exception {
+        File file = new File(ExportImportTest.class.getResource("test422.rmo").toURI());
+        RMSheet sheet = ExportImport.importFile(file);
+        Rank half = sheet.getSkillRankStore().get(sheet.getSkillRanks().iterator().next().getId().intValue());
+        half.setRank(new BigDecimal("2.5"));
+        half.setSpecialBonus(Integer.valueOf(5));
+        Map<Integer, Rank> expected = new HashMap<Integer, Rank>();
+        for (Rank rank : sheet.getSkillRanks()) {
+            expected.put(rank.getId(), rank);
+        }
+
+        for (String fileName : new String[] {"test.rmo", "test.json"}) {
+            File exportFile = folder.newFile(fileName);
+            OutputStream out = new FileOutputStream(exportFile);
+            ExportImport.exportFile(fileName, sheet, out);
+            out.close();
+
+            RMSheet read = ExportImport.importFile(exportFile);
+            assertEquals(expected.size(), read.getSkillRanks().size());
+            for (Rank rank : read.getSkillRanks()) {
+                Rank orig = expected.get(rank.getId());
+                assertEquals(0, orig.getRank().compareTo(rank.getRank()));
+                assertEquals(orig.getSpecialBonus(), rank.getSpecialBonus());
+                assertEquals(orig.getFavorite(), rank.getFavorite());
+            }
+            assertEquals(new BigDecimal("2.5"), expected.get(half.getId()).getRank());
+        }
+    }
+
+    @Test
+    public void test_that_saving_replaces_the_file_without_leftovers() throws Exception {
+        File file = new File(ExportImportTest.class.getResource("test422.rmo").toURI());
+        RMSheet sheet = ExportImport.importFile(file);
+        File saveFile = folder.newFile("test.rmo");
+        ExportImport.exportFile(saveFile, sheet);
+        sheet.setCharacterName("Saved twice");
+        ExportImport.exportFile(saveFile, sheet);
+
+        assertEquals("Saved twice", ExportImport.importFile(saveFile).getCharacterName());
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void test_that_a_failed_save_keeps_the_file() throws Exception {
+        File file = new File(ExportImportTest.class.getResource("test422.rmo").toURI());
+        RMSheet sheet = ExportImport.importFile(file);
+        File saveFile = folder.newFile("test.unknown");
+        try {
+            ExportImport.exportFile(saveFile, sheet);
+            fail("unsupported format");
+        } catch (IOException e) {
+            /* expected */
+        }
+        assertEquals(0, saveFile.length());
+        assertEquals(1, folder.getRoot().list().length);
+        assertTrue(saveFile.exists());
+    }
+
 }
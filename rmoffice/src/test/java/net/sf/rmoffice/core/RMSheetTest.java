@@ -16,21 +16,44 @@
 package net.sf.rmoffice.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.math.BigDecimal;
+import java.text.Collator;
 import java.util.ArrayList;
 import java.util.List;
 
 import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.core.items.MagicalFeature;
+import net.sf.rmoffice.core.items.MagicalItem;
+import net.sf.rmoffice.meta.Culture;
+import net.sf.rmoffice.meta.ISkill;
 import net.sf.rmoffice.meta.IProgression;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.MetaDataLoader;
 import net.sf.rmoffice.meta.Profession;
 import net.sf.rmoffice.meta.Progression;
 import net.sf.rmoffice.meta.Race;
 import net.sf.rmoffice.meta.UTProfession;
+import net.sf.rmoffice.meta.SkillCategory;
+import net.sf.rmoffice.meta.Skillcost;
 import net.sf.rmoffice.meta.UTRace;
+import net.sf.rmoffice.meta.UTSkillCategory;
+import net.sf.rmoffice.meta.enums.MagicalItemFeatureType;
+import net.sf.rmoffice.meta.enums.ResistanceEnum;
+import net.sf.rmoffice.meta.enums.SkillType;
 import net.sf.rmoffice.meta.enums.StatEnum;
 
 import org.junit.Test;
 
+import com.jgoodies.binding.beans.BeanAdapter;
+
 
 
 
@@ -154,4 +177,344 @@ public class RMSheetTest {
 		};
 		assertEquals(5, sheet.getDevPoints());
 	}
+	
+	@Test
+	public void test_that_a_batch_fires_one_event_per_property() {
+		RMSheet sheet = new RMSheet();
+		final List<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+		sheet.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				events.add(evt);
+			}
+		});
+		sheet.beginBatch();
+		sheet.setCharacterName("a");
+		sheet.beginBatch();
+		sheet.setPlayerName("p");
+		sheet.setCharacterName("b");
+		sheet.commitBatch();
+		assertEquals(0, events.size());
+		sheet.setCharacterName("c");
+		sheet.commitBatch();
+		assertEquals(2, events.size());
+		assertEquals(RMSheet.PROPERTY_PLAYERNAME, events.get(0).getPropertyName());
+		assertEquals(RMSheet.PROPERTY_CHARACTERNAME, events.get(1).getPropertyName());
+		assertNull(events.get(1).getOldValue());
+		assertEquals("c", events.get(1).getNewValue());
+		/* no batch */
+		sheet.setCharacterName("d");
+		assertEquals(3, events.size());
+	}
+	
+	@Test
+	public void test_that_the_talent_flaw_effects_are_summed_up() {
+		TalentFlaw t1 = new TalentFlaw();
+		t1.setDb(Integer.valueOf(5));
+		t1.setResistanceBonus(ResistanceEnum.ESSENCE, Integer.valueOf(10));
+		t1.setTolerance(Float.valueOf(0.5f));
+		t1.setSkillCostReplacement(Integer.valueOf(1), new Skillcost(1, 2));
+		TalentFlaw t2 = new TalentFlaw();
+		t2.setDb(Integer.valueOf(-2));
+		t2.setShieldDb(Integer.valueOf(3));
+		t2.setTolerance(Float.valueOf(3f));
+		Skillcost replacement = new Skillcost(4);
+		t2.setSkillCostReplacement(Integer.valueOf(1), replacement);
+		List<TalentFlaw> talentsFlaws = new ArrayList<TalentFlaw>();
+		talentsFlaws.add(t1);
+		talentsFlaws.add(t2);
+		TalentFlawEffects effects = new TalentFlawEffects(talentsFlaws);
+		assertEquals(3, effects.getDb());
+		assertEquals(3, effects.getShieldDb());
+		assertEquals(10, effects.getResistanceBonus(ResistanceEnum.ESSENCE));
+		assertEquals(0, effects.getResistanceBonus(ResistanceEnum.CHANNELING));
+		assertEquals(1.5f, effects.getTolerance(), 0.001f);
+		assertSame(replacement, effects.getSkillCostReplacement(Integer.valueOf(1)));
+		assertNull(effects.getSkillCostReplacement(Integer.valueOf(2)));
+		
+		RMSheet sheet = new RMSheet();
+		sheet.setTalentsFlaws(talentsFlaws);
+		assertEquals(3, sheet.getDefensiveBonusSpecial());
+		talentsFlaws.remove(t2);
+		sheet.setTalentsFlaws(talentsFlaws);
+		assertEquals(5, sheet.getDefensiveBonusSpecial());
+	}
+	
+	@Test
+	public void test_that_restricted_skill_types_of_talents_are_stronger() {
+		TalentFlaw t1 = new TalentFlaw();
+		t1.addSkillCatType(new UTSkillCategory(7), SkillType.RESTRICTED);
+		TalentFlaw t2 = new TalentFlaw();
+		t2.addSkillCatType(new UTSkillCategory(7), SkillType.EVERYMAN);
+		List<TalentFlaw> talentsFlaws = new ArrayList<TalentFlaw>();
+		talentsFlaws.add(t1);
+		talentsFlaws.add(t2);
+		assertEquals(SkillType.RESTRICTED, new TalentFlawEffects(talentsFlaws).getSkillCatType(Integer.valueOf(7)));
+		talentsFlaws.remove(t1);
+		assertEquals(SkillType.EVERYMAN, new TalentFlawEffects(talentsFlaws).getSkillCatType(Integer.valueOf(7)));
+	}
+	
+	@Test
+	public void test_that_a_fork_is_compared_with_its_sheet() throws Exception {
+		RMSheet sheet = ExportImport.importFile(new File(RMSheetTest.class.getResource("test422.rmo").toURI()));
+		RMSheet fork = sheet.fork();
+		assertTrue(sheet.diff(fork).isEmpty());
+		assertTrue(fork.getSkillRankStore().sharesWith(sheet.getSkillRankStore()));
+
+		/* the ranks are only modified through the store of the fork */
+		Rank rank = fork.getSkillRankStore().get(fork.getSkillRanks().iterator().next().getId().intValue());
+		BigDecimal oldRank = rank.getRank();
+		rank.setRank(oldRank.add(BigDecimal.ONE));
+		fork.setApprenticeShip("Other training");
+		List<Equipment> equipments = new ArrayList<Equipment>(fork.getEquipments());
+		equipments.add(new Equipment("Rope", "Backpack", 500f, false, true));
+		fork.setEquipments(equipments);
+
+		SheetDiff diff = sheet.diff(fork);
+		assertFalse(diff.isEmpty());
+		assertEquals(1, diff.getSkillRanks().size());
+		SheetDiff.Change<Integer, BigDecimal> change = diff.getSkillRanks().get(rank.getId());
+		assertEquals(oldRank, change.getOldValue());
+		assertEquals(oldRank.add(BigDecimal.ONE), change.getNewValue());
+		assertTrue(diff.getSkillcategoryRanks().isEmpty());
+		assertEquals("Other training", diff.getApprenticeShip().getNewValue());
+		assertEquals(1, diff.getAddedEquipments().size());
+		assertTrue(diff.getRemovedEquipments().isEmpty());
+		assertTrue(diff.getStatTemp().isEmpty());
+		/* the sheet is unchanged */
+		assertEquals(oldRank, sheet.getSkillRankStore().get(rank.getId().intValue()).getRank());
+		assertEquals(equipments.size() - 1, sheet.getEquipments().size());
+	}
+	
+	@Test
+	public void test_that_edited_items_of_the_sheet_do_not_change_a_fork() throws Exception {
+		RMSheet sheet = ExportImport.importFile(new File(RMSheetTest.class.getResource("test422.rmo").toURI()));
+		List<Herb> herbs = new ArrayList<Herb>();
+		herbs.add(new Herb("Arfandas", "Heals fractures", 2));
+		sheet.setHerbs(herbs);
+		InfoPage infoPage = new InfoPage();
+		infoPage.setTitle("Notes");
+		List<InfoPage> infoPages = new ArrayList<InfoPage>();
+		infoPages.add(infoPage);
+		sheet.setInfoPages(infoPages);
+		RMSheet fork = sheet.fork();
+		assertTrue(sheet.diff(fork).isEmpty());
+
+		Equipment equipment = sheet.getEquipments().get(0);
+		String description = equipment.getDescription();
+		equipment.setDescription("Changed");
+		MagicalItem item = sheet.getMagicalitems().get(0);
+		String name = item.getName();
+		item.setName("Changed");
+		MagicalFeature feature = item.getFeatures().get(0);
+		String featureDescription = feature.getDescription();
+		feature.setDescription("Changed");
+		sheet.getHerbs().get(0).setAmount(1);
+		infoPage.setTitle("Changed");
+
+		assertEquals(description, fork.getEquipments().get(0).getDescription());
+		assertEquals(name, fork.getMagicalitems().get(0).getName());
+		assertEquals(featureDescription, fork.getMagicalitems().get(0).getFeatures().get(0).getDescription());
+		assertEquals(2, fork.getHerbs().get(0).getAmount());
+		assertEquals("Notes", fork.getInfoPages().get(0).getTitle());
+		SheetDiff diff = sheet.diff(fork);
+		assertEquals(1, diff.getAddedEquipments().size());
+		assertEquals(1, diff.getRemovedEquipments().size());
+	}
+	
+	@Test
+	public void test_that_changes_of_a_fork_do_not_change_the_sheet() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = new RMSheet();
+		sheet.setMetaData(data);
+		sheet.init();
+		Race race = null;
+		for (Race r : data.getRaces()) {
+			if (data.getCultureForRace(r).size() > 1) {
+				race = r;
+				break;
+			}
+		}
+		sheet.setRace(race);
+		sheet.getCoins().setGold("5");
+		ISkill custom = sheet.registerCustomSkill(data.getSkills().get(0), "Custom", null);
+		int weight = sheet.getCharacteristics().getWeight();
+		int height = sheet.getCharacteristics().getHeight();
+
+		RMSheet fork = sheet.fork();
+		Culture culture = data.getCultureForRace(race).get(0);
+		fork.setCulture(culture);
+		fork.getCoins().setGold("7");
+		fork.modifySkill(custom, "Renamed", SkillType.RESTRICTED);
+
+		assertEquals(culture.getWeightHeight().getWeightAvg(false), fork.getCharacteristics().getWeight());
+		assertEquals(weight, sheet.getCharacteristics().getWeight());
+		assertEquals(height, sheet.getCharacteristics().getHeight());
+		assertNull(sheet.getCulture());
+		assertEquals("5", sheet.getCoins().getGold());
+		assertEquals("Renamed", fork.getSkill(custom.getId()).getName());
+		assertEquals("Custom", sheet.getSkill(custom.getId()).getName());
+		assertEquals("Custom", custom.getName());
+	}
+	
+	@Test
+	public void test_that_a_renamed_custom_skill_is_sorted_by_its_new_name() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = new RMSheet();
+		sheet.setMetaData(data);
+		sheet.init();
+		ISkill custom = sheet.registerCustomSkill(data.getSkills().get(0), "Aaaa", null);
+		int index = sheet.getSkills().indexOf(custom);
+
+		sheet.modifySkill(custom, "Zzzz", null);
+		List<ISkill> skills = sheet.getSkills();
+		assertTrue(skills.indexOf(custom) > index);
+		Collator collator = Collator.getInstance();
+		for (int i = 1; i < skills.size(); i++) {
+			assertTrue(skills.get(i).getName(), collator.compare(skills.get(i - 1).getName(), skills.get(i).getName()) <= 0);
+		}
+	}
+	
+	@Test
+	public void test_that_the_bonus_calculation_keeps_the_ranks_of_a_fork_shared() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = ExportImport.importFile(new File(RMSheetTest.class.getResource("test422.rmo").toURI()));
+		sheet.fixBackwardCompatibilities();
+		sheet.setMetaData(data);
+		RMSheet fork = sheet.fork();
+		int total = 0;
+		for (ISkill skill : fork.getSkills()) {
+			total += fork.getSkillTotalBonus(skill);
+			fork.getSkillcost(skill);
+			fork.getSkillRank(skill);
+			fork.getSkillcategoryRank(fork.getSkillcategory(skill));
+		}
+		/* like the PDF creator */
+		for (Rank rank : fork.getSkillRanks()) {
+			total += rank.getWholeRank();
+		}
+		assertTrue(total != 0);
+		assertTrue(fork.getSkillRankStore().sharesWith(sheet.getSkillRankStore()));
+		assertTrue(fork.getSkillcategoryRankStore().sharesWith(sheet.getSkillcategoryRankStore()));
+
+		ISkill skill = fork.getSkills().get(0);
+		int bonus = sheet.getSkillTotalBonus(skill);
+		fork.setSkillSpecialBonus(skill, 25);
+		assertFalse(fork.getSkillRankStore().sharesWith(sheet.getSkillRankStore()));
+		assertEquals(bonus, sheet.getSkillTotalBonus(skill));
+		assertEquals(bonus + 25 - specialBonus(sheet, skill), fork.getSkillTotalBonus(skill));
+	}
+
+	@Test
+	public void test_that_the_cached_bonus_is_updated_after_a_stat_change() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = loadSheet(data);
+		readBonuses(sheet, data);
+		StatEnum stat = StatEnum.values()[0];
+		sheet.setStatTemp(stat, sheet.getStatTemp(stat) + 20, true);
+		sheet.setStatMiscBonus(StatEnum.values()[1], 5, true);
+		assertBonusesAreFresh(sheet, data);
+	}
+
+	@Test
+	public void test_that_the_cached_bonus_is_updated_after_a_rank_change() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = loadSheet(data);
+		readBonuses(sheet, data);
+		ISkill skill = sheet.getSkills().get(0);
+		sheet.setSkillRank(skill, sheet.getSkillRank(skill).getRank().add(BigDecimal.valueOf(3)));
+		SkillCategory category = data.getSkillCategories().get(0);
+		sheet.setSkillcategoryRank(category, sheet.getSkillcategoryRank(category).getRank().add(BigDecimal.valueOf(2)));
+		assertBonusesAreFresh(sheet, data);
+	}
+
+	@Test
+	public void test_that_the_cached_bonus_is_updated_after_a_talent_change() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = loadSheet(data);
+		readBonuses(sheet, data);
+		TalentFlaw talent = new TalentFlaw();
+		talent.addSkillCatBonus(data.getSkillCategories().get(0), Integer.valueOf(10));
+		talent.addSkillBonus(sheet.getSkills().get(0), Integer.valueOf(5));
+		List<TalentFlaw> talentsFlaws = new ArrayList<TalentFlaw>(sheet.getTalentsFlaws());
+		talentsFlaws.add(talent);
+		sheet.setTalentsFlaws(talentsFlaws);
+		assertBonusesAreFresh(sheet, data);
+	}
+
+	@Test
+	public void test_that_the_cached_bonus_is_updated_after_an_item_change() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = loadSheet(data);
+		BeanAdapter<RMSheet> adapter = new BeanAdapter<RMSheet>(sheet);
+		MagicalItem item = new MagicalItem(adapter);
+		List<MagicalItem> items = new ArrayList<MagicalItem>();
+		items.add(item);
+		sheet.setMagicalitems(items);
+		readBonuses(sheet, data);
+		MagicalFeature statFeature = new MagicalFeature(adapter);
+		MagicalFeature skillFeature = new MagicalFeature(adapter);
+		item.getFeatures().add(statFeature);
+		item.getFeatures().add(skillFeature);
+		statFeature.setType(MagicalItemFeatureType.STAT);
+		statFeature.setStat(StatEnum.values()[0]);
+		statFeature.setBonus(Integer.valueOf(10));
+		skillFeature.setType(MagicalItemFeatureType.SKILL);
+		skillFeature.setId(sheet.getSkills().get(0).getId());
+		skillFeature.setBonus(Integer.valueOf(15));
+		assertBonusesAreFresh(sheet, data);
+	}
+
+	@Test
+	public void test_that_the_cached_bonus_is_updated_after_a_profession_change() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		RMSheet sheet = new RMSheet();
+		sheet.setMetaData(data);
+		sheet.init();
+		sheet.setRace(data.getRaces().get(0));
+		sheet.setProfession(data.getProfessions().get(0));
+		readBonuses(sheet, data);
+		sheet.setProfession(data.getProfessions().get(1));
+		assertBonusesAreFresh(sheet, data);
+	}
+
+	private static RMSheet loadSheet(MetaData data) throws Exception {
+		RMSheet sheet = ExportImport.importFile(new File(RMSheetTest.class.getResource("test422.rmo").toURI()));
+		sheet.fixBackwardCompatibilities();
+		sheet.setMetaData(data);
+		return sheet;
+	}
+
+	/* fills the cache of the sheet */
+	private static void readBonuses(RMSheet sheet, MetaData data) {
+		for (StatEnum stat : StatEnum.values()) {
+			sheet.getStatBonusTotal(stat);
+		}
+		for (SkillCategory category : data.getSkillCategories()) {
+			sheet.getSkillcategoryTotalBonus(category);
+		}
+		for (ISkill skill : sheet.getSkills()) {
+			sheet.getSkillTotalBonus(skill);
+		}
+	}
+
+	/* a fork has an empty cache, it calculates the bonus again */
+	private static void assertBonusesAreFresh(RMSheet sheet, MetaData data) {
+		RMSheet fresh = sheet.fork();
+		for (StatEnum stat : StatEnum.values()) {
+			assertEquals(stat.name(), fresh.getStatBonusTotal(stat), sheet.getStatBonusTotal(stat));
+		}
+		for (SkillCategory category : data.getSkillCategories()) {
+			assertEquals(category.getName(), fresh.getSkillcategoryTotalBonus(category), sheet.getSkillcategoryTotalBonus(category));
+		}
+		for (ISkill skill : sheet.getSkills()) {
+			assertEquals(skill.getName(), fresh.getSkillTotalBonus(skill), sheet.getSkillTotalBonus(skill));
+		}
+	}
+
+	private static int specialBonus(RMSheet sheet, ISkill skill) {
+		Integer special = sheet.getSkillRank(skill).getSpecialBonus();
+		return special == null ? 0 : special.intValue();
+	}
+	
 }
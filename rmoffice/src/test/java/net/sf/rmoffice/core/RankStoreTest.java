@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import net.sf.rmoffice.meta.enums.SkillType;
+
+import org.junit.Test;
+
+public class RankStoreTest {
+
+	@Test
+	public void test_that_the_store_behaves_like_a_map() {
+		RankStore store = new RankStore();
+		Map<Integer, Rank> map = new HashMap<Integer, Rank>();
+		Random random = new Random(42);
+		for (int i = 0; i < 5000; i++) {
+			int id = random.nextInt(600) - 100;
+			if (random.nextInt(3) == 0) {
+				assertSame(map.remove(Integer.valueOf(id)), store.remove(id));
+			} else {
+				Rank rank = new Rank(Integer.valueOf(id));
+				assertSame(map.put(Integer.valueOf(id), rank), store.put(id, rank));
+			}
+			assertEquals(map.size(), store.size());
+		}
+		for (int id = -100; id < 500; id++) {
+			assertEquals(map.containsKey(Integer.valueOf(id)), store.containsKey(id));
+			assertSame(map.get(Integer.valueOf(id)), store.get(id));
+		}
+		assertEquals(map.size(), store.values().size());
+		assertEquals(map.size(), store.keys().length);
+		store.clear();
+		assertEquals(0, store.size());
+		assertNull(store.get(map.keySet().iterator().next().intValue()));
+		assertFalse(store.values().iterator().hasNext());
+	}
+
+	@Test
+	public void test_that_ranks_are_fixed_point() {
+		Rank rank = new Rank(Integer.valueOf(1));
+		rank.setRank(new BigDecimal("2.5"));
+		assertEquals(2, rank.getWholeRank());
+		assertEquals(new BigDecimal("2.5"), rank.getRank());
+		rank.setScaledRank(rank.getScaledRank() + Rank.scaledStep(SkillType.RESTRICTED));
+		assertEquals(BigDecimal.valueOf(3), rank.getRank());
+		assertEquals(2 * Rank.SCALE, Rank.scaledStep(SkillType.EVERYMAN));
+		rank.setRank(null);
+		assertTrue(BigDecimal.ZERO.compareTo(rank.getRank()) == 0);
+	}
+
+	@Test
+	public void test_that_a_fork_copies_the_ranks_on_the_first_access() {
+		RankStore store = new RankStore();
+		Rank rank = new Rank(Integer.valueOf(7));
+		rank.setRank(BigDecimal.ONE);
+		store.put(7, rank);
+		RankStore fork = store.fork();
+		assertTrue(fork.sharesWith(store));
+		assertSame(rank, fork.peek(7));
+
+		assertSame(rank, fork.peekValues().iterator().next());
+		assertTrue(fork.sharesWith(store));
+
+		fork.get(7).setRank(BigDecimal.TEN);
+		assertFalse(fork.sharesWith(store));
+		assertEquals(BigDecimal.ONE, store.get(7).getRank());
+		assertEquals(BigDecimal.TEN, fork.get(7).getRank());
+		/* the last store keeps the ranks */
+		assertSame(rank, store.get(7));
+		fork.put(8, new Rank(Integer.valueOf(8)));
+		assertFalse(store.containsKey(8));
+	}
+}
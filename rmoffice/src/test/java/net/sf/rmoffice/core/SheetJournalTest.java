@@ -0,0 +1,264 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import net.sf.rmoffice.core.items.MagicalFeature;
+import net.sf.rmoffice.core.items.MagicalItem;
+import net.sf.rmoffice.meta.UTSkill;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jgoodies.binding.beans.BeanAdapter;
+
+public class SheetJournalTest {
+	/* runs the file operations in the calling thread */
+	private static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private File file;
+
+	/* the changes are recorded by flush(), not by the timer while the test runs */
+	private SheetJournal journal(RMSheet sheet) {
+		return new SheetJournal(file, sheet, DIRECT, 3600 * 1000);
+	}
+
+	@Before
+	public void setup() throws Exception {
+		file = new File(folder.getRoot(), "hero.rmo");
+		InputStream in = SheetJournalTest.class.getResourceAsStream("test422.rmo");
+		try {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			in.close();
+		}
+	}
+
+	@Test
+	public void test_that_the_replay_restores_the_recorded_changes() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		sheet.setCharacterName("Journaled");
+		sheet.getCoins().setGold("12");
+		List<Equipment> equipments = new ArrayList<Equipment>();
+		equipments.add(new Equipment("Rope", "Backpack", 500f, false, true));
+		sheet.setEquipments(equipments);
+		/* edited in place */
+		equipments.get(0).setDescription("Silk rope");
+		sheet.fireContentChanged(RMSheet.PROPERTY_EQUIPMENTS);
+		journal.flush();
+
+		File journalFile = SheetJournal.getJournalFile(file);
+		assertTrue(journalFile.exists());
+		assertTrue(journalFile.length() < file.length());
+
+		RMSheet reopened = ExportImport.importFile(file);
+		/* the equipment is recorded once */
+		assertEquals(3, SheetJournal.replay(reopened, journalFile));
+		assertEquals("Journaled", reopened.getCharacterName());
+		assertEquals("12", reopened.getCoins().getGold());
+		assertEquals(1, reopened.getEquipments().size());
+		assertEquals("Silk rope", reopened.getEquipments().get(0).getDescription());
+	}
+
+	@Test
+	public void test_that_the_edits_of_the_magical_items_are_recorded() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		BeanAdapter<RMSheet> adapter = new BeanAdapter<RMSheet>(sheet);
+		MagicalItem item = new MagicalItem(adapter);
+		MagicalFeature feature = new MagicalFeature(adapter);
+		item.getFeatures().add(feature);
+		List<MagicalItem> items = new ArrayList<MagicalItem>();
+		items.add(item);
+		sheet.setMagicalitems(items);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		item.setName("Ring of Light");
+		journal.flush();
+		feature.setDescription("Glows in the dark");
+		journal.flush();
+
+		RMSheet reopened = ExportImport.importFile(file);
+		assertEquals(2, SheetJournal.replay(reopened, SheetJournal.getJournalFile(file)));
+		MagicalItem replayed = reopened.getMagicalitems().get(0);
+		assertEquals("Ring of Light", replayed.getName());
+		assertEquals("Glows in the dark", replayed.getFeatures().get(0).getDescription());
+	}
+
+	@Test
+	public void test_that_the_favorite_skills_are_recorded() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		sheet.setSkillFavorite(new UTSkill(9999), true);
+		journal.flush();
+
+		RMSheet reopened = ExportImport.importFile(file);
+		assertTrue(SheetJournal.replay(reopened, SheetJournal.getJournalFile(file)) > 0);
+		assertEquals(Boolean.TRUE, reopened.getSkillRank(new UTSkill(9999)).getFavorite());
+	}
+
+	@Test
+	public void test_that_the_changes_are_coalesced() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		/* typed in the text field */
+		for (String name : new String[] {"B", "Bo", "Bor", "Boro", "Borom", "Boromi", "Boromir"}) {
+			sheet.setCharacterName(name);
+		}
+		journal.flush();
+		/* not changed since the last record */
+		sheet.setCharacterName("Boromir");
+		journal.flush();
+
+		RMSheet reopened = ExportImport.importFile(file);
+		assertEquals(1, SheetJournal.replay(reopened, SheetJournal.getJournalFile(file)));
+		assertEquals("Boromir", reopened.getCharacterName());
+	}
+
+	@Test
+	public void test_that_only_the_changed_ranks_are_recorded() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		UTSkill removed = new UTSkill(9998);
+		UTSkill favorite = new UTSkill(9999);
+		sheet.setSkillFavorite(removed, true);
+		sheet.setSkillFavorite(favorite, true);
+		journal.flush();
+		File journalFile = SheetJournal.getJournalFile(file);
+
+		RMSheet reopened = ExportImport.importFile(file);
+		/* the two ranks and the level up */
+		assertEquals(3, SheetJournal.replay(reopened, journalFile));
+		assertEquals(Boolean.TRUE, reopened.getSkillRank(removed).getFavorite());
+		assertEquals(sheet.getSkillRanks().size(), reopened.getSkillRanks().size());
+
+		sheet.removeSkillRank(removed);
+		sheet.setSkillFavorite(favorite, false);
+		journal.flush();
+		reopened = ExportImport.importFile(file);
+		assertEquals(5, SheetJournal.replay(reopened, journalFile));
+		assertFalse(reopened.hasSkillRank(removed));
+		assertEquals(Boolean.FALSE, reopened.getSkillRank(favorite).getFavorite());
+		assertTrue(reopened.hasSkillRank(favorite));
+	}
+
+	@Test
+	public void test_that_the_ranks_are_written_in_binary_form() throws Exception {
+		Rank rank = new Rank(Integer.valueOf(7));
+		rank.setScaledRank(13);
+		rank.setSpecialBonus(Integer.valueOf(-5));
+		Rank copy = SheetJournal.fromBytes(7, SheetJournal.toBytes(rank));
+		assertEquals(Integer.valueOf(7), copy.getId());
+		assertEquals(13, copy.getScaledRank());
+		assertEquals(Integer.valueOf(-5), copy.getSpecialBonus());
+		assertEquals(Boolean.FALSE, copy.getFavorite());
+	}
+
+	@Test
+	public void test_that_a_torn_record_ends_the_replay() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		sheet.setCharacterName("First");
+		sheet.setPlayerName("Second");
+		journal.flush();
+		File journalFile = SheetJournal.getJournalFile(file);
+		/* the crash while writing the next record */
+		OutputStream out = new FileOutputStream(journalFile, true);
+		out.write(new byte[] {0, 12, 'c', 'h', 'a', 'r'});
+		out.close();
+
+		RMSheet reopened = ExportImport.importFile(file);
+		assertEquals(2, SheetJournal.replay(reopened, journalFile));
+		assertEquals("First", reopened.getCharacterName());
+		assertEquals("Second", reopened.getPlayerName());
+	}
+
+	@Test
+	public void test_that_a_corrupt_length_ends_the_replay() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		sheet.setCharacterName("First");
+		journal.flush();
+		File journalFile = SheetJournal.getJournalFile(file);
+		/* a length beyond the end of the file and a negative length */
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(journalFile, true));
+		out.writeUTF("characterName");
+		out.writeInt(Integer.MAX_VALUE);
+		out.close();
+
+		RMSheet reopened = ExportImport.importFile(file);
+		assertEquals(1, SheetJournal.replay(reopened, journalFile));
+		assertEquals("First", reopened.getCharacterName());
+
+		out = new DataOutputStream(new FileOutputStream(journalFile));
+		out.writeInt(SheetJournal.MAGIC);
+		out.writeShort(SheetJournal.FORMAT_VERSION);
+		out.writeUTF("characterName");
+		out.writeInt(-1);
+		out.close();
+		assertEquals(0, SheetJournal.replay(ExportImport.importFile(file), journalFile));
+	}
+
+	@Test
+	public void test_that_closing_compacts_the_journal_into_the_file() throws Exception {
+		RMSheet sheet = ExportImport.importFile(file);
+		SheetJournal journal = journal(sheet);
+		journal.start();
+		sheet.setCharacterName("Compacted");
+		journal.close();
+
+		assertFalse(SheetJournal.getJournalFile(file).exists());
+		assertEquals("Compacted", ExportImport.importFile(file).getCharacterName());
+		assertEquals(1, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void test_that_derived_properties_are_not_recorded() {
+		assertEquals(0, SheetJournal.getMembers(RMSheet.PROPERTY_DEVPPOINTS).length);
+		assertEquals(0, SheetJournal.getMembers(RMSheet.PROPERTY_SHEET_ENABLE_ALL).length);
+		assertEquals("magicalitems", SheetJournal.getMembers(RMSheet.PROPERTY_STAT_MISC2BONUS_PREFIX + "AGILITY")[2]);
+		assertEquals("tempAttr", SheetJournal.getMembers(RMSheet.PROPERTY_STAT_TEMP_PREFIX + "AGILITY")[0]);
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.MetaDataLoader;
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchCharacterGeneratorTest {
+	private static MetaData data;
+
+	@BeforeClass
+	public static void setupClass() throws Exception {
+		data = new MetaDataLoader().load();
+	}
+
+	@Test
+	public void test_that_all_characters_are_generated_with_level() {
+		GeneratorSpec spec = new GeneratorSpec(data.getRaces().get(0), null, data.getProfessions().get(0), 5, 4, 42L);
+		List<RMSheet> sheets = new BatchCharacterGenerator(data).generate(spec);
+		assertEquals(4, sheets.size());
+		for (RMSheet sheet : sheets) {
+			assertEquals(RMSheet.State.NORMAL, sheet.getState());
+			assertEquals(5, sheet.getLevel());
+			assertEquals(spec.getRace(), sheet.getRace());
+		}
+	}
+
+	@Test
+	public void test_that_same_seed_generates_same_characters() {
+		GeneratorSpec spec = new GeneratorSpec(data.getRaces().get(1), null, data.getProfessions().get(1), 3, 3, 4711L);
+		List<RMSheet> first = new BatchCharacterGenerator(data).generate(spec);
+		List<RMSheet> second = new BatchCharacterGenerator(data).generate(spec);
+		for (int i = 0; i < first.size(); i++) {
+			assertEquals(first.get(i).getCharacterName(), second.get(i).getCharacterName());
+			assertEquals(first.get(i).getCulture(), second.get(i).getCulture());
+			for (StatEnum stat : StatEnum.values()) {
+				assertEquals(first.get(i).getStatTemp(stat), second.get(i).getStatTemp(stat));
+			}
+			assertEquals(first.get(i).getHitPoints(), second.get(i).getHitPoints());
+		}
+	}
+}
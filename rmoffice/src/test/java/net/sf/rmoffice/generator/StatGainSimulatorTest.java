@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.MetaDataLoader;
+import net.sf.rmoffice.meta.enums.StatEnum;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StatGainSimulatorTest {
+	private static MetaData data;
+
+	@BeforeClass
+	public static void setupClass() throws Exception {
+		data = new MetaDataLoader().load();
+	}
+
+	@Test
+	public void test_that_all_trials_and_levels_are_counted() {
+		GeneratorSpec spec = new GeneratorSpec(data.getRaces().get(0), null, data.getProfessions().get(0), 5, 3000, 42L);
+		SimulationResult result = new StatGainSimulator(data).simulate(spec, 2, 1);
+		assertEquals(5, result.getMaxLevel());
+		assertEquals(3000, result.getTrials());
+		for (int level = 0; level <= 5; level++) {
+			assertEquals(3000, result.getHits(level).getCount());
+			assertEquals(3000, result.getPowerPoints(level).getCount());
+			for (StatEnum stat : StatEnum.values()) {
+				Distribution dist = result.getStat(level, stat);
+				assertEquals(3000, dist.getCount());
+				assertTrue(dist.getMax() <= 101);
+			}
+		}
+		/* two body development ranks per level */
+		assertTrue(result.getHits(5).getMean() > result.getHits(0).getMean());
+	}
+
+	@Test
+	public void test_that_the_result_does_not_depend_on_the_pool() {
+		GeneratorSpec spec = new GeneratorSpec(data.getRaces().get(1), null, data.getProfessions().get(1), 10, 5000, 4711L);
+		SimulationResult first = new StatGainSimulator(data, new ForkJoinPool(1)).simulate(spec, 2, 2);
+		SimulationResult second = new StatGainSimulator(data, new ForkJoinPool(4)).simulate(spec, 2, 2);
+		for (int level = 0; level <= 10; level++) {
+			for (StatEnum stat : StatEnum.values()) {
+				assertEquals(first.getStat(level, stat).getMean(), second.getStat(level, stat).getMean(), 0);
+			}
+			assertEquals(first.getHits(level).getMean(), second.getHits(level).getMean(), 0);
+			assertEquals(first.getPowerPoints(level).getPercentile(90), second.getPowerPoints(level).getPercentile(90));
+		}
+	}
+
+	@Test
+	public void test_that_stats_are_distributed_up_to_the_points() {
+		int[] temp = new int[] {90, 90, 25, 25, 25, 25, 25, 25, 25, 25};
+		int[] pot = new int[temp.length];
+		pot[0] = 92;
+		StatGainGenerator.distributeStats(temp, pot, 650, new SplittableRandom(1L));
+		int sum = 0;
+		for (int value : temp) {
+			sum += value;
+			assertTrue(value <= 100);
+		}
+		assertTrue(sum >= 650);
+		assertTrue(temp[0] <= 92);
+	}
+
+	@Test
+	public void test_the_percentiles_of_a_distribution() {
+		Distribution dist = new Distribution();
+		for (int i = 1; i <= 100; i++) {
+			dist.add(i);
+		}
+		Distribution other = new Distribution();
+		other.add(-5);
+		dist.add(other);
+		assertEquals(101, dist.getCount());
+		assertEquals(-5, dist.getMin());
+		assertEquals(100, dist.getMax());
+		assertEquals(50, dist.getPercentile(50));
+		assertEquals(1, dist.getCount(-5));
+		assertEquals(0, dist.getCount(0));
+	}
+}
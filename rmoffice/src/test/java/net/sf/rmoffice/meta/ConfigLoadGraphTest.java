@@ -0,0 +1,174 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ConfigLoadGraphTest {
+	private final List<String> loaded = Collections.synchronizedList(new ArrayList<String>());
+	private ExecutorService pool;
+
+	@After
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	/* records the step, after waiting for the latch if there is one */
+	private ConfigLoadGraph.LoadStep step(final String name, final CountDownLatch latch) {
+		return new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				if (latch != null) {
+					try {
+						if (!latch.await(10, TimeUnit.SECONDS)) {
+							throw new IOException("timeout in "+name);
+						}
+					} catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+				}
+				loaded.add(name);
+			}
+		};
+	}
+
+	private ConfigLoadGraph.LoadStep failingStep(final Exception e) {
+		return new ConfigLoadGraph.LoadStep() {
+			@Override
+			public void load() throws IOException {
+				if (e instanceof IOException) {
+					throw (IOException) e;
+				}
+				throw (RuntimeException) e;
+			}
+		};
+	}
+
+	@Test
+	public void test_that_the_steps_run_after_their_dependencies() throws Exception {
+		/* the dependencies are slow, the independent step is not */
+		final CountDownLatch slow = new CountDownLatch(1);
+		ConfigLoadGraph graph = new ConfigLoadGraph();
+		graph.add("categories", step("categories", slow));
+		graph.add("races", step("races", slow));
+		graph.add("shields", step("shields", null));
+		graph.add("skills", step("skills", null), "categories");
+		graph.add("cultures", step("cultures", null), "races", "skills");
+		pool = Executors.newFixedThreadPool(4);
+		Thread release = new Thread() {
+			@Override
+			public void run() {
+				try {
+					/* the independent step finishes while the others wait */
+					while (!loaded.contains("shields")) {
+						Thread.sleep(1);
+					}
+				} catch (InterruptedException e) {
+					/* release anyway */
+				}
+				slow.countDown();
+			}
+		};
+		release.start();
+		graph.run(pool);
+
+		assertEquals(5, loaded.size());
+		assertEquals("shields", loaded.get(0));
+		assertTrue(loaded.indexOf("skills") > loaded.indexOf("categories"));
+		assertTrue(loaded.indexOf("cultures") > loaded.indexOf("skills"));
+		assertTrue(loaded.indexOf("cultures") > loaded.indexOf("races"));
+		assertEquals(Arrays.asList("categories", "races", "shields", "skills", "cultures"),
+				new ArrayList<String>(graph.getLoadTimes().keySet()));
+	}
+
+	@Test
+	public void test_that_a_single_thread_runs_the_steps_in_the_order_they_were_added() throws Exception {
+		ConfigLoadGraph graph = new ConfigLoadGraph();
+		graph.add("categories", step("categories", null));
+		graph.add("skills", step("skills", null), "categories");
+		graph.add("races", step("races", null));
+		graph.add("cultures", step("cultures", null), "races", "skills");
+		pool = Executors.newSingleThreadExecutor();
+		graph.run(pool);
+
+		assertEquals(Arrays.asList("categories", "skills", "races", "cultures"), loaded);
+	}
+
+	@Test
+	public void test_that_a_failed_step_fails_the_run_and_its_dependent_steps() throws Exception {
+		IOException failure = new IOException("broken file");
+		ConfigLoadGraph graph = new ConfigLoadGraph();
+		graph.add("categories", failingStep(failure));
+		graph.add("skills", step("skills", null), "categories");
+		graph.add("races", step("races", null));
+		pool = Executors.newFixedThreadPool(2);
+		try {
+			graph.run(pool);
+			fail("the step failed");
+		} catch (IOException e) {
+			assertSame(failure, e);
+		}
+		assertFalse(loaded.contains("skills"));
+		assertFalse(graph.getLoadTimes().containsKey("categories"));
+		assertFalse(graph.getLoadTimes().containsKey("skills"));
+	}
+
+	@Test
+	public void test_that_a_runtime_exception_of_a_step_is_thrown_unchanged() throws Exception {
+		IllegalStateException failure = new IllegalStateException("invalid line");
+		ConfigLoadGraph graph = new ConfigLoadGraph();
+		graph.add("categories", failingStep(failure));
+		pool = Executors.newSingleThreadExecutor();
+		try {
+			graph.run(pool);
+			fail("the step failed");
+		} catch (IllegalStateException e) {
+			assertSame(failure, e);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_that_a_dependency_must_be_added_before() {
+		ConfigLoadGraph graph = new ConfigLoadGraph();
+		graph.add("skills", step("skills", null), "categories");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_that_a_step_is_added_once() {
+		ConfigLoadGraph graph = new ConfigLoadGraph();
+		graph.add("skills", step("skills", null));
+		graph.add("skills", step("skills", null));
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.rmoffice.meta.enums.RankType;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetaDataSnapshotTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void test_that_the_snapshot_contains_the_loaded_meta_data() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		MetaDataSnapshot snapshot = new MetaDataSnapshot(new File(folder.getRoot(), "metadata.bin"));
+		assertFalse(snapshot.isUpToDate());
+		snapshot.write(data);
+		MetaData read = snapshot.read();
+		assertEquals(data.getSkills().size(), read.getSkills().size());
+		assertEquals(data.getSkillCategories().size(), read.getSkillCategories().size());
+		assertEquals(data.getRaces().size(), read.getRaces().size());
+		assertEquals(data.getProfessions().size(), read.getProfessions().size());
+		assertEquals(data.getTalentFlaws().size(), read.getTalentFlaws().size());
+		assertEquals(data.getTrainPacks().size(), read.getTrainPacks().size());
+		assertEquals(data.getSkills(RankType.K).get(0).getId(), read.getSkills(RankType.K).get(0).getId());
+		Profession prof = read.getProfessions().get(0);
+		assertEquals(data.getSkillcost(data.getProfession(prof.getId()), data.getSkillCategories().get(0)).toString(),
+				read.getSkillcost(prof, read.getSkillCategories().get(0)).toString());
+	}
+
+	@Test
+	public void test_that_a_new_snapshot_is_up_to_date() throws Exception {
+		MetaDataSnapshot snapshot = new MetaDataSnapshot(new File(folder.getRoot(), "cache/metadata.bin"));
+		snapshot.write(new MetaDataLoader().load());
+		assertTrue(snapshot.isUpToDate());
+	}
+
+	@Test
+	public void test_that_added_and_removed_user_files_outdate_the_snapshot() throws Exception {
+		File userDir = folder.newFolder("rmoffice");
+		MetaDataSnapshot snapshot = new MetaDataSnapshot(new File(folder.getRoot(), "metadata.bin"), userDir.getPath());
+		MetaData data = new MetaDataLoader().load();
+		snapshot.write(data);
+		assertTrue(snapshot.isUpToDate());
+
+		/* an old file copied into the directory */
+		File userFile = new File(userDir.getPath() + MetaDataLoader.CONF_FILES[0]);
+		assertTrue(userFile.getParentFile().mkdirs());
+		assertTrue(userFile.createNewFile());
+		assertTrue(userFile.setLastModified(1000000000L));
+		assertFalse(snapshot.isUpToDate());
+		snapshot.write(data);
+		assertTrue(snapshot.isUpToDate());
+
+		/* the removed override, the snapshot is still newer than all files */
+		assertTrue(userFile.delete());
+		assertFalse(snapshot.isUpToDate());
+	}
+
+	@Test
+	public void test_that_the_indices_are_created_for_the_read_meta_data() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		MetaDataSnapshot snapshot = new MetaDataSnapshot(new File(folder.getRoot(), "metadata.bin"));
+		snapshot.write(data);
+		MetaData read = snapshot.read();
+		for (Race race : read.getRaces()) {
+			List<Culture> cultures = read.getCultureForRace(race);
+			assertEquals(data.getCultureForRace(data.getRace(race.getId())), cultures);
+			for (Culture culture : cultures) {
+				assertTrue(culture.getValidRaces().contains(race));
+				assertEquals(cultures.indexOf(culture), cultures.lastIndexOf(culture));
+			}
+		}
+		for (Culture culture : cultures(read)) {
+			for (Race race : culture.getValidRaces()) {
+				assertTrue(read.getCultureForRace(race).contains(culture));
+			}
+		}
+		int costs = 0;
+		for (Profession prof : read.getProfessions()) {
+			for (TrainPack trainPack : read.getTrainPacks()) {
+				int cost = read.getTrainPackCosts(trainPack, prof);
+				assertEquals(data.getTrainPackCosts(data.getDevPack(trainPack.getId()), data.getProfession(prof.getId())), cost);
+				costs += cost;
+			}
+		}
+		assertTrue(costs > 0);
+	}
+
+	private static List<Culture> cultures(MetaData data) {
+		List<Culture> cultures = new ArrayList<Culture>();
+		for (Race race : data.getRaces()) {
+			for (Culture culture : data.getCultureForRace(race)) {
+				if (! cultures.contains(culture)) {
+					cultures.add(culture);
+				}
+			}
+		}
+		return cultures;
+	}
+}
@@ -16,6 +16,7 @@
 package net.sf.rmoffice.meta;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import net.sf.rmoffice.meta.Progression;
@@ -83,4 +84,37 @@ public class ProgressionTest {
 		assertEquals(3f, pRes.getDigit(3), 0.001f);
 		assertEquals(0f, pRes.getDigit(4), 0.001f);
 	}
+	
+	@Test
+	public void test_that_the_table_progression_has_the_same_bonus() {
+		Progression[] progs = new Progression[] {
+				new Progression(-5, 5, 4, 3, 2),
+				new Progression(-15, 3, 2, 1, 0.5f),
+				new Progression(-30, 5, 3, 1.5f, 0.5f),
+				new Progression(0, 6, 5, 2.5f, 0.3f)};
+		for (Progression p : progs) {
+			TableProgression table = TableProgression.valueOf(p);
+			for (int rank = 0; rank <= TableProgression.MAX_TABLE_SIZE + 10; rank++) {
+				assertEquals(p.getBonus(rank), table.getBonus(rank));
+			}
+			/* read the table again */
+			assertEquals(p.getBonus(42), table.getBonus(42));
+			assertEquals(p.getBonus(-1), table.getBonus(-1));
+			IProgression modified = table.modify(new Progression(1, 1, 0, 0, 0));
+			assertTrue(modified instanceof TableProgression);
+			assertEquals(p.modify(new Progression(1, 1, 0, 0, 0)).getBonus(25), modified.getBonus(25));
+		}
+	}
+	
+	@Test
+	public void test_that_identical_progressions_are_shared() {
+		MetaData data = new MetaData();
+		TableProgression p1 = data.internProgression(new Progression(0, 6, 5, 2.5f, 0.3f));
+		TableProgression p2 = data.internProgression(new TableProgression(0, 6, 5, 2.5f, 0.3f));
+		TableProgression p3 = data.internProgression(new Progression(0, 6, 5, 2.5f, 0.5f));
+		assertSame(p1, p2);
+		assertEquals(p1, p2);
+		assertTrue(p1 != p3);
+		assertTrue(! p1.equals(p3));
+	}
 }
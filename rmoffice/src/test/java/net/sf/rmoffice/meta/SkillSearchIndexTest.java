@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.meta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import net.sf.rmoffice.meta.enums.LengthUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SkillSearchIndexTest {
+	private SkillSearchIndex index;
+
+	@Before
+	public void setup() {
+		List<ISkill> skills = new ArrayList<ISkill>();
+		skills.add(skill(1, "Fire Law", "Spells of fire and heat"));
+		skills.add(skill(2, "Éclair Ways", "Lightning"));
+		skills.add(skill(3, "Straße", "Roads and paths"));
+		skills.add(skill(4, "Climbing", "Scaling walls"));
+		index = new SkillSearchIndex(skills, Locale.ENGLISH);
+	}
+
+	private static ISkill skill(int id, String name, String description) {
+		UTSkill skill = new UTSkill(id);
+		skill.setName(name);
+		skill.setDescription(LengthUnit.CM, description);
+		return skill;
+	}
+
+	@Test
+	public void test_that_the_words_are_found_as_prefix_and_substring() {
+		assertEquals(bits(0), index.search("fi"));
+		assertEquals(bits(3), index.search("imb"));
+		/* all words must match */
+		assertEquals(bits(0), index.search("law heat"));
+		assertEquals(bits(), index.search("law roads"));
+		/* a short word is a prefix only */
+		assertEquals(bits(), index.search("aw"));
+		assertEquals(bits(0, 1, 2, 3), index.search("  "));
+	}
+
+	@Test
+	public void test_that_accents_and_case_are_folded() {
+		assertEquals(bits(1), index.search("ECLAIR"));
+		assertEquals(bits(2), index.search("strasse"));
+		assertEquals(bits(2), index.search("Straße"));
+	}
+
+	@Test
+	public void test_that_the_incremental_search_equals_the_full_search() {
+		SkillSearchIndex.Incremental incremental = new SkillSearchIndex.Incremental(index);
+		String query = "wa lls";
+		for (int i = 1; i <= query.length(); i++) {
+			String typed = query.substring(0, i);
+			BitSet result = incremental.update(typed);
+			if (typed.trim().length() == 0) {
+				assertNull(result);
+			} else {
+				assertEquals(typed, index.search(typed), result);
+			}
+		}
+		/* "wa" is a prefix, "wal" a substring */
+		assertEquals(bits(3), incremental.update("wal"));
+		assertTrue(incremental.update("wa").get(1));
+		assertNull(incremental.update(""));
+	}
+
+	private static BitSet bits(int... positions) {
+		BitSet set = new BitSet();
+		for (int position : positions) {
+			set.set(position);
+		}
+		return set;
+	}
+}
@@ -17,6 +17,11 @@ package net.sf.rmoffice.meta;
 
 import static org.junit.Assert.*;
 
+import java.math.BigDecimal;
+
+import net.sf.rmoffice.meta.enums.SpellUserType;
+import net.sf.rmoffice.meta.enums.SpelllistPart;
+
 import org.junit.Test;
 
 
@@ -56,4 +61,40 @@ public class SkillcostTest {
 		assertEquals(1, new Skillcost(3,5,6).compareTo(new Skillcost(3,5)));
 	}
 
+	@Test
+	public void test_that_the_spelllist_costs_of_non_spell_users_are_multiplied() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		ISkill spelllist = null;
+		for (ISkill skill : data.getSkills()) {
+			if (skill.isSpelllist()) {
+				spelllist = skill;
+				break;
+			}
+		}
+		assertNotNull(spelllist);
+		for (Profession prof : data.getProfessions()) {
+			for (SkillCategory cat : data.getSkillCategories()) {
+				Skillcost base = data.getSkillcost(prof, cat);
+				assertSame(base, data.getSkillcost(prof, cat));
+				if (! SpellUserType.NONE.equals(prof.getSpellUserType()) || cat.getRankSubType() == null || cat.getRankSubType().isTraining()) {
+					continue;
+				}
+				for (int rank : new int[] {0, 5, 10, 15, 20, 30}) {
+					SpelllistPart part = SpelllistPart.getPartForRank(rank + 1);
+					Skillcost cost = data.getSkillcost(prof, cat, spelllist, BigDecimal.valueOf(rank));
+					assertEquals(base.size(), cost.size());
+					for (int i = 0; i < base.size(); i++) {
+						assertEquals(base.getCost(i) * part.getNoneSpelluserFactor(), cost.getCost(i));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_that_missing_costs_are_empty() throws Exception {
+		MetaData data = new MetaDataLoader().load();
+		assertSame(Skillcost.EMPTY, data.getSkillcost(new UTProfession(), data.getSkillCategories().get(0)));
+		assertSame(Skillcost.EMPTY, data.getSkillcost(data.getProfessions().get(0), new UTSkillCategory(-42)));
+	}
 }
@@ -75,6 +75,33 @@ public class TalentFlawFactoryTest {
 		assertNotNull(talFlawVal.getDescription());
 	}
 
+	@Test
+	public void test_that_the_key_is_the_leading_letters() {
+		assertEquals("CHOOSE", TalentFlawFactory.getKey("CHOOSE2=S1;S2=5"));
+		assertEquals("CHOOSESKILL", TalentFlawFactory.getKey("CHOOSESKILL1=S1=5"));
+		assertEquals("S", TalentFlawFactory.getKey("S12=OCCUPATIONAL"));
+		assertEquals("SELFDISCIPLINE", TalentFlawFactory.getKey("SELFDISCIPLINE=2"));
+		assertEquals("DESCR", TalentFlawFactory.getKey("DESCR"));
+		assertEquals("", TalentFlawFactory.getKey("12=3"));
+	}
+
+	@Test
+	public void test_that_parts_are_parsed_by_key() {
+		TalentFlawFactory factory = new TalentFlawFactory(new MetaData());
+		assertTrue(factory.parseTalentFlawPart(" INI=3 ") instanceof InitiativePart);
+		assertTrue(factory.parseTalentFlawPart("SHIELDDB=5") instanceof ShieldDBPart);
+		assertTrue(factory.parseTalentFlawPart("DB=5") instanceof DBPart);
+		assertTrue(factory.parseTalentFlawPart("EXHAUSTIONMULTIPLIER=1.5") instanceof ExhaustionMultiplierPart);
+		assertTrue(factory.parseTalentFlawPart("EXHAUSTION=5") instanceof ExhaustionPart);
+		assertTrue(factory.parseTalentFlawPart("STRENGTH=2") instanceof StatBonusPart);
+		assertTrue(factory.parseTalentFlawPart("DESCR") instanceof DescriptionPart);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void test_that_unknown_parts_are_rejected() {
+		new TalentFlawFactory(new MetaData()).parseTalentFlawPart("UNKNOWN=5");
+	}
+
 	private TalentFlaw callFactory(TalentFlawFactory factory, String partAsString) {
 		TalentFlaw talFlawVal = new TalentFlaw();
 		ITalentFlawPart part = factory.parseTalentFlawPart(partAsString);
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Daniel Nettesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.rmoffice.pdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.rmoffice.core.RMSheet;
+import net.sf.rmoffice.generator.BatchCharacterGenerator;
+import net.sf.rmoffice.generator.GeneratorSpec;
+import net.sf.rmoffice.meta.MetaData;
+import net.sf.rmoffice.meta.MetaDataLoader;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.itextpdf.text.pdf.PdfReader;
+
+public class BatchPDFExporterTest {
+	private static MetaData data;
+	private static List<RMSheet> sheets;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setupClass() throws Exception {
+		data = new MetaDataLoader().load();
+		GeneratorSpec spec = new GeneratorSpec(data.getRaces().get(0), null, data.getProfessions().get(0), 3, 3, 42L);
+		sheets = new BatchCharacterGenerator(data).generate(spec);
+	}
+
+	@Test
+	public void test_that_one_pdf_per_sheet_is_created() throws Exception {
+		List<File> files = new ArrayList<File>();
+		for (int i = 0; i < sheets.size(); i++) {
+			files.add(new File(folder.getRoot(), "sheet" + i + ".pdf"));
+		}
+		new BatchPDFExporter(data, PDFVersion.PDF_MINIMAL_V1, 2).export(sheets, files, null);
+		for (File file : files) {
+			PdfReader reader = new PdfReader(file.getAbsolutePath());
+			assertEquals(1, reader.getNumberOfPages());
+			reader.close();
+		}
+	}
+
+	@Test
+	public void test_that_the_combined_pdf_contains_all_sheets() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BatchPDFExporter(data, PDFVersion.PDF_FULL_V1, 3).exportCombined(sheets, out, null);
+		PdfReader reader = new PdfReader(out.toByteArray());
+		assertTrue(reader.getNumberOfPages() >= 3 * 6);
+		reader.close();
+	}
+
+	@Test
+	public void test_that_the_combined_pdf_shares_the_static_resources() throws Exception {
+		List<File> files = new ArrayList<File>();
+		long separateSize = 0;
+		for (int i = 0; i < sheets.size(); i++) {
+			files.add(new File(folder.getRoot(), "single" + i + ".pdf"));
+		}
+		new BatchPDFExporter(data, PDFVersion.PDF_MINIMAL_V1, 1).export(sheets, files, null);
+		for (File file : files) {
+			separateSize += file.length();
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BatchPDFExporter(data, PDFVersion.PDF_MINIMAL_V1, 1).exportCombined(sheets, out, null);
+		assertTrue(out.size() < separateSize / 2);
+	}
+}